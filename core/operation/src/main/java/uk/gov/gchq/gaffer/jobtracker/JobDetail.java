@@ -28,6 +28,8 @@ public class JobDetail implements Serializable {
     private JobStatus status;
     private Long startTime;
     private Long endTime;
+    private Long queueTime;
+    private Long runTime;
     private String opChain;
     private String description;
 
@@ -40,6 +42,8 @@ public class JobDetail implements Serializable {
         this.opChain = getNewOrOld(oldJobDetail.opChain, newJobDetail.opChain);
         this.description = getNewOrOld(oldJobDetail.description, newJobDetail.description);
         this.status = getNewOrOld(oldJobDetail.status, newJobDetail.status);
+        this.queueTime = getNewOrOld(oldJobDetail.queueTime, newJobDetail.queueTime);
+        this.runTime = getNewOrOld(oldJobDetail.runTime, newJobDetail.runTime);
 
         if (null == oldJobDetail.startTime) {
             this.startTime = System.currentTimeMillis();
@@ -99,6 +103,28 @@ public class JobDetail implements Serializable {
         this.endTime = endTime;
     }
 
+    /**
+     * @return the time in milliseconds the job waited in the queue before it started running
+     */
+    public Long getQueueTime() {
+        return queueTime;
+    }
+
+    public void setQueueTime(final Long queueTime) {
+        this.queueTime = queueTime;
+    }
+
+    /**
+     * @return the time in milliseconds the job took to run, once it had left the queue
+     */
+    public Long getRunTime() {
+        return runTime;
+    }
+
+    public void setRunTime(final Long runTime) {
+        this.runTime = runTime;
+    }
+
     public String getOpChain() {
         return opChain;
     }
@@ -130,6 +156,8 @@ public class JobDetail implements Serializable {
                 .append(opChain, jobDetail.opChain)
                 .append(startTime, jobDetail.startTime)
                 .append(endTime, jobDetail.endTime)
+                .append(queueTime, jobDetail.queueTime)
+                .append(runTime, jobDetail.runTime)
                 .append(status, jobDetail.status)
                 .append(description, jobDetail.description)
                 .isEquals();
@@ -142,6 +170,8 @@ public class JobDetail implements Serializable {
                 .append(opChain)
                 .append(startTime)
                 .append(endTime)
+                .append(queueTime)
+                .append(runTime)
                 .append(status)
                 .append(description)
                 .toHashCode();
@@ -154,6 +184,8 @@ public class JobDetail implements Serializable {
                 .append("status", status)
                 .append("startTime", startTime)
                 .append("endTime", endTime)
+                .append("queueTime", queueTime)
+                .append("runTime", runTime)
                 .append("opChain", opChain)
                 .append("description", description)
                 .toString();
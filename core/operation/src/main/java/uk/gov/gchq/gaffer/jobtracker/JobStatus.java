@@ -16,6 +16,7 @@
 package uk.gov.gchq.gaffer.jobtracker;
 
 public enum JobStatus {
+    QUEUED,
     RUNNING,
     FINISHED,
     FAILED
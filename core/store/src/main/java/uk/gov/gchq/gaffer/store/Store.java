@@ -65,6 +65,7 @@ import uk.gov.gchq.gaffer.operation.io.Input;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.serialisation.Serialiser;
 import uk.gov.gchq.gaffer.store.library.GraphLibrary;
+import uk.gov.gchq.gaffer.store.operation.OperationChainResultCache;
 import uk.gov.gchq.gaffer.store.operation.OperationChainValidator;
 import uk.gov.gchq.gaffer.store.operation.OperationUtil;
 import uk.gov.gchq.gaffer.store.operation.handler.CountGroupsHandler;
@@ -100,6 +101,7 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.schema.SchemaOptimiser;
 import uk.gov.gchq.gaffer.store.schema.ViewValidator;
+import uk.gov.gchq.gaffer.store.util.JobExecutor;
 import uk.gov.gchq.gaffer.user.User;
 import uk.gov.gchq.koryphe.ValidationResult;
 import java.util.ArrayList;
@@ -110,8 +112,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * A <code>Store</code> backs a Graph and is responsible for storing the {@link uk.gov.gchq.gaffer.data.element.Element}s and
@@ -141,7 +142,8 @@ public abstract class Store {
     private GraphLibrary library;
 
     private JobTracker jobTracker;
-    private ExecutorService executorService;
+    private OperationChainResultCache resultCache;
+    private JobExecutor jobExecutor;
     private String graphId;
 
     public Store() {
@@ -189,11 +191,12 @@ public abstract class Store {
         this.properties = properties;
         startCacheServiceLoader(properties);
         this.jobTracker = createJobTracker(properties);
+        this.resultCache = createOperationChainResultCache(properties);
 
         optimiseSchema();
         validateSchemas();
         addOpHandlers();
-        addExecutorService();
+        addJobExecutor();
     }
 
     /**
@@ -254,7 +257,7 @@ public abstract class Store {
         final Context context = createContext(user);
         addOrUpdateJobDetail(operationChain, context, null, JobStatus.RUNNING);
         try {
-            final O result = _execute(operationChain, context);
+            final O result = executeWithResultCache(operationChain, context);
             addOrUpdateJobDetail(operationChain, context, null, JobStatus.FINISHED);
             return result;
         } catch (final Throwable t) {
@@ -292,26 +295,34 @@ public abstract class Store {
             }
         }
 
-        final JobDetail initialJobDetail = addOrUpdateJobDetail(operationChain, context, null, JobStatus.RUNNING);
+        final long queuedTime = System.currentTimeMillis();
+        final JobDetail initialJobDetail = addOrUpdateJobDetail(operationChain, context, null, JobStatus.QUEUED);
 
         final Runnable runnable = new Runnable() {
 
             @Override
             public void run() {
+                final long runStartTime = System.currentTimeMillis();
+                addOrUpdateJobDetail(operationChain, context, null, JobStatus.RUNNING, runStartTime - queuedTime, null);
                 try {
                     _execute(operationChain, context);
-                    addOrUpdateJobDetail(operationChain, context, null, JobStatus.FINISHED);
+                    addOrUpdateJobDetail(operationChain, context, null, JobStatus.FINISHED, null, System.currentTimeMillis() - runStartTime);
                 } catch (final Error e) {
-                    addOrUpdateJobDetail(operationChain, context, e.getMessage(), JobStatus.FAILED);
+                    addOrUpdateJobDetail(operationChain, context, e.getMessage(), JobStatus.FAILED, null, System.currentTimeMillis() - runStartTime);
                     throw e;
                 } catch (final Exception e) {
                     LOGGER.warn("Operation chain job failed to execute", e);
-                    addOrUpdateJobDetail(operationChain, context, e.getMessage(), JobStatus.FAILED);
+                    addOrUpdateJobDetail(operationChain, context, e.getMessage(), JobStatus.FAILED, null, System.currentTimeMillis() - runStartTime);
                 }
             }
         };
 
-        executorService.execute(runnable);
+        try {
+            jobExecutor.execute(context.getUser().getUserId(), runnable);
+        } catch (final RejectedExecutionException e) {
+            addOrUpdateJobDetail(operationChain, context, e.getMessage(), JobStatus.FAILED);
+            throw new OperationException("Unable to queue the operation chain job: " + e.getMessage(), e);
+        }
 
         return initialJobDetail;
     }
@@ -322,13 +333,21 @@ public abstract class Store {
     }
 
     public void runAsync(final Runnable runnable) {
-        executorService.execute(runnable);
+        jobExecutor.execute(runnable);
     }
 
     public JobTracker getJobTracker() {
         return jobTracker;
     }
 
+    public JobExecutor getJobExecutor() {
+        return jobExecutor;
+    }
+
+    public OperationChainResultCache getOperationChainResultCache() {
+        return resultCache;
+    }
+
     /**
      * @param operationClass the operation class to check
      * @return true if the provided operation is supported.
@@ -489,6 +508,16 @@ public abstract class Store {
         return null;
     }
 
+    protected OperationChainResultCache createOperationChainResultCache(final StoreProperties properties) {
+        if (properties.getOperationResultCacheEnabled()) {
+            return new OperationChainResultCache(graphId,
+                    properties.getOperationResultCacheMaxEntries(),
+                    properties.getOperationResultCacheTimeToLive(),
+                    properties.getOperationResultCacheMaxResultSize());
+        }
+        return null;
+    }
+
     protected SchemaOptimiser createSchemaOptimiser() {
         return new SchemaOptimiser();
     }
@@ -587,8 +616,31 @@ public abstract class Store {
         return (O) result;
     }
 
+    private <O> O executeWithResultCache(final OperationChain<O> operationChain, final Context context) throws OperationException {
+        // The key must be created before the chain is executed, as executing it sets the inputs of the operations
+        final String key = null != resultCache ? resultCache.getKey(operationChain, context.getUser()) : null;
+        if (null == key) {
+            return _execute(operationChain, context);
+        }
+
+        final Object cachedResult = resultCache.get(key);
+        if (null != cachedResult) {
+            LOGGER.debug("Operation chain result returned from the result cache");
+            return (O) cachedResult;
+        }
+
+        final long generation = resultCache.getGeneration();
+        return resultCache.put(key, generation, _execute(operationChain, context));
+    }
+
     private JobDetail addOrUpdateJobDetail(final OperationChain<?> operationChain, final Context context, final String msg, final JobStatus jobStatus) {
+        return addOrUpdateJobDetail(operationChain, context, msg, jobStatus, null, null);
+    }
+
+    private JobDetail addOrUpdateJobDetail(final OperationChain<?> operationChain, final Context context, final String msg, final JobStatus jobStatus, final Long queueTime, final Long runTime) {
         final JobDetail newJobDetail = new JobDetail(context.getJobId(), context.getUser().getUserId(), operationChain, jobStatus, msg);
+        newJobDetail.setQueueTime(queueTime);
+        newJobDetail.setRunTime(runTime);
         if (null != jobTracker) {
             final JobDetail oldJobDetail = jobTracker.getJob(newJobDetail.getJobId(), context.getUser());
             if (null == oldJobDetail) {
@@ -604,6 +656,13 @@ public abstract class Store {
             OperationException {
         final OperationHandler<Operation> handler = getOperationHandler(
                 operation.getClass());
+
+        // Results cached before or during a modification of the graph are invalidated
+        final boolean invalidatesCache = null != resultCache && resultCache.isInvalidatedBy(operation);
+        if (invalidatesCache) {
+            resultCache.invalidate();
+        }
+
         Object result;
         try {
             if (null != handler) {
@@ -614,6 +673,10 @@ public abstract class Store {
         } catch (final Exception e) {
             CloseableUtil.close(operation);
             throw e;
+        } finally {
+            if (invalidatesCache) {
+                resultCache.invalidate();
+            }
         }
 
         if (null == result) {
@@ -636,14 +699,13 @@ public abstract class Store {
         }
     }
 
-    private void addExecutorService() {
+    private void addJobExecutor() {
         final Integer jobExecutorThreadCount = getProperties().getJobExecutorThreadCount();
-        LOGGER.debug("Initialising ExecutorService with " + jobExecutorThreadCount + " threads");
-        this.executorService = Executors.newFixedThreadPool(jobExecutorThreadCount, runnable -> {
-            final Thread thread = new Thread(runnable);
-            thread.setDaemon(true);
-            return thread;
-        });
+        LOGGER.debug("Initialising JobExecutor with " + jobExecutorThreadCount + " threads");
+        this.jobExecutor = new JobExecutor(jobExecutorThreadCount,
+                getProperties().getJobExecutorQueueSize(),
+                getProperties().getJobExecutorFair(),
+                getProperties().getJobExecutorVirtualThreads());
     }
 
     private void addOpHandlers() {
@@ -57,6 +57,44 @@ public class StoreProperties implements Cloneable {
     public static final String EXECUTOR_SERVICE_THREAD_COUNT = "gaffer.store.job.executor.threads";
     public static final String EXECUTOR_SERVICE_THREAD_COUNT_DEFAULT = "50";
 
+    /**
+     * The maximum number of jobs that can wait to be run, before further jobs are rejected.
+     * A queue size less than 1 is unbounded.
+     */
+    public static final String EXECUTOR_SERVICE_QUEUE_SIZE = "gaffer.store.job.executor.queueSize";
+    public static final String EXECUTOR_SERVICE_QUEUE_SIZE_DEFAULT = "0";
+
+    /**
+     * If true, the queued jobs of each user are run in turn.
+     */
+    public static final String EXECUTOR_SERVICE_FAIR = "gaffer.store.job.executor.fair";
+
+    /**
+     * If true, and the JVM supports virtual threads, each job is run on its own virtual thread.
+     */
+    public static final String EXECUTOR_SERVICE_VIRTUAL_THREADS = "gaffer.store.job.executor.virtualThreads";
+
+    /**
+     * If true, the results of read only operation chains are cached in the cache service.
+     * See {@link uk.gov.gchq.gaffer.store.operation.OperationChainResultCache}.
+     */
+    public static final String OPERATION_RESULT_CACHE_ENABLED = "gaffer.store.operation.resultCache.enabled";
+
+    public static final String OPERATION_RESULT_CACHE_MAX_ENTRIES = "gaffer.store.operation.resultCache.maxEntries";
+    public static final String OPERATION_RESULT_CACHE_MAX_ENTRIES_DEFAULT = "1000";
+
+    /**
+     * The time in milliseconds that a cached operation chain result is valid for.
+     */
+    public static final String OPERATION_RESULT_CACHE_TIME_TO_LIVE = "gaffer.store.operation.resultCache.timeToLive";
+    public static final String OPERATION_RESULT_CACHE_TIME_TO_LIVE_DEFAULT = "60000";
+
+    /**
+     * The maximum number of items in an operation chain result that will be cached.
+     */
+    public static final String OPERATION_RESULT_CACHE_MAX_RESULT_SIZE = "gaffer.store.operation.resultCache.maxResultSize";
+    public static final String OPERATION_RESULT_CACHE_MAX_RESULT_SIZE_DEFAULT = "10000";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(StoreProperties.class);
 
     private Properties props = new Properties();
@@ -227,6 +265,66 @@ public class StoreProperties implements Cloneable {
         return Integer.parseInt(get(EXECUTOR_SERVICE_THREAD_COUNT, EXECUTOR_SERVICE_THREAD_COUNT_DEFAULT));
     }
 
+    public void setJobExecutorThreadCount(final Integer threadCount) {
+        set(EXECUTOR_SERVICE_THREAD_COUNT, threadCount.toString());
+    }
+
+    public Integer getJobExecutorQueueSize() {
+        return Integer.parseInt(get(EXECUTOR_SERVICE_QUEUE_SIZE, EXECUTOR_SERVICE_QUEUE_SIZE_DEFAULT));
+    }
+
+    public void setJobExecutorQueueSize(final Integer queueSize) {
+        set(EXECUTOR_SERVICE_QUEUE_SIZE, queueSize.toString());
+    }
+
+    public Boolean getJobExecutorFair() {
+        return Boolean.valueOf(get(EXECUTOR_SERVICE_FAIR, "false"));
+    }
+
+    public void setJobExecutorFair(final Boolean fair) {
+        set(EXECUTOR_SERVICE_FAIR, fair.toString());
+    }
+
+    public Boolean getJobExecutorVirtualThreads() {
+        return Boolean.valueOf(get(EXECUTOR_SERVICE_VIRTUAL_THREADS, "false"));
+    }
+
+    public void setJobExecutorVirtualThreads(final Boolean virtualThreads) {
+        set(EXECUTOR_SERVICE_VIRTUAL_THREADS, virtualThreads.toString());
+    }
+
+    public Boolean getOperationResultCacheEnabled() {
+        return Boolean.valueOf(get(OPERATION_RESULT_CACHE_ENABLED, "false"));
+    }
+
+    public void setOperationResultCacheEnabled(final Boolean operationResultCacheEnabled) {
+        set(OPERATION_RESULT_CACHE_ENABLED, operationResultCacheEnabled.toString());
+    }
+
+    public Integer getOperationResultCacheMaxEntries() {
+        return Integer.parseInt(get(OPERATION_RESULT_CACHE_MAX_ENTRIES, OPERATION_RESULT_CACHE_MAX_ENTRIES_DEFAULT));
+    }
+
+    public void setOperationResultCacheMaxEntries(final Integer maxEntries) {
+        set(OPERATION_RESULT_CACHE_MAX_ENTRIES, maxEntries.toString());
+    }
+
+    public Long getOperationResultCacheTimeToLive() {
+        return Long.parseLong(get(OPERATION_RESULT_CACHE_TIME_TO_LIVE, OPERATION_RESULT_CACHE_TIME_TO_LIVE_DEFAULT));
+    }
+
+    public void setOperationResultCacheTimeToLive(final Long timeToLive) {
+        set(OPERATION_RESULT_CACHE_TIME_TO_LIVE, timeToLive.toString());
+    }
+
+    public Integer getOperationResultCacheMaxResultSize() {
+        return Integer.parseInt(get(OPERATION_RESULT_CACHE_MAX_RESULT_SIZE, OPERATION_RESULT_CACHE_MAX_RESULT_SIZE_DEFAULT));
+    }
+
+    public void setOperationResultCacheMaxResultSize(final Integer maxResultSize) {
+        set(OPERATION_RESULT_CACHE_MAX_RESULT_SIZE, maxResultSize.toString());
+    }
+
     public void setOperationDeclarationPaths(final String paths) {
         set(OPERATION_DECLARATIONS, paths);
     }
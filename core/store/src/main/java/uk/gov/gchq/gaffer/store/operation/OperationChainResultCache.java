@@ -0,0 +1,384 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.gchq.gaffer.cache.CacheServiceLoader;
+import uk.gov.gchq.gaffer.cache.ICacheService;
+import uk.gov.gchq.gaffer.cache.exception.CacheOperationException;
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.impl.Count;
+import uk.gov.gchq.gaffer.operation.impl.CountGroups;
+import uk.gov.gchq.gaffer.operation.impl.Limit;
+import uk.gov.gchq.gaffer.operation.impl.compare.Max;
+import uk.gov.gchq.gaffer.operation.impl.compare.Min;
+import uk.gov.gchq.gaffer.operation.impl.compare.Sort;
+import uk.gov.gchq.gaffer.operation.impl.generate.GenerateObjects;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.impl.output.ToEntitySeeds;
+import uk.gov.gchq.gaffer.operation.impl.output.ToVertices;
+import uk.gov.gchq.gaffer.operation.io.Input;
+import uk.gov.gchq.gaffer.user.User;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An <code>OperationChainResultCache</code> caches the results of read only
+ * {@link OperationChain}s in the {@link ICacheService}, so that repeated queries
+ * can be answered without being handled by the store.
+ * <p>
+ * The cache key is a digest of the canonical JSON form of the operation chain
+ * and the data auths of the user. Only chains made up entirely of the read only
+ * operations in {@link #READ_ONLY_OPERATIONS} are cached. {@link CloseableIterable}
+ * results are recorded into a list as the caller iterates over them and cached
+ * once they have been fully iterated, unless they contain more than the maximum
+ * result size, and scalar results such as counts are cached as they are.
+ * Other results, such as sets and maps which the caller could modify, are not cached.
+ * </p>
+ * <p>
+ * The cache holds up to a maximum number of entries, evicting the least recently
+ * used entry when it is full, and entries expire after a time to live. The whole
+ * cache is invalidated whenever an operation that is not known to be read only,
+ * such as {@link uk.gov.gchq.gaffer.operation.impl.add.AddElements}, is
+ * handled. The cached results are shared between callers so they must not be
+ * modified.
+ * </p>
+ */
+public class OperationChainResultCache {
+    public static final String CACHE_NAME_PREFIX = "OperationChainResultCache_";
+
+    public static final Set<Class<? extends Operation>> READ_ONLY_OPERATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            GetElements.class,
+            GetAdjacentIds.class,
+            GetAllElements.class,
+            ToEntitySeeds.class,
+            ToVertices.class,
+            GenerateObjects.class,
+            Count.class,
+            CountGroups.class,
+            Limit.class,
+            Max.class,
+            Min.class,
+            Sort.class
+    )));
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OperationChainResultCache.class);
+    private static final JSONSerialiser CANONICAL_SERIALISER = createCanonicalSerialiser();
+
+    private final String cacheName;
+    private final int maxEntries;
+    private final long timeToLive;
+    private final int maxResultSize;
+
+    /**
+     * The expiry times of the cached results, in least recently used order.
+     */
+    private final LinkedHashMap<String, Long> expiryTimes;
+
+    /**
+     * Incremented on every invalidation, so that results of queries that
+     * overlap with a modification of the graph are not cached.
+     */
+    private long generation;
+
+    public OperationChainResultCache(final String graphId, final int maxEntries, final long timeToLive, final int maxResultSize) {
+        if (null == CacheServiceLoader.getService()) {
+            throw new IllegalArgumentException("The operation chain result cache requires a cache service to be configured");
+        }
+        if (maxEntries < 1 || timeToLive < 1 || maxResultSize < 1) {
+            throw new IllegalArgumentException("The operation chain result cache max entries, time to live and max result size must be positive");
+        }
+
+        this.cacheName = CACHE_NAME_PREFIX + graphId;
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.maxResultSize = maxResultSize;
+        this.expiryTimes = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 2364985718293658476L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Long> eldest) {
+                if (size() > OperationChainResultCache.this.maxEntries) {
+                    getService().removeFromCache(cacheName, eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates the cache key for an operation chain.
+     *
+     * @param operationChain the operation chain to be executed
+     * @param user           the user executing the operation chain
+     * @return the cache key, or null if the results of the operation chain cannot be cached
+     */
+    public String getKey(final OperationChain<?> operationChain, final User user) {
+        if (null == operationChain || operationChain.getOperations().isEmpty()) {
+            return null;
+        }
+
+        for (final Operation operation : operationChain.getOperations()) {
+            if (!READ_ONLY_OPERATIONS.contains(operation.getClass())) {
+                return null;
+            }
+
+            // Serialising an input that is not a collection could consume it before it is executed
+            if (operation instanceof Input) {
+                final Object input = ((Input) operation).getInput();
+                if (input instanceof Iterable && !(input instanceof Collection)) {
+                    return null;
+                }
+            }
+        }
+
+        final Set<String> dataAuths = null != user && null != user.getDataAuths()
+                ? new TreeSet<>(user.getDataAuths()) : Collections.emptySet();
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(CANONICAL_SERIALISER.serialise(operationChain));
+            digest.update(CANONICAL_SERIALISER.serialise(dataAuths));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (final SerialisationException e) {
+            LOGGER.debug("Operation chain results will not be cached as the chain could not be serialised: {}", e.getMessage());
+            return null;
+        } catch (final NoSuchAlgorithmException e) {
+            throw new RuntimeException("Unable to create operation chain result cache key", e);
+        }
+    }
+
+    /**
+     * Gets the cached result for a key.
+     *
+     * @param key the cache key
+     * @return the cached result, or null if there is no result cached or it has expired
+     */
+    public Object get(final String key) {
+        final Object value;
+        synchronized (this) {
+            final Long expiryTime = expiryTimes.get(key);
+            if (null == expiryTime) {
+                return null;
+            }
+            if (expiryTime < System.currentTimeMillis()) {
+                expiryTimes.remove(key);
+                getService().removeFromCache(cacheName, key);
+                return null;
+            }
+
+            value = getService().getFromCache(cacheName, key);
+            if (null == value) {
+                expiryTimes.remove(key);
+                return null;
+            }
+        }
+
+        if (value instanceof List) {
+            return new WrappedCloseableIterable<>(Collections.unmodifiableList((List<?>) value));
+        }
+        return value;
+    }
+
+    /**
+     * Caches the result of an operation chain, if possible.
+     * Results of operation chains that started before the most recent
+     * invalidation are not cached.
+     * <p>
+     * {@link CloseableIterable} results are not iterated here. Instead the
+     * returned iterable records the items as the caller iterates over them and
+     * the result is cached once the caller has iterated to the end. Recording
+     * stops, and the result is not cached, if it has more items than the
+     * maximum result size or the caller closes the iterator early.
+     * </p>
+     *
+     * @param key        the cache key
+     * @param generation the generation when the operation chain was started
+     * @param result     the result of the operation chain
+     * @param <O>        the result type
+     * @return the result to return to the caller, which replaces the provided result
+     */
+    @SuppressWarnings("unchecked")
+    public <O> O put(final String key, final long generation, final O result) {
+        if (result instanceof Number || result instanceof String || result instanceof Boolean) {
+            store(key, generation, result);
+            return result;
+        }
+        if (!(result instanceof CloseableIterable)) {
+            return result;
+        }
+
+        return (O) new RecordingIterable<>(key, generation, (CloseableIterable<?>) result);
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #put(String, long, Object)}
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Removes all the cached results.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        expiryTimes.clear();
+        try {
+            getService().clearCache(cacheName);
+        } catch (final CacheOperationException e) {
+            throw new RuntimeException("Failed to clear the operation chain result cache", e);
+        }
+    }
+
+    /**
+     * @param operation the operation to be handled
+     * @return true if handling the operation could change the results of cached
+     * operation chains, which is assumed for any operation that is not known to be read only
+     */
+    public boolean isInvalidatedBy(final Operation operation) {
+        return !READ_ONLY_OPERATIONS.contains(operation.getClass());
+    }
+
+    public synchronized int size() {
+        return expiryTimes.size();
+    }
+
+    private synchronized void store(final String key, final long startGeneration, final Object value) {
+        if (startGeneration != generation) {
+            return;
+        }
+
+        try {
+            getService().putInCache(cacheName, key, value);
+        } catch (final CacheOperationException e) {
+            LOGGER.warn("Failed to cache operation chain result: {}", e.getMessage());
+            return;
+        }
+        expiryTimes.put(key, System.currentTimeMillis() + timeToLive);
+    }
+
+    private ICacheService getService() {
+        return CacheServiceLoader.getService();
+    }
+
+    /**
+     * Records the items of a result as the first iterator over it is consumed,
+     * and caches them when that iterator reaches the end of the result.
+     */
+    private final class RecordingIterable<T> implements CloseableIterable<T> {
+        private final String key;
+        private final long generation;
+        private final CloseableIterable<T> result;
+        private boolean recording = true;
+
+        private RecordingIterable(final String key, final long generation, final CloseableIterable<T> result) {
+            this.key = key;
+            this.generation = generation;
+            this.result = result;
+        }
+
+        @Override
+        public CloseableIterator<T> iterator() {
+            final CloseableIterator<T> iterator = result.iterator();
+            if (!recording) {
+                return iterator;
+            }
+            recording = false;
+            return new RecordingIterator<>(key, generation, iterator);
+        }
+
+        @Override
+        public void close() {
+            CloseableUtil.close(result);
+        }
+    }
+
+    private final class RecordingIterator<T> implements CloseableIterator<T> {
+        private final String key;
+        private final long generation;
+        private final CloseableIterator<T> iterator;
+        private List<T> items = new ArrayList<>();
+
+        private RecordingIterator(final String key, final long generation, final CloseableIterator<T> iterator) {
+            this.key = key;
+            this.generation = generation;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            final boolean hasNext = iterator.hasNext();
+            if (!hasNext && null != items) {
+                store(key, generation, items);
+                items = null;
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            final T item = iterator.next();
+            if (null != items) {
+                if (items.size() < maxResultSize) {
+                    items.add(item);
+                } else {
+                    // Too large to cache, so stop recording
+                    items = null;
+                }
+            }
+            return item;
+        }
+
+        @Override
+        public void close() {
+            items = null;
+            CloseableUtil.close(iterator);
+        }
+    }
+
+    private static JSONSerialiser createCanonicalSerialiser() {
+        final ObjectMapper mapper = JSONSerialiser.createDefaultMapper();
+        mapper.configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true);
+        mapper.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        return new JSONSerialiser(mapper);
+    }
+}
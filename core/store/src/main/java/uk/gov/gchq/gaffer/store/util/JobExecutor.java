@@ -0,0 +1,407 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A <code>JobExecutor</code> runs asynchronous jobs for a store.
+ * <p>
+ * By default jobs are queued and run by a {@link ThreadPoolExecutor} of daemon
+ * threads, which are started as they are needed up to a maximum number of
+ * threads and stop again once they have been idle for a while. If a maximum
+ * queue size is set, jobs that are submitted when the queue is full are
+ * rejected with a {@link RejectedExecutionException} rather than waiting
+ * invisibly. If the executor is fair, each user has their own queue and the
+ * threads take jobs from the users' queues in turn, so one user submitting many
+ * jobs cannot hold up the jobs of other users.
+ * </p>
+ * <p>
+ * If virtual threads are requested and supported by the JVM, each job is
+ * instead started straight away on its own virtual thread, and the maximum
+ * queue size limits the number of jobs running at the same time. If the JVM
+ * does not support virtual threads, the pool of threads is used.
+ * </p>
+ */
+public class JobExecutor implements Executor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobExecutor.class);
+    private static final String SHARED_QUEUE = "";
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private final int maxQueueSize;
+    private final ExecutorService virtualThreadExecutor;
+    private final ThreadPoolExecutor threadPool;
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    /**
+     * @param maxThreads     the maximum number of threads used to run jobs
+     * @param maxQueueSize   the maximum number of jobs that can be queued, or less than 1 for an unbounded queue
+     * @param fair           true if the jobs of each user should be taken in turn
+     * @param virtualThreads true if each job should be run on its own virtual thread, if supported
+     */
+    public JobExecutor(final int maxThreads, final int maxQueueSize, final boolean fair, final boolean virtualThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("The job executor requires at least 1 thread");
+        }
+        this.maxQueueSize = maxQueueSize < 1 ? Integer.MAX_VALUE : maxQueueSize;
+        this.virtualThreadExecutor = virtualThreads ? createVirtualThreadExecutor(maxThreads) : null;
+        if (null == virtualThreadExecutor) {
+            final BlockingQueue<Runnable> queue = fair ? new FairJobQueue(this.maxQueueSize) : new LinkedBlockingQueue<>(this.maxQueueSize);
+            threadPool = new ThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue, this::createThread,
+                    (job, pool) -> {
+                        throw new RejectedExecutionException("The job queue is full, " + pool.getQueue().size() + " jobs are waiting to run");
+                    });
+            threadPool.allowCoreThreadTimeOut(true);
+        } else {
+            threadPool = null;
+        }
+    }
+
+    @Override
+    public void execute(final Runnable job) {
+        execute(null, job);
+    }
+
+    /**
+     * Queues a job to be run.
+     *
+     * @param userId the id of the user running the job
+     * @param job    the job to run
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public void execute(final String userId, final Runnable job) {
+        if (null == job) {
+            throw new IllegalArgumentException("A job is required");
+        }
+
+        if (null != virtualThreadExecutor) {
+            if (runningJobs.incrementAndGet() > maxQueueSize) {
+                runningJobs.decrementAndGet();
+                throw new RejectedExecutionException("The maximum number of running jobs has been reached: " + maxQueueSize);
+            }
+            try {
+                virtualThreadExecutor.execute(() -> runJob(job));
+            } catch (final RejectedExecutionException e) {
+                runningJobs.decrementAndGet();
+                throw e;
+            }
+            return;
+        }
+
+        threadPool.execute(new UserJob(null != userId ? userId : SHARED_QUEUE, () -> {
+            runningJobs.incrementAndGet();
+            runJob(job);
+        }));
+    }
+
+    public int getQueuedJobs() {
+        return null != threadPool ? threadPool.getQueue().size() : 0;
+    }
+
+    public int getRunningJobs() {
+        return runningJobs.get();
+    }
+
+    public boolean isVirtualThreads() {
+        return null != virtualThreadExecutor;
+    }
+
+    private Thread createThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, "JobExecutor-" + threadCount.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // Failed jobs are logged. Errors are rethrown so they are not hidden, and a
+    // pool thread that is stopped by an error is replaced by the pool.
+    private void runJob(final Runnable job) {
+        try {
+            job.run();
+        } catch (final RuntimeException e) {
+            LOGGER.error("Job failed to run", e);
+        } catch (final Error e) {
+            LOGGER.error("Job failed to run", e);
+            throw e;
+        } finally {
+            runningJobs.decrementAndGet();
+        }
+    }
+
+    private static ExecutorService createVirtualThreadExecutor(final int maxThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (final NoSuchMethodException e) {
+            LOGGER.warn("Virtual threads are not supported by this JVM, so jobs will be run by up to {} threads", maxThreads);
+            return null;
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException("Unable to create a virtual thread executor", e);
+        }
+    }
+
+    private static final class UserJob implements Runnable {
+        private final String userId;
+        private final Runnable job;
+
+        private UserJob(final String userId, final Runnable job) {
+            this.userId = userId;
+            this.job = job;
+        }
+
+        @Override
+        public void run() {
+            job.run();
+        }
+    }
+
+    /**
+     * A bounded queue of jobs that holds a queue for each user and takes jobs
+     * from the users' queues in turn.
+     */
+    private static final class FairJobQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+        private final int capacity;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+
+        /**
+         * The queues of jobs, in the order they will next be taken from.
+         */
+        private final LinkedHashMap<String, Deque<Runnable>> queues = new LinkedHashMap<>();
+        private int count;
+
+        private FairJobQueue(final int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(final Runnable job) {
+            lock.lock();
+            try {
+                if (count >= capacity) {
+                    return false;
+                }
+                enqueue(job);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean offer(final Runnable job, final long timeout, final TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (count >= capacity) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
+                }
+                enqueue(job);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void put(final Runnable job) throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (count >= capacity) {
+                    notFull.await();
+                }
+                enqueue(job);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll() {
+            lock.lock();
+            try {
+                return 0 == count ? null : dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+            long nanos = unit.toNanos(timeout);
+            lock.lockInterruptibly();
+            try {
+                while (0 == count) {
+                    if (nanos <= 0) {
+                        return null;
+                    }
+                    nanos = notEmpty.awaitNanos(nanos);
+                }
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (0 == count) {
+                    notEmpty.await();
+                }
+                return dequeue();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public Runnable peek() {
+            lock.lock();
+            try {
+                return 0 == count ? null : queues.values().iterator().next().peek();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean remove(final Object job) {
+            lock.lock();
+            try {
+                final Iterator<Deque<Runnable>> itr = queues.values().iterator();
+                while (itr.hasNext()) {
+                    final Deque<Runnable> queue = itr.next();
+                    if (queue.remove(job)) {
+                        if (queue.isEmpty()) {
+                            itr.remove();
+                        }
+                        count--;
+                        notFull.signal();
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int remainingCapacity() {
+            lock.lock();
+            try {
+                return capacity - count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int drainTo(final Collection<? super Runnable> jobs) {
+            return drainTo(jobs, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public int drainTo(final Collection<? super Runnable> jobs, final int maxJobs) {
+            lock.lock();
+            try {
+                int drained = 0;
+                while (drained < maxJobs && count > 0) {
+                    jobs.add(dequeue());
+                    drained++;
+                }
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return an iterator over a copy of the queued jobs
+         */
+        @Override
+        public Iterator<Runnable> iterator() {
+            lock.lock();
+            try {
+                final List<Runnable> jobs = new ArrayList<>(count);
+                queues.values().forEach(jobs::addAll);
+                return Collections.unmodifiableList(jobs).iterator();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void enqueue(final Runnable job) {
+            final String queue = job instanceof UserJob ? ((UserJob) job).userId : SHARED_QUEUE;
+            queues.computeIfAbsent(queue, q -> new ArrayDeque<>()).add(job);
+            count++;
+            notEmpty.signal();
+        }
+
+        private Runnable dequeue() {
+            // Take the next job from the first queue and move that queue to the back
+            final Iterator<Map.Entry<String, Deque<Runnable>>> itr = queues.entrySet().iterator();
+            final Map.Entry<String, Deque<Runnable>> entry = itr.next();
+            itr.remove();
+            final Runnable job = entry.getValue().poll();
+            if (!entry.getValue().isEmpty()) {
+                queues.put(entry.getKey(), entry.getValue());
+            }
+            count--;
+            notFull.signal();
+            return job;
+        }
+    }
+}
@@ -16,13 +16,18 @@
 
 package uk.gov.gchq.gaffer.store;
 
+import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import uk.gov.gchq.gaffer.cache.CacheServiceLoader;
+import uk.gov.gchq.gaffer.cache.impl.HashMapCacheService;
+import uk.gov.gchq.gaffer.cache.util.CacheProperties;
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
 import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.IdentifierType;
@@ -35,6 +40,7 @@ import uk.gov.gchq.gaffer.jobtracker.JobTracker;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.CountGroups;
 import uk.gov.gchq.gaffer.operation.impl.Validate;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
@@ -74,7 +80,10 @@ import uk.gov.gchq.koryphe.ValidationResult;
 import uk.gov.gchq.koryphe.impl.binaryoperator.StringConcat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
@@ -474,9 +483,13 @@ public class StoreTest {
         // Then
         Thread.sleep(1000);
         final ArgumentCaptor<JobDetail> jobDetail = ArgumentCaptor.forClass(JobDetail.class);
-        verify(jobTracker, times(2)).addOrUpdateJob(jobDetail.capture(), eq(user));
+        verify(jobTracker, times(3)).addOrUpdateJob(jobDetail.capture(), eq(user));
         assertEquals(jobDetail.getAllValues().get(0), resultJobDetail);
-        assertEquals(JobStatus.FINISHED, jobDetail.getAllValues().get(1).getStatus());
+        assertEquals(JobStatus.QUEUED, jobDetail.getAllValues().get(0).getStatus());
+        assertEquals(JobStatus.RUNNING, jobDetail.getAllValues().get(1).getStatus());
+        assertNotNull(jobDetail.getAllValues().get(1).getQueueTime());
+        assertEquals(JobStatus.FINISHED, jobDetail.getAllValues().get(2).getStatus());
+        assertNotNull(jobDetail.getAllValues().get(2).getRunTime());
 
         final ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
         verify(exportToGafferResultCacheHandler).doOperation(Mockito.any(ExportToGafferResultCache.class), contextCaptor.capture(), eq(store));
@@ -501,9 +514,13 @@ public class StoreTest {
         // Then
         Thread.sleep(1000);
         final ArgumentCaptor<JobDetail> jobDetail = ArgumentCaptor.forClass(JobDetail.class);
-        verify(jobTracker, times(2)).addOrUpdateJob(jobDetail.capture(), eq(user));
+        verify(jobTracker, times(3)).addOrUpdateJob(jobDetail.capture(), eq(user));
         assertEquals(jobDetail.getAllValues().get(0), resultJobDetail);
-        assertEquals(JobStatus.FINISHED, jobDetail.getAllValues().get(1).getStatus());
+        assertEquals(JobStatus.QUEUED, jobDetail.getAllValues().get(0).getStatus());
+        assertEquals(JobStatus.RUNNING, jobDetail.getAllValues().get(1).getStatus());
+        assertNotNull(jobDetail.getAllValues().get(1).getQueueTime());
+        assertEquals(JobStatus.FINISHED, jobDetail.getAllValues().get(2).getStatus());
+        assertNotNull(jobDetail.getAllValues().get(2).getRunTime());
 
         final ArgumentCaptor<Context> contextCaptor = ArgumentCaptor.forClass(Context.class);
         verify(exportToGafferResultCacheHandler).doOperation(Mockito.any(ExportToGafferResultCache.class), contextCaptor.capture(), eq(store));
@@ -526,6 +543,42 @@ public class StoreTest {
         assertSame(jobTracker, resultJobTracker);
     }
 
+    @Test
+    public void shouldReturnCachedResultsForRepeatedReadOnlyOperationChains() throws Exception {
+        // Given
+        final Properties cacheProperties = new Properties();
+        cacheProperties.setProperty(CacheProperties.CACHE_SERVICE_CLASS, HashMapCacheService.class.getName());
+        CacheServiceLoader.initialise(cacheProperties);
+        try {
+            final Schema schema = createSchemaMock();
+            final StoreProperties properties = mock(StoreProperties.class);
+            given(properties.getJobExecutorThreadCount()).willReturn(1);
+            given(properties.getOperationResultCacheEnabled()).willReturn(true);
+            given(properties.getOperationResultCacheMaxEntries()).willReturn(10);
+            given(properties.getOperationResultCacheTimeToLive()).willReturn(60000L);
+            given(properties.getOperationResultCacheMaxResultSize()).willReturn(100);
+            final List<Element> elements = Collections.singletonList(new Entity(TestGroups.ENTITY, "vertex"));
+            given(getElementsHandler.doOperation(any(GetElements.class), eq(context), eq(store)))
+                    .willAnswer(invocation -> new WrappedCloseableIterable<>(elements));
+            store.initialise("graphId", schema, properties);
+
+            // When
+            final List<Element> result1 = Lists.newArrayList(store.execute(createGetElementsChain(), user));
+            final List<Element> result2 = Lists.newArrayList(store.execute(createGetElementsChain(), user));
+            store.execute(new AddElements(), user);
+            final List<Element> result3 = Lists.newArrayList(store.execute(createGetElementsChain(), user));
+
+            // Then
+            verify(getElementsHandler, times(2)).doOperation(any(GetElements.class), eq(context), eq(store));
+            assertEquals(elements, result1);
+            assertEquals(elements, result2);
+            assertEquals(elements, result3);
+            assertEquals(1, store.getOperationChainResultCache().size());
+        } finally {
+            CacheServiceLoader.shutdown();
+        }
+    }
+
     @Test
     public void shouldSetAndGetGraphLibrary() {
         // Given
@@ -540,6 +593,12 @@ public class StoreTest {
         assertSame(graphLibrary, result);
     }
 
+    private OperationChain<CloseableIterable<? extends Element>> createGetElementsChain() {
+        return new OperationChain<>(new GetElements.Builder()
+                .input(new EntitySeed("vertex"))
+                .build());
+    }
+
     private Schema createSchemaMock() {
         final Schema schema = mock(Schema.class);
         given(schema.validate()).willReturn(new ValidationResult());
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.cache.CacheServiceLoader;
+import uk.gov.gchq.gaffer.cache.impl.HashMapCacheService;
+import uk.gov.gchq.gaffer.cache.util.CacheProperties;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.Count;
+import uk.gov.gchq.gaffer.operation.impl.DiscardOutput;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OperationChainResultCacheTest {
+    private final User user = new User.Builder()
+            .userId("user01")
+            .dataAuths("auth1", "auth2")
+            .build();
+
+    @Before
+    public void setup() {
+        final Properties properties = new Properties();
+        properties.setProperty(CacheProperties.CACHE_SERVICE_CLASS, HashMapCacheService.class.getName());
+        CacheServiceLoader.initialise(properties);
+    }
+
+    @After
+    public void after() {
+        CacheServiceLoader.shutdown();
+    }
+
+    @Test
+    public void shouldCreateSameKeyForEqualOperationChains() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 100);
+        final User userWithAuthsInDifferentOrder = new User.Builder()
+                .userId("user02")
+                .dataAuths("auth2", "auth1")
+                .build();
+
+        // When
+        final String key = cache.getKey(createChain("vertex"), user);
+
+        // Then
+        assertNotNull(key);
+        assertEquals(key, cache.getKey(createChain("vertex"), userWithAuthsInDifferentOrder));
+        assertNotEquals(key, cache.getKey(createChain("otherVertex"), user));
+        assertNotEquals(key, cache.getKey(createChain("vertex"), new User.Builder().userId("user01").dataAuths("auth1").build()));
+    }
+
+    @Test
+    public void shouldNotCreateKeyForOperationChainsThatAreNotReadOnly() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 100);
+        final OperationChain<Void> addElements = new OperationChain<>(new AddElements.Builder()
+                .input(new Entity(TestGroups.ENTITY, "vertex"))
+                .build());
+        final GetElements getElementsWithIterableInput = new GetElements.Builder()
+                .input(new WrappedCloseableIterable<>(Collections.singletonList(new EntitySeed("vertex"))))
+                .build();
+
+        // When / Then
+        assertNull(cache.getKey(addElements, user));
+        assertNull(cache.getKey(new OperationChain<>(getElementsWithIterableInput), user));
+        assertTrue(cache.isInvalidatedBy(addElements.getOperations().get(0)));
+    }
+
+    @Test
+    public void shouldCacheIterableResultsOnceTheyHaveBeenIterated() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 100);
+        final String key = cache.getKey(createChain("vertex"), user);
+        final List<Entity> elements = Arrays.asList(new Entity(TestGroups.ENTITY, "vertex"), new Entity(TestGroups.ENTITY_2, "vertex"));
+
+        // When
+        final Object result = cache.put(key, cache.getGeneration(), new WrappedCloseableIterable<>(elements));
+        final Object cachedResultBeforeIteration = cache.get(key);
+        final List<Object> iteratedResult = Lists.newArrayList((CloseableIterable<?>) result);
+        final Object cachedResult = cache.get(key);
+
+        // Then
+        assertNull(cachedResultBeforeIteration);
+        assertEquals(elements, iteratedResult);
+        assertEquals(elements, Lists.newArrayList((CloseableIterable<?>) cachedResult));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldNotCacheIterableResultsThatAreClosedBeforeTheEnd() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 100);
+        final String key = cache.getKey(createChain("vertex"), user);
+        final List<Integer> items = Arrays.asList(1, 2, 3);
+
+        // When
+        final CloseableIterable<?> result = (CloseableIterable<?>) cache.put(key, cache.getGeneration(), new WrappedCloseableIterable<>(items));
+        final CloseableIterator<?> iterator = result.iterator();
+        iterator.next();
+        iterator.close();
+
+        // Then
+        assertNull(cache.get(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldCacheScalarResults() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 100);
+        final String key = cache.getKey(new OperationChain<>(new Count<>()), user);
+
+        // When
+        cache.put(key, cache.getGeneration(), 5L);
+
+        // Then
+        assertEquals(5L, cache.get(key));
+    }
+
+    @Test
+    public void shouldNotCacheResultsLargerThanMaxResultSize() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 2);
+        final String key = cache.getKey(createChain("vertex"), user);
+        final List<Integer> items = Arrays.asList(1, 2, 3, 4, 5);
+
+        // When
+        final Object result = cache.put(key, cache.getGeneration(), new WrappedCloseableIterable<>(items));
+
+        // Then
+        assertEquals(items, Lists.newArrayList((Iterable<?>) result));
+        assertEquals(items, Lists.newArrayList((Iterable<?>) result));
+        assertNull(cache.get(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldReturnAllItemsOfOneShotResultsLargerThanMaxResultSize() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 2);
+        final String key = cache.getKey(createChain("vertex"), user);
+        final List<Integer> items = Arrays.asList(1, 2, 3, 4, 5);
+        final OneShotIterable<Integer> oneShotIterable = new OneShotIterable<>(items);
+
+        // When
+        final Object result = cache.put(key, cache.getGeneration(), oneShotIterable);
+
+        // Then
+        assertEquals(items, Lists.newArrayList((Iterable<?>) result));
+        assertEquals(1, oneShotIterable.getIterations());
+        assertNull(cache.get(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldBeInvalidatedByOperationsThatAreNotKnownToBeReadOnly() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 100);
+
+        // When / Then
+        assertTrue(cache.isInvalidatedBy(new AddElements()));
+        assertTrue(cache.isInvalidatedBy(new DiscardOutput()));
+        assertFalse(cache.isInvalidatedBy(new GetElements()));
+        assertFalse(cache.isInvalidatedBy(new Count<>()));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResults() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 2, 60000L, 100);
+        final String key1 = cache.getKey(createChain("vertex1"), user);
+        final String key2 = cache.getKey(createChain("vertex2"), user);
+        final String key3 = cache.getKey(createChain("vertex3"), user);
+        cache.put(key1, cache.getGeneration(), 1L);
+        cache.put(key2, cache.getGeneration(), 2L);
+
+        // When
+        cache.get(key1);
+        cache.put(key3, cache.getGeneration(), 3L);
+
+        // Then
+        assertEquals(1L, cache.get(key1));
+        assertNull(cache.get(key2));
+        assertEquals(3L, cache.get(key3));
+        assertEquals(2, CacheServiceLoader.getService().sizeOfCache(OperationChainResultCache.CACHE_NAME_PREFIX + "graphId"));
+    }
+
+    @Test
+    public void shouldExpireResultsAfterTimeToLive() throws InterruptedException {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 1L, 100);
+        final String key = cache.getKey(createChain("vertex"), user);
+        cache.put(key, cache.getGeneration(), 1L);
+
+        // When
+        Thread.sleep(10);
+
+        // Then
+        assertNull(cache.get(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldNotCacheResultsStartedBeforeInvalidation() {
+        // Given
+        final OperationChainResultCache cache = new OperationChainResultCache("graphId", 10, 60000L, 100);
+        final String key = cache.getKey(createChain("vertex"), user);
+        final String otherKey = cache.getKey(createChain("otherVertex"), user);
+        cache.put(otherKey, cache.getGeneration(), 1L);
+        final long generation = cache.getGeneration();
+
+        // When
+        cache.invalidate();
+        cache.put(key, generation, 2L);
+
+        // Then
+        assertNull(cache.get(key));
+        assertNull(cache.get(otherKey));
+        assertFalse(generation == cache.getGeneration());
+    }
+
+    @Test
+    public void shouldThrowExceptionIfCacheServiceIsNotConfigured() {
+        // Given
+        CacheServiceLoader.shutdown();
+
+        // When / Then
+        try {
+            new OperationChainResultCache("graphId", 10, 60000L, 100);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    private OperationChain<CloseableIterable<? extends Element>> createChain(final String vertex) {
+        return new OperationChain<>(new GetElements.Builder()
+                .input(new EntitySeed(vertex))
+                .view(new View.Builder()
+                        .entity(TestGroups.ENTITY)
+                        .build())
+                .build());
+    }
+
+    private static final class OneShotIterable<T> implements CloseableIterable<T> {
+        private final List<T> items;
+        private int iterations;
+
+        private OneShotIterable(final List<T> items) {
+            this.items = items;
+        }
+
+        @Override
+        public CloseableIterator<T> iterator() {
+            if (++iterations > 1) {
+                throw new IllegalStateException("This iterable can only be iterated once");
+            }
+            return new WrappedCloseableIterator<>(items.iterator());
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private int getIterations() {
+            return iterations;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.util;
+
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JobExecutorTest {
+
+    @Test
+    public void shouldRunJobs() throws InterruptedException {
+        // Given
+        final JobExecutor executor = new JobExecutor(2, 0, false, false);
+        final CountDownLatch finished = new CountDownLatch(10);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            executor.execute(finished::countDown);
+        }
+
+        // Then
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldRunJobsConcurrentlyUpToMaxThreads() throws InterruptedException {
+        // Given
+        final JobExecutor executor = new JobExecutor(3, 0, false, false);
+        final CountDownLatch running = new CountDownLatch(3);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                running.countDown();
+                await(release);
+            });
+        }
+
+        // Then
+        try {
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            assertEquals(3, executor.getRunningJobs());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldRejectJobsWhenQueueIsFull() throws InterruptedException {
+        // Given
+        final JobExecutor executor = new JobExecutor(1, 1, false, false);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        executor.execute(() -> {
+        });
+
+        // When / Then
+        try {
+            executor.execute(() -> {
+            });
+            fail("Exception expected");
+        } catch (final RejectedExecutionException e) {
+            assertEquals(1, executor.getQueuedJobs());
+            assertEquals(1, executor.getRunningJobs());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void shouldTakeJobsFromEachUserInTurnWhenFair() throws InterruptedException {
+        // Given
+        final JobExecutor executor = new JobExecutor(1, 0, true, false);
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(4);
+        final List<String> order = Collections.synchronizedList(new ArrayList<>());
+        executor.execute("user1", () -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+
+        // When
+        for (final String job : Arrays.asList("user1-a", "user1-b", "user1-c", "user2-a")) {
+            executor.execute(job.substring(0, 5), () -> {
+                order.add(job);
+                finished.countDown();
+            });
+        }
+        release.countDown();
+
+        // Then
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("user1-a", "user2-a", "user1-b", "user1-c"), order);
+    }
+
+    @Test
+    public void shouldKeepRunningJobsAfterAJobFails() throws InterruptedException {
+        // Given
+        final JobExecutor executor = new JobExecutor(1, 0, false, false);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        // When
+        executor.execute(() -> {
+            throw new RuntimeException("Job failed");
+        });
+        executor.execute(finished::countDown);
+
+        // Then
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldKeepRunningJobsAfterAJobThrowsAnError() throws InterruptedException {
+        // Given
+        final JobExecutor executor = new JobExecutor(1, 0, false, false);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        // When
+        executor.execute(() -> {
+            throw new Error("Job failed");
+        });
+        executor.execute(finished::countDown);
+
+        // Then
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldUseThreadPoolIfVirtualThreadsAreNotSupported() throws InterruptedException {
+        // Given
+        final boolean supported = Arrays.stream(Executors.class.getMethods())
+                .anyMatch(m -> "newVirtualThreadPerTaskExecutor".equals(m.getName()));
+        final JobExecutor executor = new JobExecutor(1, 0, false, true);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        // When
+        executor.execute(finished::countDown);
+
+        // Then
+        assertEquals(supported, executor.isVirtualThreads());
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
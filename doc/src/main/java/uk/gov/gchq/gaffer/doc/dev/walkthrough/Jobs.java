@@ -129,7 +129,7 @@ public class Jobs extends DevWalkthrough {
 
     private void waitUntilJobHashFinished(final User user, final Graph graph, final JobDetail initialJobDetail) throws OperationException {
         JobDetail jobDetail = initialJobDetail;
-        while (JobStatus.RUNNING.equals(jobDetail.getStatus())) {
+        while (JobStatus.QUEUED.equals(jobDetail.getStatus()) || JobStatus.RUNNING.equals(jobDetail.getStatus())) {
             jobDetail = graph.execute(new GetJobDetails.Builder()
                     .jobId(jobDetail.getJobId())
                     .build(), user);
@@ -41,19 +41,36 @@ public class AccumuloProperties extends StoreProperties {
     public static final String PASSWORD = "accumulo.password";
     public static final String THREADS_FOR_BATCH_SCANNER = "accumulo.batchScannerThreads";
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER = "accumulo.entriesForBatchScanner";
+    public static final String BATCH_SCANNERS_IN_FLIGHT = "accumulo.batchScannersInFlight";
+    public static final String HOP_THREADS = "accumulo.hopThreads";
     public static final String CLIENT_SIDE_BLOOM_FILTER_SIZE = "accumulo.clientSideBloomFilterSize";
+    public static final String MAX_ENTRIES_FOR_EXACT_SET_CHECK = "accumulo.maxEntriesForExactSetCheck";
     public static final String FALSE_POSITIVE_RATE = "accumulo.falsePositiveRate";
     public static final String MAX_BLOOM_FILTER_TO_PASS_TO_AN_ITERATOR = "accumulo.maxBloomFilterToPassToAnIterator";
     public static final String MAX_BUFFER_SIZE_FOR_BATCH_WRITER = "accumulo.maxBufferSizeForBatchWriterInBytes";
     public static final String MAX_TIME_OUT_FOR_BATCH_WRITER = "accumulo.maxTimeOutForBatchWriterInMilliseconds";
     public static final String NUM_THREADS_FOR_BATCH_WRITER = "accumulo.numThreadsForBatchWriter";
+    public static final String NUM_THREADS_FOR_INGEST = "accumulo.numThreadsForIngest";
+    public static final String INGEST_BUFFER_SIZE = "accumulo.ingestBufferSize";
+    public static final String INGEST_AGGREGATION = "accumulo.ingestAggregation";
+    public static final String INGEST_SAMPLE_SIZE = "accumulo.ingestSampleSize";
     public static final String TABLE_REPLICATION_FACTOR = "accumulo.file.replication";
+    public static final String LOCALITY_GROUPS = "accumulo.localityGroups";
+    public static final String UPDATE_LOCALITY_GROUPS = "accumulo.updateLocalityGroups";
     public static final String ENABLE_VALIDATOR_ITERATOR = "gaffer.store.accumulo.enable.validator.iterator";
 
     // default values
     private static final String NUM_THREADS_FOR_BATCH_WRITER_DEFAULT = "10";
+    private static final String NUM_THREADS_FOR_INGEST_DEFAULT = "1";
+    private static final String INGEST_BUFFER_SIZE_DEFAULT = "10000";
+    private static final String INGEST_AGGREGATION_DEFAULT = "false";
+    private static final String INGEST_SAMPLE_SIZE_DEFAULT = "0";
+    private static final String UPDATE_LOCALITY_GROUPS_DEFAULT = "false";
     private static final String MAX_ENTRIES_FOR_BATCH_SCANNER_DEFAULT = "50000";
+    private static final String BATCH_SCANNERS_IN_FLIGHT_DEFAULT = "1";
+    private static final String HOP_THREADS_DEFAULT = "20";
     private static final String CLIENT_SIDE_BLOOM_FILTER_SIZE_DEFAULT = "838860800";
+    private static final String MAX_ENTRIES_FOR_EXACT_SET_CHECK_DEFAULT = "100000";
     private static final String FALSE_POSITIVE_RATE_DEFAULT = "0.0002";
     private static final String MAX_BLOOM_FILTER_TO_PASS_TO_AN_ITERATOR_DEFAULT = "8388608";
     private static final String MAX_BUFFER_SIZE_FOR_BATCH_WRITER_DEFAULT = "100000000";
@@ -100,6 +117,86 @@ public class AccumuloProperties extends StoreProperties {
         return Integer.parseInt(get(NUM_THREADS_FOR_BATCH_WRITER, NUM_THREADS_FOR_BATCH_WRITER_DEFAULT));
     }
 
+    /**
+     * Gets the number of threads that should be used to convert elements into
+     * mutations when adding elements
+     *
+     * @return The number of threads used to convert elements into mutations
+     */
+    public int getNumThreadsForIngest() {
+        return Integer.parseInt(get(NUM_THREADS_FOR_INGEST, NUM_THREADS_FOR_INGEST_DEFAULT));
+    }
+
+    /**
+     * Sets the number of threads that should be used to convert elements into
+     * mutations when adding elements
+     *
+     * @param numThreadsForIngest the number of threads used to convert elements into mutations
+     */
+    public void setNumThreadsForIngest(final String numThreadsForIngest) {
+        set(NUM_THREADS_FOR_INGEST, numThreadsForIngest);
+    }
+
+    /**
+     * Gets the number of elements that are buffered, converted into mutations
+     * and optionally aggregated at a time when adding elements
+     *
+     * @return The number of elements buffered at a time
+     */
+    public int getIngestBufferSize() {
+        return Integer.parseInt(get(INGEST_BUFFER_SIZE, INGEST_BUFFER_SIZE_DEFAULT));
+    }
+
+    /**
+     * Sets the number of elements that are buffered, converted into mutations
+     * and optionally aggregated at a time when adding elements
+     *
+     * @param ingestBufferSize the number of elements buffered at a time
+     */
+    public void setIngestBufferSize(final String ingestBufferSize) {
+        set(INGEST_BUFFER_SIZE, ingestBufferSize);
+    }
+
+    /**
+     * Gets whether each buffer of elements should be aggregated using the
+     * schema ingest aggregators before being written to Accumulo
+     *
+     * @return true if the elements are aggregated before being written
+     */
+    public boolean getIngestAggregation() {
+        return Boolean.parseBoolean(get(INGEST_AGGREGATION, INGEST_AGGREGATION_DEFAULT));
+    }
+
+    /**
+     * Sets whether each buffer of elements should be aggregated using the
+     * schema ingest aggregators before being written to Accumulo
+     *
+     * @param ingestAggregation true if the elements should be aggregated before being written
+     */
+    public void setIngestAggregation(final String ingestAggregation) {
+        set(INGEST_AGGREGATION, ingestAggregation);
+    }
+
+    /**
+     * Gets the maximum number of rows, written when elements are added, that
+     * are sampled to choose split points. 0 means the rows are not sampled.
+     *
+     * @return The maximum number of sampled rows
+     */
+    public int getIngestSampleSize() {
+        return Integer.parseInt(get(INGEST_SAMPLE_SIZE, INGEST_SAMPLE_SIZE_DEFAULT));
+    }
+
+    /**
+     * Sets the maximum number of rows, written when elements are added, that
+     * are sampled to choose split points. 0 means the rows are not sampled.
+     *
+     * @param ingestSampleSize The maximum number of sampled rows
+     */
+    public void setIngestSampleSize(final String ingestSampleSize) {
+        set(INGEST_SAMPLE_SIZE, ingestSampleSize);
+    }
+
     /**
      * Gets the time out/latency that should be used for the accumulo batch
      * writers
@@ -255,8 +352,54 @@ public class AccumuloProperties extends StoreProperties {
     }
 
     /**
-     * Get the size that should be used for the creation of bloom filters on the
-     * client side
+     * Get the number of batch scanners that may be open at any one time when
+     * retrieving elements for a large number of seeds. If this is more than 1
+     * then the batch scanners for the next batches of seeds are started while
+     * the results of the current batch are being read.
+     *
+     * @return An integer representing the number of batch scanners that may be
+     * open at any one time
+     */
+    public int getBatchScannersInFlight() {
+        return Integer.parseInt(get(BATCH_SCANNERS_IN_FLIGHT, BATCH_SCANNERS_IN_FLIGHT_DEFAULT));
+    }
+
+    /**
+     * Set the number of batch scanners that may be open at any one time when
+     * retrieving elements for a large number of seeds
+     *
+     * @param batchScannersInFlight the number of batch scanners that may be open at any one time
+     */
+    public void setBatchScannersInFlight(final String batchScannersInFlight) {
+        set(BATCH_SCANNERS_IN_FLIGHT, batchScannersInFlight);
+    }
+
+    /**
+     * Get the maximum number of threads the store uses to run the hops of
+     * {@link uk.gov.gchq.gaffer.accumulostore.operation.impl.GetElementsAfterHops}
+     * operations at the same time. Hops that cannot be given a thread are run
+     * on the thread reading the results of the hop.
+     *
+     * @return the maximum number of threads used to run hops
+     */
+    public int getHopThreads() {
+        return Integer.parseInt(get(HOP_THREADS, HOP_THREADS_DEFAULT));
+    }
+
+    /**
+     * Set the maximum number of threads used to run the hops of
+     * {@link uk.gov.gchq.gaffer.accumulostore.operation.impl.GetElementsAfterHops}
+     * operations.
+     *
+     * @param hopThreads the maximum number of threads used to run hops
+     */
+    public void setHopThreads(final String hopThreads) {
+        set(HOP_THREADS, hopThreads);
+    }
+
+    /**
+     * Get the maximum size that should be used for the creation of bloom
+     * filters on the client side
      *
      * @return An integer representing the size that should be used for the
      * creation of bloom filters on the client side
@@ -275,6 +418,29 @@ public class AccumuloProperties extends StoreProperties {
         set(CLIENT_SIDE_BLOOM_FILTER_SIZE, clientSideBloomFilterSize);
     }
 
+    /**
+     * Get the maximum number of seeds in the second set of seeds of a query,
+     * such as GetElementsBetweenSets, that are held in memory on the client to
+     * check results exactly. Larger sets are checked using a bloom filter.
+     *
+     * @return An integer representing the maximum number of seeds held in
+     * memory for an exact check
+     */
+    public int getMaxEntriesForExactSetCheck() {
+        return Integer.parseInt(get(MAX_ENTRIES_FOR_EXACT_SET_CHECK, MAX_ENTRIES_FOR_EXACT_SET_CHECK_DEFAULT));
+    }
+
+    /**
+     * Set the maximum number of seeds in the second set of seeds of a query,
+     * such as GetElementsBetweenSets, that are held in memory on the client to
+     * check results exactly. Larger sets are checked using a bloom filter.
+     *
+     * @param maxEntriesForExactSetCheck the maximum number of seeds held in memory for an exact check
+     */
+    public void setMaxEntriesForExactSetCheck(final String maxEntriesForExactSetCheck) {
+        set(MAX_ENTRIES_FOR_EXACT_SET_CHECK, maxEntriesForExactSetCheck);
+    }
+
     /**
      * Get the allowable rate of false positives for bloom filters (Generally
      * the higher the value the faster the filter)
@@ -360,6 +526,52 @@ public class AccumuloProperties extends StoreProperties {
         set(TABLE_REPLICATION_FACTOR, replicationFactor);
     }
 
+    /**
+     * Get the comma separated list of groups that are each stored in their own
+     * locality group in tables created by gaffer. Any other groups are stored
+     * in the default locality group. If not set then every group in the schema
+     * is stored in its own locality group.
+     *
+     * @return The comma separated list of groups that have their own locality group
+     */
+    public String getLocalityGroups() {
+        return get(LOCALITY_GROUPS, null);
+    }
+
+    /**
+     * Set the comma separated list of groups that are each stored in their own
+     * locality group in tables created by gaffer. Any other groups are stored
+     * in the default locality group. If not set then every group in the schema
+     * is stored in its own locality group.
+     *
+     * @param localityGroups the comma separated list of groups that have their own locality group
+     */
+    public void setLocalityGroups(final String localityGroups) {
+        set(LOCALITY_GROUPS, localityGroups);
+    }
+
+    /**
+     * Gets whether the locality groups of an existing table should be updated
+     * to match the schema and the locality groups property when the store is
+     * initialised. By default they are only set when the table is created.
+     *
+     * @return true if the locality groups of an existing table are updated
+     */
+    public boolean getUpdateLocalityGroups() {
+        return Boolean.parseBoolean(get(UPDATE_LOCALITY_GROUPS, UPDATE_LOCALITY_GROUPS_DEFAULT));
+    }
+
+    /**
+     * Sets whether the locality groups of an existing table should be updated
+     * to match the schema and the locality groups property when the store is
+     * initialised. By default they are only set when the table is created.
+     *
+     * @param updateLocalityGroups true if the locality groups of an existing table should be updated
+     */
+    public void setUpdateLocalityGroups(final String updateLocalityGroups) {
+        set(UPDATE_LOCALITY_GROUPS, updateLocalityGroups);
+    }
+
     /**
      * Get the flag determining whether the validator iterator should be enabled.
      *
@@ -56,15 +56,21 @@ public abstract class AccumuloElementValueLoader implements ElementValueLoader {
             }
         }
 
-        final Properties props;
+        // Properties stored in the column qualifier or value are deserialised
+        // individually, so the other properties are only deserialised if and
+        // when they are requested.
         if (eDef.getGroupBy().contains(name)) {
-            props = elementConverter.getPropertiesFromColumnQualifier(group, key.getColumnQualifierData().getBackingArray());
-        } else if (name.equals(schema.getVisibilityProperty())) {
+            return elementConverter.getPropertyFromColumnQualifier(group, name, key.getColumnQualifierData().getBackingArray());
+        }
+        if (!name.equals(schema.getVisibilityProperty()) && !name.equals(schema.getTimestampProperty())) {
+            return elementConverter.getPropertyFromValue(group, name, value);
+        }
+
+        final Properties props;
+        if (name.equals(schema.getVisibilityProperty())) {
             props = elementConverter.getPropertiesFromColumnVisibility(group, key.getColumnVisibilityData().getBackingArray());
-        } else if (name.equals(schema.getTimestampProperty())) {
-            props = elementConverter.getPropertiesFromTimestamp(group, key.getTimestamp());
         } else {
-            props = elementConverter.getPropertiesFromValue(group, value);
+            props = elementConverter.getPropertiesFromTimestamp(group, key.getTimestamp());
         }
         lazyProperties.putAll(props);
         return props.get(name);
@@ -17,29 +17,24 @@
 package uk.gov.gchq.gaffer.accumulostore.key;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.Filter;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
-import uk.gov.gchq.gaffer.accumulostore.data.element.AccumuloEdgeValueLoader;
-import uk.gov.gchq.gaffer.accumulostore.data.element.AccumuloEntityValueLoader;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.ElementFilterException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
-import uk.gov.gchq.gaffer.commonutil.StringUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
-import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
-import uk.gov.gchq.gaffer.data.element.Entity;
-import uk.gov.gchq.gaffer.data.element.LazyEdge;
-import uk.gov.gchq.gaffer.data.element.LazyEntity;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.store.ElementValidator;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
@@ -60,6 +55,11 @@ public abstract class AbstractElementFilter extends Filter {
     @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "elementConverter is initialised in validateOptions method, which is always called first")
     private AccumuloElementConverter elementConverter;
 
+    private IteratorResources resources;
+
+    @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "options are initialised in init method, which is always called first")
+    private Map<String, String> options;
+
     private Set<String> groupsWithoutFilters = Collections.emptySet();
 
     private final ElementValidator.FilterType filterType;
@@ -75,13 +75,7 @@ public abstract class AbstractElementFilter extends Filter {
             return true;
         }
 
-        final Element element;
-        if (schema.isEntity(group)) {
-            element = new LazyEntity(new Entity(group), new AccumuloEntityValueLoader(group, key, value, elementConverter, schema));
-        } else {
-            element = new LazyEdge(new Edge(group, null, null, false), new AccumuloEdgeValueLoader(group, key, value, elementConverter, schema, false));
-        }
-        return elementPredicate.test(element);
+        return elementPredicate.test(elementConverter.getLazyElement(key, value, false));
     }
 
     @Override
@@ -90,37 +84,28 @@ public abstract class AbstractElementFilter extends Filter {
                      final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
 
-        schema = Schema.fromJson(StringUtil.toBytes(options.get(AccumuloStoreConstants.SCHEMA)));
-
-        try {
-            elementConverter = Class
-                    .forName(options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS))
-                    .asSubclass(AccumuloElementConverter.class)
-                    .getConstructor(Schema.class)
-                    .newInstance(schema);
-        } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NoSuchMethodException | SecurityException e) {
-            throw new ElementFilterException("Failed to load element converter from class name provided : "
-                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
+        final String viewJson = options.get(AccumuloStoreConstants.VIEW);
+        if (filterType != ElementValidator.FilterType.SCHEMA_VALIDATION && null == viewJson) {
+            throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.VIEW);
         }
 
-        if (filterType == ElementValidator.FilterType.SCHEMA_VALIDATION) {
-            updateSchemaGroupsWithoutFilters();
-            elementPredicate = new ElementValidator(schema, false)::validateWithSchema;
-        } else {
-            final String viewJson = options.get(AccumuloStoreConstants.VIEW);
-            if (null == viewJson) {
-                throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.VIEW);
-            }
-            final View view = View.fromJson(StringUtil.toBytes(viewJson));
-            if (filterType == ElementValidator.FilterType.PRE_AGGREGATION_FILTER) {
-                updateViewGroupsWithoutFilters(view, ViewElementDefinition::hasPreAggregationFilters);
-                elementPredicate = new ElementValidator(view)::validateInput;
-            } else {
-                updateViewGroupsWithoutFilters(view, ViewElementDefinition::hasPostAggregationFilters);
-                elementPredicate = new ElementValidator(view)::validateAggregation;
-            }
+        this.options = options;
+        acquireResources();
+    }
+
+    @Override
+    public void seek(final Range range, final Collection<ByteSequence> columnFamilies, final boolean inclusive) throws IOException {
+        if (null == resources) {
+            acquireResources();
         }
+        super.seek(range, columnFamilies, inclusive);
+        releaseResourcesIfFinished();
+    }
+
+    @Override
+    public void next() throws IOException {
+        super.next();
+        releaseResourcesIfFinished();
     }
 
     @Override
@@ -132,9 +117,8 @@ public abstract class AbstractElementFilter extends Filter {
             throw new RuntimeException(e);
         }
         newInstance.setSource(getSource().deepCopy(env));
-        newInstance.schema = schema;
-        newInstance.elementConverter = elementConverter;
-        newInstance.elementPredicate = elementPredicate;
+        newInstance.options = options;
+        newInstance.acquireResources();
         return newInstance;
     }
 
@@ -153,6 +137,42 @@ public abstract class AbstractElementFilter extends Filter {
         return true;
     }
 
+    private void acquireResources() {
+        try {
+            resources = IteratorResources.acquire(options.get(AccumuloStoreConstants.SCHEMA),
+                    filterType == ElementValidator.FilterType.SCHEMA_VALIDATION ? null : options.get(AccumuloStoreConstants.VIEW),
+                    options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS));
+        } catch (final ReflectiveOperationException | IllegalArgumentException | SecurityException e) {
+            throw new ElementFilterException("Failed to load element converter from class name provided : "
+                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
+        }
+        schema = resources.getSchema();
+        elementConverter = resources.getElementConverter();
+
+        if (filterType == ElementValidator.FilterType.SCHEMA_VALIDATION) {
+            updateSchemaGroupsWithoutFilters();
+            elementPredicate = new ElementValidator(schema, false)::validateWithSchema;
+        } else {
+            final View view = resources.getView();
+            if (filterType == ElementValidator.FilterType.PRE_AGGREGATION_FILTER) {
+                updateViewGroupsWithoutFilters(view, ViewElementDefinition::hasPreAggregationFilters);
+                elementPredicate = new ElementValidator(view)::validateInput;
+            } else {
+                updateViewGroupsWithoutFilters(view, ViewElementDefinition::hasPostAggregationFilters);
+                elementPredicate = new ElementValidator(view)::validateAggregation;
+            }
+        }
+    }
+
+    // The resources are returned to the pool once the range has been read,
+    // as iterators are not closed when the scan finishes.
+    private void releaseResourcesIfFinished() {
+        if (!hasTop() && null != resources) {
+            resources.release();
+            resources = null;
+        }
+    }
+
     private void updateViewGroupsWithoutFilters(final View view, final Function<ViewElementDefinition, Boolean> hasFilters) {
         groupsWithoutFilters = new HashSet<>();
         for (final Map.Entry<String, ViewElementDefinition> entry : new ChainedIterable<Map.Entry<String, ViewElementDefinition>>(view.getEntities().entrySet(), view.getEdges().entrySet())) {
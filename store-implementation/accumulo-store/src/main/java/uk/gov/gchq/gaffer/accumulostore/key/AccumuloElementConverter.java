@@ -94,6 +94,20 @@ public interface AccumuloElementConverter {
      */
     Properties getPropertiesFromValue(final String group, final Value value);
 
+    /**
+     * Deserialises a single property from an Accumulo
+     * {@link org.apache.accumulo.core.data.Value}, without deserialising the
+     * other properties stored in the {@link Value}.
+     *
+     * @param group        the element group
+     * @param propertyName the name of the property to deserialise
+     * @param value        the Value containing the serialised properties
+     * @return the property value, or null if the property is not stored in the {@link Value}
+     */
+    default Object getPropertyFromValue(final String group, final String propertyName, final Value value) {
+        return getPropertiesFromValue(group, value).get(propertyName);
+    }
+
     /**
      * Gets a new {@link ElementId} from an Accumulo {@link Key}.
      *
@@ -125,6 +139,21 @@ public interface AccumuloElementConverter {
      */
     Element getFullElement(final Key key, final Value value, final boolean includeMatchedVertex);
 
+    /**
+     * Returns an {@link Element} that keeps the provided {@link Key} and
+     * {@link Value} and only deserialises its identifiers and each of its
+     * properties when they are first accessed. This avoids deserialising
+     * properties that are never used, e.g. when an element is filtered on a
+     * single property.
+     *
+     * @param key                  the accumulo Key containing serialised parts of the Element
+     * @param value                the accumulo Value containing serialised properties of the Element
+     * @param includeMatchedVertex if true then the matchedVertex field is set on Edges
+     * @return a {@link uk.gov.gchq.gaffer.data.element.LazyEntity} or
+     * {@link uk.gov.gchq.gaffer.data.element.LazyEdge} backed by the {@link Key} and {@link Value}
+     */
+    Element getLazyElement(final Key key, final Value value, final boolean includeMatchedVertex);
+
     /**
      * Helper Used to create Bloom Filters, method Serialises a given object
      * (from an {@link uk.gov.gchq.gaffer.data.element.id.EntityId} ) with the Identifier
@@ -157,6 +186,20 @@ public interface AccumuloElementConverter {
      */
     Properties getPropertiesFromColumnQualifier(final String group, final byte[] columnQualifier);
 
+    /**
+     * Deserialises a single property from the column qualifier of a
+     * {@link Key}, without deserialising the other properties stored in the
+     * column qualifier.
+     *
+     * @param group           the element group
+     * @param propertyName    the name of the property to deserialise
+     * @param columnQualifier the element column qualifier properties serialised into bytes
+     * @return the property value, or null if the property is not stored in the column qualifier
+     */
+    default Object getPropertyFromColumnQualifier(final String group, final String propertyName, final byte[] columnQualifier) {
+        return getPropertiesFromColumnQualifier(group, columnQualifier).get(propertyName);
+    }
+
     /**
      * Truncates the provided columnQualifier, returning the byte representation of the serialised version of the specified
      * properties.
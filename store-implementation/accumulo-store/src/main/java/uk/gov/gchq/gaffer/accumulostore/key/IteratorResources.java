@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.key;
+
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <code>IteratorResources</code> holds the {@link Schema}, {@link View} and
+ * {@link AccumuloElementConverter} used by a Gaffer iterator on a tablet server.
+ * <p>
+ * Iterators are initialised for every scan of every tablet, so deserialising
+ * the schema and view JSON and creating the element converter each time is
+ * expensive for short queries. The schemas and views contain stateful
+ * functions, so they cannot be shared by iterators that may run at the same
+ * time. Instead, each iterator acquires resources from a JVM wide pool, keyed
+ * by the schema JSON, view JSON and element converter class. An iterator and
+ * its deep copies share the same resources. The resources are returned to the
+ * pool to be reused by the next iterator with the same options either
+ * explicitly, by calling {@link #release()}, or once they are no longer
+ * referenced, i.e. when the iterators have been garbage collected.
+ * Iterators are not told when a scan has finished, so the Gaffer iterators
+ * release their resources when they run out of data and acquire them again
+ * if they are seeked to another range. Iterators that are abandoned part way
+ * through a range, for example when a scan batch is full, rely on garbage
+ * collection.
+ * </p>
+ * <p>
+ * At most {@link #MAX_POOLED_RESOURCES} unused resources are kept, evicting
+ * the least recently used. At most {@link #MAX_LEASED_RESOURCES} resources in
+ * use are tracked so that they can be returned to the pool; resources
+ * acquired beyond that are not pooled and are simply garbage collected.
+ * </p>
+ */
+public final class IteratorResources {
+    public static final int MAX_POOLED_RESOURCES = 64;
+    public static final int MAX_LEASED_RESOURCES = 1024;
+
+    private static final Map<ResourcesKey, Deque<Parsed>> POOL = new LinkedHashMap<>(16, 0.75f, true);
+    private static final ReferenceQueue<IteratorResources> RELEASED = new ReferenceQueue<>();
+    private static final Set<Lease> LEASES = ConcurrentHashMap.newKeySet();
+    private static int pooledResources;
+
+    private final Parsed parsed;
+    private final Lease lease;
+    private volatile boolean released;
+
+    private IteratorResources(final ResourcesKey key, final Parsed parsed) {
+        this.parsed = parsed;
+        this.lease = new Lease(this, key, parsed);
+    }
+
+    /**
+     * Acquires the resources for the given iterator options, reusing
+     * previously created resources if possible.
+     *
+     * @param schemaJson            the schema JSON
+     * @param viewJson              the view JSON, or null if the iterator does not require a view
+     * @param elementConverterClass the element converter class name
+     * @return the resources
+     * @throws ReflectiveOperationException if the element converter could not be created
+     */
+    public static IteratorResources acquire(final String schemaJson, final String viewJson, final String elementConverterClass)
+            throws ReflectiveOperationException {
+        returnReleasedResources();
+
+        final ResourcesKey key = new ResourcesKey(schemaJson, viewJson, elementConverterClass);
+        Parsed parsed = poll(key);
+        if (null == parsed) {
+            final Schema schema = Schema.fromJson(StringUtil.toBytes(schemaJson));
+            final View view = null != viewJson ? View.fromJson(StringUtil.toBytes(viewJson)) : null;
+            final AccumuloElementConverter elementConverter = Class.forName(elementConverterClass)
+                    .asSubclass(AccumuloElementConverter.class)
+                    .getConstructor(Schema.class)
+                    .newInstance(schema);
+            parsed = new Parsed(schema, view, elementConverter);
+        }
+
+        final IteratorResources resources = new IteratorResources(key, parsed);
+        if (LEASES.size() < MAX_LEASED_RESOURCES) {
+            LEASES.add(resources.lease);
+        }
+        return resources;
+    }
+
+    /**
+     * Returns the resources to the pool straight away, rather than waiting
+     * for them to be garbage collected. The resources must not be used after
+     * they have been released. Releasing the resources more than once has no
+     * effect.
+     */
+    public void release() {
+        released = true;
+        if (LEASES.remove(lease)) {
+            lease.clear();
+            offer(lease.key, lease.parsed);
+        }
+    }
+
+    /**
+     * @return the number of resources in use that will be returned to the pool
+     * when they are released or garbage collected
+     */
+    public static int getLeasedResources() {
+        return LEASES.size();
+    }
+
+    /**
+     * @return the number of unused resources held in the pool
+     */
+    public static synchronized int getPooledResources() {
+        return pooledResources;
+    }
+
+    public Schema getSchema() {
+        checkNotReleased();
+        return parsed.schema;
+    }
+
+    public View getView() {
+        checkNotReleased();
+        return parsed.view;
+    }
+
+    public AccumuloElementConverter getElementConverter() {
+        checkNotReleased();
+        return parsed.elementConverter;
+    }
+
+    private void checkNotReleased() {
+        if (released) {
+            throw new IllegalStateException("The iterator resources have been released");
+        }
+    }
+
+    private static void returnReleasedResources() {
+        for (Reference<? extends IteratorResources> ref = RELEASED.poll(); null != ref; ref = RELEASED.poll()) {
+            final Lease lease = (Lease) ref;
+            if (LEASES.remove(lease)) {
+                offer(lease.key, lease.parsed);
+            }
+        }
+    }
+
+    private static synchronized Parsed poll(final ResourcesKey key) {
+        final Deque<Parsed> parsed = POOL.get(key);
+        if (null == parsed) {
+            return null;
+        }
+        final Parsed result = parsed.poll();
+        if (parsed.isEmpty()) {
+            POOL.remove(key);
+        }
+        pooledResources--;
+        return result;
+    }
+
+    private static synchronized void offer(final ResourcesKey key, final Parsed parsed) {
+        // Evict from the least recently used options until there is space
+        final Iterator<Deque<Parsed>> itr = POOL.values().iterator();
+        while (pooledResources >= MAX_POOLED_RESOURCES && itr.hasNext()) {
+            final Deque<Parsed> eldest = itr.next();
+            eldest.poll();
+            pooledResources--;
+            if (eldest.isEmpty()) {
+                itr.remove();
+            }
+        }
+
+        POOL.computeIfAbsent(key, k -> new ArrayDeque<>()).add(parsed);
+        pooledResources++;
+    }
+
+    private static final class Parsed {
+        private final Schema schema;
+        private final View view;
+        private final AccumuloElementConverter elementConverter;
+
+        private Parsed(final Schema schema, final View view, final AccumuloElementConverter elementConverter) {
+            this.schema = schema;
+            this.view = view;
+            this.elementConverter = elementConverter;
+        }
+    }
+
+    /**
+     * Returns the parsed resources to the pool once the {@link IteratorResources}
+     * that wrap them are no longer reachable, unless they have already been
+     * released.
+     */
+    private static final class Lease extends PhantomReference<IteratorResources> {
+        private final ResourcesKey key;
+        private final Parsed parsed;
+
+        private Lease(final IteratorResources resources, final ResourcesKey key, final Parsed parsed) {
+            super(resources, RELEASED);
+            this.key = key;
+            this.parsed = parsed;
+        }
+    }
+
+    private static final class ResourcesKey {
+        private final String schemaJson;
+        private final String viewJson;
+        private final String elementConverterClass;
+        private final int hashCode;
+
+        private ResourcesKey(final String schemaJson, final String viewJson, final String elementConverterClass) {
+            this.schemaJson = schemaJson;
+            this.viewJson = viewJson;
+            this.elementConverterClass = elementConverterClass;
+            this.hashCode = Objects.hash(schemaJson, viewJson, elementConverterClass);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (null == obj || getClass() != obj.getClass()) {
+                return false;
+            }
+            final ResourcesKey other = (ResourcesKey) obj;
+            return hashCode == other.hashCode
+                    && Objects.equals(elementConverterClass, other.elementConverterClass)
+                    && Objects.equals(schemaJson, other.schemaJson)
+                    && Objects.equals(viewJson, other.viewJson);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
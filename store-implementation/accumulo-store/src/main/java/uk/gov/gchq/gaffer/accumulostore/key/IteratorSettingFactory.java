@@ -71,6 +71,20 @@ public interface IteratorSettingFactory {
     IteratorSetting getElementPostAggregationFilterIteratorSetting(final View view, final AccumuloStore store)
             throws IteratorSettingException;
 
+    /**
+     * Returns an {@link org.apache.accumulo.core.client.IteratorSetting} that
+     * can be used to apply an iterator that will only return the edges needed
+     * to find the vertices adjacent to the seeds of a GetAdjacentIds query,
+     * without their values, to a {@link org.apache.accumulo.core.client.Scanner}.
+     *
+     * @param view  the operation view
+     * @param store the accumulo store
+     * @return A new {@link IteratorSetting} for an Iterator that returns the adjacent vertices of the seeds
+     * @throws IteratorSettingException if an iterator setting could not be created
+     */
+    IteratorSetting getAdjacentIdIteratorSetting(final View view, final AccumuloStore store)
+            throws IteratorSettingException;
+
     /**
      * Returns an Iterator that will filter out
      * Edges/Entities/Undirected/Directed Edges based on the options in the
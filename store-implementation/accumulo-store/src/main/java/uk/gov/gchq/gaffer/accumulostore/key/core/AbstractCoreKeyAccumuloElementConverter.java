@@ -18,6 +18,8 @@ package uk.gov.gchq.gaffer.accumulostore.key.core;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
+import uk.gov.gchq.gaffer.accumulostore.data.element.AccumuloEdgeValueLoader;
+import uk.gov.gchq.gaffer.accumulostore.data.element.AccumuloEntityValueLoader;
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
@@ -29,6 +31,8 @@ import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.EdgeDirection;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.LazyEdge;
+import uk.gov.gchq.gaffer.data.element.LazyEntity;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.ElementId;
@@ -150,6 +154,17 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
         return properties;
     }
 
+    @Override
+    public Object getPropertyFromValue(final String group, final String propertyName, final Value value) {
+        if (isNotEmpty(value)) {
+            final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
+            if (isStoredInValue(propertyName, elementDefinition)) {
+                return getDeserialisedProperty(value.get(), elementDefinition, elementDefinition.getProperties(), true, propertyName);
+            }
+        }
+        return null;
+    }
+
     @Override
     public Element getElementFromKey(final Key key, final boolean includeMatchedVertex) {
         final byte[] row = key.getRowData().getBackingArray();
@@ -167,6 +182,15 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
         return element;
     }
 
+    @Override
+    public Element getLazyElement(final Key key, final Value value, final boolean includeMatchedVertex) {
+        final String group = getGroupFromColumnFamily(key.getColumnFamilyData().getBackingArray());
+        if (schema.isEntity(group)) {
+            return new LazyEntity(new Entity(group), new AccumuloEntityValueLoader(group, key, value, this, schema));
+        }
+        return new LazyEdge(new Edge(group, null, null, false), new AccumuloEdgeValueLoader(group, key, value, this, schema, includeMatchedVertex));
+    }
+
     @Override
     public byte[] buildColumnFamily(final String group) {
         try {
@@ -294,6 +318,52 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
         return properties;
     }
 
+    @Override
+    public Object getPropertyFromColumnQualifier(final String group, final String propertyName, final byte[] bytes) {
+        if (bytes != null && bytes.length != 0) {
+            final SchemaElementDefinition elementDefinition = getSchemaElementDefinition(group);
+            if (elementDefinition.getGroupBy().contains(propertyName)) {
+                return getDeserialisedProperty(bytes, elementDefinition, elementDefinition.getGroupBy(), false, propertyName);
+            }
+        }
+        return null;
+    }
+
+    // Skips over the serialised properties before the required property, so
+    // only the required property is deserialised.
+    private Object getDeserialisedProperty(final byte[] bytes, final SchemaElementDefinition elementDefinition,
+                                           final Iterable<String> propertyNames, final boolean valueProperties,
+                                           final String propertyName) {
+        int delimiterPosition = 0;
+        final int arrayLength = bytes.length;
+        final Iterator<String> propertyNamesItr = propertyNames.iterator();
+        while (propertyNamesItr.hasNext() && delimiterPosition < arrayLength) {
+            final String currentPropertyName = propertyNamesItr.next();
+            if (valueProperties && !isStoredInValue(currentPropertyName, elementDefinition)) {
+                continue;
+            }
+            final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(currentPropertyName);
+            final ToBytesSerialiser serialiser = (typeDefinition != null) ? (ToBytesSerialiser) typeDefinition.getSerialiser() : null;
+            if (serialiser == null) {
+                if (currentPropertyName.equals(propertyName)) {
+                    return null;
+                }
+                continue;
+            }
+            final int numBytesForLength = CompactRawSerialisationUtils.decodeVIntSize(bytes[delimiterPosition]);
+            final int currentPropLength = getCurrentPropLength(bytes, delimiterPosition);
+            if (currentPropertyName.equals(propertyName)) {
+                try {
+                    return getDeserialisedObject(serialiser, bytes, delimiterPosition + numBytesForLength, currentPropLength);
+                } catch (final SerialisationException e) {
+                    throw new AccumuloElementConversionException("Failed to deserialise property " + propertyName, e);
+                }
+            }
+            delimiterPosition += numBytesForLength + currentPropLength;
+        }
+        return null;
+    }
+
     private int addDeserialisedProperty(final byte[] bytes, final int carriage, final Properties properties, final SchemaElementDefinition elementDefinition, final String propertyName) throws SerialisationException {
         int rtn = carriage;
         final TypeDefinition typeDefinition = elementDefinition.getPropertyTypeDef(propertyName);
@@ -23,6 +23,7 @@ import uk.gov.gchq.gaffer.accumulostore.key.IteratorSettingFactory;
 import uk.gov.gchq.gaffer.accumulostore.key.core.impl.CoreKeyBloomFilterIterator;
 import uk.gov.gchq.gaffer.accumulostore.key.core.impl.CoreKeyGroupByAggregatorIterator;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.IteratorSettingException;
+import uk.gov.gchq.gaffer.accumulostore.key.impl.AdjacentIdIterator;
 import uk.gov.gchq.gaffer.accumulostore.key.impl.AggregatorIterator;
 import uk.gov.gchq.gaffer.accumulostore.key.impl.ElementPostAggregationFilter;
 import uk.gov.gchq.gaffer.accumulostore.key.impl.ElementPreAggregationFilter;
@@ -74,6 +75,17 @@ public abstract class AbstractCoreKeyIteratorSettingsFactory implements Iterator
                 .build();
     }
 
+    @Override
+    public IteratorSetting getAdjacentIdIteratorSetting(final View view, final AccumuloStore store)
+            throws IteratorSettingException {
+        return new IteratorSettingBuilder(AccumuloStoreConstants.ADJACENT_ID_ITERATOR_PRIORITY,
+                AccumuloStoreConstants.ADJACENT_ID_ITERATOR_NAME, AdjacentIdIterator.class)
+                .schema(store.getSchema())
+                .view(view)
+                .keyConverter(store.getKeyPackage().getKeyConverter())
+                .build();
+    }
+
     @Override
     public IteratorSetting getAggregatorIteratorSetting(final AccumuloStore store) throws IteratorSettingException {
         return new IteratorSettingBuilder(AccumuloStoreConstants.AGGREGATOR_ITERATOR_PRIORITY,
@@ -27,22 +27,19 @@ import org.apache.accumulo.core.iterators.OptionDescriber;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.WrappingIterator;
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.IteratorResources;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AggregationException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
 import uk.gov.gchq.gaffer.accumulostore.utils.ByteUtils;
 import uk.gov.gchq.gaffer.accumulostore.utils.BytesAndRange;
 import uk.gov.gchq.gaffer.accumulostore.utils.IteratorOptionsBuilder;
-import uk.gov.gchq.gaffer.commonutil.CommonConstants;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
-import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
@@ -66,6 +63,11 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
     @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "elementConverter is initialised in init method, which is always called first")
     protected AccumuloElementConverter elementConverter;
 
+    @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "options are initialised in init method, which is always called first")
+    private Map<String, String> options;
+
+    private IteratorResources resources;
+
     private Key topKey;
     private Value topValue;
 
@@ -244,6 +246,7 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
         }
 
         findTop();
+        releaseResourcesIfFinished();
     }
 
     private final Key workKey = new Key();
@@ -302,6 +305,9 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
         // do not want to seek to the middle of a value that should be
         // combined...
 
+        if (null == resources) {
+            acquireResources();
+        }
         final Range seekRange = IteratorUtil.maximizeStartKeyTimeStamp(range);
 
         super.seek(seekRange, columnFamilies, inclusive);
@@ -318,6 +324,7 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
                 next();
             }
         }
+        releaseResourcesIfFinished();
     }
 
     /**
@@ -341,37 +348,16 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
             throw new RuntimeException(e);
         }
         newInstance.setSource(getSource().deepCopy(env));
-        newInstance.schema = schema;
-        newInstance.view = view;
-        newInstance.elementConverter = elementConverter;
+        newInstance.options = options;
+        newInstance.acquireResources();
         return newInstance;
     }
 
     @Override
     public void init(final SortedKeyValueIterator<Key, Value> source, final Map<String, String> options, final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
-        try {
-            schema = Schema.fromJson(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
-        } catch (final UnsupportedEncodingException e) {
-            throw new SchemaException("Unable to deserialise the schema", e);
-        }
-        try {
-            view = View.fromJson(options.get(AccumuloStoreConstants.VIEW).getBytes(CommonConstants.UTF_8));
-        } catch (final UnsupportedEncodingException e) {
-            throw new SchemaException("Unable to deserialise the view", e);
-        }
-
-        try {
-            elementConverter = Class
-                    .forName(options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS))
-                    .asSubclass(AccumuloElementConverter.class)
-                    .getConstructor(Schema.class)
-                    .newInstance(schema);
-        } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NoSuchMethodException | SecurityException e) {
-            throw new AggregationException("Failed to load element converter from class name provided : "
-                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
-        }
+        this.options = options;
+        acquireResources();
     }
 
     @Override
@@ -392,4 +378,27 @@ public abstract class CoreKeyGroupByCombiner extends WrappingIterator
                 "Applies a reduce function to a set of Properties with identical rowKey, column family and column qualifier constants.")
                 .addSchemaNamedOption().build();
     }
+
+    private void acquireResources() {
+        try {
+            resources = IteratorResources.acquire(options.get(AccumuloStoreConstants.SCHEMA),
+                    options.get(AccumuloStoreConstants.VIEW),
+                    options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS));
+        } catch (final ReflectiveOperationException | IllegalArgumentException | SecurityException e) {
+            throw new AggregationException("Failed to load element converter from class name provided : "
+                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
+        }
+        schema = resources.getSchema();
+        view = resources.getView();
+        elementConverter = resources.getElementConverter();
+    }
+
+    // The resources are returned to the pool once the range has been read,
+    // as iterators are not closed when the scan finishes.
+    private void releaseResourcesIfFinished() {
+        if (!hasTop() && null != resources) {
+            resources.release();
+            resources = null;
+        }
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.key.impl;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.OptionDescriber;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.IteratorResources;
+import uk.gov.gchq.gaffer.accumulostore.key.exception.ElementFilterException;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.accumulostore.utils.IteratorOptionsBuilder;
+import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The <code>AdjacentIdIterator</code> is used by GetAdjacentIds queries to
+ * return only what is needed to work out the adjacent vertices. It runs after
+ * the view filters and query time aggregation. The adjacent vertex of each
+ * edge can be read from its key, so edges are returned with an empty value
+ * and their properties are not sent to the client. Edges in groups with post
+ * transform filters are returned in full, as these filters have to be applied
+ * on the client.
+ */
+public class AdjacentIdIterator extends WrappingIterator implements OptionDescriber {
+    private static final Value EMPTY_VALUE = new Value(AccumuloStoreConstants.EMPTY_BYTES);
+
+    @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "options are initialised in init method, which is always called first")
+    private Map<String, String> options;
+
+    private IteratorResources resources;
+
+    @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "elementConverter is initialised in init method, which is always called first")
+    private AccumuloElementConverter elementConverter;
+
+    @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "fullElementGroups is initialised in init method, which is always called first")
+    private Set<String> fullElementGroups;
+
+    @Override
+    public Value getTopValue() {
+        final String group = elementConverter.getGroupFromColumnFamily(getTopKey().getColumnFamilyData().getBackingArray());
+        return fullElementGroups.contains(group) ? super.getTopValue() : EMPTY_VALUE;
+    }
+
+    @Override
+    public void init(final SortedKeyValueIterator<Key, Value> source,
+                     final Map<String, String> options,
+                     final IteratorEnvironment env) throws IOException {
+        super.init(source, options, env);
+        validateOptions(options);
+
+        this.options = options;
+        acquireResources();
+    }
+
+    @Override
+    public void seek(final Range range, final Collection<ByteSequence> columnFamilies, final boolean inclusive) throws IOException {
+        if (null == resources) {
+            acquireResources();
+        }
+        super.seek(range, columnFamilies, inclusive);
+        releaseResourcesIfFinished();
+    }
+
+    @Override
+    public void next() throws IOException {
+        super.next();
+        releaseResourcesIfFinished();
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key, Value> deepCopy(final IteratorEnvironment env) {
+        final AdjacentIdIterator newInstance = new AdjacentIdIterator();
+        newInstance.setSource(getSource().deepCopy(env));
+        newInstance.options = options;
+        newInstance.acquireResources();
+        return newInstance;
+    }
+
+    @Override
+    public boolean validateOptions(final Map<String, String> options) {
+        if (!options.containsKey(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS)) {
+            throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS);
+        }
+        if (!options.containsKey(AccumuloStoreConstants.SCHEMA)) {
+            throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.SCHEMA);
+        }
+        if (!options.containsKey(AccumuloStoreConstants.VIEW)) {
+            throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.VIEW);
+        }
+
+        return true;
+    }
+
+    @Override
+    public IteratorOptions describeOptions() {
+        return new IteratorOptionsBuilder(AccumuloStoreConstants.ADJACENT_ID_ITERATOR_NAME,
+                "Only returns the edge keys needed to find each adjacent vertex").addViewNamedOption().addSchemaNamedOption()
+                .addElementConverterClassNamedOption().build();
+    }
+
+    private void acquireResources() {
+        try {
+            resources = IteratorResources.acquire(options.get(AccumuloStoreConstants.SCHEMA),
+                    options.get(AccumuloStoreConstants.VIEW),
+                    options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS));
+        } catch (final ReflectiveOperationException | IllegalArgumentException | SecurityException e) {
+            throw new ElementFilterException("Failed to load element converter from class name provided : "
+                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
+        }
+        elementConverter = resources.getElementConverter();
+        fullElementGroups = getGroupsWithPostTransformFilters(resources.getView());
+    }
+
+    // The resources are returned to the pool once the range has been read,
+    // as iterators are not closed when the scan finishes.
+    private void releaseResourcesIfFinished() {
+        if (!hasTop() && null != resources) {
+            resources.release();
+            resources = null;
+        }
+    }
+
+    private static Set<String> getGroupsWithPostTransformFilters(final View view) {
+        final Set<String> groups = new HashSet<>();
+        for (final Map.Entry<String, ViewElementDefinition> entry : new ChainedIterable<Map.Entry<String, ViewElementDefinition>>(view.getEntities().entrySet(), view.getEdges().entrySet())) {
+            if (null != entry.getValue() && entry.getValue().hasPostTransformFilters()) {
+                groups.add(entry.getKey());
+            }
+        }
+        return groups;
+    }
+}
@@ -16,12 +16,15 @@
 
 package uk.gov.gchq.gaffer.accumulostore.key.impl;
 
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.Combiner;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.IteratorResources;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AggregationException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
@@ -29,11 +32,10 @@ import uk.gov.gchq.gaffer.accumulostore.utils.IteratorOptionsBuilder;
 import uk.gov.gchq.gaffer.commonutil.CommonConstants;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
-import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.lang.reflect.InvocationTargetException;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 
@@ -44,6 +46,8 @@ import java.util.Map;
  * therefore what the resulting {@link Value} will be.
  */
 public class AggregatorIterator extends Combiner {
+    private Map<String, String> options;
+    private IteratorResources resources;
     private Schema schema;
     private AccumuloElementConverter elementConverter;
 
@@ -90,23 +94,31 @@ public class AggregatorIterator extends Combiner {
     public void init(final SortedKeyValueIterator<Key, Value> source, final Map<String, String> options,
                      final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
-        try {
-            schema = Schema.fromJson(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
-        } catch (final UnsupportedEncodingException e) {
-            throw new SchemaException("Unable to deserialise the schema from json", e);
-        }
+        this.options = options;
+        acquireResources();
+    }
 
-        try {
-            elementConverter = Class
-                    .forName(options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS))
-                    .asSubclass(AccumuloElementConverter.class)
-                    .getConstructor(Schema.class)
-                    .newInstance(schema);
-        } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NoSuchMethodException | SecurityException e) {
-            throw new AggregationException("Failed to load element converter from class name provided : "
-                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
+    @Override
+    public void seek(final Range range, final Collection<ByteSequence> columnFamilies, final boolean inclusive) throws IOException {
+        if (null == resources) {
+            acquireResources();
         }
+        super.seek(range, columnFamilies, inclusive);
+        releaseResourcesIfFinished();
+    }
+
+    @Override
+    public void next() throws IOException {
+        super.next();
+        releaseResourcesIfFinished();
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key, Value> deepCopy(final IteratorEnvironment env) {
+        final AggregatorIterator newInstance = (AggregatorIterator) super.deepCopy(env);
+        newInstance.options = options;
+        newInstance.acquireResources();
+        return newInstance;
     }
 
     @Override
@@ -133,4 +145,25 @@ public class AggregatorIterator extends Combiner {
                 .build();
     }
 
+    private void acquireResources() {
+        try {
+            resources = IteratorResources.acquire(options.get(AccumuloStoreConstants.SCHEMA), null,
+                    options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS));
+        } catch (final ReflectiveOperationException | IllegalArgumentException | SecurityException e) {
+            throw new AggregationException("Failed to load element converter from class name provided : "
+                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
+        }
+        schema = resources.getSchema();
+        elementConverter = resources.getElementConverter();
+    }
+
+    // The resources are returned to the pool once the range has been read,
+    // as iterators are not closed when the scan finishes.
+    private void releaseResourcesIfFinished() {
+        if (!hasTop() && null != resources) {
+            resources.release();
+            resources = null;
+        }
+    }
+
 }
@@ -26,6 +26,7 @@ import org.apache.accumulo.core.iterators.OptionDescriber;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.WrappingIterator;
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.IteratorResources;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AggregationException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
@@ -33,17 +34,18 @@ import uk.gov.gchq.gaffer.accumulostore.utils.IteratorOptionsBuilder;
 import uk.gov.gchq.gaffer.commonutil.CommonConstants;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
-import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 
 public class RowIDAggregator extends WrappingIterator implements OptionDescriber {
 
+    @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "options are initialised in init method, which is always called first")
+    private Map<String, String> options = null;
+    private IteratorResources resources = null;
     @SuppressFBWarnings(value = "UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", justification = "schema is initialised in validateOptions method, which is always called first")
     protected Schema schema = null;
     @SuppressFBWarnings({"UWF_FIELD_NOT_INITIALIZED_IN_CONSTRUCTOR", "UUF_UNUSED_PUBLIC_OR_PROTECTED_FIELD"})
@@ -90,9 +92,8 @@ public class RowIDAggregator extends WrappingIterator implements OptionDescriber
         RowIDAggregator rowIDAggregator = new RowIDAggregator();
         rowIDAggregator.topKey = this.topKey;
         rowIDAggregator.topValue = this.topValue;
-        rowIDAggregator.schema = this.schema;
-        rowIDAggregator.aggregator = this.aggregator;
-        rowIDAggregator.elementConverter = this.elementConverter;
+        rowIDAggregator.options = this.options;
+        rowIDAggregator.acquireResources();
         Key newWorkKey = new Key();
         newWorkKey.set(workKey);
         rowIDAggregator.workKey = newWorkKey;
@@ -103,29 +104,15 @@ public class RowIDAggregator extends WrappingIterator implements OptionDescriber
     public void init(final SortedKeyValueIterator<Key, Value> source, final Map<String, String> options, final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
         this.source = source;
-        try {
-            schema = Schema.fromJson(options.get(AccumuloStoreConstants.SCHEMA).getBytes(CommonConstants.UTF_8));
-        } catch (final UnsupportedEncodingException e) {
-            throw new SchemaException("Unable to deserialise the schema", e);
-        }
-        try {
-            elementConverter = Class
-                    .forName(options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS))
-                    .asSubclass(AccumuloElementConverter.class)
-                    .getConstructor(Schema.class)
-                    .newInstance(schema);
-        } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException | IllegalArgumentException
-                | InvocationTargetException | NoSuchMethodException | SecurityException e) {
-            throw new AggregationException("Failed to load element converter from class name provided : "
-                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
-        }
-
-        group = options.get(AccumuloStoreConstants.COLUMN_FAMILY);
-        aggregator = schema.getElement(group).getFullAggregator();
+        this.options = options;
+        acquireResources();
     }
 
     @Override
     public void seek(final Range range, final Collection<ByteSequence> columnFamilies, final boolean inclusive) throws IOException {
+        if (null == resources) {
+            acquireResources();
+        }
         topKey = null;
         workKey = new Key();
         super.seek(range, columnFamilies, inclusive);
@@ -133,6 +120,7 @@ public class RowIDAggregator extends WrappingIterator implements OptionDescriber
         currentColumnFamilies = columnFamilies;
         currentColumnFamiliesInclusive = inclusive;
         findTop();
+        releaseResourcesIfFinished();
     }
 
     @Override
@@ -140,10 +128,12 @@ public class RowIDAggregator extends WrappingIterator implements OptionDescriber
         topKey = null;
         workKey = new Key();
         if (!source.hasTop()) {
+            releaseResourcesIfFinished();
             return;
         }
         source.next();
         findTop();
+        releaseResourcesIfFinished();
     }
 
     @Override
@@ -183,6 +173,30 @@ public class RowIDAggregator extends WrappingIterator implements OptionDescriber
         }
     }
 
+    private void acquireResources() {
+        try {
+            resources = IteratorResources.acquire(options.get(AccumuloStoreConstants.SCHEMA), null,
+                    options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS));
+        } catch (final ReflectiveOperationException | IllegalArgumentException | SecurityException e) {
+            throw new AggregationException("Failed to load element converter from class name provided : "
+                    + options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
+        }
+        schema = resources.getSchema();
+        elementConverter = resources.getElementConverter();
+
+        group = options.get(AccumuloStoreConstants.COLUMN_FAMILY);
+        aggregator = schema.getElement(group).getFullAggregator();
+    }
+
+    // The resources are returned to the pool once the range has been read,
+    // as iterators are not closed when the scan finishes.
+    private void releaseResourcesIfFinished() {
+        if (!hasTop() && null != resources) {
+            resources.release();
+            resources = null;
+        }
+    }
+
     private Properties reduce(final Iterator<Properties> iter) {
         Properties state = null;
         Properties properties;
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.operation.handler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.key.exception.IteratorSettingException;
+import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetElementsAfterHops;
+import uk.gov.gchq.gaffer.accumulostore.retriever.impl.AccumuloAdjacentIdRetriever;
+import uk.gov.gchq.gaffer.accumulostore.retriever.impl.AccumuloElementsRetriever;
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handles {@link GetElementsAfterHops} operations by running an
+ * {@link AccumuloAdjacentIdRetriever} for each hop and an
+ * {@link AccumuloElementsRetriever} for the vertices reached by the last hop.
+ * Each hop runs on the store's hop executor, see
+ * {@link AccumuloStore#getHopExecutor()}, and passes the vertices it finds to
+ * the next hop through a bounded queue, holding up to
+ * {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#getMaxEntriesForBatchScanner()}
+ * vertices. So all the hops scan at the same time, and a hop that gets ahead
+ * of the next one waits rather than buffering its results. If the executor has
+ * no free threads the hop is run on the thread reading its results instead.
+ * The hops start when the results are iterated and are stopped when the
+ * results are closed, or if their results are not read for
+ * {@link #ABANDONED_HOP_TIMEOUT_MILLIS}. The vertices passed to each retriever
+ * are deduplicated, so no vertex is queried twice in the same hop, using a set
+ * of up to {@link #MAX_DISTINCT_VERTICES} vertices per hop. Once the set is
+ * full, vertices that are not in it are passed on without being deduplicated.
+ */
+public class GetElementsAfterHopsHandler implements OutputOperationHandler<GetElementsAfterHops, CloseableIterable<? extends Element>> {
+    public static final int MAX_DISTINCT_VERTICES = 1000000;
+    public static final long ABANDONED_HOP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GetElementsAfterHopsHandler.class);
+    private static final long OFFER_TIMEOUT_MILLIS = 1000L;
+
+    @Override
+    public CloseableIterable<? extends Element> doOperation(final GetElementsAfterHops operation,
+                                                            final Context context, final Store store)
+            throws OperationException {
+        return doOperation(operation, context.getUser(), (AccumuloStore) store);
+    }
+
+    public CloseableIterable<? extends Element> doOperation(final GetElementsAfterHops operation,
+                                                            final User user,
+                                                            final AccumuloStore store) throws OperationException {
+        if (null == operation.getView()) {
+            throw new OperationException("A view is required for " + GetElementsAfterHops.class.getSimpleName());
+        }
+
+        final int queueSize = store.getProperties().getMaxEntriesForBatchScanner();
+        final List<HopStage> stages = new ArrayList<>();
+        Iterable<? extends EntityId> vertices = operation.getInput();
+        try {
+            for (final View hopView : operation.getHopViews()) {
+                final GetAdjacentIds hop = new GetAdjacentIds.Builder()
+                        .input(new DistinctVertices(vertices))
+                        .view(getHopView(hopView, operation.getView()))
+                        .directedType(operation.getDirectedType())
+                        .inOutType(operation.getIncludeIncomingOutGoing())
+                        .options(operation.getOptions())
+                        .build();
+                final HopStage stage = new HopStage(new AccumuloAdjacentIdRetriever(store, hop, user),
+                        store.getHopExecutor(), queueSize, ABANDONED_HOP_TIMEOUT_MILLIS);
+                stages.add(stage);
+                vertices = stage;
+            }
+
+            final GetElements getElements = new GetElements.Builder()
+                    .input(new DistinctVertices(vertices))
+                    .view(operation.getView())
+                    .directedType(operation.getDirectedType())
+                    .inOutType(operation.getIncludeIncomingOutGoing())
+                    .options(operation.getOptions())
+                    .build();
+            return new HopsResults(new AccumuloElementsRetriever(store, getElements, user), stages);
+        } catch (final IteratorSettingException | StoreException e) {
+            throw new OperationException("Failed to get elements after hops", e);
+        }
+    }
+
+    private static View getHopView(final View hopView, final View view) {
+        final View result;
+        if (null == hopView) {
+            result = view;
+        } else if (!hopView.hasGroups()) {
+            result = new View.Builder()
+                    .merge(view)
+                    .merge(hopView)
+                    .build();
+        } else {
+            result = hopView.clone();
+        }
+
+        result.expandGlobalDefinitions();
+        return result;
+    }
+
+    /**
+     * The elements found after the hops. Closing the results, or their
+     * iterator, also stops all the hops.
+     */
+    private static final class HopsResults implements CloseableIterable<Element> {
+        private final CloseableIterable<Element> elements;
+        private final List<HopStage> stages;
+
+        private HopsResults(final CloseableIterable<Element> elements, final List<HopStage> stages) {
+            this.elements = elements;
+            this.stages = stages;
+        }
+
+        @Override
+        public void close() {
+            elements.close();
+            stages.forEach(HopStage::close);
+        }
+
+        @Override
+        public CloseableIterator<Element> iterator() {
+            final CloseableIterator<Element> elementsItr = elements.iterator();
+            return new CloseableIterator<Element>() {
+                @Override
+                public boolean hasNext() {
+                    return elementsItr.hasNext();
+                }
+
+                @Override
+                public Element next() {
+                    return elementsItr.next();
+                }
+
+                @Override
+                public void close() {
+                    elementsItr.close();
+                    stages.forEach(HopStage::close);
+                }
+            };
+        }
+    }
+
+    /**
+     * Runs a hop on the hop executor and returns the vertices it finds
+     * through a bounded queue. Like the retrievers, only 1 iterator can be
+     * open at a time.
+     */
+    static final class HopStage implements CloseableIterable<EntityId> {
+        private static final Object END = new Object();
+
+        private final CloseableIterable<? extends EntityId> hop;
+        private final ExecutorService executor;
+        private final int queueSize;
+        private final long abandonedTimeoutMillis;
+        private StageIterator iterator;
+
+        HopStage(final CloseableIterable<? extends EntityId> hop, final ExecutorService executor,
+                 final int queueSize, final long abandonedTimeoutMillis) {
+            this.hop = hop;
+            this.executor = executor;
+            this.queueSize = queueSize;
+            this.abandonedTimeoutMillis = abandonedTimeoutMillis;
+        }
+
+        @Override
+        public synchronized void close() {
+            CloseableUtil.close(iterator);
+            hop.close();
+        }
+
+        @Override
+        public synchronized CloseableIterator<EntityId> iterator() {
+            CloseableUtil.close(iterator);
+            iterator = new StageIterator();
+            return iterator;
+        }
+
+        private final class StageIterator implements CloseableIterator<EntityId> {
+            private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueSize);
+            private final Future<?> future;
+            private final CloseableIterator<? extends EntityId> hopItrOnCaller;
+            private volatile boolean cancelled;
+            private volatile RuntimeException failure;
+            private Object next;
+
+            private StageIterator() {
+                Future<?> submitted;
+                try {
+                    submitted = executor.submit(this::runHop);
+                } catch (final RejectedExecutionException e) {
+                    LOGGER.debug("All the hop threads are busy, so the hop will run on the thread reading its results");
+                    submitted = null;
+                }
+                future = submitted;
+                hopItrOnCaller = null == future ? hop.iterator() : null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (null != hopItrOnCaller) {
+                    return hopItrOnCaller.hasNext();
+                }
+
+                while (null == next) {
+                    try {
+                        next = queue.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Interrupted while waiting for the results of a hop", e);
+                    }
+                    if (null == next && future.isDone() && queue.isEmpty()) {
+                        // The hop stopped without adding the end marker, e.g. it was cancelled
+                        next = END;
+                    }
+                }
+                if (END == next) {
+                    if (null != failure) {
+                        throw failure;
+                    }
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public EntityId next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (null != hopItrOnCaller) {
+                    return hopItrOnCaller.next();
+                }
+                final EntityId result = (EntityId) next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void close() {
+                cancelled = true;
+                if (null != future) {
+                    future.cancel(true);
+                }
+                CloseableUtil.close(hopItrOnCaller);
+            }
+
+            private void runHop() {
+                CloseableIterator<? extends EntityId> hopItr = null;
+                try {
+                    hopItr = hop.iterator();
+                    while (!cancelled && hopItr.hasNext()) {
+                        if (!offer(hopItr.next())) {
+                            return;
+                        }
+                    }
+                    offer(END);
+                } catch (final InterruptedException e) {
+                    // The results have been closed, so no one is waiting for the rest of the vertices
+                    Thread.currentThread().interrupt();
+                } catch (final RuntimeException | Error e) {
+                    failure = e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException("Failed to run a hop", e);
+                    // Make room for the end marker, the results are not used once the hop has failed
+                    queue.clear();
+                    queue.offer(END);
+                } finally {
+                    CloseableUtil.close(hopItr);
+                }
+            }
+
+            // Waits for room in the queue until the results are closed, or
+            // until they have not been read for the abandoned timeout.
+            private boolean offer(final Object item) throws InterruptedException {
+                long waitedMillis = 0;
+                while (!cancelled) {
+                    if (queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                    waitedMillis += OFFER_TIMEOUT_MILLIS;
+                    if (waitedMillis >= abandonedTimeoutMillis) {
+                        LOGGER.warn("Stopping a hop as its results have not been read for {}ms", waitedMillis);
+                        cancelled = true;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Lazily skips the vertices that have already been returned by the
+     * current iterator, remembering up to {@link #MAX_DISTINCT_VERTICES}
+     * vertices.
+     */
+    private static final class DistinctVertices implements CloseableIterable<EntityId> {
+        private final Iterable<? extends EntityId> input;
+
+        private DistinctVertices(final Iterable<? extends EntityId> input) {
+            this.input = input;
+        }
+
+        @Override
+        public void close() {
+            CloseableUtil.close(input);
+        }
+
+        @Override
+        public CloseableIterator<EntityId> iterator() {
+            final Iterator<? extends EntityId> inputItr = null != input ? input.iterator() : null;
+            final Set<Object> vertices = new HashSet<>();
+            return new CloseableIterator<EntityId>() {
+                private EntityId next;
+
+                @Override
+                public boolean hasNext() {
+                    while (null == next && null != inputItr && inputItr.hasNext()) {
+                        final EntityId entityId = inputItr.next();
+                        if (null != entityId && isDistinct(entityId.getVertex())) {
+                            next = entityId;
+                        }
+                    }
+                    return null != next;
+                }
+
+                @Override
+                public EntityId next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final EntityId result = next;
+                    next = null;
+                    return result;
+                }
+
+                @Override
+                public void close() {
+                    CloseableUtil.close(inputItr);
+                }
+
+                private boolean isDistinct(final Object vertex) {
+                    if (vertices.size() < MAX_DISTINCT_VERTICES) {
+                        return vertices.add(vertex);
+                    }
+                    return !vertices.contains(vertex);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.operation.handler;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.AccumuloSecurityException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.operation.impl.SplitStoreFromIngestSample;
+import uk.gov.gchq.gaffer.accumulostore.utils.RowSampler;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.operation.handler.OperationHandler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Handles {@link SplitStoreFromIngestSample} operations by assigning the rows
+ * in the store's ingest {@link RowSampler} to the tablets of the table and
+ * splitting the tablets that received too many of them at the quantiles of
+ * their sampled rows. The sample is taken from the sampler, which starts again,
+ * so the next operation only considers the rows written after this one.
+ */
+public class SplitStoreFromIngestSampleHandler implements OperationHandler<SplitStoreFromIngestSample> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SplitStoreFromIngestSampleHandler.class);
+
+    @Override
+    public Void doOperation(final SplitStoreFromIngestSample operation,
+                            final Context context, final Store store) throws OperationException {
+        splitStore(operation, (AccumuloStore) store);
+        return null;
+    }
+
+    private void splitStore(final SplitStoreFromIngestSample operation, final AccumuloStore store) throws OperationException {
+        if (operation.getMaxRowsPerTablet() < 1) {
+            throw new OperationException("maxRowsPerTablet is required for " + SplitStoreFromIngestSample.class.getSimpleName());
+        }
+
+        final RowSampler sampler = store.getIngestSampler();
+        if (null == sampler) {
+            throw new OperationException("Rows are not sampled when elements are added to this store. Set the "
+                    + AccumuloProperties.INGEST_SAMPLE_SIZE + " store property to sample them.");
+        }
+
+        final RowSampler.Sample taken = sampler.takeSample(operation.getMinSampleSize());
+        if (null == taken) {
+            LOGGER.info("Not splitting table {} as fewer than {} rows have been sampled", store.getTableName(), operation.getMinSampleSize());
+            return;
+        }
+        final List<Text> sample = taken.getRows();
+        final long count = taken.getCount();
+        Collections.sort(sample);
+
+        try {
+            final List<Text> splits = new ArrayList<>(store.getConnection().tableOperations().listSplits(store.getTableName()));
+            Collections.sort(splits);
+            final SortedSet<Text> newSplits = getNewSplits(operation, sample, count, splits);
+            if (!newSplits.isEmpty()) {
+                store.getConnection().tableOperations().addSplits(store.getTableName(), newSplits);
+            }
+            LOGGER.info("Added {} splits to table {}", newSplits.size(), store.getTableName());
+        } catch (final TableNotFoundException | AccumuloException | AccumuloSecurityException | StoreException e) {
+            throw new OperationException("Failed to add split points to table " + store.getTableName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static SortedSet<Text> getNewSplits(final SplitStoreFromIngestSample operation, final List<Text> sample,
+                                                final long count, final List<Text> splits) {
+        final double rowsPerSample = (double) count / sample.size();
+        final double meanSamplesPerTablet = (double) sample.size() / (splits.size() + 1);
+        final SortedSet<Text> newSplits = new TreeSet<>();
+        int start = 0;
+        for (int tablet = 0; tablet <= splits.size(); tablet++) {
+            // Each tablet holds the rows after the previous split point, up to and including its end row
+            final Text endRow = tablet < splits.size() ? splits.get(tablet) : null;
+            int end = start;
+            while (end < sample.size() && (null == endRow || sample.get(end).compareTo(endRow) <= 0)) {
+                end++;
+            }
+            addTabletSplits(operation, sample.subList(start, end), rowsPerSample, meanSamplesPerTablet, endRow, newSplits);
+            start = end;
+        }
+        return newSplits;
+    }
+
+    private static void addTabletSplits(final SplitStoreFromIngestSample operation, final List<Text> tabletSample,
+                                        final double rowsPerSample, final double meanSamplesPerTablet,
+                                        final Text endRow, final SortedSet<Text> newSplits) {
+        final int numSamples = tabletSample.size();
+        final double estimatedRows = numSamples * rowsPerSample;
+        int numParts = 1;
+        if (estimatedRows > operation.getMaxRowsPerTablet()) {
+            numParts = (int) Math.min(numSamples, Math.ceil(estimatedRows / operation.getMaxRowsPerTablet()));
+        }
+        if (operation.getSkewFactor() > 0 && numSamples > operation.getSkewFactor() * meanSamplesPerTablet) {
+            numParts = Math.max(numParts, (int) Math.min(numSamples, Math.ceil(numSamples / meanSamplesPerTablet)));
+        }
+
+        // Split at the quantiles of the sample, so each part receives a similar number of rows
+        for (int part = 1; part < numParts; part++) {
+            final Text split = tabletSample.get((int) ((long) part * numSamples / numParts) - 1);
+            if (!split.equals(endRow)) {
+                newSplits.add(split);
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.operation.impl;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.type.TypeReference;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.Options;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters;
+import uk.gov.gchq.gaffer.operation.io.InputOutput;
+import uk.gov.gchq.gaffer.operation.io.MultiInput;
+import uk.gov.gchq.gaffer.operation.serialisation.TypeReferenceImpl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hops from the input seeds to their adjacent vertices a number of times and
+ * then retrieves the {@link Element}s for the vertices reached by the last hop.
+ * This gives the same distinct results as a chain of
+ * {@link uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds} operations
+ * followed by a {@link uk.gov.gchq.gaffer.operation.impl.get.GetElements}, but
+ * the vertices found by each hop are streamed into the next hop as they are
+ * found and each vertex is only queried once per hop.
+ * <p>
+ * There is one hop per hop view. The hop views are used to filter the edges
+ * followed by each hop; a null hop view means the operation view is used. The
+ * operation view is used to filter the elements returned. The directed type
+ * and incoming/outgoing type are applied to every hop and to the elements
+ * returned.
+ * </p>
+ **/
+public class GetElementsAfterHops implements
+        Operation,
+        InputOutput<Iterable<? extends EntityId>, CloseableIterable<? extends Element>>,
+        MultiInput<EntityId>,
+        SeededGraphFilters,
+        Options {
+    private View view;
+    private List<View> hopViews = new ArrayList<>();
+    private DirectedType directedType;
+    private IncludeIncomingOutgoingType inOutType;
+    private Iterable<? extends EntityId> input;
+    private Map<String, String> options;
+
+    @Override
+    public View getView() {
+        return view;
+    }
+
+    @Override
+    public void setView(final View view) {
+        this.view = view;
+    }
+
+    public List<View> getHopViews() {
+        return hopViews;
+    }
+
+    public void setHopViews(final List<View> hopViews) {
+        this.hopViews = null != hopViews ? hopViews : new ArrayList<>();
+    }
+
+    @Override
+    public DirectedType getDirectedType() {
+        return directedType;
+    }
+
+    @Override
+    public void setDirectedType(final DirectedType directedType) {
+        this.directedType = directedType;
+    }
+
+    @Override
+    public IncludeIncomingOutgoingType getIncludeIncomingOutGoing() {
+        return inOutType;
+    }
+
+    @Override
+    public void setIncludeIncomingOutGoing(final IncludeIncomingOutgoingType inOutType) {
+        this.inOutType = inOutType;
+    }
+
+    @Override
+    public Iterable<? extends EntityId> getInput() {
+        return input;
+    }
+
+    @Override
+    public void setInput(final Iterable<? extends EntityId> input) {
+        this.input = input;
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.EXISTING_PROPERTY, property = "class")
+    @Override
+    public Object[] createInputArray() {
+        return MultiInput.super.createInputArray();
+    }
+
+    @Override
+    public TypeReference<CloseableIterable<? extends Element>> getOutputTypeReference() {
+        return new TypeReferenceImpl.CloseableIterableElement();
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static class Builder extends Operation.BaseBuilder<GetElementsAfterHops, Builder>
+            implements InputOutput.Builder<GetElementsAfterHops, Iterable<? extends EntityId>, CloseableIterable<? extends Element>, Builder>,
+            MultiInput.Builder<GetElementsAfterHops, EntityId, Builder>,
+            SeededGraphFilters.Builder<GetElementsAfterHops, Builder>,
+            Options.Builder<GetElementsAfterHops, Builder> {
+        public Builder() {
+            super(new GetElementsAfterHops());
+        }
+
+        /**
+         * Adds hops to the operation, one for each view.
+         *
+         * @param hopViews the views used to filter the edges followed by each hop
+         * @return this Builder
+         */
+        public Builder hops(final View... hopViews) {
+            _getOp().getHopViews().addAll(Arrays.asList(hopViews));
+            return _self();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.operation.impl;
+
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.Options;
+import uk.gov.gchq.koryphe.ValidationResult;
+import java.util.Map;
+
+/**
+ * The <code>SplitStoreFromIngestSample</code> operation adds split points to
+ * the table using the sample of rows written since the split points were last
+ * added, so the table can be kept balanced during continuous ingest without
+ * running a MapReduce job. Rows are only sampled if the
+ * <code>accumulo.ingestSampleSize</code> store property is set.
+ * <p>
+ * The number of rows written to each tablet is estimated from the sample. A
+ * tablet is split into equally sized parts if its estimated number of rows is
+ * more than the maxRowsPerTablet, or if it received more than the skewFactor
+ * times the mean number of rows per tablet. The maxRowsPerTablet is required,
+ * as the skew check never splits a table with a single tablet. The skew check
+ * is skipped if the skewFactor is not positive. Nothing is split until the
+ * sample holds at least minSampleSize rows.
+ * </p>
+ *
+ * @see SplitStoreFromIngestSample.Builder
+ */
+public class SplitStoreFromIngestSample implements Operation, Options {
+    public static final double DEFAULT_SKEW_FACTOR = 2.0;
+    public static final int DEFAULT_MIN_SAMPLE_SIZE = 1000;
+
+    private long maxRowsPerTablet;
+    private double skewFactor = DEFAULT_SKEW_FACTOR;
+    private int minSampleSize = DEFAULT_MIN_SAMPLE_SIZE;
+    private Map<String, String> options;
+
+    public long getMaxRowsPerTablet() {
+        return maxRowsPerTablet;
+    }
+
+    public void setMaxRowsPerTablet(final long maxRowsPerTablet) {
+        this.maxRowsPerTablet = maxRowsPerTablet;
+    }
+
+    public double getSkewFactor() {
+        return skewFactor;
+    }
+
+    public void setSkewFactor(final double skewFactor) {
+        this.skewFactor = skewFactor;
+    }
+
+    public int getMinSampleSize() {
+        return minSampleSize;
+    }
+
+    public void setMinSampleSize(final int minSampleSize) {
+        this.minSampleSize = minSampleSize;
+    }
+
+    @Override
+    public ValidationResult validate() {
+        final ValidationResult result = Operation.super.validate();
+        if (maxRowsPerTablet < 1) {
+            result.addError("maxRowsPerTablet is required");
+        }
+
+        return result;
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static class Builder extends Operation.BaseBuilder<SplitStoreFromIngestSample, Builder>
+            implements Options.Builder<SplitStoreFromIngestSample, Builder> {
+        public Builder() {
+            super(new SplitStoreFromIngestSample());
+        }
+
+        public Builder maxRowsPerTablet(final long maxRowsPerTablet) {
+            _getOp().setMaxRowsPerTablet(maxRowsPerTablet);
+            return _self();
+        }
+
+        public Builder skewFactor(final double skewFactor) {
+            _getOp().setSkewFactor(skewFactor);
+            return _self();
+        }
+
+        public Builder minSampleSize(final int minSampleSize) {
+            _getOp().setMinSampleSize(minSampleSize);
+            return _self();
+        }
+    }
+}
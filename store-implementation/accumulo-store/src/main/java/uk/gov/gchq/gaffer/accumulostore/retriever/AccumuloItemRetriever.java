@@ -39,7 +39,8 @@ import uk.gov.gchq.gaffer.operation.io.Input;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.user.User;
-import java.util.HashSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
@@ -86,36 +87,39 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
 
     protected abstract void addToRanges(final I_ITEM seed, final Set<Range> ranges) throws RangeFactoryException;
 
+    /**
+     * Iterates over the elements for the seeds, reading the seeds in batches of
+     * up to {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#getMaxEntriesForBatchScanner()}.
+     * Up to {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#getBatchScannersInFlight()}
+     * batch scanners are kept open, so the tablet servers can start looking up
+     * the next batches while the results of the current batch are converted and
+     * filtered. The ranges for the seeds are grouped into batches by tablet
+     * using a {@link TabletRangeBatcher}.
+     */
     protected class ElementIterator implements CloseableIterator<Element> {
         private final Iterator<? extends I_ITEM> idsIterator;
-        private int count;
-        private BatchScanner scanner;
-        private Iterator<Entry<Key, Value>> scannerIterator;
+        private final TabletRangeBatcher<I_ITEM> batcher;
+        private final int batchScannersInFlight;
+        private final Deque<BatchScanner> scanners = new ArrayDeque<>();
+        private final Deque<Iterator<Entry<Key, Value>>> scannerIterators = new ArrayDeque<>();
         private Element nextElm;
 
         public ElementIterator(final Iterator<? extends I_ITEM> idIterator) throws RetrieverException {
             idsIterator = idIterator;
-            count = 0;
-            final Set<Range> ranges = new HashSet<>();
-            while (idsIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
-                count++;
-                try {
-                    addToRanges(idsIterator.next(), ranges);
-                } catch (final RangeFactoryException e) {
-                    LOGGER.error("Failed to create a range from given seed pair", e);
-                }
-            }
+            batchScannersInFlight = Math.max(1, store.getProperties().getBatchScannersInFlight());
+            batcher = new TabletRangeBatcher<>(idIterator, AccumuloItemRetriever.this::addToRanges, getSplitPoints(),
+                    store.getProperties().getMaxEntriesForBatchScanner(), batchScannersInFlight);
 
-            // Create BatchScanner, appropriately configured (i.e. ranges,
+            // Create the first BatchScanners, appropriately configured (i.e. ranges,
             // iterators, etc).
             try {
-                scanner = getScanner(ranges);
+                startBatchScanners();
             } catch (final Exception e) {
+                close();
                 CloseableUtil.close(idsIterator);
                 CloseableUtil.close(ids);
                 throw new RetrieverException(e);
             }
-            scannerIterator = scanner.iterator();
         }
 
         @Override
@@ -124,55 +128,42 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
             if (null != nextElm) {
                 return true;
             }
-            while (scannerIterator.hasNext()) {
-                final Entry<Key, Value> entry = scannerIterator.next();
-                try {
-                    nextElm = elementConverter.getFullElement(
-                            entry.getKey(),
-                            entry.getValue(),
-                            includeMatchedVertex);
-                } catch (final AccumuloElementConversionException e) {
-                    LOGGER.error("Failed to re-create an element from a key value entry set returning next element as null",
-                            e);
-                    continue;
-                }
-                doTransformation(nextElm);
-                if (doPostFilter(nextElm)) {
-                    return true;
-                } else {
-                    nextElm = null;
-                }
-            }
-            // If current scanner is spent then go back to the iterator
-            // through the provided entities, and see if there are more.
-            // If so create the next scanner, if there are no more entities
-            // then return false.
-            while (idsIterator.hasNext() && !scannerIterator.hasNext()) {
-                count = 0;
-                final Set<Range> ranges = new HashSet<>();
-                while (idsIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
-                    count++;
+            while (!scannerIterators.isEmpty()) {
+                final Iterator<Entry<Key, Value>> scannerIterator = scannerIterators.peekFirst();
+                while (scannerIterator.hasNext()) {
+                    final Entry<Key, Value> entry = scannerIterator.next();
                     try {
-                        addToRanges(idsIterator.next(), ranges);
-                    } catch (final RangeFactoryException e) {
-                        LOGGER.error("Failed to create a range from given seed", e);
+                        nextElm = getElement(
+                                entry.getKey(),
+                                entry.getValue(),
+                                includeMatchedVertex);
+                    } catch (final AccumuloElementConversionException e) {
+                        LOGGER.error("Failed to re-create an element from a key value entry set returning next element as null",
+                                e);
+                        continue;
+                    }
+                    doTransformation(nextElm);
+                    if (doPostFilter(nextElm)) {
+                        nextElm = loadElement(nextElm);
+                        return true;
+                    } else {
+                        nextElm = null;
                     }
                 }
-                scanner.close();
+
+                // If current scanner is spent then close it and start the
+                // scanner for the next batch of seeds, if there are more.
+                scannerIterators.removeFirst();
+                scanners.removeFirst().close();
                 try {
-                    scanner = getScanner(ranges);
+                    startBatchScanners();
                 } catch (final TableNotFoundException | StoreException e) {
                     LOGGER.error("{} returning iterator doesn't have any more elements", e.getMessage(), e);
+                    close();
                     return false;
                 }
-                scannerIterator = scanner.iterator();
-            }
-            if (!scannerIterator.hasNext()) {
-                scanner.close();
-                return false;
-            } else {
-                return hasNext();
             }
+            return false;
         }
 
         @Override
@@ -194,9 +185,20 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
 
         @Override
         public void close() {
-            if (scanner != null) {
+            for (final BatchScanner scanner : scanners) {
                 scanner.close();
             }
+            scanners.clear();
+            scannerIterators.clear();
+        }
+
+        private void startBatchScanners() throws TableNotFoundException, StoreException {
+            while (scanners.size() < batchScannersInFlight && batcher.hasNext()) {
+                // Requesting the iterator starts the lookups on the tablet servers
+                final BatchScanner scanner = getScanner(batcher.next());
+                scanners.addLast(scanner);
+                scannerIterators.addLast(scanner.iterator());
+            }
         }
     }
 }
@@ -19,26 +19,38 @@ package uk.gov.gchq.gaffer.accumulostore.retriever;
 import org.apache.accumulo.core.client.BatchScanner;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
 import uk.gov.gchq.gaffer.accumulostore.key.IteratorSettingFactory;
 import uk.gov.gchq.gaffer.accumulostore.key.RangeFactory;
+import uk.gov.gchq.gaffer.accumulostore.utils.TableUtils;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.LazyEdge;
+import uk.gov.gchq.gaffer.data.element.LazyEntity;
 import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
 import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.operation.graph.GraphFilters;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.user.User;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 public abstract class AccumuloRetriever<OP extends Output & GraphFilters, O_ITEM> implements CloseableIterable<O_ITEM> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccumuloRetriever.class);
+
     protected CloseableIterator<O_ITEM> iterator;
     protected final AccumuloStore store;
     protected final Authorizations authorisations;
@@ -93,6 +105,54 @@ public abstract class AccumuloRetriever<OP extends Output & GraphFilters, O_ITEM
         return true;
     }
 
+    /**
+     * Converts an Accumulo key and value into an {@link Element}. If the view
+     * has a post transform filter for the element's group then the element's
+     * properties are deserialised lazily, so elements that are removed by the
+     * filter only have the properties used by the transformation and filter
+     * deserialised. Elements that pass the filter should be passed to
+     * {@link #loadElement(Element)} before being returned.
+     *
+     * @param key                  the accumulo Key containing serialised parts of the Element
+     * @param value                the accumulo Value containing serialised properties of the Element
+     * @param includeMatchedVertex if true then the matchedVertex field is set on Edges
+     * @return the element
+     */
+    protected Element getElement(final Key key, final Value value, final boolean includeMatchedVertex) {
+        final String group = elementConverter.getGroupFromColumnFamily(key.getColumnFamilyData().getBackingArray());
+        final ViewElementDefinition viewDef = operation.getView().getElement(group);
+        if (null != viewDef && viewDef.hasPostTransformFilters()) {
+            return elementConverter.getLazyElement(key, value, includeMatchedVertex);
+        }
+        return elementConverter.getFullElement(key, value, includeMatchedVertex);
+    }
+
+    /**
+     * Deserialises the identifiers and any properties that have not yet been
+     * deserialised of an element created by
+     * {@link #getElement(Key, Value, boolean)}.
+     *
+     * @param element the element to load
+     * @return the fully loaded element
+     */
+    protected Element loadElement(final Element element) {
+        if (element instanceof LazyEntity) {
+            ((LazyEntity) element).getVertex();
+        } else if (element instanceof LazyEdge) {
+            ((LazyEdge) element).getSource();
+        } else {
+            return element;
+        }
+
+        final SchemaElementDefinition elementDef = store.getSchema().getElement(element.getGroup());
+        if (null != elementDef) {
+            for (final String propertyName : elementDef.getProperties()) {
+                element.getProperty(propertyName);
+            }
+        }
+        return element.getElement();
+    }
+
     @Override
     public void close() {
         if (iterator != null) {
@@ -131,6 +191,23 @@ public abstract class AccumuloRetriever<OP extends Output & GraphFilters, O_ITEM
         return scanner;
     }
 
+    /**
+     * Gets the split points of the table, used to group the ranges for seeds
+     * by tablet. If the split points cannot be listed then an empty list is
+     * returned, so the ranges are only sorted.
+     *
+     * @return the sorted split points of the table
+     */
+    protected List<Text> getSplitPoints() {
+        try {
+            return TableUtils.getSplitPoints(store);
+        } catch (final StoreException e) {
+            LOGGER.warn("Unable to get the split points of table {}, seeds will not be grouped by tablet: {}",
+                    store.getTableName(), e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
     protected void transform(final Element element, final ElementTransformer transformer) {
         if (transformer != null) {
             transformer.apply(element);
@@ -23,6 +23,7 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.util.bloom.BloomFilter;
+import org.apache.hadoop.util.bloom.Filter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
@@ -120,20 +121,33 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
     protected abstract AbstractElementIteratorFromBatches createElementIteratorFromBatches() throws RetrieverException;
 
     protected Set<Object> extractVertices(final Iterator<? extends EntityId> seeds) {
+        return extractVertices(seeds, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reads vertices from the provided seeds until either the seeds are
+     * exhausted or the given number of distinct vertices has been read. The
+     * seeds are not closed, so the remaining seeds can still be read.
+     *
+     * @param seeds       the seeds to read the vertices from
+     * @param maxVertices the maximum number of distinct vertices to read
+     * @return the set of vertices read
+     */
+    protected Set<Object> extractVertices(final Iterator<? extends EntityId> seeds, final int maxVertices) {
         final Set<Object> vertices = new HashSet<>();
-        while (seeds.hasNext()) {
+        while (vertices.size() < maxVertices && seeds.hasNext()) {
             vertices.add(seeds.next().getVertex());
         }
 
         return vertices;
     }
 
-    protected void addToBloomFilter(final Iterable<? extends Object> vertices, final BloomFilter filter)
+    protected void addToBloomFilter(final Iterable<? extends Object> vertices, final Filter filter)
             throws RetrieverException {
         addToBloomFilter(vertices.iterator(), filter);
     }
 
-    protected void addToBloomFilter(final Iterator<? extends Object> vertices, final BloomFilter filter)
+    protected void addToBloomFilter(final Iterator<? extends Object> vertices, final Filter filter)
             throws RetrieverException {
         try {
             while (vertices.hasNext()) {
@@ -144,8 +158,8 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
         }
     }
 
-    protected void addToBloomFilter(final Iterator<? extends EntityId> seeds, final BloomFilter filter1,
-                                    final BloomFilter filter2) throws RetrieverException {
+    protected void addToBloomFilter(final Iterator<? extends EntityId> seeds, final Filter filter1,
+                                    final Filter filter2) throws RetrieverException {
         try {
             while (seeds.hasNext()) {
                 addToBloomFilter(seeds.next(), filter1, filter2);
@@ -155,13 +169,13 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
         }
     }
 
-    protected void addToBloomFilter(final EntityId seed, final BloomFilter filter1, final BloomFilter filter2)
+    protected void addToBloomFilter(final EntityId seed, final Filter filter1, final Filter filter2)
             throws RetrieverException {
         addToBloomFilter(seed.getVertex(), filter1);
         addToBloomFilter(seed.getVertex(), filter2);
     }
 
-    private void addToBloomFilter(final Object vertex, final BloomFilter filter) throws RetrieverException {
+    private void addToBloomFilter(final Object vertex, final Filter filter) throws RetrieverException {
         try {
             filter.add(new org.apache.hadoop.util.bloom.Key(elementConverter.serialiseVertex(vertex)));
         } catch (final AccumuloElementConversionException e) {
@@ -266,8 +280,12 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
     protected abstract class AbstractElementIteratorFromBatches implements CloseableIterator<Element> {
         protected Iterator<? extends EntityId> idsAIterator;
         // The Bloom filter that is maintained client-side
-        // as a secondary defeat of false positives.
-        protected BloomFilter clientSideFilter;
+        // as a secondary defeat of false positives. This grows
+        // with the number of seeds added to it, up to a maximum
+        // of clientSideBloomFilterSize bits per batch of seeds,
+        // without its false positive rate growing.
+        protected Filter clientSideFilter;
+        // The vertices of the current batch of seeds.
         protected Set<Object> currentSeeds;
         protected BatchScanner scanner;
         protected BloomFilter filter;
@@ -277,7 +295,9 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
 
         public AbstractElementIteratorFromBatches() {
             // Set up client side filter
-            clientSideFilter = BloomFilterUtils.getBloomFilter(store.getProperties().getClientSideBloomFilterSize());
+            clientSideFilter = BloomFilterUtils.getScalableBloomFilter(store.getProperties().getFalsePositiveRate(),
+                    store.getProperties().getMaxEntriesForBatchScanner(),
+                    store.getProperties().getClientSideBloomFilterSize());
             // Create Bloom filter to be passed to iterators.
             filter = BloomFilterUtils.getBloomFilter(store.getProperties().getFalsePositiveRate(),
                     store.getProperties().getMaxEntriesForBatchScanner(),
@@ -294,7 +314,7 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
                 while (_hasNext()) {
                     final Entry<Key, Value> entry = scannerIterator.next();
                     try {
-                        nextElm = elementConverter.getFullElement(entry.getKey(), entry.getValue(), false);
+                        nextElm = getElement(entry.getKey(), entry.getValue(), false);
                     } catch (final AccumuloElementConversionException e) {
                         LOGGER.error("Failed to create next element from key and value entry set", e);
                         continue;
@@ -302,6 +322,7 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
                     if (secondaryCheck(nextElm)) {
                         doTransformation(nextElm);
                         if (doPostFilter(nextElm)) {
+                            nextElm = loadElement(nextElm);
                             return true;
                         }
                     }
@@ -346,6 +367,7 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
             // maxEntriesForBatchScanner), create the associated ranges
             // and add them to a set.
             count = 0;
+            currentSeeds.clear();
             final Set<Range> ranges = new HashSet<>();
             while (idsAIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
                 final EntityId seed = idsAIterator.next();
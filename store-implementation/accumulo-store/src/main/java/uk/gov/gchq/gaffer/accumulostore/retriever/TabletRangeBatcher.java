@@ -0,0 +1,190 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.retriever;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.gchq.gaffer.accumulostore.key.exception.RangeFactoryException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A <code>TabletRangeBatcher</code> reads seeds and splits the {@link Range}s
+ * for them into the batches of ranges given to each
+ * {@link org.apache.accumulo.core.client.BatchScanner}.
+ * <p>
+ * Seeds are read a window of several batches at a time. The ranges for the
+ * window are sorted and grouped by the tablet they start in, using the split
+ * points of the table, and each batch is made up of whole tablets where
+ * possible. A batch scanner sends a request to every tablet server hosting a
+ * tablet that its ranges cover, so each batch covering a few neighbouring
+ * tablets results in fewer requests than every batch covering every tablet.
+ * </p>
+ *
+ * @param <I_ITEM> the type of the seeds
+ */
+public class TabletRangeBatcher<I_ITEM> implements Iterator<Set<Range>> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TabletRangeBatcher.class);
+
+    private final Iterator<? extends I_ITEM> seeds;
+    private final RangeFunction<I_ITEM> rangeFunction;
+    private final List<Text> splitPoints;
+    private final int maxSeedsPerBatch;
+    private final int batchesPerWindow;
+    private final Deque<Set<Range>> batches = new ArrayDeque<>();
+
+    /**
+     * @param seeds            the seeds
+     * @param rangeFunction    adds the ranges for a seed
+     * @param splitPoints      the sorted split points of the table
+     * @param maxSeedsPerBatch the maximum number of seeds in each batch
+     * @param batchesPerWindow the number of batches of seeds read at a time
+     */
+    public TabletRangeBatcher(final Iterator<? extends I_ITEM> seeds,
+                              final RangeFunction<I_ITEM> rangeFunction,
+                              final List<Text> splitPoints,
+                              final int maxSeedsPerBatch,
+                              final int batchesPerWindow) {
+        this.seeds = seeds;
+        this.rangeFunction = rangeFunction;
+        this.splitPoints = splitPoints;
+        this.maxSeedsPerBatch = Math.max(1, maxSeedsPerBatch);
+        this.batchesPerWindow = Math.max(1, batchesPerWindow);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (batches.isEmpty() && seeds.hasNext()) {
+            readWindow();
+        }
+        return !batches.isEmpty();
+    }
+
+    @Override
+    public Set<Range> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return batches.removeFirst();
+    }
+
+    /**
+     * Splits sorted ranges into batches made up of whole tablets where
+     * possible. A tablet is only started in a new batch if the current batch
+     * is at least half full, and tablets with more ranges than fit in a batch
+     * are split across batches.
+     *
+     * @param ranges       the ranges, sorted by start key
+     * @param splitPoints  the sorted split points of the table
+     * @param maxBatchSize the maximum number of ranges in a batch
+     * @return the batches of ranges
+     */
+    public static List<Set<Range>> batch(final Collection<Range> ranges, final List<Text> splitPoints, final int maxBatchSize) {
+        final List<Set<Range>> batches = new ArrayList<>();
+        final List<Range> tabletRanges = new ArrayList<>();
+        Set<Range> batch = new HashSet<>();
+        int tablet = -1;
+        for (final Range range : ranges) {
+            final int rangeTablet = getTablet(range, splitPoints);
+            if (rangeTablet != tablet) {
+                batch = addTablet(tabletRanges, batch, batches, maxBatchSize);
+                tablet = rangeTablet;
+            }
+            tabletRanges.add(range);
+        }
+        batch = addTablet(tabletRanges, batch, batches, maxBatchSize);
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * @param range       the range
+     * @param splitPoints the sorted split points of the table
+     * @return the index of the tablet that the range starts in
+     */
+    public static int getTablet(final Range range, final List<Text> splitPoints) {
+        if (null == range.getStartKey()) {
+            return 0;
+        }
+
+        // A tablet contains the rows up to and including its end row
+        final int index = Collections.binarySearch(splitPoints, range.getStartKey().getRow());
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    private static Set<Range> addTablet(final List<Range> tabletRanges, final Set<Range> batch,
+                                        final List<Set<Range>> batches, final int maxBatchSize) {
+        Set<Range> currentBatch = batch;
+        if (!currentBatch.isEmpty()
+                && currentBatch.size() + tabletRanges.size() > maxBatchSize
+                && currentBatch.size() >= maxBatchSize / 2) {
+            batches.add(currentBatch);
+            currentBatch = new HashSet<>();
+        }
+        for (final Range range : tabletRanges) {
+            currentBatch.add(range);
+            if (currentBatch.size() >= maxBatchSize) {
+                batches.add(currentBatch);
+                currentBatch = new HashSet<>();
+            }
+        }
+        tabletRanges.clear();
+        return currentBatch;
+    }
+
+    private void readWindow() {
+        final Set<Range> ranges = new TreeSet<>();
+        final int maxSeeds = maxSeedsPerBatch * batchesPerWindow;
+        int count = 0;
+        while (seeds.hasNext() && count < maxSeeds) {
+            count++;
+            try {
+                rangeFunction.addToRanges(seeds.next(), ranges);
+            } catch (final RangeFactoryException e) {
+                LOGGER.error("Failed to create a range from given seed", e);
+            }
+        }
+
+        if (!ranges.isEmpty()) {
+            final int numBatches = (count + maxSeedsPerBatch - 1) / maxSeedsPerBatch;
+            final int maxBatchSize = (ranges.size() + numBatches - 1) / numBatches;
+            batches.addAll(batch(ranges, splitPoints, maxBatchSize));
+        }
+    }
+
+    /**
+     * Adds the {@link Range}s for a seed.
+     *
+     * @param <I_ITEM> the type of the seeds
+     */
+    public interface RangeFunction<I_ITEM> {
+        void addToRanges(final I_ITEM seed, final Set<Range> ranges) throws RangeFactoryException;
+    }
+}
@@ -30,6 +30,7 @@ import uk.gov.gchq.gaffer.accumulostore.key.exception.IteratorSettingException;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.RangeFactoryException;
 import uk.gov.gchq.gaffer.accumulostore.retriever.AccumuloRetriever;
 import uk.gov.gchq.gaffer.accumulostore.retriever.RetrieverException;
+import uk.gov.gchq.gaffer.accumulostore.retriever.TabletRangeBatcher;
 import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.StringUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
@@ -45,6 +46,7 @@ import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.user.User;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
@@ -64,7 +66,8 @@ public class AccumuloAdjacentIdRetriever extends AccumuloRetriever<GetAdjacentId
                 store.getKeyPackage().getIteratorFactory().getEdgeEntityDirectionFilterIteratorSetting(operation),
                 store.getKeyPackage().getIteratorFactory().getElementPreAggregationFilterIteratorSetting(operation.getView(), store),
                 store.getKeyPackage().getIteratorFactory().getQueryTimeAggregatorIteratorSetting(operation.getView(), store),
-                store.getKeyPackage().getIteratorFactory().getElementPostAggregationFilterIteratorSetting(operation.getView(), store));
+                store.getKeyPackage().getIteratorFactory().getElementPostAggregationFilterIteratorSetting(operation.getView(), store),
+                store.getKeyPackage().getIteratorFactory().getAdjacentIdIteratorSetting(operation.getView(), store));
         this.ids = operation.getInput();
         transformGroups = getGroupsWithTransforms(operation.getView());
     }
@@ -95,26 +98,18 @@ public class AccumuloAdjacentIdRetriever extends AccumuloRetriever<GetAdjacentId
 
     private final class EntityIdIterator implements CloseableIterator<EntityId> {
         private final Iterator<? extends ElementId> idsIterator;
-        private int count;
+        private final TabletRangeBatcher<ElementId> batcher;
         private BatchScanner scanner;
         private Iterator<Map.Entry<Key, Value>> scannerIterator;
         private EntityId nextId;
 
         private EntityIdIterator(final Iterator<? extends ElementId> idIterator) throws RetrieverException {
             idsIterator = idIterator;
-            count = 0;
-            final Set<Range> ranges = new HashSet<>();
-            while (idsIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
-                count++;
-                try {
-                    addToRanges(idsIterator.next(), ranges);
-                } catch (final RangeFactoryException e) {
-                    LOGGER.error("Failed to create a range from given seed pair", e);
-                }
-            }
+            batcher = new TabletRangeBatcher<>(idIterator, AccumuloAdjacentIdRetriever.this::addToRanges, getSplitPoints(),
+                    store.getProperties().getMaxEntriesForBatchScanner(), store.getProperties().getBatchScannersInFlight());
 
             try {
-                scanner = getScanner(ranges);
+                scanner = getScanner(batcher.hasNext() ? batcher.next() : Collections.emptySet());
             } catch (final Exception e) {
                 CloseableUtil.close(idsIterator);
                 CloseableUtil.close(ids);
@@ -135,23 +130,22 @@ public class AccumuloAdjacentIdRetriever extends AccumuloRetriever<GetAdjacentId
                 final String group = StringUtil.toString(entry.getKey().getColumnFamilyData().getBackingArray());
                 ElementId elementId = null;
                 if (transformGroups.contains(group)) {
-                    final Element element;
+                    // Only the properties used by the transformation and
+                    // filter are deserialised, as only the id is returned.
                     try {
-                        element = elementConverter.getFullElement(
+                        final Element element = elementConverter.getLazyElement(
                                 entry.getKey(),
                                 entry.getValue(),
                                 true);
+                        doTransformation(element);
+                        if (doPostFilter(element)) {
+                            elementId = elementConverter.getElementId(entry.getKey(), true);
+                        }
                     } catch (final AccumuloElementConversionException e) {
                         LOGGER.error("Failed to re-create an element from a key value entry set returning next EntityId as null",
                                 e);
                         continue;
                     }
-                    if (null != element) {
-                        doTransformation(element);
-                        if (doPostFilter(element)) {
-                            elementId = element;
-                        }
-                    }
                 } else {
                     try {
                         elementId = elementConverter.getElementId(entry.getKey(), true);
@@ -179,20 +173,10 @@ public class AccumuloAdjacentIdRetriever extends AccumuloRetriever<GetAdjacentId
             // through the provided entities, and see if there are more.
             // If so create the next scanner, if there are no more entities
             // then return false.
-            while (idsIterator.hasNext() && !scannerIterator.hasNext()) {
-                count = 0;
-                final Set<Range> ranges = new HashSet<>();
-                while (idsIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
-                    count++;
-                    try {
-                        addToRanges(idsIterator.next(), ranges);
-                    } catch (final RangeFactoryException e) {
-                        LOGGER.error("Failed to create a range from given seed", e);
-                    }
-                }
+            while (batcher.hasNext() && !scannerIterator.hasNext()) {
                 scanner.close();
                 try {
-                    scanner = getScanner(ranges);
+                    scanner = getScanner(batcher.next());
                 } catch (final TableNotFoundException | StoreException e) {
                     LOGGER.error("{} returning iterator doesn't have any more elements", e.getMessage(), e);
                     return false;
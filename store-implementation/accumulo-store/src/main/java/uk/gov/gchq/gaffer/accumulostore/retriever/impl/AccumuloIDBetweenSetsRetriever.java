@@ -60,12 +60,19 @@ import java.util.Set;
  * guaranteed to be no false positives returned to the user).
  * <p>
  * In the second mode, where there are too many seeds to be loaded into memory,
- * the seeds in set A are queried for in batches. The seeds in set B are loaded
- * into two {@link org.apache.hadoop.util.bloom.BloomFilter}s. The first of
- * these is relatively small and is passed to the filtering iterator to filter
- * out edges that are definitely not to set B. The second, larger,
- * {@link org.apache.hadoop.util.bloom.BloomFilter} is used client-side to
- * further reduce the chances of false positives making it to the user.
+ * the seeds in set A are streamed and queried for in batches, so only the
+ * current batch of set A is held in memory. If set B contains no more than
+ * {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#getMaxEntriesForExactSetCheck()}
+ * seeds then it is held in memory and used for the secondary check, and the
+ * {@link org.apache.hadoop.util.bloom.BloomFilter} passed to the filtering
+ * iterator is sized for the number of seeds in set B. Otherwise the seeds in
+ * set B are loaded into two filters. The first is the largest
+ * {@link org.apache.hadoop.util.bloom.BloomFilter} that can be passed to the
+ * filtering iterator and filters out edges that are definitely not to set B.
+ * The second is a {@link uk.gov.gchq.gaffer.accumulostore.utils.ScalableBloomFilter},
+ * which grows with the number of seeds in set B while keeping its false
+ * positive rate below the configured rate, and is used client-side to further
+ * reduce the chances of false positives making it to the user.
  */
 public class AccumuloIDBetweenSetsRetriever extends AccumuloSetRetriever<GetElementsBetweenSets> {
     private Iterable<? extends EntityId> seedSetA;
@@ -147,9 +154,27 @@ public class AccumuloIDBetweenSetsRetriever extends AccumuloSetRetriever<GetElem
     }
 
     private class ElementIteratorFromBatches extends AbstractElementIteratorFromBatches {
+        // The vertices of set B, if set B is small enough to be held in memory.
+        private Set<Object> verticesB;
+
         ElementIteratorFromBatches() throws RetrieverException {
             try {
-                addToBloomFilter(seedSetBIter, filter, clientSideFilter);
+                final Set<Object> vertices = extractVertices(seedSetBIter,
+                        store.getProperties().getMaxEntriesForExactSetCheck());
+                if (seedSetBIter.hasNext()) {
+                    filter = BloomFilterUtils.getBloomFilter(store.getProperties().getFalsePositiveRate(),
+                            store.getProperties().getMaxBloomFilterToPassToAnIterator());
+                    addToBloomFilter(vertices, filter);
+                    addToBloomFilter(vertices, clientSideFilter);
+                    addToBloomFilter(seedSetBIter, filter, clientSideFilter);
+                } else {
+                    CloseableUtil.close(seedSetBIter);
+                    verticesB = vertices;
+                    clientSideFilter = null;
+                    filter = BloomFilterUtils.getBloomFilter(store.getProperties().getFalsePositiveRate(),
+                            verticesB.size(), store.getProperties().getMaxBloomFilterToPassToAnIterator());
+                    addToBloomFilter(verticesB, filter);
+                }
                 idsAIterator = seedSetAIter;
                 updateScanner();
             } catch (final Exception e) {
@@ -173,26 +198,21 @@ public class AccumuloIDBetweenSetsRetriever extends AccumuloSetRetriever<GetElem
             final Edge edge = (Edge) elm;
             final Object source = edge.getSource();
             final Object destination = edge.getDestination();
-            final boolean sourceIsInCurrent = currentSeeds.contains(source);
-            boolean destMatchesClientFilter;
-            try {
-                destMatchesClientFilter = clientSideFilter.membershipTest(
-                        new Key(elementConverter.serialiseVertex(destination)));
-            } catch (final AccumuloElementConversionException e) {
-                return false;
-            }
-            if (sourceIsInCurrent && destMatchesClientFilter) {
-                return true;
+            return currentSeeds.contains(source) && isInSetB(destination)
+                    || currentSeeds.contains(destination) && isInSetB(source);
+        }
+
+        // Checks the vertex against the in memory set B if there is one,
+        // otherwise against the client side Bloom filter.
+        private boolean isInSetB(final Object vertex) {
+            if (null != verticesB) {
+                return verticesB.contains(vertex);
             }
-            final boolean destIsInCurrent = currentSeeds.contains(destination);
-            boolean sourceMatchesClientFilter;
             try {
-                sourceMatchesClientFilter = clientSideFilter.membershipTest(
-                        new Key(elementConverter.serialiseVertex(source)));
+                return clientSideFilter.membershipTest(new Key(elementConverter.serialiseVertex(vertex)));
             } catch (final AccumuloElementConversionException e) {
                 return false;
             }
-            return destIsInCurrent && sourceMatchesClientFilter;
         }
     }
 }
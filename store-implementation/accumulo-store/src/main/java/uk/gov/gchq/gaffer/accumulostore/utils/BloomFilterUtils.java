@@ -79,6 +79,39 @@ public final class BloomFilterUtils {
         return new BloomFilter(size, numHashes, Hash.MURMUR_HASH);
     }
 
+    /**
+     * Returns the largest {@link org.apache.hadoop.util.bloom.BloomFilter}
+     * allowed by the given maximum size, configured with the number of hash
+     * functions that achieves the given false positive rate when the filter is
+     * full. This is used when the number of items to be added is not known in
+     * advance.
+     *
+     * @param falsePositiveRate the false positive rate
+     * @param maximumSize       the maximum size
+     * @return A new BloomFilter with the desired Settings
+     */
+    public static BloomFilter getBloomFilter(final double falsePositiveRate, final int maximumSize) {
+        final int numItems = Math.max(1, (int) (maximumSize * Math.pow(Math.log(2.0), 2.0) / -Math.log(falsePositiveRate)));
+        return getBloomFilter(falsePositiveRate, numItems, maximumSize);
+    }
+
+    /**
+     * Returns a {@link ScalableBloomFilter} that grows as items are added, so
+     * its size is proportional to the number of items added rather than fixed
+     * in advance, while its overall false positive rate stays close to the
+     * given rate. Each of the Bloom filters it creates holds the given number of
+     * items (subject to the given maximum size).
+     *
+     * @param falsePositiveRate the overall false positive rate
+     * @param numItemsPerFilter the number of items added to each Bloom filter
+     * @param maximumSize       the maximum size of each Bloom filter
+     * @return A new ScalableBloomFilter with the desired Settings
+     */
+    public static ScalableBloomFilter getScalableBloomFilter(final double falsePositiveRate, final int numItemsPerFilter,
+            final int maximumSize) {
+        return new ScalableBloomFilter(falsePositiveRate, numItemsPerFilter, maximumSize);
+    }
+
     /**
      * Returns a {@link org.apache.hadoop.util.bloom.BloomFilter} of the given
      * size.
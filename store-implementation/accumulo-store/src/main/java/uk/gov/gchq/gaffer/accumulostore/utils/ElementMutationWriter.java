@@ -0,0 +1,258 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import com.google.common.collect.Lists;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * An <code>ElementMutationWriter</code> converts {@link Element}s into Accumulo
+ * {@link Mutation}s and adds them to a {@link BatchWriter}.
+ * <p>
+ * Elements are read into a buffer. When the buffer is full, the elements can
+ * optionally be aggregated using the schema ingest aggregators, so elements
+ * that would be combined by the table iterators are written as a single
+ * key-value. The buffered elements are then converted into mutations, with one
+ * mutation per row where possible, on a pool of threads while the next buffer
+ * is filled.
+ * </p>
+ * <p>
+ * If a {@link RowSampler} is provided, the rows of the mutations are added to
+ * it, so split points can be chosen from the data as it is ingested.
+ * </p>
+ */
+public class ElementMutationWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElementMutationWriter.class);
+
+    private final AccumuloElementConverter elementConverter;
+    private final Schema schema;
+    private final BatchWriter writer;
+    private final int numThreads;
+    private final int bufferSize;
+    private final boolean ingestAggregation;
+    private final RowSampler rowSampler;
+
+    /**
+     * @param elementConverter  the converter used to create keys and values from the elements
+     * @param schema            the schema used for ingest aggregation
+     * @param writer            the batch writer the mutations are added to
+     * @param numThreads        the number of threads used to convert the elements into mutations
+     * @param bufferSize        the number of elements converted, and aggregated, at a time
+     * @param ingestAggregation true if the elements in each buffer should be aggregated before they are written
+     */
+    public ElementMutationWriter(final AccumuloElementConverter elementConverter, final Schema schema,
+                                 final BatchWriter writer, final int numThreads, final int bufferSize,
+                                 final boolean ingestAggregation) {
+        this(elementConverter, schema, writer, numThreads, bufferSize, ingestAggregation, null);
+    }
+
+    /**
+     * @param elementConverter  the converter used to create keys and values from the elements
+     * @param schema            the schema used for ingest aggregation
+     * @param writer            the batch writer the mutations are added to
+     * @param numThreads        the number of threads used to convert the elements into mutations
+     * @param bufferSize        the number of elements converted, and aggregated, at a time
+     * @param ingestAggregation true if the elements in each buffer should be aggregated before they are written
+     * @param rowSampler        the sampler the rows of the mutations are added to, or null if the rows should not be sampled
+     */
+    public ElementMutationWriter(final AccumuloElementConverter elementConverter, final Schema schema,
+                                 final BatchWriter writer, final int numThreads, final int bufferSize,
+                                 final boolean ingestAggregation, final RowSampler rowSampler) {
+        if (numThreads < 1 || bufferSize < 1) {
+            throw new IllegalArgumentException("The number of ingest threads and the ingest buffer size must be positive");
+        }
+        this.elementConverter = elementConverter;
+        this.schema = schema;
+        this.writer = writer;
+        this.numThreads = numThreads;
+        this.bufferSize = bufferSize;
+        this.ingestAggregation = ingestAggregation;
+        this.rowSampler = rowSampler;
+    }
+
+    /**
+     * Converts the elements into mutations and adds them to the batch writer.
+     * Elements that cannot be converted are logged and skipped.
+     *
+     * @param elements the elements to write
+     * @throws StoreException if the elements could not be converted
+     */
+    public void write(final Iterable<? extends Element> elements) throws StoreException {
+        final ExecutorService executor = numThreads > 1 ? Executors.newFixedThreadPool(numThreads, runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+
+        try {
+            List<Future<?>> pending = Collections.emptyList();
+            List<Element> buffer = new ArrayList<>(bufferSize);
+            for (final Element element : elements) {
+                if (null != element) {
+                    buffer.add(element);
+                    if (buffer.size() >= bufferSize) {
+                        // Only one buffer is converted at a time, to bound the memory used
+                        await(pending);
+                        pending = writeBuffer(buffer, executor);
+                        buffer = new ArrayList<>(bufferSize);
+                    }
+                }
+            }
+            await(pending);
+            await(writeBuffer(buffer, executor));
+        } finally {
+            if (null != executor) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private List<Future<?>> writeBuffer(final List<Element> buffer, final ExecutorService executor) {
+        if (buffer.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<Element> elements = ingestAggregation
+                ? Lists.newArrayList(AggregatorUtil.ingestAggregate(buffer, schema)) : buffer;
+        if (null == executor) {
+            writeMutations(elements);
+            return Collections.emptyList();
+        }
+
+        final List<Future<?>> futures = new ArrayList<>(numThreads);
+        final int partitionSize = (elements.size() + numThreads - 1) / numThreads;
+        for (final List<Element> partition : Lists.partition(elements, partitionSize)) {
+            futures.add(executor.submit(() -> writeMutations(partition)));
+        }
+        return futures;
+    }
+
+    private void writeMutations(final List<Element> elements) {
+        final List<Mutation> mutations = new ArrayList<>();
+        final Map<Text, RowMutation> rowMutations = new LinkedHashMap<>();
+        for (final Element element : elements) {
+            final Pair<Key, Key> keys;
+            try {
+                keys = elementConverter.getKeysFromElement(element);
+            } catch (final AccumuloElementConversionException e) {
+                LOGGER.error(AccumuloStore.FAILED_TO_CREATE_AN_ACCUMULO_FROM_ELEMENT_OF_TYPE_WHEN_TRYING_TO_INSERT_ELEMENTS, "key", element.getGroup());
+                continue;
+            }
+            final Value value;
+            try {
+                value = elementConverter.getValueFromElement(element);
+            } catch (final AccumuloElementConversionException e) {
+                LOGGER.error(AccumuloStore.FAILED_TO_CREATE_AN_ACCUMULO_FROM_ELEMENT_OF_TYPE_WHEN_TRYING_TO_INSERT_ELEMENTS, "value", element.getGroup());
+                continue;
+            }
+
+            addToMutation(rowMutations, mutations, keys.getFirst(), value);
+            // If the GraphElement is a Vertex then there will only be 1 key,
+            // and the second will be null.
+            // If the GraphElement is an Edge then there will be 2 keys.
+            if (null != keys.getSecond()) {
+                addToMutation(rowMutations, mutations, keys.getSecond(), value);
+            }
+        }
+        for (final RowMutation rowMutation : rowMutations.values()) {
+            mutations.add(rowMutation.mutation);
+        }
+
+        if (null != rowSampler) {
+            // The rows are sampled once per partition to limit contention between the threads
+            final List<byte[]> rows = new ArrayList<>(mutations.size());
+            for (final Mutation mutation : mutations) {
+                rows.add(mutation.getRow());
+            }
+            rowSampler.add(rows);
+        }
+
+        for (final Mutation mutation : mutations) {
+            try {
+                writer.addMutation(mutation);
+            } catch (final MutationsRejectedException e) {
+                LOGGER.error("Failed to create an accumulo key mutation");
+            }
+        }
+    }
+
+    private static void addToMutation(final Map<Text, RowMutation> rowMutations, final List<Mutation> mutations,
+                                      final Key key, final Value value) {
+        final Text row = key.getRow();
+        RowMutation rowMutation = rowMutations.get(row);
+        if (null == rowMutation || rowMutation.keys.contains(key)) {
+            // Identical keys are added in separate mutations, so they are
+            // combined by the table iterators rather than replacing each other
+            if (null != rowMutation) {
+                mutations.add(rowMutation.mutation);
+            }
+            rowMutation = new RowMutation(row);
+            rowMutations.put(row, rowMutation);
+        }
+        rowMutation.keys.add(key);
+        rowMutation.mutation.put(key.getColumnFamily(), key.getColumnQualifier(),
+                new ColumnVisibility(key.getColumnVisibility()), key.getTimestamp(), value);
+    }
+
+    private static void await(final List<Future<?>> futures) throws StoreException {
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StoreException("Interrupted while adding elements", e);
+            } catch (final ExecutionException e) {
+                throw new StoreException("Failed to add elements: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    private static final class RowMutation {
+        private final Mutation mutation;
+        private final Set<Key> keys = new HashSet<>();
+
+        private RowMutation(final Text row) {
+            this.mutation = new Mutation(row);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import org.apache.hadoop.io.Text;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A <code>RowSampler</code> keeps a uniform random sample of a fixed maximum
+ * size of the Accumulo rows added to it, using reservoir sampling, along with
+ * a count of all the rows added. It is thread safe.
+ */
+public class RowSampler {
+    private final int maxSize;
+    private final List<Text> sample;
+    private long count;
+
+    /**
+     * @param maxSize the maximum number of rows held in the sample
+     */
+    public RowSampler(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum sample size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.sample = new ArrayList<>(maxSize);
+    }
+
+    /**
+     * Offers each of the rows to the sample. The rows are copied if they are
+     * kept.
+     *
+     * @param rows the rows to sample
+     */
+    public synchronized void add(final Collection<byte[]> rows) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (final byte[] row : rows) {
+            count++;
+            if (sample.size() < maxSize) {
+                sample.add(new Text(row));
+            } else {
+                final long index = random.nextLong(count);
+                if (index < maxSize) {
+                    sample.set((int) index, new Text(row));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a copy of the sampled rows, in no particular order
+     */
+    public synchronized List<Text> getSample() {
+        return new ArrayList<>(sample);
+    }
+
+    /**
+     * @return the number of rows added since the sampler was created or last cleared
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Takes the sampled rows and the count of the rows added, and resets the
+     * sampler in the same step, so no rows added at the same time are lost.
+     * If fewer than <code>minSize</code> rows have been sampled nothing is
+     * taken and the sampler is left unchanged.
+     *
+     * @param minSize the minimum number of sampled rows to take
+     * @return the sample, or null if fewer than <code>minSize</code> rows have been sampled
+     */
+    public synchronized Sample takeSample(final int minSize) {
+        if (sample.isEmpty() || sample.size() < minSize) {
+            return null;
+        }
+        final Sample taken = new Sample(new ArrayList<>(sample), count);
+        clear();
+        return taken;
+    }
+
+    /**
+     * Removes all the sampled rows and resets the count.
+     */
+    public synchronized void clear() {
+        sample.clear();
+        count = 0;
+    }
+
+    /**
+     * The rows taken from a {@link RowSampler} and the number of rows they
+     * were sampled from.
+     */
+    public static final class Sample {
+        private final List<Text> rows;
+        private final long count;
+
+        private Sample(final List<Text> rows, final long count) {
+            this.rows = rows;
+            this.count = count;
+        }
+
+        /**
+         * @return the sampled rows, in no particular order
+         */
+        public List<Text> getRows() {
+            return rows;
+        }
+
+        /**
+         * @return the number of rows added to the sampler while the rows were sampled
+         */
+        public long getCount() {
+            return count;
+        }
+    }
+}
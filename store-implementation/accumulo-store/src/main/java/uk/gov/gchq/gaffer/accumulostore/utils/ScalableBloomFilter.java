@@ -0,0 +1,176 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import org.apache.hadoop.util.bloom.BloomFilter;
+import org.apache.hadoop.util.bloom.Filter;
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Filter} that grows as items are added, while keeping its overall
+ * false positive rate close to the given rate however many items are added.
+ * <p>
+ * Like a {@link org.apache.hadoop.util.bloom.DynamicBloomFilter}, it adds a new
+ * {@link BloomFilter} each time the current one holds the given number of
+ * items. Unlike a DynamicBloomFilter, where every Bloom filter has the same
+ * false positive rate so the overall rate grows with the number of filters,
+ * each new Bloom filter is given half the false positive rate of the previous
+ * one. The target rates of the filters sum to at most the given rate. The
+ * first filter has half the given rate, and each extra filter costs about 1.44
+ * more bits per item than the previous one.
+ * </p>
+ * <p>
+ * The filters cannot be combined, so {@link #and(Filter)}, {@link #or(Filter)},
+ * {@link #xor(Filter)} and {@link #not()} are not supported.
+ * </p>
+ */
+public class ScalableBloomFilter extends Filter {
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private double falsePositiveRate;
+    private int numItemsPerFilter;
+    private int maximumSize;
+    private List<BloomFilter> filters = new ArrayList<>();
+    private int currentNumItems;
+
+    /**
+     * Only used by Hadoop when reading a filter with {@link #readFields(DataInput)}.
+     */
+    public ScalableBloomFilter() {
+    }
+
+    /**
+     * @param falsePositiveRate the overall false positive rate
+     * @param numItemsPerFilter the number of items added to each Bloom filter
+     * @param maximumSize       the maximum size of each Bloom filter
+     */
+    public ScalableBloomFilter(final double falsePositiveRate, final int numItemsPerFilter, final int maximumSize) {
+        this(falsePositiveRate, numItemsPerFilter, maximumSize, getFirstFilterSize(falsePositiveRate, numItemsPerFilter, maximumSize));
+    }
+
+    private ScalableBloomFilter(final double falsePositiveRate, final int numItemsPerFilter, final int maximumSize,
+                                final int firstFilterSize) {
+        super(firstFilterSize, BloomFilterUtils.calculateNumHashes(firstFilterSize, numItemsPerFilter), Hash.MURMUR_HASH);
+        this.falsePositiveRate = falsePositiveRate;
+        this.numItemsPerFilter = numItemsPerFilter;
+        this.maximumSize = maximumSize;
+        filters.add(createFilter(0));
+    }
+
+    @Override
+    public void add(final Key key) {
+        if (null == key) {
+            throw new NullPointerException("Key can not be null");
+        }
+
+        if (currentNumItems >= numItemsPerFilter) {
+            filters.add(createFilter(filters.size()));
+            currentNumItems = 0;
+        }
+        filters.get(filters.size() - 1).add(key);
+        currentNumItems++;
+    }
+
+    @Override
+    public boolean membershipTest(final Key key) {
+        if (null == key) {
+            return true;
+        }
+
+        for (final BloomFilter filter : filters) {
+            if (filter.membershipTest(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void and(final Filter filter) {
+        throw new UnsupportedOperationException("Scalable Bloom filters cannot be combined");
+    }
+
+    @Override
+    public void or(final Filter filter) {
+        throw new UnsupportedOperationException("Scalable Bloom filters cannot be combined");
+    }
+
+    @Override
+    public void xor(final Filter filter) {
+        throw new UnsupportedOperationException("Scalable Bloom filters cannot be combined");
+    }
+
+    @Override
+    public void not() {
+        throw new UnsupportedOperationException("Scalable Bloom filters cannot be negated");
+    }
+
+    public int getNumFilters() {
+        return filters.size();
+    }
+
+    @Override
+    public void write(final DataOutput out) throws IOException {
+        super.write(out);
+        out.writeDouble(falsePositiveRate);
+        out.writeInt(numItemsPerFilter);
+        out.writeInt(maximumSize);
+        out.writeInt(currentNumItems);
+        out.writeInt(filters.size());
+        for (final BloomFilter filter : filters) {
+            filter.write(out);
+        }
+    }
+
+    @Override
+    public void readFields(final DataInput in) throws IOException {
+        super.readFields(in);
+        falsePositiveRate = in.readDouble();
+        numItemsPerFilter = in.readInt();
+        maximumSize = in.readInt();
+        currentNumItems = in.readInt();
+        final int numFilters = in.readInt();
+        filters = new ArrayList<>(numFilters);
+        for (int i = 0; i < numFilters; i++) {
+            final BloomFilter filter = new BloomFilter();
+            filter.readFields(in);
+            filters.add(filter);
+        }
+    }
+
+    private BloomFilter createFilter(final int index) {
+        return BloomFilterUtils.getBloomFilter(getFalsePositiveRate(falsePositiveRate, index), numItemsPerFilter, maximumSize);
+    }
+
+    private static int getFirstFilterSize(final double falsePositiveRate, final int numItemsPerFilter, final int maximumSize) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1 || numItemsPerFilter < 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1 and the number of items per filter must be positive");
+        }
+        return BloomFilterUtils.calculateBloomFilterSize(getFalsePositiveRate(falsePositiveRate, 0), numItemsPerFilter, maximumSize);
+    }
+
+    // The rate of the filter at the given index, chosen so the rates of all
+    // the filters sum to no more than the overall rate.
+    private static double getFalsePositiveRate(final double falsePositiveRate, final int index) {
+        return falsePositiveRate * (1 - TIGHTENING_RATIO) * Math.pow(TIGHTENING_RATIO, index);
+    }
+}
@@ -39,9 +39,13 @@ import uk.gov.gchq.gaffer.accumulostore.key.core.impl.CoreKeyBloomFunctor;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.IteratorSettingException;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.koryphe.ValidationResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -58,7 +62,10 @@ public final class TableUtils {
 
     /**
      * Ensures that the table exists, otherwise it creates it and sets it up to
-     * receive Gaffer data
+     * receive Gaffer data. The locality groups of an existing table are only
+     * updated if the
+     * {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#UPDATE_LOCALITY_GROUPS}
+     * property is true.
      *
      * @param store the accumulo store
      * @throws StoreException if a connection to accumulo could not be created or there is a failure to create a table/iterator
@@ -71,6 +78,9 @@ public final class TableUtils {
         final Connector connector = store.getConnection();
         if (connector.tableOperations().exists(tableName)) {
             validateTable(store, tableName, connector);
+            if (store.getProperties().getUpdateLocalityGroups()) {
+                updateLocalityGroups(store, tableName, connector);
+            }
         } else {
             try {
                 TableUtils.createTable(store);
@@ -151,15 +161,20 @@ public final class TableUtils {
         setLocalityGroups(store);
     }
 
+    /**
+     * Sets the locality groups of the table. Each group listed in the
+     * {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#LOCALITY_GROUPS}
+     * property, or each group in the schema if that property is not set, is
+     * stored in its own locality group, as the group is used as the column
+     * family. Scans for a subset of the groups then only read the locality
+     * groups of those groups.
+     *
+     * @param store the accumulo store
+     * @throws StoreException if a connection to accumulo could not be created or there is a failure to set the locality groups
+     */
     public static void setLocalityGroups(final AccumuloStore store) throws StoreException {
         final String tableName = store.getTableName();
-        Map<String, Set<Text>> localityGroups =
-                new HashMap<>();
-        for (final String group : store.getSchema().getGroups()) {
-            HashSet<Text> localityGroup = new HashSet<>();
-            localityGroup.add(new Text(group));
-            localityGroups.put(group, localityGroup);
-        }
+        final Map<String, Set<Text>> localityGroups = getLocalityGroups(store);
         LOGGER.info("Setting locality groups on table {}", tableName);
         try {
             store.getConnection().tableOperations().setLocalityGroups(tableName, localityGroups);
@@ -168,6 +183,65 @@ public final class TableUtils {
         }
     }
 
+    private static Map<String, Set<Text>> getLocalityGroups(final AccumuloStore store) {
+        final Iterable<String> groups;
+        final String localityGroupsProperty = store.getProperties().getLocalityGroups();
+        if (null == localityGroupsProperty) {
+            groups = store.getSchema().getGroups();
+        } else {
+            groups = Arrays.asList(localityGroupsProperty.split(","));
+        }
+
+        final Map<String, Set<Text>> localityGroups = new HashMap<>();
+        for (final String group : groups) {
+            final String trimmedGroup = group.trim();
+            if (store.getSchema().getGroups().contains(trimmedGroup)) {
+                final Set<Text> localityGroup = new HashSet<>();
+                localityGroup.add(new Text(trimmedGroup));
+                localityGroups.put(trimmedGroup, localityGroup);
+            } else if (!trimmedGroup.isEmpty()) {
+                LOGGER.warn("Not creating a locality group for group {} as it is not in the schema", trimmedGroup);
+            }
+        }
+        return localityGroups;
+    }
+
+    // Updates the locality groups of an existing table if the groups have
+    // changed, e.g. if groups have been added to the schema. Existing data is
+    // moved into the new locality groups when it is next compacted.
+    private static void updateLocalityGroups(final AccumuloStore store, final String tableName,
+                                             final Connector connector) throws StoreException {
+        final Map<String, Set<Text>> localityGroups = getLocalityGroups(store);
+        try {
+            if (!localityGroups.equals(connector.tableOperations().getLocalityGroups(tableName))) {
+                LOGGER.info("Updating locality groups on table {}", tableName);
+                connector.tableOperations().setLocalityGroups(tableName, localityGroups);
+            }
+        } catch (final AccumuloSecurityException e) {
+            LOGGER.warn("Unable to update the locality groups on table {}: {}", tableName, e.getMessage());
+        } catch (final AccumuloException | TableNotFoundException e) {
+            throw new StoreException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the split points of the table, in sorted order. A table with no
+     * split points has a single tablet.
+     *
+     * @param store the accumulo store
+     * @return the split points of the table
+     * @throws StoreException if the split points could not be listed
+     */
+    public static List<Text> getSplitPoints(final AccumuloStore store) throws StoreException {
+        try {
+            final List<Text> splitPoints = new ArrayList<>(store.getConnection().tableOperations().listSplits(store.getTableName()));
+            Collections.sort(splitPoints);
+            return splitPoints;
+        } catch (final AccumuloSecurityException | AccumuloException | TableNotFoundException e) {
+            throw new StoreException(e.getMessage(), e);
+        }
+    }
+
     /**
      * Creates a {@link BatchWriter}
      * <p>
@@ -254,6 +254,73 @@ public abstract class AbstractAccumuloElementConverterTest<T extends AccumuloEle
         assertEquals(8, deSerialisedProperties.get(AccumuloPropertyNames.COUNT));
     }
 
+    @Test
+    public void shouldDeserialiseSinglePropertyFromValue() {
+        // Given
+        final Properties properties = new Properties();
+        properties.put(AccumuloPropertyNames.PROP_1, 60);
+        properties.put(AccumuloPropertyNames.PROP_3, 299);
+        properties.put(AccumuloPropertyNames.COUNT, 8);
+        final Value value = converter.getValueFromProperties(TestGroups.EDGE, properties);
+
+        // When / Then
+        assertEquals(60, converter.getPropertyFromValue(TestGroups.EDGE, AccumuloPropertyNames.PROP_1, value));
+        assertNull(converter.getPropertyFromValue(TestGroups.EDGE, AccumuloPropertyNames.PROP_2, value));
+        assertEquals(299, converter.getPropertyFromValue(TestGroups.EDGE, AccumuloPropertyNames.PROP_3, value));
+        assertEquals(8, converter.getPropertyFromValue(TestGroups.EDGE, AccumuloPropertyNames.COUNT, value));
+        assertNull(converter.getPropertyFromValue(TestGroups.EDGE, AccumuloPropertyNames.COLUMN_QUALIFIER, value));
+    }
+
+    @Test
+    public void shouldDeserialiseSinglePropertyFromColumnQualifier() {
+        // Given
+        final Edge edge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("1")
+                .dest("2")
+                .directed(true)
+                .property(AccumuloPropertyNames.COLUMN_QUALIFIER, 100)
+                .property(AccumuloPropertyNames.PROP_1, 60)
+                .build();
+        final Key key = converter.getKeysFromElement(edge).getFirst();
+
+        // When
+        final Object property = converter.getPropertyFromColumnQualifier(TestGroups.EDGE,
+                AccumuloPropertyNames.COLUMN_QUALIFIER, key.getColumnQualifierData().getBackingArray());
+
+        // Then
+        assertEquals(100, property);
+        assertNull(converter.getPropertyFromColumnQualifier(TestGroups.EDGE,
+                AccumuloPropertyNames.PROP_1, key.getColumnQualifierData().getBackingArray()));
+    }
+
+    @Test
+    public void shouldGetLazyElementWithSamePropertiesAsFullElement() {
+        // Given
+        final Edge edge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("1")
+                .dest("2")
+                .directed(true)
+                .property(AccumuloPropertyNames.COLUMN_QUALIFIER, 100)
+                .property(AccumuloPropertyNames.PROP_1, 60)
+                .property(AccumuloPropertyNames.PROP_3, 299)
+                .build();
+        final Key key = converter.getKeysFromElement(edge).getSecond();
+        final Value value = converter.getValueFromElement(edge);
+
+        // When
+        final Edge lazyEdge = (Edge) converter.getLazyElement(key, value, true);
+
+        // Then
+        assertEquals(299, lazyEdge.getProperty(AccumuloPropertyNames.PROP_3));
+        assertEquals(100, lazyEdge.getProperty(AccumuloPropertyNames.COLUMN_QUALIFIER));
+        assertEquals(60, lazyEdge.getProperty(AccumuloPropertyNames.PROP_1));
+        assertEquals("1", lazyEdge.getSource());
+        assertEquals(converter.getFullElement(key, value, true), lazyEdge.getElement());
+        assertEquals(EdgeId.MatchedVertex.DESTINATION, ((Edge) lazyEdge.getElement()).getMatchedVertex());
+    }
+
     @Test
     public void shouldSerialiseAndDeSerialiseBetweenPropertyAndValueMissingEndProperty() {
         Properties properties = new Properties();
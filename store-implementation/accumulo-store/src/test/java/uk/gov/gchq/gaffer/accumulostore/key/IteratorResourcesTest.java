@@ -0,0 +1,187 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.key;
+
+import org.junit.Test;
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.byteEntity.ByteEntityAccumuloElementConverter;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class IteratorResourcesTest {
+    private static final String SCHEMA_JSON = StringUtil.toString(
+            Schema.fromJson(StreamUtil.schemas(IteratorResourcesTest.class)).toJson(false));
+    private static final String VIEW_JSON = StringUtil.toString(new View.Builder()
+            .edge(TestGroups.EDGE)
+            .build()
+            .toJson(false));
+    private static final String CONVERTER_CLASS = ByteEntityAccumuloElementConverter.class.getName();
+
+    @Test
+    public void shouldCreateResourcesFromOptions() throws ReflectiveOperationException {
+        // When
+        final IteratorResources resources = IteratorResources.acquire(SCHEMA_JSON, VIEW_JSON, CONVERTER_CLASS);
+        final IteratorResources resourcesWithoutView = IteratorResources.acquire(SCHEMA_JSON, null, CONVERTER_CLASS);
+
+        // Then
+        assertNotNull(resources.getSchema().getEdge(TestGroups.EDGE));
+        assertEquals(TestGroups.EDGE, resources.getView().getEdgeGroups().iterator().next());
+        assertTrue(resources.getElementConverter() instanceof ByteEntityAccumuloElementConverter);
+        assertNull(resourcesWithoutView.getView());
+    }
+
+    @Test
+    public void shouldNotShareResourcesThatAreInUse() throws ReflectiveOperationException {
+        // When
+        final IteratorResources resources1 = IteratorResources.acquire(SCHEMA_JSON, VIEW_JSON, CONVERTER_CLASS);
+        final IteratorResources resources2 = IteratorResources.acquire(SCHEMA_JSON, VIEW_JSON, CONVERTER_CLASS);
+
+        // Then
+        assertNotSame(resources1.getSchema(), resources2.getSchema());
+        assertNotSame(resources1.getView(), resources2.getView());
+        assertNotSame(resources1.getElementConverter(), resources2.getElementConverter());
+    }
+
+    @Test
+    public void shouldReuseResourcesOnceTheyAreReleased() throws ReflectiveOperationException {
+        // Given
+        final String viewJson = StringUtil.toString(new View.Builder()
+                .entity(TestGroups.ENTITY)
+                .build()
+                .toJson(false));
+        final IteratorResources resources = IteratorResources.acquire(SCHEMA_JSON, viewJson, CONVERTER_CLASS);
+        final Schema schema = resources.getSchema();
+        final View view = resources.getView();
+
+        // When
+        resources.release();
+        final IteratorResources reused = IteratorResources.acquire(SCHEMA_JSON, viewJson, CONVERTER_CLASS);
+        final IteratorResources created = IteratorResources.acquire(SCHEMA_JSON, viewJson, CONVERTER_CLASS);
+
+        // Then
+        assertSame(schema, reused.getSchema());
+        assertSame(view, reused.getView());
+        assertNotSame(schema, created.getSchema());
+    }
+
+    @Test
+    public void shouldReuseResourcesForEqualOptions() throws ReflectiveOperationException {
+        // Given
+        final IteratorResources resources = IteratorResources.acquire(SCHEMA_JSON, null, CONVERTER_CLASS);
+        final Schema schema = resources.getSchema();
+
+        // When
+        resources.release();
+        final Schema reusedSchema = IteratorResources.acquire(new String(SCHEMA_JSON), null, new String(CONVERTER_CLASS)).getSchema();
+
+        // Then
+        assertSame(schema, reusedSchema);
+    }
+
+    @Test
+    public void shouldOnlyReturnResourcesToPoolOnceWhenReleasedTwice() throws ReflectiveOperationException {
+        // Given
+        final String viewJson = StringUtil.toString(new View.Builder()
+                .edge(TestGroups.EDGE_2)
+                .build()
+                .toJson(false));
+        final IteratorResources resources = IteratorResources.acquire(SCHEMA_JSON, viewJson, CONVERTER_CLASS);
+        final Schema schema = resources.getSchema();
+
+        // When
+        resources.release();
+        resources.release();
+        final IteratorResources reused1 = IteratorResources.acquire(SCHEMA_JSON, viewJson, CONVERTER_CLASS);
+        final IteratorResources reused2 = IteratorResources.acquire(SCHEMA_JSON, viewJson, CONVERTER_CLASS);
+
+        // Then
+        assertSame(schema, reused1.getSchema());
+        assertNotSame(schema, reused2.getSchema());
+    }
+
+    @Test
+    public void shouldNotAllowResourcesToBeUsedAfterRelease() throws ReflectiveOperationException {
+        // Given
+        final IteratorResources resources = IteratorResources.acquire(SCHEMA_JSON, VIEW_JSON, CONVERTER_CLASS);
+
+        // When
+        resources.release();
+
+        // Then
+        try {
+            resources.getSchema();
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldLimitNumberOfPooledResources() throws ReflectiveOperationException {
+        // Given
+        final List<IteratorResources> resources = new ArrayList<>();
+        for (int i = 0; i < IteratorResources.MAX_POOLED_RESOURCES + 10; i++) {
+            resources.add(IteratorResources.acquire(SCHEMA_JSON, null, CONVERTER_CLASS));
+        }
+
+        // When
+        resources.forEach(IteratorResources::release);
+
+        // Then
+        assertEquals(IteratorResources.MAX_POOLED_RESOURCES, IteratorResources.getPooledResources());
+    }
+
+    @Test
+    public void shouldLimitNumberOfLeasedResources() throws ReflectiveOperationException {
+        // Given
+        final List<IteratorResources> resources = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < IteratorResources.MAX_LEASED_RESOURCES + 10; i++) {
+            resources.add(IteratorResources.acquire(SCHEMA_JSON, null, CONVERTER_CLASS));
+        }
+        final int leased = IteratorResources.getLeasedResources();
+        resources.forEach(IteratorResources::release);
+
+        // Then
+        assertEquals(IteratorResources.MAX_LEASED_RESOURCES, leased);
+        assertTrue(IteratorResources.getLeasedResources() <= 10);
+    }
+
+    @Test
+    public void shouldThrowExceptionForUnknownElementConverter() {
+        // When / Then
+        try {
+            IteratorResources.acquire(SCHEMA_JSON, VIEW_JSON, "unknown.Converter");
+            fail("Exception expected");
+        } catch (final ReflectiveOperationException e) {
+            assertTrue(e instanceof ClassNotFoundException);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.key.impl;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.accumulostore.key.IteratorResources;
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.byteEntity.ByteEntityAccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloPropertyNames;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AdjacentIdIteratorTest {
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(AdjacentIdIteratorTest.class));
+    private static final ByteEntityAccumuloElementConverter CONVERTER = new ByteEntityAccumuloElementConverter(SCHEMA);
+
+    @Test
+    public void shouldThrowIllegalArgumentExceptionWhenValidateOptionsWithNoView() {
+        // Given
+        final AdjacentIdIterator iterator = new AdjacentIdIterator();
+        final Map<String, String> options = new HashMap<>();
+        options.put(AccumuloStoreConstants.SCHEMA, StringUtil.toString(SCHEMA.toCompactJson()));
+        options.put(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS,
+                ByteEntityAccumuloElementConverter.class.getName());
+
+        // When / Then
+        try {
+            iterator.validateOptions(options);
+            fail("Expected IllegalArgumentException to be thrown on method invocation");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(AccumuloStoreConstants.VIEW));
+        }
+    }
+
+    @Test
+    public void shouldReturnEdgesWithoutValues() throws IOException {
+        // Given
+        final View view = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .edge(TestGroups.EDGE_2)
+                .build();
+        final AdjacentIdIterator iterator = createIterator(view,
+                createEdge(TestGroups.EDGE, "A", "B", true),
+                createEdge(TestGroups.EDGE, "A", "B", false),
+                createEdge(TestGroups.EDGE_2, "A", "B", true),
+                createEdge(TestGroups.EDGE, "A", "C", true));
+
+        // When
+        final List<Value> values = scan(iterator);
+
+        // Then
+        assertEquals(4, values.size());
+        for (final Value value : values) {
+            assertEquals(0, value.getSize());
+        }
+    }
+
+    @Test
+    public void shouldReturnFullEdgesForGroupsWithPostTransformFilters() throws IOException {
+        // Given
+        final View view = new View.Builder()
+                .edge(TestGroups.EDGE, new ViewElementDefinition.Builder()
+                        .postTransformFilter(new ElementFilter.Builder()
+                                .select(AccumuloPropertyNames.COUNT)
+                                .execute(new IsMoreThan(0))
+                                .build())
+                        .build())
+                .edge(TestGroups.EDGE_2)
+                .build();
+        final AdjacentIdIterator iterator = createIterator(view,
+                createEdge(TestGroups.EDGE, "A", "B", true),
+                createEdge(TestGroups.EDGE, "A", "B", false),
+                createEdge(TestGroups.EDGE_2, "A", "B", true));
+
+        // When
+        final List<Value> values = scan(iterator);
+
+        // Then
+        assertEquals(3, values.size());
+        assertEquals(1, Collections.frequency(values, new Value(new byte[0])));
+    }
+
+    @Test
+    public void shouldReleaseResourcesWhenRangeHasBeenReadAndAcquireThemAgainOnSeek() throws IOException {
+        // Given
+        final View view = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .build();
+        final AdjacentIdIterator iterator = createIterator(view,
+                createEdge(TestGroups.EDGE, "A", "B", true),
+                createEdge(TestGroups.EDGE, "A", "C", true));
+        final int leasedAfterInit = IteratorResources.getLeasedResources();
+
+        // When
+        final List<Value> values1 = scan(iterator);
+        final int leasedAfterScan = IteratorResources.getLeasedResources();
+        iterator.seek(new Range(), Collections.emptySet(), false);
+        final int leasedAfterSeek = IteratorResources.getLeasedResources();
+        final List<Value> values2 = new ArrayList<>();
+        while (iterator.hasTop()) {
+            values2.add(new Value(iterator.getTopValue()));
+            iterator.next();
+        }
+
+        // Then
+        assertEquals(leasedAfterInit - 1, leasedAfterScan);
+        assertEquals(leasedAfterSeek - 1, IteratorResources.getLeasedResources());
+        assertEquals(2, values1.size());
+        assertEquals(values1, values2);
+    }
+
+    private AdjacentIdIterator createIterator(final View view, final Edge... edges) throws IOException {
+        final TreeMap<Key, Value> data = new TreeMap<>();
+        for (final Edge edge : edges) {
+            data.put(CONVERTER.getKeysFromEdge(edge).getFirst(), CONVERTER.getValueFromElement(edge));
+        }
+
+        final Map<String, String> options = new HashMap<>();
+        options.put(AccumuloStoreConstants.SCHEMA, StringUtil.toString(SCHEMA.toCompactJson()));
+        options.put(AccumuloStoreConstants.VIEW, StringUtil.toString(view.toCompactJson()));
+        options.put(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS,
+                ByteEntityAccumuloElementConverter.class.getName());
+
+        final AdjacentIdIterator iterator = new AdjacentIdIterator();
+        iterator.init(new SortedMapIterator(data), options, null);
+        return iterator;
+    }
+
+    private List<Value> scan(final AdjacentIdIterator iterator) throws IOException {
+        final List<Value> values = new ArrayList<>();
+        iterator.seek(new Range(), Collections.emptySet(), false);
+        while (iterator.hasTop()) {
+            values.add(new Value(iterator.getTopValue()));
+            iterator.next();
+        }
+        return values;
+    }
+
+    private Edge createEdge(final String group, final String source, final String destination, final boolean directed) {
+        return new Edge.Builder()
+                .group(group)
+                .source(source)
+                .dest(destination)
+                .directed(directed)
+                .property(AccumuloPropertyNames.COUNT, 1)
+                .build();
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.operation.handler;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.SingleUseMockAccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetElementsAfterHops;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GetElementsAfterHopsHandlerTest {
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(GetElementsAfterHopsHandlerTest.class));
+    private static final AccumuloProperties PROPERTIES = AccumuloProperties.loadStoreProperties(StreamUtil.storeProps(GetElementsAfterHopsHandlerTest.class));
+    private static final View ENTITY_VIEW = new View.Builder()
+            .entity(TestGroups.ENTITY)
+            .build();
+
+    private final User user = new User();
+    private AccumuloStore store;
+
+    @Before
+    public void setup() throws StoreException, OperationException {
+        store = new SingleUseMockAccumuloStore();
+        store.initialise("hopsGraph", SCHEMA, PROPERTIES);
+
+        final List<Element> elements = new ArrayList<>();
+        for (final String vertex : Arrays.asList("A", "B", "C", "D", "E", "F", "G")) {
+            elements.add(new Entity(TestGroups.ENTITY, vertex));
+        }
+        elements.add(createEdge(TestGroups.EDGE, "A", "B"));
+        elements.add(createEdge(TestGroups.EDGE, "A", "C"));
+        elements.add(createEdge(TestGroups.EDGE, "B", "D"));
+        elements.add(createEdge(TestGroups.EDGE, "C", "D"));
+        elements.add(createEdge(TestGroups.EDGE, "D", "E"));
+        elements.add(createEdge(TestGroups.EDGE_2, "A", "F"));
+        elements.add(createEdge(TestGroups.EDGE, "F", "G"));
+        store.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), user);
+    }
+
+    @Test
+    public void shouldGetElementsOfDistinctVerticesAfterHops() throws OperationException {
+        // Given
+        final View edgeView = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .build();
+        final GetElementsAfterHops op = new GetElementsAfterHops.Builder()
+                .input(new EntitySeed("A"))
+                .hops(edgeView, edgeView)
+                .inOutType(IncludeIncomingOutgoingType.OUTGOING)
+                .view(ENTITY_VIEW)
+                .build();
+
+        // When
+        final List<Element> results = Lists.newArrayList(store.execute(op, user));
+
+        // Then
+        assertEquals(Collections.singletonList(new Entity(TestGroups.ENTITY, "D")), results);
+    }
+
+    @Test
+    public void shouldUseHopViewForEachHop() throws OperationException {
+        // Given
+        final GetElementsAfterHops op = new GetElementsAfterHops.Builder()
+                .input(new EntitySeed("A"))
+                .hops(new View.Builder()
+                                .edge(TestGroups.EDGE_2)
+                                .build(),
+                        new View.Builder()
+                                .edge(TestGroups.EDGE)
+                                .build())
+                .inOutType(IncludeIncomingOutgoingType.OUTGOING)
+                .view(ENTITY_VIEW)
+                .build();
+
+        // When
+        final List<Element> results = Lists.newArrayList(store.execute(op, user));
+
+        // Then
+        assertEquals(Collections.singletonList(new Entity(TestGroups.ENTITY, "G")), results);
+    }
+
+    @Test
+    public void shouldGetElementsOfSeedsWhenThereAreNoHops() throws OperationException {
+        // Given
+        final GetElementsAfterHops op = new GetElementsAfterHops.Builder()
+                .input(new EntitySeed("A"), new EntitySeed("A"))
+                .view(ENTITY_VIEW)
+                .build();
+
+        // When
+        final List<Element> results = Lists.newArrayList(store.execute(op, user));
+
+        // Then
+        assertEquals(Collections.singletonList(new Entity(TestGroups.ENTITY, "A")), results);
+    }
+
+    @Test
+    public void shouldGetElementsAfterHopsWhenHopsFindMoreVerticesThanTheQueueHolds() throws StoreException, OperationException {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setMaxEntriesForBatchScanner("2");
+        final AccumuloStore smallQueueStore = new SingleUseMockAccumuloStore();
+        smallQueueStore.initialise("smallQueueHopsGraph", SCHEMA, properties);
+        final int numVertices = 50;
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < numVertices; i++) {
+            elements.add(createEdge(TestGroups.EDGE, "A", "B" + i));
+            elements.add(createEdge(TestGroups.EDGE, "B" + i, "C" + i));
+            elements.add(new Entity(TestGroups.ENTITY, "C" + i));
+        }
+        smallQueueStore.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), user);
+        final View edgeView = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .build();
+        final GetElementsAfterHops op = new GetElementsAfterHops.Builder()
+                .input(new EntitySeed("A"))
+                .hops(edgeView, edgeView)
+                .inOutType(IncludeIncomingOutgoingType.OUTGOING)
+                .view(ENTITY_VIEW)
+                .build();
+
+        // When
+        final Set<Element> results = Sets.newHashSet(smallQueueStore.execute(op, user));
+
+        // Then
+        final Set<Element> expected = new HashSet<>();
+        for (int i = 0; i < numVertices; i++) {
+            expected.add(new Entity(TestGroups.ENTITY, "C" + i));
+        }
+        assertEquals(expected, results);
+    }
+
+    @Test
+    public void shouldStopHopsWhenResultsAreClosed() throws StoreException, OperationException {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setMaxEntriesForBatchScanner("1");
+        final AccumuloStore smallQueueStore = new SingleUseMockAccumuloStore();
+        smallQueueStore.initialise("closedHopsGraph", SCHEMA, properties);
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            elements.add(createEdge(TestGroups.EDGE, "A", "B" + i));
+            elements.add(createEdge(TestGroups.EDGE, "B" + i, "C" + i));
+            elements.add(new Entity(TestGroups.ENTITY, "C" + i));
+        }
+        smallQueueStore.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), user);
+        final View edgeView = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .build();
+        final GetElementsAfterHops op = new GetElementsAfterHops.Builder()
+                .input(new EntitySeed("A"))
+                .hops(edgeView, edgeView)
+                .inOutType(IncludeIncomingOutgoingType.OUTGOING)
+                .view(ENTITY_VIEW)
+                .build();
+        final CloseableIterable<? extends Element> results = smallQueueStore.execute(op, user);
+        final CloseableIterator<? extends Element> itr = results.iterator();
+        itr.next();
+
+        // When
+        itr.close();
+        final List<Element> resultsAfterClose = Lists.newArrayList(results);
+
+        // Then
+        assertEquals(20, resultsAfterClose.size());
+    }
+
+    @Test
+    public void shouldGetElementsAfterHopsWhenHopExecutorHasNoFreeThreads() throws StoreException, OperationException {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setHopThreads("1");
+        final AccumuloStore oneThreadStore = new SingleUseMockAccumuloStore();
+        oneThreadStore.initialise("oneThreadHopsGraph", SCHEMA, properties);
+        final List<Element> elements = new ArrayList<>();
+        elements.add(createEdge(TestGroups.EDGE, "A", "B"));
+        elements.add(createEdge(TestGroups.EDGE, "B", "C"));
+        elements.add(createEdge(TestGroups.EDGE, "C", "D"));
+        elements.add(new Entity(TestGroups.ENTITY, "D"));
+        oneThreadStore.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), user);
+        final View edgeView = new View.Builder()
+                .edge(TestGroups.EDGE)
+                .build();
+        final GetElementsAfterHops op = new GetElementsAfterHops.Builder()
+                .input(new EntitySeed("A"))
+                .hops(edgeView, edgeView, edgeView)
+                .inOutType(IncludeIncomingOutgoingType.OUTGOING)
+                .view(ENTITY_VIEW)
+                .build();
+
+        // When
+        final List<Element> results = Lists.newArrayList(oneThreadStore.execute(op, user));
+
+        // Then
+        assertEquals(Collections.singletonList(new Entity(TestGroups.ENTITY, "D")), results);
+    }
+
+    @Test
+    public void shouldStopHopWhenItsResultsAreNotRead() throws Exception {
+        // Given
+        final List<EntityId> seeds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            seeds.add(new EntitySeed("A" + i));
+        }
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final GetElementsAfterHopsHandler.HopStage stage = new GetElementsAfterHopsHandler.HopStage(
+                    new WrappedCloseableIterable<>(seeds), executor, 1, 10L);
+
+            // When
+            final CloseableIterator<EntityId> itr = stage.iterator();
+            itr.next();
+
+            // Then - the hop stops and frees its thread for the next task
+            assertTrue(executor.submit(() -> true).get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Edge createEdge(final String group, final String source, final String destination) {
+        return new Edge.Builder()
+                .group(group)
+                .source(source)
+                .dest(destination)
+                .directed(true)
+                .build();
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.operation.handler;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.SingleUseMockAccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.operation.impl.SplitStoreFromIngestSample;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SplitStoreFromIngestSampleHandlerTest {
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(SplitStoreFromIngestSampleHandlerTest.class));
+    private static final AccumuloProperties PROPERTIES = AccumuloProperties.loadStoreProperties(StreamUtil.storeProps(SplitStoreFromIngestSampleHandlerTest.class));
+
+    private final User user = new User();
+
+    @Test
+    public void shouldSplitTabletWithTooManyRows() throws Exception {
+        // Given
+        final AccumuloStore store = createStore("500");
+        addEntities(store, "A", 1000);
+        final SplitStoreFromIngestSample op = new SplitStoreFromIngestSample.Builder()
+                .maxRowsPerTablet(250L)
+                .skewFactor(0)
+                .minSampleSize(100)
+                .build();
+
+        // When
+        store.execute(op, user);
+
+        // Then
+        assertEquals(3, getSplits(store).size());
+        assertEquals(0, store.getIngestSampler().getCount());
+    }
+
+    @Test
+    public void shouldSplitSkewedTablet() throws Exception {
+        // Given
+        final AccumuloStore store = createStore("1000");
+        store.getConnection().tableOperations().addSplits(store.getTableName(),
+                new TreeSet<>(Arrays.asList(new Text("B"), new Text("C"), new Text("D"))));
+        addEntities(store, "A", 400);
+        addEntities(store, "B", 10);
+        addEntities(store, "C", 10);
+        addEntities(store, "D", 10);
+        final SplitStoreFromIngestSample op = new SplitStoreFromIngestSample.Builder()
+                .maxRowsPerTablet(1000000L)
+                .minSampleSize(100)
+                .build();
+
+        // When
+        store.execute(op, user);
+
+        // Then
+        final List<Text> splits = getSplits(store);
+        assertEquals(6, splits.size());
+        for (final Text split : splits.subList(0, 3)) {
+            assertTrue(split.compareTo(new Text("B")) < 0);
+        }
+    }
+
+    @Test
+    public void shouldNotSplitWhenSampleIsTooSmall() throws Exception {
+        // Given
+        final AccumuloStore store = createStore("500");
+        addEntities(store, "A", 50);
+        final SplitStoreFromIngestSample op = new SplitStoreFromIngestSample.Builder()
+                .maxRowsPerTablet(10L)
+                .minSampleSize(100)
+                .build();
+
+        // When
+        store.execute(op, user);
+
+        // Then
+        assertTrue(getSplits(store).isEmpty());
+        assertEquals(50, store.getIngestSampler().getCount());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenRowsAreNotSampled() throws Exception {
+        // Given
+        final AccumuloStore store = createStore("0");
+
+        // When / Then
+        try {
+            store.execute(new SplitStoreFromIngestSample.Builder()
+                    .maxRowsPerTablet(1000L)
+                    .build(), user);
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage().contains(AccumuloProperties.INGEST_SAMPLE_SIZE));
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenMaxRowsPerTabletIsNotSet() throws Exception {
+        // Given
+        final AccumuloStore store = createStore("1000");
+        addEntities(store, "A", 50);
+
+        // When / Then
+        try {
+            new SplitStoreFromIngestSampleHandler().doOperation(new SplitStoreFromIngestSample(), new Context(user), store);
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage().contains("maxRowsPerTablet"));
+        }
+    }
+
+    private AccumuloStore createStore(final String ingestSampleSize) throws Exception {
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setIngestSampleSize(ingestSampleSize);
+        final AccumuloStore store = new SingleUseMockAccumuloStore();
+        store.initialise("splitGraph", SCHEMA, properties);
+        return store;
+    }
+
+    private void addEntities(final AccumuloStore store, final String prefix, final int numEntities) throws OperationException {
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < numEntities; i++) {
+            elements.add(new Entity(TestGroups.ENTITY, prefix + String.format("%04d", i)));
+        }
+        store.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), user);
+    }
+
+    private List<Text> getSplits(final AccumuloStore store) throws Exception {
+        return new ArrayList<>(store.getConnection().tableOperations().listSplits(store.getTableName()));
+    }
+}
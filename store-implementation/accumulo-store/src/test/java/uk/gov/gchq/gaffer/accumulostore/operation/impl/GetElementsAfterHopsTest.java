@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.operation.impl;
+
+import org.junit.Test;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloTestData;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.OperationTest;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class GetElementsAfterHopsTest extends OperationTest {
+    @Override
+    protected Class<? extends Operation> getOperationClass() {
+        return GetElementsAfterHops.class;
+    }
+
+    @Test
+    @Override
+    public void shouldSerialiseAndDeserialiseOperation() throws SerialisationException {
+        // Given
+        final GetElementsAfterHops op = new GetElementsAfterHops.Builder()
+                .input(AccumuloTestData.SEED_A, AccumuloTestData.SEED_B)
+                .hops(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .build(), null)
+                .build();
+
+        // When
+        final byte[] json = JSON_SERIALISER.serialise(op, true);
+        final GetElementsAfterHops deserialisedOp = JSON_SERIALISER.deserialise(json, GetElementsAfterHops.class);
+
+        // Then
+        final Iterator itrSeeds = deserialisedOp.getInput().iterator();
+        assertEquals(AccumuloTestData.SEED_A, itrSeeds.next());
+        assertEquals(AccumuloTestData.SEED_B, itrSeeds.next());
+        assertFalse(itrSeeds.hasNext());
+        assertEquals(2, deserialisedOp.getHopViews().size());
+        assertEquals(TestGroups.EDGE, deserialisedOp.getHopViews().get(0).getEdgeGroups().iterator().next());
+        assertNull(deserialisedOp.getHopViews().get(1));
+    }
+
+    @Test
+    @Override
+    public void builderShouldCreatePopulatedOperation() {
+        // When
+        final GetElementsAfterHops op = new GetElementsAfterHops.Builder()
+                .input(AccumuloTestData.SEED_A)
+                .hops(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .build())
+                .directedType(DirectedType.DIRECTED)
+                .inOutType(IncludeIncomingOutgoingType.OUTGOING)
+                .option(AccumuloTestData.TEST_OPTION_PROPERTY_KEY, "true")
+                .view(new View.Builder()
+                        .entity(TestGroups.ENTITY)
+                        .build())
+                .build();
+
+        // Then
+        assertEquals("true", op.getOption(AccumuloTestData.TEST_OPTION_PROPERTY_KEY));
+        assertEquals(DirectedType.DIRECTED, op.getDirectedType());
+        assertEquals(IncludeIncomingOutgoingType.OUTGOING, op.getIncludeIncomingOutGoing());
+        assertEquals(AccumuloTestData.SEED_A, op.getInput().iterator().next());
+        assertEquals(1, op.getHopViews().size());
+        assertNotNull(op.getView());
+    }
+}
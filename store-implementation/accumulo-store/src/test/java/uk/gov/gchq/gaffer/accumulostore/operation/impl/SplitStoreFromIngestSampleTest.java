@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.operation.impl;
+
+import org.junit.Test;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloTestData;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.OperationTest;
+import uk.gov.gchq.koryphe.ValidationResult;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SplitStoreFromIngestSampleTest extends OperationTest {
+    @Override
+    protected Class<? extends Operation> getOperationClass() {
+        return SplitStoreFromIngestSample.class;
+    }
+
+    @Override
+    protected Set<String> getRequiredFields() {
+        return Collections.singleton("maxRowsPerTablet");
+    }
+
+    @Test
+    @Override
+    public void shouldSerialiseAndDeserialiseOperation() throws SerialisationException {
+        // Given
+        final SplitStoreFromIngestSample op = new SplitStoreFromIngestSample.Builder()
+                .maxRowsPerTablet(1000000L)
+                .skewFactor(0)
+                .minSampleSize(500)
+                .build();
+
+        // When
+        final byte[] json = JSON_SERIALISER.serialise(op, true);
+        final SplitStoreFromIngestSample deserialisedOp = JSON_SERIALISER.deserialise(json, SplitStoreFromIngestSample.class);
+
+        // Then
+        assertEquals(1000000L, deserialisedOp.getMaxRowsPerTablet());
+        assertEquals(0, deserialisedOp.getSkewFactor(), 0);
+        assertEquals(500, deserialisedOp.getMinSampleSize());
+    }
+
+    @Test
+    @Override
+    public void builderShouldCreatePopulatedOperation() {
+        // When
+        final SplitStoreFromIngestSample op = new SplitStoreFromIngestSample.Builder()
+                .maxRowsPerTablet(1000000L)
+                .skewFactor(3.0)
+                .minSampleSize(500)
+                .option(AccumuloTestData.TEST_OPTION_PROPERTY_KEY, "true")
+                .build();
+
+        // Then
+        assertEquals("true", op.getOption(AccumuloTestData.TEST_OPTION_PROPERTY_KEY));
+        assertEquals(1000000L, op.getMaxRowsPerTablet());
+        assertEquals(3.0, op.getSkewFactor(), 0);
+        assertEquals(500, op.getMinSampleSize());
+    }
+
+    @Test
+    public void shouldFailValidationWhenMaxRowsPerTabletIsNotPositive() {
+        // Given
+        final SplitStoreFromIngestSample op = new SplitStoreFromIngestSample.Builder()
+                .maxRowsPerTablet(-1L)
+                .build();
+
+        // When
+        final ValidationResult result = op.validate();
+
+        // Then
+        assertFalse(result.isValid());
+    }
+
+    @Test
+    public void shouldPassValidationWhenMaxRowsPerTabletIsSet() {
+        // Given
+        final SplitStoreFromIngestSample op = new SplitStoreFromIngestSample.Builder()
+                .maxRowsPerTablet(1000000L)
+                .build();
+
+        // When
+        final ValidationResult result = op.validate();
+
+        // Then
+        assertTrue(result.isValid());
+    }
+
+    @Test
+    public void shouldUseDefaultSkewFactorAndMinSampleSize() {
+        // When
+        final SplitStoreFromIngestSample op = new SplitStoreFromIngestSample();
+
+        // Then
+        assertEquals(0, op.getMaxRowsPerTablet());
+        assertEquals(SplitStoreFromIngestSample.DEFAULT_SKEW_FACTOR, op.getSkewFactor(), 0);
+        assertEquals(SplitStoreFromIngestSample.DEFAULT_MIN_SAMPLE_SIZE, op.getMinSampleSize());
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.retriever;
+
+import com.google.common.collect.Lists;
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TabletRangeBatcherTest {
+    private static final List<Text> SPLIT_POINTS = Arrays.asList(
+            new Text("1"), new Text("2"), new Text("3"), new Text("4"), new Text("5"),
+            new Text("6"), new Text("7"), new Text("8"), new Text("9"));
+    private static final int NUM_SEEDS = 1000;
+    private static final int MAX_SEEDS_PER_BATCH = 100;
+
+    @Test
+    public void shouldGetTabletThatRangeStartsIn() {
+        // When / Then
+        assertEquals(0, TabletRangeBatcher.getTablet(new Range(), SPLIT_POINTS));
+        assertEquals(0, TabletRangeBatcher.getTablet(Range.exact("0"), SPLIT_POINTS));
+        assertEquals(0, TabletRangeBatcher.getTablet(Range.exact("1"), SPLIT_POINTS));
+        assertEquals(1, TabletRangeBatcher.getTablet(Range.exact("10"), SPLIT_POINTS));
+        assertEquals(9, TabletRangeBatcher.getTablet(Range.exact("99"), SPLIT_POINTS));
+        assertEquals(0, TabletRangeBatcher.getTablet(Range.exact("99"), Collections.emptyList()));
+    }
+
+    @Test
+    public void shouldReturnEachRangeInExactlyOneBatch() {
+        // Given
+        final List<String> seeds = getShuffledSeeds();
+
+        // When
+        final List<Set<Range>> batches = Lists.newArrayList(createBatcher(seeds));
+
+        // Then
+        final Set<Range> ranges = new HashSet<>();
+        int numRanges = 0;
+        for (final Set<Range> batch : batches) {
+            assertTrue(batch.size() <= MAX_SEEDS_PER_BATCH);
+            ranges.addAll(batch);
+            numRanges += batch.size();
+        }
+        assertEquals(NUM_SEEDS, numRanges);
+        assertEquals(NUM_SEEDS, ranges.size());
+    }
+
+    @Test
+    public void shouldCoverFewerTabletsPerBatchThanBatchesInSeedOrder() {
+        // Given
+        final List<String> seeds = getShuffledSeeds();
+        final List<Set<Range>> batchesInSeedOrder = new ArrayList<>();
+        for (int i = 0; i < seeds.size(); i += MAX_SEEDS_PER_BATCH) {
+            final Set<Range> batch = new HashSet<>();
+            for (final String seed : seeds.subList(i, i + MAX_SEEDS_PER_BATCH)) {
+                batch.add(Range.exact(seed));
+            }
+            batchesInSeedOrder.add(batch);
+        }
+
+        // When
+        final List<Set<Range>> batches = Lists.newArrayList(createBatcher(seeds));
+
+        // Then
+        assertEquals(SPLIT_POINTS.size() + 1, getMaxTabletsPerBatch(batchesInSeedOrder));
+        assertEquals(1, getMaxTabletsPerBatch(batches));
+        assertEquals(batchesInSeedOrder.size(), batches.size());
+    }
+
+    @Test
+    public void shouldSplitTabletsWithMoreRangesThanFitInABatch() {
+        // Given
+        final List<String> seeds = getShuffledSeeds();
+
+        // When
+        final List<Set<Range>> batches = Lists.newArrayList(
+                new TabletRangeBatcher<>(seeds.iterator(), (seed, ranges) -> ranges.add(Range.exact(seed)),
+                        SPLIT_POINTS, 30, 10));
+
+        // Then
+        assertTrue(getMaxTabletsPerBatch(batches) <= 3);
+        for (final Set<Range> batch : batches) {
+            assertTrue(batch.size() <= 30);
+        }
+    }
+
+    private TabletRangeBatcher<String> createBatcher(final List<String> seeds) {
+        return new TabletRangeBatcher<>(seeds.iterator(), (seed, ranges) -> ranges.add(Range.exact(seed)),
+                SPLIT_POINTS, MAX_SEEDS_PER_BATCH, NUM_SEEDS / MAX_SEEDS_PER_BATCH);
+    }
+
+    private List<String> getShuffledSeeds() {
+        final List<String> seeds = new ArrayList<>();
+        for (int i = 0; i < NUM_SEEDS; i++) {
+            seeds.add(String.format("%03d", i));
+        }
+        Collections.shuffle(seeds, new Random(1));
+        return seeds;
+    }
+
+    private int getMaxTabletsPerBatch(final List<Set<Range>> batches) {
+        int maxTablets = 0;
+        for (final Set<Range> batch : batches) {
+            final Set<Integer> tablets = new HashSet<>();
+            for (final Range range : batch) {
+                tablets.add(TabletRangeBatcher.getTablet(range, SPLIT_POINTS));
+            }
+            maxTablets = Math.max(maxTablets, tablets.size());
+        }
+        return maxTablets;
+    }
+}
@@ -448,6 +448,51 @@ public class AccumuloIDBetweenSetsRetrieverTest {
         assertThat(betweenA1A2Results, IsCollectionContaining.hasItem(AccumuloTestData.A1_ENTITY));
     }
 
+    @Test
+    public void shouldCheckSetBExactlyWhenSetBFitsInMemoryByteEntityStore() throws StoreException {
+        shouldGetEdgesToAllOfSetB("1000", byteEntityStore);
+    }
+
+    @Test
+    public void shouldCheckSetBExactlyWhenSetBFitsInMemoryGaffer1Store() throws StoreException {
+        shouldGetEdgesToAllOfSetB("1000", gaffer1KeyStore);
+    }
+
+    @Test
+    public void shouldCheckSetBWithBloomFilterWhenSetBDoesNotFitInMemoryByteEntityStore() throws StoreException {
+        shouldGetEdgesToAllOfSetB("10", byteEntityStore);
+    }
+
+    @Test
+    public void shouldCheckSetBWithBloomFilterWhenSetBDoesNotFitInMemoryGaffer1Store() throws StoreException {
+        shouldGetEdgesToAllOfSetB("10", gaffer1KeyStore);
+    }
+
+    private void shouldGetEdgesToAllOfSetB(final String maxEntriesForExactSetCheck, final AccumuloStore store) throws StoreException {
+        // Given
+        store.getProperties().setMaxEntriesForExactSetCheck(maxEntriesForExactSetCheck);
+        store.getProperties().setMaxEntriesForBatchScanner("5");
+        final Set<EntityId> seedsB = new HashSet<>();
+        for (int i = 1; i < 100; i++) {
+            seedsB.add(new EntitySeed("A" + i));
+        }
+        for (int i = 0; i < 100; i++) {
+            seedsB.add(new EntitySeed("notPresent" + i));
+        }
+        final GetElementsBetweenSets op = new GetElementsBetweenSets.Builder()
+                .input(AccumuloTestData.SEED_A0_SET)
+                .inputB(seedsB)
+                .view(defaultView)
+                .build();
+
+        // When
+        final Set<Element> results = returnElementsFromOperation(store, op, new User(), false);
+
+        // Then
+        assertEquals(100, results.size());
+        assertThat(results, IsCollectionContaining.hasItems(AccumuloTestData.EDGE_A0_A23, AccumuloTestData.A0_ENTITY));
+    }
+
     @Test
     public void testEdgesWithinSetAAreNotReturnedByteStoreInMemory() throws StoreException {
         testEdgesWithinSetAAreNotReturned(true, byteEntityStore);
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.data.Mutation;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.SingleUseMockAccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.byteEntity.ByteEntityAccumuloElementConverter;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+
+public class ElementMutationWriterTest {
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(ElementMutationWriterTest.class));
+    private static final AccumuloProperties PROPERTIES = AccumuloProperties.loadStoreProperties(StreamUtil.storeProps(ElementMutationWriterTest.class));
+
+    @Test
+    public void shouldWriteOneMutationPerRow() throws StoreException, MutationsRejectedException {
+        // Given
+        final List<Mutation> mutations = new ArrayList<>();
+        final BatchWriter writer = createWriter(mutations);
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final Entity entity = createEntity("A", 1);
+            entity.putProperty(AccumuloPropertyNames.COLUMN_QUALIFIER, i);
+            elements.add(entity);
+        }
+        elements.add(createEntity("B", 1));
+
+        // When
+        new ElementMutationWriter(new ByteEntityAccumuloElementConverter(SCHEMA), SCHEMA, writer, 1, 10, false)
+                .write(elements);
+
+        // Then
+        assertEquals(2, mutations.size());
+        assertEquals(4, countUpdates(mutations));
+    }
+
+    @Test
+    public void shouldSampleRowsOfMutations() throws StoreException, MutationsRejectedException {
+        // Given
+        final List<Mutation> mutations = new ArrayList<>();
+        final BatchWriter writer = createWriter(mutations);
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            elements.add(createEntity("A" + i, 1));
+        }
+        final RowSampler sampler = new RowSampler(10);
+
+        // When
+        new ElementMutationWriter(new ByteEntityAccumuloElementConverter(SCHEMA), SCHEMA, writer, 2, 30, false, sampler)
+                .write(elements);
+
+        // Then
+        assertEquals(100, sampler.getCount());
+        assertEquals(10, sampler.getSample().size());
+    }
+
+    @Test
+    public void shouldAggregateElementsBeforeWriting() throws StoreException, MutationsRejectedException {
+        // Given
+        final List<Mutation> mutations = new ArrayList<>();
+        final BatchWriter writer = createWriter(mutations);
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            elements.add(createEntity("A", 1));
+            elements.add(createEdge("A", "B", 1));
+        }
+
+        // When
+        new ElementMutationWriter(new ByteEntityAccumuloElementConverter(SCHEMA), SCHEMA, writer, 1, 1000, true)
+                .write(elements);
+
+        // Then
+        assertEquals(3, countUpdates(mutations));
+    }
+
+    @Test
+    public void shouldWriteAllElementsUsingMultipleThreads() throws StoreException, MutationsRejectedException {
+        // Given
+        final List<Mutation> mutations = Collections.synchronizedList(new ArrayList<>());
+        final BatchWriter writer = createWriter(mutations);
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            elements.add(createEntity("" + i, 1));
+        }
+
+        // When
+        new ElementMutationWriter(new ByteEntityAccumuloElementConverter(SCHEMA), SCHEMA, writer, 4, 100, false)
+                .write(elements);
+
+        // Then
+        assertEquals(1000, countUpdates(mutations));
+    }
+
+    @Test
+    public void shouldAddAggregatedElementsToStoreUsingMultipleThreads() throws StoreException, OperationException {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setNumThreadsForIngest("4");
+        properties.setIngestBufferSize("50");
+        properties.setIngestAggregation("true");
+        final SingleUseMockAccumuloStore store = new SingleUseMockAccumuloStore();
+        store.initialise("ingestGraph", SCHEMA, properties);
+        final Graph graph = new Graph.Builder()
+                .store(store)
+                .build();
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            elements.add(createEntity("" + (i % 10), 1));
+        }
+
+        // When
+        graph.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), new User());
+
+        // Then
+        final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), new User());
+        int count = 0;
+        int total = 0;
+        for (final Element element : results) {
+            count++;
+            total += (Integer) element.getProperty(AccumuloPropertyNames.COUNT);
+        }
+        assertEquals(10, count);
+        assertEquals(200, total);
+    }
+
+    private BatchWriter createWriter(final List<Mutation> mutations) throws MutationsRejectedException {
+        final BatchWriter writer = mock(BatchWriter.class);
+        willAnswer(invocation -> mutations.add((Mutation) invocation.getArguments()[0]))
+                .given(writer).addMutation(any(Mutation.class));
+        return writer;
+    }
+
+    private int countUpdates(final List<Mutation> mutations) {
+        int updates = 0;
+        for (final Mutation mutation : mutations) {
+            updates += mutation.getUpdates().size();
+        }
+        return updates;
+    }
+
+    private Entity createEntity(final String vertex, final int count) {
+        return new Entity.Builder()
+                .group(TestGroups.ENTITY)
+                .vertex(vertex)
+                .property(AccumuloPropertyNames.COUNT, count)
+                .build();
+    }
+
+    private Edge createEdge(final String source, final String destination, final int count) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(destination)
+                .directed(true)
+                .property(AccumuloPropertyNames.COUNT, count)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RowSamplerTest {
+
+    @Test
+    public void shouldTakeSampleAndCountAndResetSampler() {
+        // Given
+        final RowSampler sampler = new RowSampler(10);
+        sampler.add(getRows(100));
+
+        // When
+        final RowSampler.Sample sample = sampler.takeSample(5);
+
+        // Then
+        assertEquals(10, sample.getRows().size());
+        assertEquals(100, sample.getCount());
+        assertEquals(0, sampler.getCount());
+        assertEquals(0, sampler.getSample().size());
+    }
+
+    @Test
+    public void shouldNotTakeSampleWhenTooFewRowsHaveBeenSampled() {
+        // Given
+        final RowSampler sampler = new RowSampler(10);
+        sampler.add(getRows(3));
+
+        // When
+        final RowSampler.Sample sample = sampler.takeSample(5);
+
+        // Then
+        assertNull(sample);
+        assertEquals(3, sampler.getCount());
+        assertEquals(3, sampler.getSample().size());
+    }
+
+    @Test
+    public void shouldNotTakeEmptySample() {
+        // Given
+        final RowSampler sampler = new RowSampler(10);
+
+        // When
+        final RowSampler.Sample sample = sampler.takeSample(0);
+
+        // Then
+        assertNull(sample);
+    }
+
+    @Test
+    public void shouldOnlyCountRowsAddedAfterSampleWasTaken() {
+        // Given
+        final RowSampler sampler = new RowSampler(10);
+        sampler.add(getRows(20));
+        sampler.takeSample(1);
+
+        // When
+        sampler.add(Collections.singletonList(new byte[]{1}));
+        final RowSampler.Sample sample = sampler.takeSample(1);
+
+        // Then
+        assertEquals(1, sample.getCount());
+        assertEquals(1, sample.getRows().size());
+    }
+
+    private List<byte[]> getRows(final int numRows) {
+        final List<byte[]> rows = new ArrayList<>();
+        for (int i = 0; i < numRows; i++) {
+            rows.add(new byte[]{(byte) i});
+        }
+        return rows;
+    }
+}
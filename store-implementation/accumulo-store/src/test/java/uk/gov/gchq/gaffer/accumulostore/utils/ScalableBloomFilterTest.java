@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import org.apache.hadoop.util.bloom.DynamicBloomFilter;
+import org.apache.hadoop.util.bloom.Filter;
+import org.apache.hadoop.util.bloom.Key;
+import org.apache.hadoop.util.hash.Hash;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ScalableBloomFilterTest {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int ITEMS_PER_FILTER = 1000;
+    private static final int NUM_ITEMS = 20 * ITEMS_PER_FILTER;
+    private static final int NUM_TESTS = 100000;
+
+    @Test
+    public void shouldContainAllItemsAdded() {
+        // Given
+        final ScalableBloomFilter filter = new ScalableBloomFilter(FALSE_POSITIVE_RATE, ITEMS_PER_FILTER, Integer.MAX_VALUE);
+
+        // When
+        addItems(filter);
+
+        // Then
+        assertEquals(NUM_ITEMS / ITEMS_PER_FILTER, filter.getNumFilters());
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            assertTrue(filter.membershipTest(getKey("item" + i)));
+        }
+    }
+
+    @Test
+    public void shouldKeepFalsePositiveRateCloseToRateWhenManyFiltersAreAdded() {
+        // Given
+        final ScalableBloomFilter filter = new ScalableBloomFilter(FALSE_POSITIVE_RATE, ITEMS_PER_FILTER, Integer.MAX_VALUE);
+        final int size = BloomFilterUtils.calculateBloomFilterSize(FALSE_POSITIVE_RATE, ITEMS_PER_FILTER, Integer.MAX_VALUE);
+        final DynamicBloomFilter dynamicFilter = new DynamicBloomFilter(size,
+                BloomFilterUtils.calculateNumHashes(size, ITEMS_PER_FILTER), Hash.MURMUR_HASH, ITEMS_PER_FILTER);
+
+        // When
+        addItems(filter);
+        addItems(dynamicFilter);
+
+        // Then
+        assertTrue(getFalsePositiveRate(filter) < 1.5 * FALSE_POSITIVE_RATE);
+        assertTrue(getFalsePositiveRate(dynamicFilter) > 5 * FALSE_POSITIVE_RATE);
+    }
+
+    @Test
+    public void shouldWriteAndReadFilter() throws IOException {
+        // Given
+        final ScalableBloomFilter filter = new ScalableBloomFilter(FALSE_POSITIVE_RATE, ITEMS_PER_FILTER, Integer.MAX_VALUE);
+        addItems(filter);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.write(new DataOutputStream(bytes));
+
+        // When
+        final ScalableBloomFilter readFilter = new ScalableBloomFilter();
+        readFilter.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        // Then
+        assertEquals(filter.getNumFilters(), readFilter.getNumFilters());
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            assertTrue(readFilter.membershipTest(getKey("item" + i)));
+        }
+        assertEquals(getFalsePositiveRate(filter), getFalsePositiveRate(readFilter), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowFalsePositiveRateOfOne() {
+        new ScalableBloomFilter(1, ITEMS_PER_FILTER, Integer.MAX_VALUE);
+    }
+
+    private static void addItems(final Filter filter) {
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            filter.add(getKey("item" + i));
+        }
+    }
+
+    private static double getFalsePositiveRate(final Filter filter) {
+        int falsePositives = 0;
+        for (int i = 0; i < NUM_TESTS; i++) {
+            if (filter.membershipTest(getKey("other" + i))) {
+                falsePositives++;
+            }
+        }
+        return (double) falsePositives / NUM_TESTS;
+    }
+
+    private static Key getKey(final String value) {
+        return new Key(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
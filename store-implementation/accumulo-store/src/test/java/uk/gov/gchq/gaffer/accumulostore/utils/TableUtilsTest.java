@@ -35,9 +35,11 @@ import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
 import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
 import uk.gov.gchq.koryphe.impl.binaryoperator.StringConcat;
 import uk.gov.gchq.koryphe.impl.predicate.Exists;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
@@ -164,6 +166,59 @@ public class TableUtilsTest {
         assertEquals(new Text(TestGroups.EDGE), localityGroup.toArray()[0]);
     }
 
+    @Test
+    public void shouldCreateTableWithConfiguredLocalityGroups() throws Exception {
+        // Given
+        final SingleUseMockAccumuloStore store = new SingleUseMockAccumuloStore();
+        final AccumuloProperties props = AccumuloProperties.loadStoreProperties(StreamUtil.storeProps(TableUtilsTest.class));
+        props.setLocalityGroups(TestGroups.EDGE + ", unknownGroup");
+        store.initialise(LOCALITY_GRAPH_ID, getEdgeAndEntitySchema(), props);
+
+        // When
+        TableUtils.createTable(store);
+
+        // Then
+        final Map<String, Set<Text>> localityGroups = store.getConnection().tableOperations().getLocalityGroups(LOCALITY_GRAPH_ID);
+        assertEquals(Collections.singletonMap(TestGroups.EDGE, Collections.singleton(new Text(TestGroups.EDGE))), localityGroups);
+    }
+
+    @Test
+    public void shouldUpdateLocalityGroupsOfExistingTable() throws Exception {
+        // Given
+        final SingleUseMockAccumuloStore store = new SingleUseMockAccumuloStore();
+        final AccumuloProperties props = AccumuloProperties.loadStoreProperties(StreamUtil.storeProps(TableUtilsTest.class));
+        props.setLocalityGroups(TestGroups.EDGE);
+        store.initialise(LOCALITY_GRAPH_ID, getEdgeAndEntitySchema(), props);
+        props.setLocalityGroups(TestGroups.EDGE + "," + TestGroups.ENTITY);
+        props.setUpdateLocalityGroups("true");
+
+        // When
+        TableUtils.ensureTableExists(store);
+
+        // Then
+        final Map<String, Set<Text>> localityGroups = store.getConnection().tableOperations().getLocalityGroups(LOCALITY_GRAPH_ID);
+        assertEquals(2, localityGroups.size());
+        assertEquals(Collections.singleton(new Text(TestGroups.EDGE)), localityGroups.get(TestGroups.EDGE));
+        assertEquals(Collections.singleton(new Text(TestGroups.ENTITY)), localityGroups.get(TestGroups.ENTITY));
+    }
+
+    @Test
+    public void shouldNotUpdateLocalityGroupsOfExistingTableByDefault() throws Exception {
+        // Given
+        final SingleUseMockAccumuloStore store = new SingleUseMockAccumuloStore();
+        final AccumuloProperties props = AccumuloProperties.loadStoreProperties(StreamUtil.storeProps(TableUtilsTest.class));
+        props.setLocalityGroups(TestGroups.EDGE);
+        store.initialise(LOCALITY_GRAPH_ID, getEdgeAndEntitySchema(), props);
+        props.setLocalityGroups(TestGroups.EDGE + "," + TestGroups.ENTITY);
+
+        // When
+        TableUtils.ensureTableExists(store);
+
+        // Then
+        final Map<String, Set<Text>> localityGroups = store.getConnection().tableOperations().getLocalityGroups(LOCALITY_GRAPH_ID);
+        assertEquals(Collections.singletonMap(TestGroups.EDGE, Collections.singleton(new Text(TestGroups.EDGE))), localityGroups);
+    }
+
     @Test
     public void shouldCreateTableCorrectlyIfSchemaContainsNoAggregators() throws Exception {
         // Given
@@ -215,6 +270,21 @@ public class TableUtilsTest {
         assertEquals(0, Integer.parseInt(tableProps.get(Property.TABLE_FILE_REPLICATION.getKey())));
     }
 
+    private Schema getEdgeAndEntitySchema() {
+        return new Schema.Builder()
+                .type(TestTypes.ID_STRING, String.class)
+                .type(TestTypes.DIRECTED_TRUE, Boolean.class)
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex(TestTypes.ID_STRING)
+                        .build())
+                .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                        .source(TestTypes.ID_STRING)
+                        .destination(TestTypes.ID_STRING)
+                        .directed(TestTypes.DIRECTED_TRUE)
+                        .build())
+                .build();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void shouldThrowExceptionIfTableNameIsNotSpecified() throws StoreException {
         // Given
@@ -37,9 +37,20 @@ public class HBaseProperties extends StoreProperties {
     public static final String WRITE_BUFFER_SIZE = "hbase.writeBufferSize";
     public static final String DEPENDENCY_JARS_HDFS_DIR_PATH = "hbase.hdfs.jars.path";
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER = "hbase.entriesForBatchScanner";
+    public static final String REGION_SCANNER_THREADS = "hbase.regionScannerThreads";
+    public static final String ASYNC_INGEST = "hbase.asyncIngest";
+    public static final String MUTATOR_WRITE_BUFFER_SIZE = "hbase.mutatorWriteBufferSize";
+    public static final String BLOOM_FILTER_TYPE = "hbase.bloomFilterType";
+    public static final String DATA_BLOCK_ENCODING = "hbase.dataBlockEncoding";
+    public static final String BLOCK_SIZE = "hbase.blockSize";
 
     public static final int WRITE_BUFFER_SIZE_DEFAULT = 1000000;
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER_DEFAULT = "50000";
+    public static final String REGION_SCANNER_THREADS_DEFAULT = "1";
+    public static final String ASYNC_INGEST_DEFAULT = "false";
+    public static final String BLOOM_FILTER_TYPE_DEFAULT = "ROW";
+    public static final String DATA_BLOCK_ENCODING_DEFAULT = "NONE";
+    public static final String BLOCK_SIZE_DEFAULT = "65536";
 
     public HBaseProperties() {
         super();
@@ -150,4 +161,128 @@ public class HBaseProperties extends StoreProperties {
         set(MAX_ENTRIES_FOR_BATCH_SCANNER, maxEntriesForBatchScanner);
     }
 
+    /**
+     * Get the number of threads used to scan the regions of the table
+     * concurrently when retrieving elements for seeds. If this is 1, the
+     * row ranges for each batch of seeds are read by a single scan.
+     *
+     * @return the number of threads used to scan regions
+     */
+    public int getRegionScannerThreads() {
+        return Integer.parseInt(get(REGION_SCANNER_THREADS, REGION_SCANNER_THREADS_DEFAULT));
+    }
+
+    /**
+     * Set the number of threads used to scan the regions of the table
+     * concurrently when retrieving elements for seeds.
+     *
+     * @param regionScannerThreads the number of threads used to scan regions
+     */
+    public void setRegionScannerThreads(final String regionScannerThreads) {
+        set(REGION_SCANNER_THREADS, regionScannerThreads);
+    }
+
+    /**
+     * Get whether elements are added using a buffered mutator that is only
+     * flushed when required, with each batch aggregated while the previous
+     * batch is written.
+     *
+     * @return true if elements are added asynchronously
+     */
+    public boolean getAsyncIngest() {
+        return Boolean.parseBoolean(get(ASYNC_INGEST, ASYNC_INGEST_DEFAULT));
+    }
+
+    /**
+     * Set whether elements are added using a buffered mutator that is only
+     * flushed when required.
+     *
+     * @param asyncIngest true if elements should be added asynchronously
+     */
+    public void setAsyncIngest(final String asyncIngest) {
+        set(ASYNC_INGEST, asyncIngest);
+    }
+
+    /**
+     * Get the size in bytes of the write buffer of the buffered mutator used
+     * when elements are added asynchronously. If this is not set the HBase
+     * client's default, hbase.client.write.buffer, is used.
+     *
+     * @return the mutator's write buffer size in bytes, or null if it is not set
+     */
+    public Long getMutatorWriteBufferSize() {
+        final String bufferSize = get(MUTATOR_WRITE_BUFFER_SIZE, null);
+        if (null == bufferSize) {
+            return null;
+        }
+
+        return Long.parseLong(bufferSize);
+    }
+
+    /**
+     * Set the size in bytes of the write buffer of the buffered mutator used
+     * when elements are added asynchronously.
+     *
+     * @param mutatorWriteBufferSize the mutator's write buffer size in bytes
+     */
+    public void setMutatorWriteBufferSize(final String mutatorWriteBufferSize) {
+        set(MUTATOR_WRITE_BUFFER_SIZE, mutatorWriteBufferSize);
+    }
+
+    /**
+     * Get the type of Bloom filter to create for the Gaffer column family,
+     * either NONE, ROW or ROWCOL.
+     *
+     * @return the Bloom filter type
+     */
+    public String getBloomFilterType() {
+        return get(BLOOM_FILTER_TYPE, BLOOM_FILTER_TYPE_DEFAULT);
+    }
+
+    /**
+     * Set the type of Bloom filter to create for the Gaffer column family.
+     *
+     * @param bloomFilterType the Bloom filter type
+     */
+    public void setBloomFilterType(final String bloomFilterType) {
+        set(BLOOM_FILTER_TYPE, bloomFilterType);
+    }
+
+    /**
+     * Get the encoding of the data blocks in the Gaffer column family, e.g.
+     * NONE, PREFIX, DIFF or FAST_DIFF.
+     *
+     * @return the data block encoding
+     */
+    public String getDataBlockEncoding() {
+        return get(DATA_BLOCK_ENCODING, DATA_BLOCK_ENCODING_DEFAULT);
+    }
+
+    /**
+     * Set the encoding of the data blocks in the Gaffer column family.
+     *
+     * @param dataBlockEncoding the data block encoding
+     */
+    public void setDataBlockEncoding(final String dataBlockEncoding) {
+        set(DATA_BLOCK_ENCODING, dataBlockEncoding);
+    }
+
+    /**
+     * Get the size in bytes of the blocks in the Gaffer column family.
+     *
+     * @return the block size
+     */
+    public int getBlockSize() {
+        return Integer.parseInt(get(BLOCK_SIZE, BLOCK_SIZE_DEFAULT));
+    }
+
+    /**
+     * Set the size in bytes of the blocks in the Gaffer column family.
+     *
+     * @param blockSize the block size
+     */
+    public void setBlockSize(final String blockSize) {
+        set(BLOCK_SIZE, blockSize);
+    }
+
 }
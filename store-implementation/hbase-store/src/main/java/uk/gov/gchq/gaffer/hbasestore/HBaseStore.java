@@ -59,6 +59,10 @@ import uk.gov.gchq.gaffer.user.User;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static uk.gov.gchq.gaffer.store.StoreTrait.INGEST_AGGREGATION;
 import static uk.gov.gchq.gaffer.store.StoreTrait.ORDERED;
@@ -94,6 +98,7 @@ public class HBaseStore extends Store {
             ));
     private static final Logger LOGGER = LoggerFactory.getLogger(HBaseStore.class);
     private Connection connection;
+    private ThreadPoolExecutor regionScanExecutor;
 
     @Override
     public void initialise(final String graphId, final Schema schema, final StoreProperties properties)
@@ -123,6 +128,11 @@ public class HBaseStore extends Store {
         } else {
             super.initialise(graphId, schema, properties);
         }
+
+        if (null != regionScanExecutor) {
+            regionScanExecutor.shutdownNow();
+        }
+        regionScanExecutor = createRegionScanExecutor(getProperties().getRegionScannerThreads());
     }
 
     public Configuration getConfiguration() {
@@ -144,6 +154,18 @@ public class HBaseStore extends Store {
         return connection;
     }
 
+    /**
+     * Gets the executor used to scan the regions of the table concurrently,
+     * with up to {@link HBaseProperties#getRegionScannerThreads()} threads.
+     * It is shared by all the queries to the store and replaced when the
+     * store is initialised again.
+     *
+     * @return the executor used to scan regions
+     */
+    public ExecutorService getRegionScanExecutor() {
+        return regionScanExecutor;
+    }
+
     public TableName getTableName() {
         return TableName.valueOf(getGraphId());
     }
@@ -174,6 +196,17 @@ public class HBaseStore extends Store {
         return new HBaseRetriever<>(this, operation, user, ids, includeMatchedVertex, extraProcessors);
     }
 
+    private static ThreadPoolExecutor createRegionScanExecutor(final int threads) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, "hbase-store-region-scan");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Override
     protected SchemaOptimiser createSchemaOptimiser() {
         return new SchemaOptimiser(new HBaseSerialisationFactory());
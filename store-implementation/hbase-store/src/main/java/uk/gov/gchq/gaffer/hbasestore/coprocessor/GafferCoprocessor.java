@@ -29,6 +29,7 @@ import org.apache.hadoop.hbase.util.Bytes;
 import uk.gov.gchq.gaffer.commonutil.StringUtil;
 import uk.gov.gchq.gaffer.hbasestore.coprocessor.scanner.QueryScanner;
 import uk.gov.gchq.gaffer.hbasestore.coprocessor.scanner.StoreScanner;
+import uk.gov.gchq.gaffer.hbasestore.coprocessor.scanner.ViewCache;
 import uk.gov.gchq.gaffer.hbasestore.serialisation.ElementSerialisation;
 import uk.gov.gchq.gaffer.hbasestore.utils.HBaseStoreConstants;
 import uk.gov.gchq.gaffer.store.schema.Schema;
@@ -38,6 +39,7 @@ public class GafferCoprocessor extends BaseRegionObserver {
     private Schema schema;
     private ElementSerialisation serialisation;
     private boolean includeMatchedVertex;
+    private final ViewCache viewCache = new ViewCache();
 
     @Override
     public void start(final CoprocessorEnvironment e) throws IOException {
@@ -73,6 +75,6 @@ public class GafferCoprocessor extends BaseRegionObserver {
 
     @Override
     public RegionScanner postScannerOpen(final ObserverContext<RegionCoprocessorEnvironment> e, final Scan scan, final RegionScanner scanner) throws IOException {
-        return new QueryScanner(scanner, scan, schema, serialisation, includeMatchedVertex);
+        return new QueryScanner(scanner, scan, schema, serialisation, includeMatchedVertex, viewCache);
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.hbasestore.coprocessor.processor;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.KeyValue;
+import uk.gov.gchq.gaffer.hbasestore.serialisation.LazyElementCell;
+import uk.gov.gchq.gaffer.hbasestore.utils.HBaseStoreConstants;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An <code>AdjacentIdsProjectionProcessor</code> is used when getting adjacent
+ * ids. It should run after all the filtering and aggregation processors and
+ * replaces each edge cell with a cell containing just its row and column
+ * qualifier, so the properties that are not in the group by are not sent to,
+ * or deserialised by, the client. Entity cells are removed. Edges of different
+ * groups or group by values between the same vertices are kept as separate
+ * cells, so the same adjacent ids are returned as when the edges are not
+ * projected.
+ */
+public class AdjacentIdsProjectionProcessor implements GafferScannerProcessor {
+    @Override
+    public List<LazyElementCell> process(final List<LazyElementCell> elementCells) {
+        final List<LazyElementCell> projectedCells = new ArrayList<>(elementCells.size());
+        for (final LazyElementCell elementCell : elementCells) {
+            final Cell cell = elementCell.getCell();
+            if (elementCell.isDeleted()) {
+                projectedCells.add(elementCell);
+                continue;
+            }
+
+            final byte[] row = CellUtil.cloneRow(cell);
+            if (HBaseStoreConstants.ENTITY == row[row.length - 1]) {
+                continue;
+            }
+
+            projectedCells.add(new LazyElementCell(
+                    CellUtil.createCell(row, CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell),
+                            cell.getTimestamp(), KeyValue.Type.Put.getCode(), HBaseStoreConstants.EMPTY_BYTES),
+                    elementCell.getSerialisation(), true));
+        }
+
+        return projectedCells;
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.hadoop.hbase.util.Bytes;
 import uk.gov.gchq.gaffer.commonutil.StringUtil;
 import uk.gov.gchq.gaffer.data.element.id.DirectedType;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.hbasestore.coprocessor.processor.AdjacentIdsProjectionProcessor;
 import uk.gov.gchq.gaffer.hbasestore.coprocessor.processor.ElementDedupeFilterProcessor;
 import uk.gov.gchq.gaffer.hbasestore.coprocessor.processor.GafferScannerProcessor;
 import uk.gov.gchq.gaffer.hbasestore.coprocessor.processor.GroupFilterProcessor;
@@ -42,23 +43,69 @@ import java.util.List;
 import java.util.Set;
 
 public class QueryScanner extends GafferScanner implements RegionScanner {
+    private final ViewCache viewCache;
+    private final byte[] viewJson;
+    private View view;
+
     public QueryScanner(final RegionScanner scanner,
                         final Scan scan,
                         final Schema schema,
                         final ElementSerialisation serialisation,
                         final boolean includeMatchedVertex) {
-        super(scanner, serialisation, createProcessors(scan, schema, serialisation), includeMatchedVertex);
+        this(scanner, scan, schema, serialisation, includeMatchedVertex, null, getView(scan));
+    }
+
+    /**
+     * Creates a scanner that takes its view from the given {@link ViewCache}
+     * rather than parsing it, and returns the view to the cache when the
+     * scanner is closed. The processors are always created for this scanner.
+     *
+     * @param scanner              the region scanner
+     * @param scan                 the scan
+     * @param schema               the schema of the table
+     * @param serialisation        the element serialisation for the schema
+     * @param includeMatchedVertex if true then the matchedVertex field is set on Edges
+     * @param viewCache            the cache of views
+     */
+    public QueryScanner(final RegionScanner scanner,
+                        final Scan scan,
+                        final Schema schema,
+                        final ElementSerialisation serialisation,
+                        final boolean includeMatchedVertex,
+                        final ViewCache viewCache) {
+        this(scanner, scan, schema, serialisation, includeMatchedVertex, viewCache,
+                viewCache.acquire(scan.getAttribute(HBaseStoreConstants.VIEW)));
+    }
+
+    private QueryScanner(final RegionScanner scanner,
+                         final Scan scan,
+                         final Schema schema,
+                         final ElementSerialisation serialisation,
+                         final boolean includeMatchedVertex,
+                         final ViewCache viewCache,
+                         final View view) {
+        super(scanner, serialisation, createProcessors(scan, view, schema, serialisation), includeMatchedVertex);
+        this.viewCache = viewCache;
+        this.viewJson = scan.getAttribute(HBaseStoreConstants.VIEW);
+        this.view = view;
     }
 
     protected static List<GafferScannerProcessor> createProcessors(
             final Scan scan,
             final Schema schema,
             final ElementSerialisation serialisation) {
+        return createProcessors(scan, getView(scan), schema, serialisation);
+    }
+
+    private static List<GafferScannerProcessor> createProcessors(
+            final Scan scan,
+            final View view,
+            final Schema schema,
+            final ElementSerialisation serialisation) {
         final List<GafferScannerProcessor> processors = new ArrayList<>();
         final Set<Class<? extends GafferScannerProcessor>> extraProcessors = getExtraProcessors(scan);
 
         // The view will be null if a scan of the table is done in the hbase shell
-        final View view = getView(scan);
         if (null != view) {
             processors.add(new GroupFilterProcessor(view));
             if (extraProcessors.remove(ElementDedupeFilterProcessor.class)) {
@@ -80,6 +127,10 @@ public class QueryScanner extends GafferScanner implements RegionScanner {
             processors.add(new PostAggregationFilterProcessor(view));
         }
 
+        if (extraProcessors.remove(AdjacentIdsProjectionProcessor.class)) {
+            processors.add(new AdjacentIdsProjectionProcessor());
+        }
+
         if (!extraProcessors.isEmpty()) {
             throw new RuntimeException("Unrecognised extra processors: " + extraProcessors);
         }
@@ -114,6 +165,18 @@ public class QueryScanner extends GafferScanner implements RegionScanner {
         return StringUtil.csvToClasses(bytes, GafferScannerProcessor.class);
     }
 
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (null != viewCache && null != view) {
+                viewCache.release(viewJson, view);
+                view = null;
+            }
+        }
+    }
+
     @Override
     protected RegionScanner getScanner() {
         return (RegionScanner) super.getScanner();
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.hbasestore.coprocessor.scanner;
+
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A <code>ViewCache</code> is a bounded, least recently used cache of the
+ * {@link View}s parsed from the view JSON sent with query scans, so a view is
+ * only parsed the first time it is used on a region server. The views are
+ * cached using a SHA-256 hash of the view JSON, computed on the region server.
+ * <p>
+ * The functions in a view may hold state, so a view is only used by one
+ * scanner at a time. A scanner acquires a view with {@link #acquire(byte[])},
+ * creates its own processors from it and releases the view with
+ * {@link #release(byte[], View)} when it is closed. The next scanner with the
+ * same view JSON then reuses it. At most maxSize different views are cached.
+ * </p>
+ */
+public class ViewCache {
+    public static final int DEFAULT_MAX_SIZE = 100;
+
+    private final Map<String, Deque<View>> cache;
+
+    public ViewCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize the maximum number of different views to cache
+     */
+    public ViewCache(final int maxSize) {
+        this.cache = new LinkedHashMap<String, Deque<View>>(16, 0.75f, true) {
+            private static final long serialVersionUID = -1594224599575424127L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Deque<View>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets a view for the given view JSON that is not in use by any other
+     * scanner, parsing the JSON if there is no such view in the cache.
+     *
+     * @param viewJson the view JSON sent with the scan
+     * @return the view, or null if the view JSON is null
+     */
+    public View acquire(final byte[] viewJson) {
+        if (null == viewJson) {
+            return null;
+        }
+
+        final String key = getKey(viewJson);
+        synchronized (cache) {
+            final Deque<View> views = cache.get(key);
+            if (null != views && !views.isEmpty()) {
+                return views.poll();
+            }
+        }
+
+        // The view is parsed outside the lock, as parsing the view can be slow
+        return View.fromJson(viewJson);
+    }
+
+    /**
+     * Returns a view to the cache once the scanner that acquired it has been
+     * closed, so it can be used by the next scanner with the same view JSON.
+     *
+     * @param viewJson the view JSON the view was acquired with
+     * @param view     the view
+     */
+    public void release(final byte[] viewJson, final View view) {
+        if (null == viewJson || null == view) {
+            return;
+        }
+
+        final String key = getKey(viewJson);
+        synchronized (cache) {
+            cache.computeIfAbsent(key, k -> new ArrayDeque<>()).offer(view);
+        }
+    }
+
+    /**
+     * @return the number of different views in the cache
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static String getKey(final byte[] viewJson) {
+        try {
+            return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(viewJson));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new RuntimeException("Unable to create a SHA-256 message digest", e);
+        }
+    }
+}
@@ -16,8 +16,11 @@
 
 package uk.gov.gchq.gaffer.hbasestore.operation.handler;
 
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
 import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Properties;
@@ -32,22 +35,47 @@ import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.element.ElementKey;
 import uk.gov.gchq.gaffer.store.operation.handler.OperationHandler;
+import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * HBase will skip 'puts' if there are multiple 'puts' with the same rowId and column qualifier.
  * To work around this issue, we need to aggregate elements within each batch before adding them to HBase.
  * Due to this, optimising the batch size could have a big impact on performance.
  * Configure the batch size using store property: hbase.writeBufferSize
+ * <p>
+ * If the store property hbase.asyncIngest is true, the batches are written
+ * with a {@link BufferedMutator} on a separate thread, so each batch is
+ * aggregated while the previous batch is being written, and the mutator is
+ * only flushed when a batch contains elements with the same keys as elements
+ * that have not yet been flushed. Otherwise the mutator flushes itself when its
+ * write buffer is full. The size of the write buffer in bytes can be set using
+ * store property: hbase.mutatorWriteBufferSize
+ * </p>
  */
 public class AddElementsHandler implements OperationHandler<AddElements> {
+    /**
+     * The number of batches of element keys remembered by the asynchronous
+     * writer before it flushes the mutator, to limit the memory used to
+     * track keys that may not have been flushed.
+     */
+    public static final int MAX_UNFLUSHED_BATCHES = 4;
+
     @Override
     public Void doOperation(final AddElements operation,
                             final Context context, final Store store)
@@ -62,10 +90,14 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
             return;
         }
 
+        if (store.getProperties().getAsyncIngest()) {
+            addElementsAsync(addElementsOperation, store);
+            return;
+        }
+
         try {
             final HTable table = store.getTable();
             final boolean hasAggregators = store.getSchema().isAggregationEnabled();
-            final String visibilityProperty = store.getSchema().getVisibilityProperty();
             final Iterator<? extends Element> elements = addElementsOperation.getInput().iterator();
             final ElementSerialisation serialisation = new ElementSerialisation(store.getSchema());
             final int batchSize = store.getProperties().getWriteBufferSize();
@@ -85,19 +117,7 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
                     if (null == existingElement) {
                         keyToElement.put(elementKey, element);
                     } else if (hasAggregators) {
-                        ElementAggregator aggregator = aggregators.get(existingElement.getGroup());
-                        final SchemaElementDefinition elementDef = store.getSchema().getElement(existingElement.getGroup());
-                        if (null == aggregator) {
-                            aggregator = elementDef.getIngestAggregator();
-                            aggregators.put(existingElement.getGroup(), aggregator);
-                        }
-                        Properties properties = element.getProperties();
-                        if (null != elementDef.getGroupBy() && !elementDef.getGroupBy().isEmpty()) {
-                            properties = properties.clone();
-                            properties.remove(elementDef.getGroupBy());
-                            properties.remove(visibilityProperty);
-                        }
-                        aggregator.apply(existingElement.getProperties(), properties);
+                        aggregate(existingElement, element, aggregators, store.getSchema());
                     } else {
                         executePuts(table, createPuts(serialisation, keyToElement));
                         keyToElement.clear();
@@ -113,6 +133,123 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         }
     }
 
+    private void addElementsAsync(final AddElements addElementsOperation, final HBaseStore store)
+            throws OperationException {
+        final ExecutorService writerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The mutator sends buffered puts in the background, so failures are
+        // recorded by the listener and rethrown once the current batch has been written
+        final AtomicReference<RetriesExhaustedWithDetailsException> failure = new AtomicReference<>();
+        final BufferedMutatorParams params = new BufferedMutatorParams(store.getTableName())
+                .listener((exception, failedMutator) -> failure.compareAndSet(null, exception));
+        final Long mutatorWriteBufferSize = store.getProperties().getMutatorWriteBufferSize();
+        if (null != mutatorWriteBufferSize) {
+            params.writeBufferSize(mutatorWriteBufferSize);
+        }
+        final int batchSize = store.getProperties().getWriteBufferSize();
+        try (final BufferedMutator mutator = store.getConnection().getBufferedMutator(params)) {
+            final AsyncPutWriter writer = new AsyncPutWriter(mutator, (long) MAX_UNFLUSHED_BATCHES * batchSize);
+            final Iterator<? extends Element> elements = addElementsOperation.getInput().iterator();
+            final ElementSerialisation serialisation = new ElementSerialisation(store.getSchema());
+            final Map<String, ElementAggregator> aggregators = new HashMap<>(store.getSchema().getEdges().size() + store.getSchema().getEntities().size());
+            Future<?> pending = null;
+            Element nextElement = null;
+            while (null != nextElement || elements.hasNext()) {
+                final Map<ElementKey, Element> keyToElement = new HashMap<>();
+                nextElement = createBatch(elements, nextElement, keyToElement, aggregators, batchSize, store);
+                final List<Put> puts = createPuts(serialisation, keyToElement);
+
+                // The next batch is aggregated and serialised while the previous batch is being written
+                await(pending, failure);
+                pending = writerExecutor.submit(() -> {
+                    writer.write(keyToElement.keySet(), puts);
+                    return null;
+                });
+            }
+            await(pending, failure);
+            writer.flush();
+            await(null, failure);
+        } catch (final IOException | StoreException e) {
+            throw new OperationException("Failed to add elements", e);
+        } finally {
+            writerExecutor.shutdownNow();
+        }
+    }
+
+    // Adds elements to the batch until it is full or, if aggregation is disabled,
+    // an element with the same key as one already in the batch is found.
+    // Returns the element that could not be added to the batch, or null.
+    private Element createBatch(final Iterator<? extends Element> elements, final Element firstElement,
+                                final Map<ElementKey, Element> keyToElement,
+                                final Map<String, ElementAggregator> aggregators,
+                                final int batchSize, final HBaseStore store) {
+        final boolean hasAggregators = store.getSchema().isAggregationEnabled();
+        Element element = firstElement;
+        int count = 0;
+        while (count < batchSize && (null != element || elements.hasNext())) {
+            if (null == element) {
+                element = elements.next();
+                if (null == element) {
+                    continue;
+                }
+            }
+
+            final ElementKey elementKey = ElementKey.create(element, store.getSchema());
+            final Element existingElement = keyToElement.get(elementKey);
+            if (null == existingElement) {
+                keyToElement.put(elementKey, element);
+            } else if (hasAggregators) {
+                aggregate(existingElement, element, aggregators, store.getSchema());
+            } else {
+                return element;
+            }
+            element = null;
+            count++;
+        }
+        return element;
+    }
+
+    private void aggregate(final Element existingElement, final Element element,
+                           final Map<String, ElementAggregator> aggregators, final Schema schema) {
+        ElementAggregator aggregator = aggregators.get(existingElement.getGroup());
+        final SchemaElementDefinition elementDef = schema.getElement(existingElement.getGroup());
+        if (null == aggregator) {
+            aggregator = elementDef.getIngestAggregator();
+            aggregators.put(existingElement.getGroup(), aggregator);
+        }
+        Properties properties = element.getProperties();
+        if (null != elementDef.getGroupBy() && !elementDef.getGroupBy().isEmpty()) {
+            properties = properties.clone();
+            properties.remove(elementDef.getGroupBy());
+            properties.remove(schema.getVisibilityProperty());
+        }
+        aggregator.apply(existingElement.getProperties(), properties);
+    }
+
+    // Waits for the batch being written, then rethrows any failure recorded
+    // by the mutator's exception listener.
+    private static void await(final Future<?> future,
+                              final AtomicReference<RetriesExhaustedWithDetailsException> failure) throws StoreException {
+        if (null != future) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StoreException("Interrupted while adding elements", e);
+            } catch (final ExecutionException e) {
+                throw new StoreException("Failed to add elements: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        final RetriesExhaustedWithDetailsException exception = failure.get();
+        if (null != exception) {
+            throw new StoreException("Failed to add elements: " + exception.getMessage(), exception);
+        }
+    }
+
     private List<Put> createPuts(final ElementSerialisation serialisation, final Map<ElementKey, Element> keyToElement) throws SerialisationException {
         final Collection<Element> elementBatch = keyToElement.values();
         final List<Put> puts = new ArrayList<>(elementBatch.size());
@@ -135,4 +272,40 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
             }
         }
     }
+
+    /**
+     * Writes batches of puts to a {@link BufferedMutator} without flushing
+     * after each batch, leaving the mutator to flush itself when its write
+     * buffer is full. Puts for the same element key must not be sent to
+     * HBase together, otherwise all but one of them may be skipped, so the
+     * mutator is flushed before a batch containing a key that was written in
+     * an earlier batch and may still be unflushed. The keys are forgotten
+     * when the mutator is flushed, or by flushing it once more than a maximum
+     * number of keys have been written. Elements with the same key are then
+     * aggregated by the coprocessor when they are read, flushed or compacted.
+     */
+    private static final class AsyncPutWriter {
+        private final BufferedMutator mutator;
+        private final long maxUnflushedKeys;
+        private final Set<ElementKey> unflushedKeys = new HashSet<>();
+
+        private AsyncPutWriter(final BufferedMutator mutator, final long maxUnflushedKeys) {
+            this.mutator = mutator;
+            this.maxUnflushedKeys = maxUnflushedKeys;
+        }
+
+        private void write(final Set<ElementKey> keys, final List<Put> puts) throws IOException {
+            if (unflushedKeys.size() + keys.size() > maxUnflushedKeys || !Collections.disjoint(unflushedKeys, keys)) {
+                flush();
+            }
+
+            mutator.mutate(puts);
+            unflushedKeys.addAll(keys);
+        }
+
+        private void flush() throws IOException {
+            mutator.flush();
+            unflushedKeys.clear();
+        }
+    }
 }
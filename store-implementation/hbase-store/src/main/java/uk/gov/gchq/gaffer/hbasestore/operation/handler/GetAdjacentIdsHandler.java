@@ -24,7 +24,9 @@ import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.hbasestore.HBaseStore;
+import uk.gov.gchq.gaffer.hbasestore.coprocessor.processor.AdjacentIdsProjectionProcessor;
 import uk.gov.gchq.gaffer.hbasestore.retriever.HBaseRetriever;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.data.EntitySeed;
@@ -68,7 +70,11 @@ public class GetAdjacentIdsHandler implements OutputOperationHandler<GetAdjacent
                 .build();
 
         try {
-            edgeRetriever = store.createRetriever(getEdges, user, getEdges.getInput(), true);
+            if (canProjectAdjacentIds(getEdges.getView())) {
+                edgeRetriever = store.createRetriever(getEdges, user, getEdges.getInput(), true, AdjacentIdsProjectionProcessor.class);
+            } else {
+                edgeRetriever = store.createRetriever(getEdges, user, getEdges.getInput(), true);
+            }
         } catch (final StoreException e) {
             throw new OperationException(e.getMessage(), e);
         }
@@ -76,6 +82,19 @@ public class GetAdjacentIdsHandler implements OutputOperationHandler<GetAdjacent
         return new ExtractDestinationEntityId(edgeRetriever);
     }
 
+    private boolean canProjectAdjacentIds(final View view) {
+        // The edge properties are only needed on the client if the edges are transformed or filtered after transformation
+        if (view.hasPostTransformFilters()) {
+            return false;
+        }
+        for (final ViewElementDefinition edgeDef : view.getEdges().values()) {
+            if (null != edgeDef.getTransformFunctions() && !edgeDef.getTransformFunctions().isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected static final class ExtractDestinationEntityId extends TransformIterable<Element, EntityId> {
         private ExtractDestinationEntityId(final Iterable<Element> input) {
             super(input, new IsEdgeValidator());
@@ -17,12 +17,14 @@
 package uk.gov.gchq.gaffer.hbasestore.retriever;
 
 import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.RegionLocator;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
 import org.apache.hadoop.hbase.filter.MultiRowRangeFilter;
 import org.apache.hadoop.hbase.security.visibility.Authorizations;
 import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.util.Pair;
 import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.StringUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.AlwaysValid;
@@ -62,6 +64,7 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
     private final OP operation;
     private final byte[] extraProcessors;
     private final boolean includeMatchedVertex;
+    private final byte[] viewJson;
 
     private CloseableIterator<Element> iterator;
     private Iterator<? extends ElementId> idsIterator;
@@ -86,6 +89,7 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
         }
 
         this.includeMatchedVertex = includeMatchedVertex;
+        this.viewJson = operation.getView().toCompactJson();
 
         if (null != extraProcessors && extraProcessors.length > 0) {
             this.extraProcessors = StringUtil.toCsv(extraProcessors);
@@ -148,47 +152,89 @@ public class HBaseRetriever<OP extends Output<CloseableIterable<? extends Elemen
             return null;
         }
 
-        Table table = null;
         try {
-            final Scan scan = new Scan();
-
-            if (null != idsIterator) {
-                final List<MultiRowRangeFilter.RowRange> rowRanges = new ArrayList<>();
-                final int maxEntriesForBatchScanner = store.getProperties().getMaxEntriesForBatchScanner();
-                int count = 0;
-                while (idsIterator.hasNext() && count < maxEntriesForBatchScanner) {
-                    count++;
-                    rowRanges.addAll(rowRangeFactory.getRowRange(idsIterator.next(), operation));
-                }
-
-                if (rowRanges.isEmpty()) {
-                    return new WrappedCloseableIterable<>(Collections.emptyList());
-                }
+            if (null == idsIterator) {
+                return createScanner(createScan());
+            }
 
-                scan.setFilter(new MultiRowRangeFilter(rowRanges));
+            final List<MultiRowRangeFilter.RowRange> rowRanges = new ArrayList<>();
+            final int maxEntriesForBatchScanner = store.getProperties().getMaxEntriesForBatchScanner();
+            int count = 0;
+            while (idsIterator.hasNext() && count < maxEntriesForBatchScanner) {
+                count++;
+                rowRanges.addAll(rowRangeFactory.getRowRange(idsIterator.next(), operation));
             }
 
-            scan.setAuthorizations(authorisations);
-            scan.setAttribute(HBaseStoreConstants.SCHEMA, store.getSchema().toCompactJson());
-            scan.setAttribute(HBaseStoreConstants.INCLUDE_MATCHED_VERTEX, Bytes.toBytes(Boolean.toString(includeMatchedVertex)));
-            scan.setAttribute(HBaseStoreConstants.VIEW, operation.getView().toCompactJson());
-            if (null != operation.getDirectedType()) {
-                scan.setAttribute(HBaseStoreConstants.DIRECTED_TYPE, Bytes.toBytes(operation.getDirectedType().name()));
+            if (rowRanges.isEmpty()) {
+                return new WrappedCloseableIterable<>(Collections.emptyList());
             }
-            if (null != extraProcessors) {
-                scan.setAttribute(HBaseStoreConstants.EXTRA_PROCESSORS, extraProcessors);
+
+            final int numThreads = store.getProperties().getRegionScannerThreads();
+            if (numThreads > 1) {
+                return createParallelScanner(rowRanges, numThreads);
             }
-            scan.setMaxVersions();
-            table = store.getTable();
-            return new WrappedCloseableIterable<>(table.getScanner(scan));
+
+            final Scan scan = createScan();
+            scan.setFilter(new MultiRowRangeFilter(rowRanges));
+            return createScanner(scan);
         } catch (final IOException | StoreException e) {
-            if (null != table) {
-                CloseableUtil.close(table);
-            }
             throw new RuntimeException(e);
         }
     }
 
+    private CloseableIterable<Result> createParallelScanner(final List<MultiRowRangeFilter.RowRange> rowRanges,
+                                                            final int numThreads) throws IOException, StoreException {
+        final Pair<byte[][], byte[][]> regions;
+        try (final RegionLocator regionLocator = store.getConnection().getRegionLocator(store.getTableName())) {
+            regions = regionLocator.getStartEndKeys();
+        }
+
+        final List<List<MultiRowRangeFilter.RowRange>> rangesByRegion = ParallelRegionScanner.partitionByRegion(
+                MultiRowRangeFilter.sortAndMerge(rowRanges), regions.getFirst(), regions.getSecond());
+        final List<Scan> scans = new ArrayList<>();
+        for (int region = 0; region < rangesByRegion.size(); region++) {
+            if (!rangesByRegion.get(region).isEmpty()) {
+                final Scan scan = createScan();
+                scan.setStartRow(regions.getFirst()[region]);
+                scan.setStopRow(regions.getSecond()[region]);
+                scan.setFilter(new MultiRowRangeFilter(rangesByRegion.get(region)));
+                scans.add(scan);
+            }
+        }
+
+        if (scans.size() < 2) {
+            final Scan scan = createScan();
+            scan.setFilter(new MultiRowRangeFilter(rowRanges));
+            return createScanner(scan);
+        }
+        return new ParallelRegionScanner(store, scans, numThreads);
+    }
+
+    private Scan createScan() {
+        final Scan scan = new Scan();
+        scan.setAuthorizations(authorisations);
+        scan.setAttribute(HBaseStoreConstants.INCLUDE_MATCHED_VERTEX, Bytes.toBytes(Boolean.toString(includeMatchedVertex)));
+        scan.setAttribute(HBaseStoreConstants.VIEW, viewJson);
+        if (null != operation.getDirectedType()) {
+            scan.setAttribute(HBaseStoreConstants.DIRECTED_TYPE, Bytes.toBytes(operation.getDirectedType().name()));
+        }
+        if (null != extraProcessors) {
+            scan.setAttribute(HBaseStoreConstants.EXTRA_PROCESSORS, extraProcessors);
+        }
+        scan.setMaxVersions();
+        return scan;
+    }
+
+    private CloseableIterable<Result> createScanner(final Scan scan) throws IOException, StoreException {
+        final Table table = store.getTable();
+        try {
+            return new WrappedCloseableIterable<>(table.getScanner(scan));
+        } catch (final IOException e) {
+            CloseableUtil.close(table);
+            throw e;
+        }
+    }
+
     public class BatchedResultScanner extends BatchedIterable<Result> {
         @Override
         protected Iterable<Result> createBatch() {
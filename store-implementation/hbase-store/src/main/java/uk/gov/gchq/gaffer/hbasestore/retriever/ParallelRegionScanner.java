@@ -0,0 +1,268 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.hbasestore.retriever;
+
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.hbasestore.HBaseStore;
+import uk.gov.gchq.gaffer.store.StoreException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A <code>ParallelRegionScanner</code> runs a number of {@link Scan}s, one per
+ * region, concurrently on the store's region scan executor, see
+ * {@link HBaseStore#getRegionScanExecutor()}, running up to a given number of
+ * scans at once. The results of each scan are buffered and returned in the
+ * order of the scans, so if the scans are ordered by region the results are
+ * returned in row order. A scan that has filled its buffer waits for the
+ * results to be read, and is stopped when the iterator is closed or if its
+ * results are not read for {@link #ABANDONED_SCAN_TIMEOUT_MILLIS}. Only 1
+ * iterator can be open at a time.
+ */
+public class ParallelRegionScanner implements CloseableIterable<Result> {
+    public static final long ABANDONED_SCAN_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelRegionScanner.class);
+    private static final int RESULTS_BUFFER_SIZE = 1000;
+    private static final long POLL_TIMEOUT_MILLIS = 1000L;
+    private static final Result END_OF_SCAN = new Result();
+
+    private final HBaseStore store;
+    private final List<Scan> scans;
+    private final int numThreads;
+    private final ExecutorService executor;
+    private final int bufferSize;
+    private final long abandonedTimeoutMillis;
+    private ScanIterator iterator;
+
+    /**
+     * @param store      the store containing the table to scan
+     * @param scans      the scans to run, ordered by region
+     * @param numThreads the maximum number of scans to run at once
+     */
+    public ParallelRegionScanner(final HBaseStore store, final List<Scan> scans, final int numThreads) {
+        this(store, scans, numThreads, store.getRegionScanExecutor(), RESULTS_BUFFER_SIZE, ABANDONED_SCAN_TIMEOUT_MILLIS);
+    }
+
+    ParallelRegionScanner(final HBaseStore store, final List<Scan> scans, final int numThreads,
+                          final ExecutorService executor, final int bufferSize, final long abandonedTimeoutMillis) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive");
+        }
+        this.store = store;
+        this.scans = scans;
+        this.numThreads = numThreads;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.abandonedTimeoutMillis = abandonedTimeoutMillis;
+    }
+
+    /**
+     * Groups sorted, non-overlapping row ranges by the regions they overlap.
+     * A range that spans several regions is added to each of them.
+     *
+     * @param sortedRanges the sorted and merged row ranges
+     * @param startKeys    the start keys of the regions, in order
+     * @param endKeys      the end keys of the regions, in order
+     * @return the row ranges for each region, in the order of the regions
+     */
+    public static List<List<RowRange>> partitionByRegion(final List<RowRange> sortedRanges,
+                                                         final byte[][] startKeys,
+                                                         final byte[][] endKeys) {
+        final List<List<RowRange>> rangesByRegion = new ArrayList<>(startKeys.length);
+        int firstRange = 0;
+        for (int region = 0; region < startKeys.length; region++) {
+            final List<RowRange> regionRanges = new ArrayList<>();
+            // Skip the ranges that end before this region starts
+            while (firstRange < sortedRanges.size() && endsBefore(sortedRanges.get(firstRange), startKeys[region])) {
+                firstRange++;
+            }
+            for (int i = firstRange; i < sortedRanges.size() && startsBefore(sortedRanges.get(i), endKeys[region]); i++) {
+                regionRanges.add(sortedRanges.get(i));
+            }
+            rangesByRegion.add(regionRanges);
+        }
+        return rangesByRegion;
+    }
+
+    @Override
+    public synchronized CloseableIterator<Result> iterator() {
+        // By design, only 1 iterator can be open at a time
+        close();
+        iterator = new ScanIterator();
+        return iterator;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (null != iterator) {
+            iterator.close();
+            iterator = null;
+        }
+    }
+
+    private static boolean endsBefore(final RowRange range, final byte[] regionStart) {
+        final byte[] stopRow = range.getStopRow();
+        if (0 == stopRow.length || 0 == regionStart.length) {
+            return false;
+        }
+        final int comparison = Bytes.compareTo(stopRow, regionStart);
+        return comparison < 0 || (0 == comparison && !range.isStopRowInclusive());
+    }
+
+    private static boolean startsBefore(final RowRange range, final byte[] regionEnd) {
+        return 0 == regionEnd.length || Bytes.compareTo(range.getStartRow(), regionEnd) < 0;
+    }
+
+    private final class ScanIterator implements CloseableIterator<Result> {
+        private final List<BlockingQueue<Result>> resultQueues = new ArrayList<>(scans.size());
+        private final List<Future<?>> futures = new ArrayList<>(scans.size());
+        private final AtomicReference<Exception> error = new AtomicReference<>();
+        private volatile boolean cancelled;
+        private int index;
+        private Result next;
+
+        private ScanIterator() {
+            // The scans are started in order, so the scan being read has always
+            // been started before any of the scans waiting to be read
+            while (futures.size() < Math.min(numThreads, scans.size())) {
+                startNextScan();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == next && !cancelled && index < resultQueues.size()) {
+                final Result result = poll();
+                if (END_OF_SCAN == result) {
+                    if (null != error.get()) {
+                        throw new RuntimeException("Failed to scan region: " + error.get().getMessage(), error.get());
+                    }
+                    index++;
+                    if (futures.size() < scans.size()) {
+                        startNextScan();
+                    }
+                } else {
+                    next = result;
+                }
+            }
+            return null != next;
+        }
+
+        @Override
+        public Result next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Reached the end of the iterator");
+            }
+            final Result result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void close() {
+            cancelled = true;
+            next = null;
+            for (final Future<?> future : futures) {
+                future.cancel(true);
+            }
+            // Free the buffers, so no scan is left waiting to add its results
+            for (final BlockingQueue<Result> results : resultQueues) {
+                results.clear();
+            }
+        }
+
+        private void startNextScan() {
+            final Scan scan = scans.get(futures.size());
+            final BlockingQueue<Result> results = new ArrayBlockingQueue<>(bufferSize);
+            resultQueues.add(results);
+            futures.add(executor.submit(() -> scanRegion(scan, results)));
+        }
+
+        private Result poll() {
+            final BlockingQueue<Result> results = resultQueues.get(index);
+            final Future<?> future = futures.get(index);
+            try {
+                Result result = null;
+                while (null == result && !cancelled) {
+                    result = results.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (null == result && future.isDone() && results.isEmpty()) {
+                        // The scan stopped without adding the end marker, e.g. it was cancelled
+                        error.compareAndSet(null, new IllegalStateException("The scan was stopped before it finished"));
+                        result = END_OF_SCAN;
+                    }
+                }
+                return result;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for results", e);
+            }
+        }
+
+        private void scanRegion(final Scan scan, final BlockingQueue<Result> results) {
+            try {
+                try (final Table table = store.getTable();
+                     final ResultScanner scanner = table.getScanner(scan)) {
+                    for (final Result result : scanner) {
+                        if (!offer(results, result)) {
+                            return;
+                        }
+                    }
+                } catch (final IOException | StoreException | RuntimeException e) {
+                    error.compareAndSet(null, e);
+                }
+                offer(results, END_OF_SCAN);
+            } catch (final InterruptedException e) {
+                // The scanner has been closed
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Waits for room in the buffer until the iterator is closed, or until
+        // the results have not been read for the abandoned timeout.
+        private boolean offer(final BlockingQueue<Result> results, final Result result) throws InterruptedException {
+            long waitedMillis = 0;
+            while (!cancelled) {
+                if (results.offer(result, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+                waitedMillis += POLL_TIMEOUT_MILLIS;
+                if (waitedMillis >= abandonedTimeoutMillis) {
+                    LOGGER.warn("Stopping a region scan as its results have not been read for {}ms", waitedMillis);
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
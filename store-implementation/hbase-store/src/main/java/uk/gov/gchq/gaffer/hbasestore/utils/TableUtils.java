@@ -27,11 +27,14 @@ import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
 import org.apache.hadoop.hbase.security.visibility.Authorizations;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.hbasestore.HBaseProperties;
 import uk.gov.gchq.gaffer.hbasestore.HBaseStore;
 import uk.gov.gchq.gaffer.hbasestore.coprocessor.GafferCoprocessor;
 import uk.gov.gchq.gaffer.store.StoreException;
@@ -67,7 +70,9 @@ public final class TableUtils {
      * See the HBase Store README for more information on what changes to your schema you are allowed to make.
      * HBase tables are automatically created when the Gaffer HBase store is initialised when an instance of Graph is created.
      * <p>
-     * Running this with an existing table will remove the existing Gaffer Coprocessor and recreate it.
+     * Running this with an existing table will remove the existing Gaffer Coprocessor and recreate it,
+     * and update the Bloom filter, data block encoding and block size of the Gaffer column family
+     * if they are set in the store properties.
      * </p>
      * <p>
      * A FileGraphLibrary path must be specified as an argument.  If no path is set NoGraphLibrary will be used.
@@ -137,6 +142,11 @@ public final class TableUtils {
                 final HTableDescriptor descriptor = admin.getTableDescriptor(tableName);
                 descriptor.removeCoprocessor(GafferCoprocessor.class.getName());
                 addCoprocesssor(descriptor, store);
+                final HColumnDescriptor col = descriptor.getFamily(HBaseStoreConstants.getColFam());
+                if (null != col) {
+                    configureColumnFamily(col, store.getProperties());
+                    descriptor.modifyFamily(col);
+                }
                 admin.modifyTable(tableName, descriptor);
             } else {
                 TableUtils.createTable(store);
@@ -221,6 +231,7 @@ public final class TableUtils {
             // HBase have this note in their code "Allow maxVersion of 0 to be the way you say 'Keep all versions'."
             // As soon as HBase have made this update we can set the max versions number to 0.
             col.setMaxVersions(Integer.MAX_VALUE);
+            configureColumnFamily(col, store.getProperties());
             htable.addFamily(col);
             addCoprocesssor(htable, store);
             admin.createTable(htable);
@@ -299,6 +310,37 @@ public final class TableUtils {
         htable.addCoprocessor(GafferCoprocessor.class.getName(), store.getProperties().getDependencyJarsHdfsDirPath(), Coprocessor.PRIORITY_USER, options);
     }
 
+    private static void configureColumnFamily(final HColumnDescriptor col, final HBaseProperties properties) {
+        // Row keys start with the serialised vertex, so consecutive keys share long prefixes that encode well.
+        // Existing store files are only rewritten with new settings when they are next compacted.
+        // Settings that are not in the properties are left as they are, so updating a table does not reset them.
+        if (null != properties.get(HBaseProperties.BLOOM_FILTER_TYPE)) {
+            col.setBloomFilterType(getBloomType(properties.getBloomFilterType()));
+        }
+        if (null != properties.get(HBaseProperties.DATA_BLOCK_ENCODING)) {
+            col.setDataBlockEncoding(getDataBlockEncoding(properties.getDataBlockEncoding()));
+        }
+        if (null != properties.get(HBaseProperties.BLOCK_SIZE)) {
+            col.setBlocksize(properties.getBlockSize());
+        }
+    }
+
+    private static BloomType getBloomType(final String bloomFilterType) {
+        try {
+            return BloomType.valueOf(bloomFilterType);
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + HBaseProperties.BLOOM_FILTER_TYPE + ": " + bloomFilterType, e);
+        }
+    }
+
+    private static DataBlockEncoding getDataBlockEncoding(final String dataBlockEncoding) {
+        try {
+            return DataBlockEncoding.valueOf(dataBlockEncoding);
+        } catch (final IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + HBaseProperties.DATA_BLOCK_ENCODING + ": " + dataBlockEncoding, e);
+        }
+    }
+
     private static void validateTable(final TableName tableName, final Admin admin) throws StoreException {
         final ValidationResult validationResult = new ValidationResult();
 
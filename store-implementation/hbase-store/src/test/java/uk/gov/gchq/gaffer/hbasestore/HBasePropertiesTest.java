@@ -22,6 +22,7 @@ import uk.gov.gchq.gaffer.store.StoreException;
 import java.io.IOException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class HBasePropertiesTest {
     @Test
@@ -33,10 +34,22 @@ public class HBasePropertiesTest {
         properties.setDependencyJarsHdfsDirPath("pathTo/jars");
         properties.setWriteBufferSize(10);
         properties.setZookeepers("zookeeper1,zookeeper2");
+        properties.setRegionScannerThreads("4");
+        properties.setAsyncIngest("true");
+        properties.setMutatorWriteBufferSize("4194304");
+        properties.setBloomFilterType("ROWCOL");
+        properties.setDataBlockEncoding("FAST_DIFF");
+        properties.setBlockSize("16384");
 
         // Then
         assertEquals(new Path("pathTo/jars"), properties.getDependencyJarsHdfsDirPath());
         assertEquals(10, properties.getWriteBufferSize());
         assertEquals("zookeeper1,zookeeper2", properties.getZookeepers());
+        assertEquals(4, properties.getRegionScannerThreads());
+        assertTrue(properties.getAsyncIngest());
+        assertEquals(Long.valueOf(4194304L), properties.getMutatorWriteBufferSize());
+        assertEquals("ROWCOL", properties.getBloomFilterType());
+        assertEquals("FAST_DIFF", properties.getDataBlockEncoding());
+        assertEquals(16384, properties.getBlockSize());
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.hbasestore.coprocessor.processor;
+
+import org.junit.Test;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.hbasestore.serialisation.ElementSerialisation;
+import uk.gov.gchq.gaffer.hbasestore.serialisation.LazyElementCell;
+import uk.gov.gchq.gaffer.hbasestore.util.CellUtil;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AdjacentIdsProjectionProcessorTest {
+    private static final Schema SCHEMA = new Schema.Builder()
+            .type("string", new TypeDefinition.Builder()
+                    .clazz(String.class)
+                    .serialiser(new StringSerialiser())
+                    .build())
+            .type("type", Boolean.class)
+            .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                    .source("string")
+                    .destination("string")
+                    .directed("true")
+                    .property("prop1", "string")
+                    .property("prop2", "string")
+                    .groupBy("prop1")
+                    .aggregate(false)
+                    .build())
+            .edge(TestGroups.EDGE_2, new SchemaEdgeDefinition.Builder()
+                    .source("string")
+                    .destination("string")
+                    .directed("true")
+                    .property("prop2", "string")
+                    .aggregate(false)
+                    .build())
+            .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                    .vertex("string")
+                    .aggregate(false)
+                    .build())
+            .vertexSerialiser(new StringSerialiser())
+            .build();
+
+    private final ElementSerialisation serialisation = new ElementSerialisation(SCHEMA);
+
+    @Test
+    public void shouldProjectEachEdgeToCellWithoutPropertiesOutsideGroupBy() throws SerialisationException {
+        // Given
+        final AdjacentIdsProjectionProcessor processor = new AdjacentIdsProjectionProcessor();
+        final List<LazyElementCell> cells = Arrays.asList(
+                CellUtil.getLazyCell(new Edge.Builder()
+                        .group(TestGroups.EDGE)
+                        .source("vertexA")
+                        .dest("vertexB")
+                        .directed(true)
+                        .property("prop1", "a")
+                        .property("prop2", "b")
+                        .build(), serialisation, true),
+                CellUtil.getLazyCell(new Edge.Builder()
+                        .group(TestGroups.EDGE)
+                        .source("vertexA")
+                        .dest("vertexB")
+                        .directed(true)
+                        .property("prop1", "c")
+                        .property("prop2", "d")
+                        .build(), serialisation, true),
+                CellUtil.getLazyCell(new Edge.Builder()
+                        .group(TestGroups.EDGE_2)
+                        .source("vertexA")
+                        .dest("vertexB")
+                        .directed(true)
+                        .property("prop2", "e")
+                        .build(), serialisation, true),
+                CellUtil.getLazyCells(new Edge.Builder()
+                        .group(TestGroups.EDGE_2)
+                        .source("vertexC")
+                        .dest("vertexA")
+                        .directed(true)
+                        .property("prop2", "f")
+                        .build(), serialisation, true).getSecond(),
+                CellUtil.getLazyCell(new Entity.Builder()
+                        .group(TestGroups.ENTITY)
+                        .vertex("vertexA")
+                        .build(), serialisation, true)
+        );
+
+        // When
+        final List<LazyElementCell> result = processor.process(cells);
+
+        // Then
+        assertEquals(4, result.size());
+        for (final LazyElementCell cell : result) {
+            assertEquals(0, cell.getCell().getValueLength());
+        }
+
+        final Edge edge1 = (Edge) serialisation.getElement(result.get(0).getCell(), true);
+        assertEquals(TestGroups.EDGE, edge1.getGroup());
+        assertEquals("vertexA", edge1.getSource());
+        assertEquals("vertexB", edge1.getDestination());
+        assertEquals(EdgeId.MatchedVertex.SOURCE, edge1.getMatchedVertex());
+        assertEquals("a", edge1.getProperty("prop1"));
+        assertNull(edge1.getProperty("prop2"));
+
+        final Edge edge2 = (Edge) serialisation.getElement(result.get(1).getCell(), true);
+        assertEquals(TestGroups.EDGE, edge2.getGroup());
+        assertEquals("c", edge2.getProperty("prop1"));
+        assertNull(edge2.getProperty("prop2"));
+
+        final Edge edge3 = (Edge) serialisation.getElement(result.get(2).getCell(), true);
+        assertEquals(TestGroups.EDGE_2, edge3.getGroup());
+        assertEquals("vertexA", edge3.getSource());
+        assertEquals("vertexB", edge3.getDestination());
+        assertNull(edge3.getProperty("prop2"));
+
+        final Edge edge4 = (Edge) serialisation.getElement(result.get(3).getCell(), true);
+        assertEquals("vertexC", edge4.getSource());
+        assertEquals("vertexA", edge4.getDestination());
+        assertEquals(EdgeId.MatchedVertex.DESTINATION, edge4.getMatchedVertex());
+        assertNull(edge4.getProperty("prop2"));
+    }
+}
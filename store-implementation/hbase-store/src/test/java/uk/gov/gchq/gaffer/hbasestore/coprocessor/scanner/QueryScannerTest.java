@@ -48,11 +48,13 @@ import java.util.List;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class QueryScannerTest {
@@ -253,6 +255,28 @@ public class QueryScannerTest {
         }
     }
 
+    @Test
+    public void shouldReturnViewToCacheOnceWhenClosed() throws IOException {
+        // Given
+        final ViewCache viewCache = new ViewCache();
+        final RegionScanner scanner = mock(RegionScanner.class);
+        final Scan scan = mock(Scan.class);
+        given(scan.getAttribute(HBaseStoreConstants.VIEW)).willReturn(VIEW.toCompactJson());
+        final QueryScanner queryScanner = new QueryScanner(scanner, scan, SCHEMA, serialisation, false, viewCache);
+
+        // When
+        queryScanner.close();
+        queryScanner.close();
+
+        // Then
+        verify(scanner, times(2)).close();
+        assertEquals(1, viewCache.size());
+        final View releasedView = viewCache.acquire(VIEW.toCompactJson());
+        final View newView = viewCache.acquire(VIEW.toCompactJson());
+        assertEquals(VIEW, releasedView);
+        assertNotSame(releasedView, newView);
+    }
+
     @Test
     public void shouldDelegateMethodsToInternalScanner() throws IOException {
         final RegionScanner scanner = mock(RegionScanner.class);
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.hbasestore.coprocessor.scanner;
+
+import org.junit.Test;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ViewCacheTest {
+    private static final byte[] VIEW_JSON = new View.Builder()
+            .entity(TestGroups.ENTITY)
+            .edge(TestGroups.EDGE)
+            .build()
+            .toCompactJson();
+
+    private static final byte[] VIEW_JSON_2 = new View.Builder()
+            .edge(TestGroups.EDGE_2)
+            .build()
+            .toCompactJson();
+
+    private static final byte[] VIEW_JSON_3 = new View.Builder()
+            .entity(TestGroups.ENTITY_2)
+            .build()
+            .toCompactJson();
+
+    @Test
+    public void shouldReuseViewOnceItHasBeenReleased() {
+        // Given
+        final ViewCache cache = new ViewCache();
+        final View view = cache.acquire(VIEW_JSON);
+
+        // When
+        cache.release(VIEW_JSON, view);
+        final View reusedView = cache.acquire(Arrays.copyOf(VIEW_JSON, VIEW_JSON.length));
+
+        // Then
+        assertSame(view, reusedView);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldNotShareViewBetweenScannersUsingItAtTheSameTime() {
+        // Given
+        final ViewCache cache = new ViewCache();
+
+        // When
+        final View view1 = cache.acquire(VIEW_JSON);
+        final View view2 = cache.acquire(VIEW_JSON);
+
+        // Then
+        assertNotSame(view1, view2);
+        assertEquals(view1, view2);
+    }
+
+    @Test
+    public void shouldNotReuseViewForDifferentViewJson() {
+        // Given
+        final ViewCache cache = new ViewCache();
+        final View view = cache.acquire(VIEW_JSON);
+        cache.release(VIEW_JSON, view);
+
+        // When
+        final View otherView = cache.acquire(VIEW_JSON_2);
+
+        // Then
+        assertNotSame(view, otherView);
+        assertEquals(View.fromJson(VIEW_JSON_2), otherView);
+    }
+
+    @Test
+    public void shouldReturnNullWhenThereIsNoView() {
+        // Given
+        final ViewCache cache = new ViewCache();
+
+        // When
+        final View view = cache.acquire(null);
+        cache.release(null, view);
+
+        // Then
+        assertNull(view);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedViews() {
+        // Given
+        final ViewCache cache = new ViewCache(2);
+        final View view1 = cache.acquire(VIEW_JSON);
+        cache.release(VIEW_JSON, view1);
+        cache.release(VIEW_JSON_2, cache.acquire(VIEW_JSON_2));
+        cache.release(VIEW_JSON, cache.acquire(VIEW_JSON));
+
+        // When
+        cache.release(VIEW_JSON_3, cache.acquire(VIEW_JSON_3));
+
+        // Then
+        assertEquals(2, cache.size());
+        assertSame(view1, cache.acquire(VIEW_JSON));
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.hbasestore.integration;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.hbasestore.MiniHBaseStore;
+import uk.gov.gchq.gaffer.hbasestore.utils.TableUtils;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.impl.function.Identity;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class GetAdjacentIdsIT {
+    private final User user = new User();
+    private Graph graph;
+
+    @Before
+    public void setup() throws OperationException {
+        try {
+            TableUtils.dropAllTables(new MiniHBaseStore().getConnection());
+        } catch (final StoreException e) {
+            // ignore any errors that occur when dropping test tables
+        }
+
+        graph = new Graph.Builder()
+                .graphId("adjacentIdsGraph")
+                .storeProperties(StreamUtil.storeProps(getClass()))
+                .addSchemas(StreamUtil.schemas(getClass()))
+                .build();
+        graph.execute(new AddElements.Builder()
+                .input(createEdge(TestGroups.EDGE, 1),
+                        createEdge(TestGroups.EDGE, 2),
+                        createEdge(TestGroups.EDGE_2, 1))
+                .build(), user);
+    }
+
+    @Test
+    public void shouldReturnAdjacentIdForEachEdgeGroupAndGroupByBetweenSameVertices() throws OperationException {
+        // Given
+        final GetAdjacentIds op = new GetAdjacentIds.Builder()
+                .input(new EntitySeed("A"))
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .edge(TestGroups.EDGE_2)
+                        .build())
+                .build();
+
+        // When
+        final List<? extends EntityId> results = Lists.newArrayList(graph.execute(op, user));
+
+        // Then
+        assertEquals(Arrays.asList(new EntitySeed("B"), new EntitySeed("B"), new EntitySeed("B")), results);
+    }
+
+    @Test
+    public void shouldReturnSameAdjacentIdsWhetherOrNotEdgesAreProjected() throws OperationException {
+        // Given
+        final GetAdjacentIds projectedOp = new GetAdjacentIds.Builder()
+                .input(new EntitySeed("A"))
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .edge(TestGroups.EDGE_2)
+                        .build())
+                .build();
+        // Transforming the edges means the properties are needed on the client, so the edges are not projected
+        final GetAdjacentIds unprojectedOp = new GetAdjacentIds.Builder()
+                .input(new EntitySeed("A"))
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE, new ViewElementDefinition.Builder()
+                                .transformer(new ElementTransformer.Builder()
+                                        .select("property1")
+                                        .execute(new Identity())
+                                        .project("property1")
+                                        .build())
+                                .build())
+                        .edge(TestGroups.EDGE_2)
+                        .build())
+                .build();
+
+        // When
+        final List<? extends EntityId> projectedResults = Lists.newArrayList(graph.execute(projectedOp, user));
+        final List<? extends EntityId> unprojectedResults = Lists.newArrayList(graph.execute(unprojectedOp, user));
+
+        // Then
+        assertEquals(unprojectedResults, projectedResults);
+    }
+
+    private Element createEdge(final String group, final int columnQualifier) {
+        return new Edge.Builder()
+                .group(group)
+                .source("A")
+                .dest("B")
+                .directed(true)
+                .property("columnQualifier", columnQualifier)
+                .property("property1", 1)
+                .property("count", 1)
+                .build();
+    }
+}
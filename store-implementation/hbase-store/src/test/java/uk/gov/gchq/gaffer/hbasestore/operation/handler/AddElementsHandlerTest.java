@@ -17,11 +17,16 @@
 package uk.gov.gchq.gaffer.hbasestore.operation.handler;
 
 import com.google.common.collect.Lists;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
 import org.apache.hadoop.hbase.client.HTable;
 import org.apache.hadoop.hbase.client.Put;
 import org.hamcrest.core.IsCollectionContaining;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
 import uk.gov.gchq.gaffer.data.element.Edge;
@@ -50,7 +55,9 @@ import java.util.List;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -267,6 +274,138 @@ public class AddElementsHandlerTest {
         verify(table).flushCommits();
     }
 
+    @Test
+    public void shouldAddDistinctElementsAsynchronously() throws OperationException, StoreException, IOException {
+        // Given
+        final AddElementsHandler handler = new AddElementsHandler();
+        final List<Element> elements = createElements();
+
+        final AddElements addElements = new AddElements.Builder()
+                .input(elements)
+                .build();
+        final Context context = mock(Context.class);
+        final HBaseStore store = mock(HBaseStore.class);
+        final BufferedMutator mutator = createMutator(store);
+
+        final HBaseProperties properties = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(getClass())).clone();
+        properties.setAsyncIngest("true");
+        given(store.getProperties()).willReturn(properties);
+
+        given(store.getSchema()).willReturn(SCHEMA);
+
+        // When
+        handler.doOperation(addElements, context, store);
+
+        // Then
+        final ArgumentCaptor<List> putsCaptor = ArgumentCaptor.forClass(List.class);
+        verify(mutator).mutate(putsCaptor.capture());
+        final List<Put> puts = putsCaptor.getValue();
+
+        final List<Element> expectedElements = new ArrayList<>();
+        for (final Element element : elements) {
+            expectedElements.add(element);
+            if (element instanceof Edge && !((Edge) element).getSource().equals(((Edge) element).getDestination())) {
+                expectedElements.add(element);
+            }
+        }
+        final Element[] expectedElementsArr = expectedElements.toArray(new Element[expectedElements.size()]);
+        final List<Element> elementsAdded = CellUtil.getElements(puts, new ElementSerialisation(SCHEMA), false);
+        assertEquals(expectedElements.size(), elementsAdded.size());
+        assertThat(elementsAdded, IsCollectionContaining.hasItems(expectedElementsArr));
+
+        verify(mutator).flush();
+        verify(mutator).close();
+    }
+
+    @Test
+    public void shouldFlushBetweenDuplicateElementsWhenAddingAsynchronouslyWithNoAggregation() throws OperationException, StoreException, IOException {
+        // Given
+        final AddElementsHandler handler = new AddElementsHandler();
+        final List<Element> distinctElements = createElements();
+        final List<Element> elements = new ArrayList<>();
+        elements.addAll(distinctElements);
+        elements.addAll(distinctElements);
+
+        final AddElements addElements = new AddElements.Builder()
+                .input(elements)
+                .build();
+        final Context context = mock(Context.class);
+        final HBaseStore store = mock(HBaseStore.class);
+        final BufferedMutator mutator = createMutator(store);
+
+        final HBaseProperties properties = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(getClass())).clone();
+        properties.setAsyncIngest("true");
+        given(store.getProperties()).willReturn(properties);
+
+        given(store.getSchema()).willReturn(SCHEMA);
+
+        // When
+        handler.doOperation(addElements, context, store);
+
+        // Then
+        final InOrder inOrder = inOrder(mutator);
+        inOrder.verify(mutator).mutate(anyListOf(Put.class));
+        inOrder.verify(mutator).flush();
+        inOrder.verify(mutator).mutate(anyListOf(Put.class));
+        inOrder.verify(mutator).flush();
+    }
+
+    @Test
+    public void shouldNotFlushAfterEachBatchWhenAddingAsynchronously() throws OperationException, StoreException, IOException {
+        // Given
+        final AddElementsHandler handler = new AddElementsHandler();
+        final List<Element> elements = createElements().subList(0, 3);
+
+        final AddElements addElements = new AddElements.Builder()
+                .input(elements)
+                .build();
+        final Context context = mock(Context.class);
+        final HBaseStore store = mock(HBaseStore.class);
+        final BufferedMutator mutator = createMutator(store);
+
+        final HBaseProperties properties = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(getClass())).clone();
+        properties.setAsyncIngest("true");
+        properties.setWriteBufferSize(1);
+        given(store.getProperties()).willReturn(properties);
+
+        given(store.getSchema()).willReturn(SCHEMA);
+
+        // When
+        handler.doOperation(addElements, context, store);
+
+        // Then - the mutator is only flushed once all the batches have been written
+        verify(mutator, times(3)).mutate(anyListOf(Put.class));
+        verify(mutator, times(1)).flush();
+    }
+
+    @Test
+    public void shouldSetMutatorWriteBufferSizeInBytesWhenAddingAsynchronously() throws OperationException, StoreException, IOException {
+        // Given
+        final AddElementsHandler handler = new AddElementsHandler();
+        final AddElements addElements = new AddElements.Builder()
+                .input(createElements())
+                .build();
+        final Context context = mock(Context.class);
+        final HBaseStore store = mock(HBaseStore.class);
+        createMutator(store);
+
+        final HBaseProperties properties = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(getClass())).clone();
+        properties.setAsyncIngest("true");
+        properties.setWriteBufferSize(10);
+        properties.setMutatorWriteBufferSize("4194304");
+        given(store.getProperties()).willReturn(properties);
+
+        given(store.getSchema()).willReturn(SCHEMA);
+
+        // When
+        handler.doOperation(addElements, context, store);
+
+        // Then
+        final ArgumentCaptor<BufferedMutatorParams> paramsCaptor = ArgumentCaptor.forClass(BufferedMutatorParams.class);
+        verify(store.getConnection()).getBufferedMutator(paramsCaptor.capture());
+        assertEquals(4194304L, paramsCaptor.getValue().getWriteBufferSize());
+    }
+
     @Test
     public void shouldDoNothingIfNoElementsProvided() throws OperationException, StoreException, IOException {
         // Given
@@ -291,6 +430,16 @@ public class AddElementsHandlerTest {
         verify(table, never()).flushCommits();
     }
 
+    private BufferedMutator createMutator(final HBaseStore store) throws StoreException, IOException {
+        final Connection connection = mock(Connection.class);
+        final BufferedMutator mutator = mock(BufferedMutator.class);
+        final TableName tableName = TableName.valueOf("table");
+        given(store.getConnection()).willReturn(connection);
+        given(store.getTableName()).willReturn(tableName);
+        given(connection.getBufferedMutator(any(BufferedMutatorParams.class))).willReturn(mutator);
+        return mutator;
+    }
+
     private List<Element> createElements() {
         return Lists.newArrayList(
                 new Edge.Builder()
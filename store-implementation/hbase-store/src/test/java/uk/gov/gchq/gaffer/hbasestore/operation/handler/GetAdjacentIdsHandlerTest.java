@@ -19,11 +19,15 @@ package uk.gov.gchq.gaffer.hbasestore.operation.handler;
 import com.google.common.collect.Iterables;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
 import uk.gov.gchq.gaffer.data.element.id.DirectedType;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.hbasestore.HBaseStore;
+import uk.gov.gchq.gaffer.hbasestore.coprocessor.processor.AdjacentIdsProjectionProcessor;
 import uk.gov.gchq.gaffer.hbasestore.retriever.HBaseRetriever;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters;
@@ -32,11 +36,13 @@ import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.impl.function.Identity;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 
@@ -60,7 +66,7 @@ public class GetAdjacentIdsHandlerTest {
 
         given(context.getUser()).willReturn(user);
         final ArgumentCaptor<GetElements> getElementsCaptor = ArgumentCaptor.forClass(GetElements.class);
-        given(store.createRetriever(getElementsCaptor.capture(), eq(user), eq(ids), eq(true))).willReturn(hbaseRetriever);
+        given(store.createRetriever(getElementsCaptor.capture(), eq(user), eq(ids), eq(true), eq(AdjacentIdsProjectionProcessor.class))).willReturn(hbaseRetriever);
 
         // When
         final GetAdjacentIdsHandler.ExtractDestinationEntityId result =
@@ -77,6 +83,39 @@ public class GetAdjacentIdsHandlerTest {
         assertEquals("optionValue", getElements.getOption("option1"));
     }
 
+    @Test
+    public void shouldNotProjectAdjacentIdsInCoprocessorIfEdgesAreTransformed() throws OperationException, StoreException {
+        // Given
+        final Iterable<EntityId> ids = mock(Iterable.class);
+        final Context context = mock(Context.class);
+        final User user = mock(User.class);
+        final HBaseStore store = mock(HBaseStore.class);
+        final HBaseRetriever<GetElements> hbaseRetriever = mock(HBaseRetriever.class);
+        final GetAdjacentIdsHandler handler = new GetAdjacentIdsHandler();
+        final GetAdjacentIds getAdjacentIds = new GetAdjacentIds.Builder()
+                .input(ids)
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE, new ViewElementDefinition.Builder()
+                                .transformer(new ElementTransformer.Builder()
+                                        .select("prop1")
+                                        .execute(new Identity())
+                                        .project("prop2")
+                                        .build())
+                                .build())
+                        .build())
+                .build();
+
+        given(context.getUser()).willReturn(user);
+        given(store.createRetriever(any(GetElements.class), eq(user), eq(ids), eq(true))).willReturn(hbaseRetriever);
+
+        // When
+        final GetAdjacentIdsHandler.ExtractDestinationEntityId result =
+                (GetAdjacentIdsHandler.ExtractDestinationEntityId) handler.doOperation(getAdjacentIds, context, store);
+
+        // Then
+        assertSame(hbaseRetriever, result.getInput());
+    }
+
     @Test
     public void shouldDoNothingIfNoSeedsProvided() throws OperationException {
         // Given
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.hbasestore.retriever;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.MultiRowRangeFilter.RowRange;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.hbasestore.HBaseProperties;
+import uk.gov.gchq.gaffer.hbasestore.HBaseStore;
+import uk.gov.gchq.gaffer.hbasestore.MiniHBaseStore;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelRegionScannerTest {
+    private static final byte[] EMPTY = new byte[0];
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(ParallelRegionScannerTest.class));
+    private static final HBaseProperties PROPERTIES = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(ParallelRegionScannerTest.class));
+    private static final int NUM_ELEMENTS = 10;
+
+    @Test
+    public void shouldPartitionRangesByRegion() {
+        // Given
+        final RowRange rangeA = createRange("a", "b");
+        final RowRange rangeAcrossRegions = createRange("k", "r");
+        final RowRange rangeZ = createRange("x", "y");
+        final byte[][] startKeys = {EMPTY, Bytes.toBytes("m"), Bytes.toBytes("t")};
+        final byte[][] endKeys = {Bytes.toBytes("m"), Bytes.toBytes("t"), EMPTY};
+
+        // When
+        final List<List<RowRange>> rangesByRegion = ParallelRegionScanner.partitionByRegion(
+                Arrays.asList(rangeA, rangeAcrossRegions, rangeZ), startKeys, endKeys);
+
+        // Then
+        assertEquals(Arrays.asList(
+                Arrays.asList(rangeA, rangeAcrossRegions),
+                Collections.singletonList(rangeAcrossRegions),
+                Collections.singletonList(rangeZ)), rangesByRegion);
+    }
+
+    @Test
+    public void shouldOnlyAddRangeEndingAtRegionStartIfStopRowIsInclusive() {
+        // Given
+        final RowRange exclusiveRange = new RowRange(Bytes.toBytes("a"), true, Bytes.toBytes("m"), false);
+        final RowRange inclusiveRange = new RowRange(Bytes.toBytes("a"), true, Bytes.toBytes("m"), true);
+        final byte[][] startKeys = {EMPTY, Bytes.toBytes("m")};
+        final byte[][] endKeys = {Bytes.toBytes("m"), EMPTY};
+
+        // When
+        final List<List<RowRange>> exclusiveRangesByRegion = ParallelRegionScanner.partitionByRegion(
+                Collections.singletonList(exclusiveRange), startKeys, endKeys);
+        final List<List<RowRange>> inclusiveRangesByRegion = ParallelRegionScanner.partitionByRegion(
+                Collections.singletonList(inclusiveRange), startKeys, endKeys);
+
+        // Then
+        assertEquals(Collections.emptyList(), exclusiveRangesByRegion.get(1));
+        assertEquals(Collections.singletonList(inclusiveRange), inclusiveRangesByRegion.get(1));
+    }
+
+    @Test
+    public void shouldStopScansWhenIterationIsClosedPartwayThrough() throws Exception {
+        // Given
+        final HBaseStore store = createStore();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final ParallelRegionScanner scanner = new ParallelRegionScanner(store,
+                    Arrays.asList(new Scan(), new Scan(), new Scan()), 2, executor, 1, ParallelRegionScanner.ABANDONED_SCAN_TIMEOUT_MILLIS);
+            final CloseableIterator<Result> results = scanner.iterator();
+            results.next();
+
+            // When
+            results.close();
+
+            // Then - the scans stop and free their threads for the next tasks
+            assertFalse(results.hasNext());
+            assertTrue(executor.submit(() -> true).get(30, TimeUnit.SECONDS));
+            assertTrue(executor.submit(() -> true).get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldStopScansWhenIterationIsAbandonedPartwayThrough() throws Exception {
+        // Given
+        final HBaseStore store = createStore();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final ParallelRegionScanner scanner = new ParallelRegionScanner(store,
+                    Arrays.asList(new Scan(), new Scan(), new Scan()), 2, executor, 1, 10L);
+
+            // When
+            scanner.iterator().next();
+
+            // Then - the scans stop and free their threads for the next tasks
+            assertTrue(executor.submit(() -> true).get(30, TimeUnit.SECONDS));
+            assertTrue(executor.submit(() -> true).get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnResultsOfAllScansInOrder() throws Exception {
+        // Given
+        final HBaseStore store = createStore();
+        final ParallelRegionScanner scanner = new ParallelRegionScanner(store,
+                Arrays.asList(new Scan(), new Scan(), new Scan()), 2, store.getRegionScanExecutor(), 1,
+                ParallelRegionScanner.ABANDONED_SCAN_TIMEOUT_MILLIS);
+
+        // When
+        final List<Result> results = Lists.newArrayList(scanner);
+
+        // Then
+        assertEquals(3 * NUM_ELEMENTS, results.size());
+    }
+
+    private HBaseStore createStore() throws StoreException, OperationException {
+        final MiniHBaseStore store = new MiniHBaseStore();
+        store.initialise("parallelRegionScannerGraph", SCHEMA, PROPERTIES);
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < NUM_ELEMENTS; i++) {
+            elements.add(new Entity(TestGroups.ENTITY, "vertex" + i));
+        }
+        store.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), new User());
+        return store;
+    }
+
+    private RowRange createRange(final String start, final String stop) {
+        return new RowRange(Bytes.toBytes(start), true, Bytes.toBytes(stop), true);
+    }
+}
@@ -17,9 +17,12 @@
 package uk.gov.gchq.gaffer.hbasestore.util;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.hadoop.hbase.HColumnDescriptor;
 import org.apache.hadoop.hbase.HTableDescriptor;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -32,6 +35,7 @@ import uk.gov.gchq.gaffer.store.library.FileGraphLibrary;
 import uk.gov.gchq.gaffer.hbasestore.HBaseProperties;
 import uk.gov.gchq.gaffer.hbasestore.MiniHBaseStore;
 import uk.gov.gchq.gaffer.hbasestore.coprocessor.GafferCoprocessor;
+import uk.gov.gchq.gaffer.hbasestore.utils.HBaseStoreConstants;
 import uk.gov.gchq.gaffer.hbasestore.utils.TableUtils;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.StoreProperties;
@@ -46,6 +50,7 @@ import java.nio.file.Paths;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class TableUtilsTest {
@@ -91,6 +96,70 @@ public class TableUtilsTest {
         // Then - no exceptions
     }
 
+    @Test
+    public void shouldCreateTableWithColumnFamilySettingsFromProperties() throws Exception {
+        // Given
+        final MiniHBaseStore store = new MiniHBaseStore();
+        final Schema schema = new Schema.Builder()
+                .type(TestTypes.ID_STRING, new TypeDefinition.Builder()
+                        .aggregateFunction(new StringConcat())
+                        .clazz(String.class)
+                        .build())
+                .type(TestTypes.DIRECTED_TRUE, Boolean.class)
+                .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                        .source(TestTypes.ID_STRING)
+                        .destination(TestTypes.ID_STRING)
+                        .directed(TestTypes.DIRECTED_TRUE)
+                        .build())
+                .build();
+
+        final HBaseProperties props = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(TableUtilsTest.class)).clone();
+        props.setBloomFilterType("ROWCOL");
+        props.setDataBlockEncoding("FAST_DIFF");
+        props.setBlockSize("16384");
+
+        // When
+        store.initialise(GRAPH_ID, schema, props);
+
+        // Then
+        try (final Admin admin = store.getConnection().getAdmin()) {
+            final HColumnDescriptor col = admin.getTableDescriptor(store.getTableName())
+                    .getFamily(HBaseStoreConstants.getColFam());
+            assertEquals(BloomType.ROWCOL, col.getBloomFilterType());
+            assertEquals(DataBlockEncoding.FAST_DIFF, col.getDataBlockEncoding());
+            assertEquals(16384, col.getBlocksize());
+        }
+    }
+
+    @Test
+    public void shouldNameThePropertyWhenBloomFilterTypeIsInvalid() throws Exception {
+        // Given
+        final MiniHBaseStore store = new MiniHBaseStore();
+        final Schema schema = new Schema.Builder()
+                .type(TestTypes.ID_STRING, new TypeDefinition.Builder()
+                        .aggregateFunction(new StringConcat())
+                        .clazz(String.class)
+                        .build())
+                .type(TestTypes.DIRECTED_TRUE, Boolean.class)
+                .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                        .source(TestTypes.ID_STRING)
+                        .destination(TestTypes.ID_STRING)
+                        .directed(TestTypes.DIRECTED_TRUE)
+                        .build())
+                .build();
+
+        final HBaseProperties props = HBaseProperties.loadStoreProperties(StreamUtil.storeProps(TableUtilsTest.class)).clone();
+        props.setBloomFilterType("INVALID");
+
+        // When / Then
+        try {
+            store.initialise(GRAPH_ID, schema, props);
+            fail("Exception expected");
+        } catch (final StoreException e) {
+            assertTrue(e.getCause().getMessage().contains(HBaseProperties.BLOOM_FILTER_TYPE));
+        }
+    }
+
     @Test
     public void shouldFailTableValidationWhenTableDoesntHaveCoprocessor() throws Exception {
         // Given
@@ -27,7 +27,10 @@ import uk.gov.gchq.gaffer.mapstore.impl.GetAdjacentIdsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.GetElementsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.MapImpl;
+import uk.gov.gchq.gaffer.mapstore.impl.MapSnapshot;
+import uk.gov.gchq.gaffer.mapstore.impl.SaveSnapshotHandler;
 import uk.gov.gchq.gaffer.mapstore.operation.CountAllElementsDefaultView;
+import uk.gov.gchq.gaffer.mapstore.operation.SaveSnapshot;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
@@ -40,9 +43,15 @@ import uk.gov.gchq.gaffer.store.StoreTrait;
 import uk.gov.gchq.gaffer.store.operation.handler.OperationHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * An implementation of {@link Store} that uses any class that implements Java's {@link java.util.Map} interface to
@@ -65,10 +74,15 @@ public class MapStore extends Store {
             StoreTrait.POST_AGGREGATION_FILTERING,
             StoreTrait.TRANSFORMATION,
             StoreTrait.POST_TRANSFORMATION_FILTERING));
+    private static final Map<Integer, ForkJoinPool> SCAN_POOLS = new ConcurrentHashMap<>();
     private static MapImpl staticMapImpl;
     private MapImpl mapImpl;
+    private ForkJoinPool scanPool;
 
     public static void resetStaticMap() {
+        if (null != staticMapImpl) {
+            staticMapImpl.close();
+        }
         staticMapImpl = null;
     }
 
@@ -82,7 +96,17 @@ public class MapStore extends Store {
         super.initialise(graphId, schema, mapStoreProperties);
 
         // Initialise maps
+        final boolean reuseStaticMap = mapStoreProperties.isStaticMap() && null != staticMapImpl;
+        if (null != mapImpl && staticMapImpl != mapImpl) {
+            mapImpl.close();
+        }
         mapImpl = createMapImpl();
+        if (!reuseStaticMap) {
+            loadSnapshot();
+        }
+        if (mapStoreProperties.isParallelScan()) {
+            scanPool = getScanPool(mapStoreProperties.getParallelScanThreads());
+        }
         LOGGER.debug("Initialised MapStore");
     }
 
@@ -90,6 +114,15 @@ public class MapStore extends Store {
         return mapImpl;
     }
 
+    /**
+     * @return the pool used to scan the elements in parallel, or null if parallel
+     * scans are disabled. The pool is shared with other map stores using the
+     * same number of threads.
+     */
+    public ForkJoinPool getScanPool() {
+        return scanPool;
+    }
+
     @Override
     public Set<StoreTrait> getTraits() {
         return TRAITS;
@@ -116,6 +149,40 @@ public class MapStore extends Store {
     @Override
     protected void addAdditionalOperationHandlers() {
         addOperationHandler(CountAllElementsDefaultView.class, new CountAllElementsDefaultViewHandler());
+        addOperationHandler(SaveSnapshot.class, new SaveSnapshotHandler());
+    }
+
+    // A store has no lifecycle event at which a pool could be shut down, so
+    // rather than creating a pool for each store the common pool is used by
+    // default, and other pools are shared between stores of the same size.
+    private static ForkJoinPool getScanPool(final int threads) {
+        if (ForkJoinPool.getCommonPoolParallelism() == threads) {
+            return ForkJoinPool.commonPool();
+        }
+        return SCAN_POOLS.computeIfAbsent(threads, ForkJoinPool::new);
+    }
+
+    /**
+     * Loads the elements from the snapshot file, if there is one. The snapshot
+     * is only loaded into an empty store, as adding the snapshot elements to
+     * maps that have been reopened by the map factory would aggregate them
+     * twice.
+     *
+     * @throws StoreException if the snapshot could not be loaded
+     */
+    protected void loadSnapshot() throws StoreException {
+        final String snapshotFile = getProperties().getSnapshotFile();
+        if (null != snapshotFile && Files.exists(Paths.get(snapshotFile))) {
+            if (!mapImpl.isEmpty()) {
+                LOGGER.info("Not loading snapshot {} as the store already contains elements", snapshotFile);
+                return;
+            }
+            try {
+                MapSnapshot.read(mapImpl, getSchema(), Paths.get(snapshotFile), getProperties().getSnapshotLoadThreads());
+            } catch (final IOException e) {
+                throw new StoreException("Unable to load snapshot from " + snapshotFile, e);
+            }
+        }
     }
 
     @Override
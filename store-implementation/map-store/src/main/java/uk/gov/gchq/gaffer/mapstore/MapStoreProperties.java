@@ -20,11 +20,20 @@ import uk.gov.gchq.gaffer.mapstore.factory.SimpleMapFactory;
 import uk.gov.gchq.gaffer.store.StoreProperties;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
 
 public class MapStoreProperties extends StoreProperties {
     public static final String CREATE_INDEX = "gaffer.store.mapstore.createIndex";
     public static final String CREATE_INDEX_DEFAULT = "true";
 
+    /**
+     * Property name for enabling the compact index. If true, the index interns
+     * vertices and elements to int ids rather than storing seeds and edge copies,
+     * which significantly reduces the memory required by the index.
+     */
+    public static final String COMPACT_INDEX = "gaffer.store.mapstore.compactIndex";
+    public static final String COMPACT_INDEX_DEFAULT = "false";
+
     public static final String MAP_FACTORY = "gaffer.store.mapstore.map.factory";
     public static final Class<? extends MapFactory> MAP_FACTORY_DEFAULT = SimpleMapFactory.class;
 
@@ -41,6 +50,65 @@ public class MapStoreProperties extends StoreProperties {
     public static final String INGEST_BUFFER_SIZE = "gaffer.store.mapstore.map.ingest.buffer.size";
     public static final int INGEST_BUFFER_SIZE_DEFAULT = 0;
 
+    /**
+     * Property name for the number of ingest threads. If the value is greater than 1
+     * then elements are validated, aggregated and split into their group-by elements
+     * and properties by that number of worker threads, partitioned by the element
+     * identifiers, before being added to the maps by a single insertion thread.
+     */
+    public static final String INGEST_THREADS = "gaffer.store.mapstore.map.ingest.threads";
+    public static final int INGEST_THREADS_DEFAULT = 1;
+
+    /**
+     * Property name for the snapshot file. If the file exists when the store is
+     * initialised, the elements in the snapshot are loaded into the store.
+     */
+    public static final String SNAPSHOT_FILE = "gaffer.store.mapstore.snapshot.file";
+    public static final String SNAPSHOT_FILE_DEFAULT = null;
+
+    public static final String SNAPSHOT_INCLUDE_INDEX = "gaffer.store.mapstore.snapshot.includeIndex";
+    public static final String SNAPSHOT_INCLUDE_INDEX_DEFAULT = "false";
+
+    public static final String SNAPSHOT_LOAD_THREADS = "gaffer.store.mapstore.snapshot.loadThreads";
+    public static final String SNAPSHOT_LOAD_THREADS_DEFAULT = String.valueOf(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Property name for the secondary property indexes. The value is a comma
+     * separated list of group:property:type, where type is either sorted or hash.
+     * Sorted indexes support IsMoreThan, IsLessThan, IsEqual and IsIn
+     * pre-aggregation filters and hash indexes support IsEqual and IsIn. For
+     * aggregated groups only group-by properties can be indexed.
+     */
+    public static final String PROPERTY_INDEXES = "gaffer.store.mapstore.propertyIndexes";
+    public static final String PROPERTY_INDEXES_DEFAULT = null;
+
+    /**
+     * Property name for enabling read only elements. If true, query results are
+     * read only elements holding shallow copies of the stored properties rather
+     * than deep copies, so the property values are shared with the store and
+     * must not be modified. Elements are only deep copied if a view transformer
+     * needs to modify them.
+     */
+    public static final String READ_ONLY_ELEMENTS = "gaffer.store.mapstore.readOnlyElements";
+    public static final String READ_ONLY_ELEMENTS_DEFAULT = "false";
+
+    /**
+     * Property name for enabling the parallel scan. If true, GetAllElements splits
+     * the maps for each group into partitions and filters, transforms and clones
+     * the elements in each partition on a fork join pool. The results are fully
+     * materialised before they are returned.
+     */
+    public static final String PARALLEL_SCAN = "gaffer.store.mapstore.parallelScan";
+    public static final String PARALLEL_SCAN_DEFAULT = "false";
+
+    /**
+     * Property name for the number of threads used by the parallel scan. If it
+     * matches the parallelism of the common fork join pool, which is the
+     * default, the common pool is used.
+     */
+    public static final String PARALLEL_SCAN_THREADS = "gaffer.store.mapstore.parallelScan.threads";
+    public static final String PARALLEL_SCAN_THREADS_DEFAULT = String.valueOf(ForkJoinPool.getCommonPoolParallelism());
+
     public MapStoreProperties() {
         super();
         set(STORE_CLASS, MapStore.class.getName());
@@ -67,6 +135,14 @@ public class MapStoreProperties extends StoreProperties {
         return Boolean.parseBoolean(get(CREATE_INDEX, CREATE_INDEX_DEFAULT));
     }
 
+    public void setCompactIndex(final boolean compactIndex) {
+        set(COMPACT_INDEX, Boolean.toString(compactIndex));
+    }
+
+    public boolean isCompactIndex() {
+        return Boolean.parseBoolean(get(COMPACT_INDEX, COMPACT_INDEX_DEFAULT));
+    }
+
     public String getMapFactory() {
         return get(MAP_FACTORY, MAP_FACTORY_DEFAULT.getName());
     }
@@ -100,6 +176,75 @@ public class MapStoreProperties extends StoreProperties {
         set(INGEST_BUFFER_SIZE, String.valueOf(ingestBufferSize));
     }
 
+    public int getIngestThreads() {
+        final String threads = get(INGEST_THREADS, null);
+        if (null == threads) {
+            return INGEST_THREADS_DEFAULT;
+        }
+
+        return Integer.parseInt(threads);
+    }
+
+    public void setIngestThreads(final int ingestThreads) {
+        set(INGEST_THREADS, String.valueOf(ingestThreads));
+    }
+
+    public String getSnapshotFile() {
+        return get(SNAPSHOT_FILE, SNAPSHOT_FILE_DEFAULT);
+    }
+
+    public void setSnapshotFile(final String snapshotFile) {
+        set(SNAPSHOT_FILE, snapshotFile);
+    }
+
+    public boolean isSnapshotIncludeIndex() {
+        return Boolean.parseBoolean(get(SNAPSHOT_INCLUDE_INDEX, SNAPSHOT_INCLUDE_INDEX_DEFAULT));
+    }
+
+    public void setSnapshotIncludeIndex(final boolean snapshotIncludeIndex) {
+        set(SNAPSHOT_INCLUDE_INDEX, Boolean.toString(snapshotIncludeIndex));
+    }
+
+    public int getSnapshotLoadThreads() {
+        return Integer.parseInt(get(SNAPSHOT_LOAD_THREADS, SNAPSHOT_LOAD_THREADS_DEFAULT));
+    }
+
+    public void setSnapshotLoadThreads(final int snapshotLoadThreads) {
+        set(SNAPSHOT_LOAD_THREADS, String.valueOf(snapshotLoadThreads));
+    }
+
+    public String getPropertyIndexes() {
+        return get(PROPERTY_INDEXES, PROPERTY_INDEXES_DEFAULT);
+    }
+
+    public void setPropertyIndexes(final String propertyIndexes) {
+        set(PROPERTY_INDEXES, propertyIndexes);
+    }
+
+    public boolean isReadOnlyElements() {
+        return Boolean.parseBoolean(get(READ_ONLY_ELEMENTS, READ_ONLY_ELEMENTS_DEFAULT));
+    }
+
+    public void setReadOnlyElements(final boolean readOnlyElements) {
+        set(READ_ONLY_ELEMENTS, Boolean.toString(readOnlyElements));
+    }
+
+    public boolean isParallelScan() {
+        return Boolean.parseBoolean(get(PARALLEL_SCAN, PARALLEL_SCAN_DEFAULT));
+    }
+
+    public void setParallelScan(final boolean parallelScan) {
+        set(PARALLEL_SCAN, Boolean.toString(parallelScan));
+    }
+
+    public int getParallelScanThreads() {
+        return Integer.parseInt(get(PARALLEL_SCAN_THREADS, PARALLEL_SCAN_THREADS_DEFAULT));
+    }
+
+    public void setParallelScanThreads(final int parallelScanThreads) {
+        set(PARALLEL_SCAN_THREADS, String.valueOf(parallelScanThreads));
+    }
+
     public boolean isStaticMap() {
         return Boolean.parseBoolean(get(STATIC_MAP, STATIC_MAP_DEFAULT));
     }
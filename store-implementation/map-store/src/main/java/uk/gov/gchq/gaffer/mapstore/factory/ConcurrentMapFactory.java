@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.multimap.ConcurrentMapOfSets;
+import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.mapstore.utils.ElementCloner;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link MapFactory} that creates {@link ConcurrentHashMap}s and
+ * {@link ConcurrentMapOfSets}s, allowing elements to be added to and retrieved
+ * from the {@link uk.gov.gchq.gaffer.mapstore.MapStore} from multiple threads
+ * at the same time.
+ * <p>
+ * The number of lock stripes used by each map can be tuned using the
+ * "gaffer.store.mapstore.map.concurrencyLevel" store property.
+ * </p>
+ */
+public class ConcurrentMapFactory implements MapFactory {
+    public static final String CONCURRENCY_LEVEL = "gaffer.store.mapstore.map.concurrencyLevel";
+    public static final String CONCURRENCY_LEVEL_DEFAULT = String.valueOf(Runtime.getRuntime().availableProcessors());
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final ElementCloner cloner;
+    private int concurrencyLevel = Integer.parseInt(CONCURRENCY_LEVEL_DEFAULT);
+
+    private final Map<String, Map> maps = new ConcurrentHashMap<>();
+    private final Map<String, MultiMap> multiMaps = new ConcurrentHashMap<>();
+
+    public ConcurrentMapFactory() {
+        this(new ElementCloner());
+    }
+
+    protected ConcurrentMapFactory(final ElementCloner cloner) {
+        this.cloner = cloner;
+    }
+
+    @Override
+    public void initialise(final Schema schema, final MapStoreProperties properties) {
+        final String level = properties.get(CONCURRENCY_LEVEL, CONCURRENCY_LEVEL_DEFAULT);
+        try {
+            concurrencyLevel = Integer.parseInt(level);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Concurrency level is invalid: " + level, e);
+        }
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("Concurrency level must be greater than 0: " + level);
+        }
+    }
+
+    @Override
+    public <K, V> Map<K, V> getMap(final String mapName, final Class<K> keyClass, final Class<V> valueClass) {
+        return maps.computeIfAbsent(mapName, n -> createMap());
+    }
+
+    @Override
+    public <K, V> MultiMap<K, V> getMultiMap(final String mapName, final Class<K> keyClass, final Class<V> valueClass) {
+        return multiMaps.computeIfAbsent(mapName, n -> new ConcurrentMapOfSets<>(createMap()));
+    }
+
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        maps.clear();
+        multiMaps.clear();
+    }
+
+    @Override
+    public Element cloneElement(final Element element, final Schema schema) {
+        return cloner.cloneElement(element, schema);
+    }
+
+    protected int getConcurrencyLevel() {
+        return concurrencyLevel;
+    }
+
+    private <K, V> ConcurrentHashMap<K, V> createMap() {
+        return new ConcurrentHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, concurrencyLevel);
+    }
+}
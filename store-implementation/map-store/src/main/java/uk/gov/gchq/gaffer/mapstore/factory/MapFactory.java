@@ -32,6 +32,17 @@ public interface MapFactory {
         // no action required.
     }
 
+    /**
+     * Whether the maps created by this factory can safely be read and updated
+     * from multiple threads. If true, updates to existing aggregated properties
+     * are applied to a copy so concurrent readers never see a partial merge.
+     *
+     * @return true if the maps created by this factory are thread safe
+     */
+    default boolean isConcurrent() {
+        return false;
+    }
+
     void clear();
 
     Element cloneElement(final Element element, final Schema schema);
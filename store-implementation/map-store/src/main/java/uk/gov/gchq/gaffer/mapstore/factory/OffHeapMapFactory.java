@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.mapstore.multimap.OffHeapMultiMap;
+import uk.gov.gchq.gaffer.mapstore.serialiser.ElementKeySerialiser;
+import uk.gov.gchq.gaffer.mapstore.serialiser.MatchedVertexElementSerialiser;
+import uk.gov.gchq.gaffer.mapstore.serialiser.NonGroupByPropertiesSerialiser;
+import uk.gov.gchq.gaffer.mapstore.utils.ElementCloner;
+import uk.gov.gchq.gaffer.mapstore.utils.OffHeapByteStore;
+import uk.gov.gchq.gaffer.mapstore.utils.OffHeapMap;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.serialiser.lengthvalue.EdgeIdSerialiser;
+import uk.gov.gchq.gaffer.store.serialiser.lengthvalue.EntityIdSerialiser;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link MapFactory} that holds all the elements and indices outside of the
+ * Java heap, so a graph can be much larger than the heap without adding to
+ * garbage collection pauses.
+ * <p>
+ * Keys and values are serialised using the schema serialisers into
+ * {@link OffHeapByteStore}s. By default the stores use direct byte buffers. If
+ * the "gaffer.store.mapstore.offheap.directory" store property is set, the
+ * stores are memory mapped files in that directory and with
+ * "gaffer.store.mapstore.offheap.reopen" set to true the maps are rebuilt from
+ * existing files when the store is created. The size of each buffer or file
+ * segment is limited by the "gaffer.store.mapstore.offheap.maxSegmentSize"
+ * store property.
+ * </p>
+ * <p>
+ * The maps created by this factory guard every access with a read write lock,
+ * so elements can be queried whilst they are being added. Iterating over a map
+ * fails with a {@link java.util.ConcurrentModificationException} if the map is
+ * compacted during the iteration. Elements returned by queries are deep copies
+ * made with the schema serialisers, so they never share property values with
+ * the maps.
+ * </p>
+ */
+public class OffHeapMapFactory implements MapFactory {
+    public static final String DIRECTORY = "gaffer.store.mapstore.offheap.directory";
+    public static final String DIRECTORY_DEFAULT = null;
+
+    public static final String MAX_SEGMENT_SIZE = "gaffer.store.mapstore.offheap.maxSegmentSize";
+    public static final String MAX_SEGMENT_SIZE_DEFAULT = String.valueOf(64 * 1024 * 1024);
+
+    public static final String REOPEN = "gaffer.store.mapstore.offheap.reopen";
+    public static final String REOPEN_DEFAULT = "false";
+
+    private final ElementCloner cloner = new ElementCloner();
+    private final Map<String, Map> maps = new HashMap<>();
+    private final Map<String, MultiMap> multiMaps = new HashMap<>();
+
+    private Schema schema;
+    private Path directory;
+    private int maxSegmentSize;
+    private boolean reopen;
+
+    @Override
+    public void initialise(final Schema schema, final MapStoreProperties properties) {
+        this.schema = schema;
+
+        final String dir = properties.get(DIRECTORY, DIRECTORY_DEFAULT);
+        if (null == dir) {
+            directory = null;
+        } else {
+            directory = Paths.get(dir);
+            try {
+                Files.createDirectories(directory);
+            } catch (final IOException e) {
+                throw new IllegalArgumentException("Unable to create off heap directory: " + dir, e);
+            }
+        }
+
+        final String segmentSize = properties.get(MAX_SEGMENT_SIZE, MAX_SEGMENT_SIZE_DEFAULT);
+        try {
+            maxSegmentSize = Integer.parseInt(segmentSize);
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Max segment size is invalid: " + segmentSize, e);
+        }
+
+        reopen = Boolean.parseBoolean(properties.get(REOPEN, REOPEN_DEFAULT));
+    }
+
+    @Override
+    public <K, V> Map<K, V> getMap(final String mapName, final Class<K> keyClass, final Class<V> valueClass) {
+        return maps.computeIfAbsent(mapName, n -> new OffHeapMap<>(createStore(n), getSerialiser(keyClass), getSerialiser(valueClass)));
+    }
+
+    @Override
+    public <K, V> MultiMap<K, V> getMultiMap(final String mapName, final Class<K> keyClass, final Class<V> valueClass) {
+        return multiMaps.computeIfAbsent(mapName, n -> {
+            final ToBytesSerialiser valueSerialiser = Element.class.equals(valueClass)
+                    ? new MatchedVertexElementSerialiser(schema)
+                    : getSerialiser(valueClass);
+            return new OffHeapMultiMap<>(createStore(n), getSerialiser(keyClass), valueSerialiser);
+        });
+    }
+
+    @Override
+    public void clear() {
+        maps.values().forEach(Map::clear);
+        multiMaps.values().forEach(MultiMap::clear);
+        maps.clear();
+        multiMaps.clear();
+    }
+
+    @Override
+    public Element cloneElement(final Element element, final Schema schema) {
+        return cloner.cloneElement(element, schema);
+    }
+
+    private OffHeapByteStore createStore(final String mapName) {
+        try {
+            return new OffHeapByteStore(directory, URLEncoder.encode(mapName, "UTF-8"), maxSegmentSize, reopen);
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalArgumentException("Unable to encode map name: " + mapName, e);
+        }
+    }
+
+    private ToBytesSerialiser getSerialiser(final Class<?> clazz) {
+        if (GroupedProperties.class.equals(clazz)) {
+            return new NonGroupByPropertiesSerialiser(schema);
+        }
+        if (Element.class.equals(clazz)) {
+            return new ElementKeySerialiser(schema);
+        }
+        if (EntityId.class.equals(clazz)) {
+            return new EntityIdSerialiser(schema);
+        }
+        if (EdgeId.class.equals(clazz)) {
+            return new EdgeIdSerialiser(schema);
+        }
+        if (Long.class.equals(clazz)) {
+            return new CompactRawLongSerialiser();
+        }
+        throw new IllegalArgumentException("No off heap serialiser available for class: " + clazz.getName());
+    }
+}
@@ -46,18 +46,26 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
 
     @Override
     public Void doOperation(final AddElements addElements, final Context context, final Store store) throws OperationException {
+        final MapStore mapStore = (MapStore) store;
+        final IngestPipeline ingestPipeline = mapStore.getMapImpl().getIngestPipeline();
+        if (null != ingestPipeline) {
+            // Elements are validated by the pipeline workers
+            ingestPipeline.addElements(addElements.getInput(), addElements.isValidate(), addElements.isSkipInvalidElements());
+            return null;
+        }
+
         Iterable<? extends Element> elements = addElements.getInput();
         if (addElements.isValidate()) {
-            elements = new ValidatedElements(elements, store.getSchema(), addElements.isSkipInvalidElements());
+            elements = new ValidatedElements(elements, mapStore.getMapImpl().getIngestSchema(), addElements.isSkipInvalidElements());
         }
 
-        addElements(elements, (MapStore) store);
+        addElements(elements, mapStore);
         return null;
     }
 
     private void addElements(final Iterable<? extends Element> elements, final MapStore mapStore) {
         final MapImpl mapImpl = mapStore.getMapImpl();
-        final Schema schema = mapStore.getSchema();
+        final Schema schema = mapImpl.getIngestSchema();
 
         final int bufferSize = mapStore.getProperties().getIngestBufferSize();
 
@@ -110,21 +118,34 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
     }
 
     private Element addAggElement(final Element element, final Schema schema, final MapImpl mapImpl) {
-        final String group = element.getGroup();
+        final Element elementWithGroupByProperties = getElementWithGroupByProperties(element, mapImpl);
+        mapImpl.addAggElement(elementWithGroupByProperties, getNonGroupByProperties(element, mapImpl));
+        return elementWithGroupByProperties;
+    }
+
+    private Element addNonAggElement(final Element element, final Schema schema, final MapImpl mapImpl) {
+        final Element elementClone = getElementWithSchemaProperties(element, schema);
+        mapImpl.addNonAggElement(elementClone);
+        return elementClone;
+    }
+
+    static Element getElementWithGroupByProperties(final Element element, final MapImpl mapImpl) {
         final Element elementWithGroupByProperties = element.emptyClone();
-        final GroupedProperties properties = new GroupedProperties(element.getGroup());
-        for (final String propertyName : mapImpl.getGroupByProperties(group)) {
+        for (final String propertyName : mapImpl.getGroupByProperties(element.getGroup())) {
             elementWithGroupByProperties.putProperty(propertyName, element.getProperty(propertyName));
         }
-        for (final String propertyName : mapImpl.getNonGroupByProperties(group)) {
+        return elementWithGroupByProperties;
+    }
+
+    static GroupedProperties getNonGroupByProperties(final Element element, final MapImpl mapImpl) {
+        final GroupedProperties properties = new GroupedProperties(element.getGroup());
+        for (final String propertyName : mapImpl.getNonGroupByProperties(element.getGroup())) {
             properties.put(propertyName, element.getProperty(propertyName));
         }
-
-        mapImpl.addAggElement(elementWithGroupByProperties, properties);
-        return elementWithGroupByProperties;
+        return properties;
     }
 
-    private Element addNonAggElement(final Element element, final Schema schema, final MapImpl mapImpl) {
+    static Element getElementWithSchemaProperties(final Element element, final Schema schema) {
         final Element elementClone = element.emptyClone();
 
         // Copy properties that exist in the schema
@@ -132,19 +153,28 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         for (final String property : elementDef.getProperties()) {
             elementClone.putProperty(property, element.getProperty(property));
         }
-
-        mapImpl.addNonAggElement(elementClone);
         return elementClone;
     }
 
-    private void updateElementIndex(final Element element, final MapImpl mapImpl) {
+    static void updateElementIndex(final Element element, final MapImpl mapImpl) {
         if (element instanceof Entity) {
+            if (mapImpl.isCompactIndex()) {
+                mapImpl.addIndex(element);
+                return;
+            }
+
             final Entity entity = (Entity) element;
             final EntityId entityId = new EntitySeed(entity.getVertex());
             mapImpl.addIndex(entityId, element);
         } else {
             final Edge edge = (Edge) element;
             edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.SOURCE);
+            if (mapImpl.isCompactIndex()) {
+                // The compact index encodes the destination matched edge rather than storing a copy
+                mapImpl.addIndex(edge);
+                return;
+            }
+
             final EntityId sourceEntityId = new EntitySeed(edge.getSource());
             mapImpl.addIndex(sourceEntityId, edge);
 
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A memory efficient alternative to the {@link uk.gov.gchq.gaffer.mapstore.multimap.MultiMap}
+ * indices in {@link MapImpl}.
+ * <p>
+ * Each vertex and each element key is interned to a dense int id. The adjacency
+ * for a vertex is then held as a primitive int array of element ids, with the
+ * lowest bit of each entry recording whether the vertex matched the destination
+ * of the edge. This means no seeds or duplicate edges are created when indexing
+ * and a separate edge id index is not required, as edges can be found from the
+ * adjacency of their source vertex.
+ * </p>
+ */
+class CompactVertexIndex {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MATCHED_DESTINATION = 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Object, Integer> vertexIds = new HashMap<>();
+    private final Map<Element, Integer> elementIds = new HashMap<>();
+    private final List<Element> elements = new ArrayList<>();
+    private int[][] adjacency = new int[INITIAL_CAPACITY][];
+    private int[] adjacencySizes = new int[INITIAL_CAPACITY];
+
+    /**
+     * Adds an element to the index. Elements that are equal to an element that
+     * has already been indexed are ignored.
+     *
+     * @param element the element key to index
+     */
+    void add(final Element element) {
+        lock.writeLock().lock();
+        try {
+            if (elementIds.containsKey(element)) {
+                return;
+            }
+
+            final int elementId = elements.size();
+            elements.add(element);
+            elementIds.put(element, elementId);
+
+            if (element instanceof Entity) {
+                addAdjacency(((Entity) element).getVertex(), elementId << 1);
+            } else {
+                final Edge edge = (Edge) element;
+                addAdjacency(edge.getSource(), elementId << 1);
+                if (!Objects.equals(edge.getSource(), edge.getDestination())) {
+                    addAdjacency(edge.getDestination(), (elementId << 1) | MATCHED_DESTINATION);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets all the elements that contain the provided vertex. Edges are returned
+     * with their matched vertex set to the side of the edge that matched.
+     *
+     * @param vertex the vertex to look up
+     * @return the elements containing the vertex
+     */
+    Collection<Element> lookup(final Object vertex) {
+        lock.readLock().lock();
+        try {
+            final Integer vertexId = vertexIds.get(vertex);
+            if (null == vertexId) {
+                return Collections.emptySet();
+            }
+
+            final int[] refs = adjacency[vertexId];
+            final int size = adjacencySizes[vertexId];
+            final List<Element> results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                final Element element = elements.get(refs[i] >>> 1);
+                if (MATCHED_DESTINATION == (refs[i] & MATCHED_DESTINATION)) {
+                    final Edge edge = (Edge) element;
+                    results.add(new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties()));
+                } else {
+                    results.add(element);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets all the edges that are equal to the provided edge id.
+     *
+     * @param edgeId the edge id to look up
+     * @return the matching edges
+     */
+    Collection<Element> lookup(final EdgeId edgeId) {
+        lock.readLock().lock();
+        try {
+            final Integer vertexId = vertexIds.get(edgeId.getSource());
+            if (null == vertexId) {
+                return Collections.emptySet();
+            }
+
+            final int[] refs = adjacency[vertexId];
+            final int size = adjacencySizes[vertexId];
+            final List<Element> results = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (MATCHED_DESTINATION != (refs[i] & MATCHED_DESTINATION)) {
+                    final Element element = elements.get(refs[i] >>> 1);
+                    if (element instanceof Edge && edgeId.isEqual((EdgeId) element)) {
+                        results.add(element);
+                    }
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            vertexIds.clear();
+            elementIds.clear();
+            elements.clear();
+            adjacency = new int[INITIAL_CAPACITY][];
+            adjacencySizes = new int[INITIAL_CAPACITY];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addAdjacency(final Object vertex, final int ref) {
+        final int vertexId = vertexIds.computeIfAbsent(vertex, v -> vertexIds.size());
+        if (vertexId >= adjacency.length) {
+            final int newLength = adjacency.length << 1;
+            adjacency = Arrays.copyOf(adjacency, newLength);
+            adjacencySizes = Arrays.copyOf(adjacencySizes, newLength);
+        }
+
+        int[] refs = adjacency[vertexId];
+        final int size = adjacencySizes[vertexId];
+        if (null == refs) {
+            refs = new int[1];
+            adjacency[vertexId] = refs;
+        } else if (size == refs.length) {
+            refs = Arrays.copyOf(refs, size << 1);
+            adjacency[vertexId] = refs;
+        }
+        refs[size] = ref;
+        adjacencySizes[vertexId] = size + 1;
+    }
+}
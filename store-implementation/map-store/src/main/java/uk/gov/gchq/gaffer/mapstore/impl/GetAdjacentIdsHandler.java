@@ -84,7 +84,7 @@ public class GetAdjacentIdsHandler implements
                                     .map(mapImpl::getAggElement));
 
             // Apply the view
-            elementStream = GetElementsUtil.applyView(elementStream, schema, getAdjacentIds.getView());
+            elementStream = GetElementsUtil.applyView(elementStream, schema, getAdjacentIds.getView(), mapImpl::toMutableElement);
 
             final Stream<EntityId> adjacentIdsStream = elementStream
                     .filter(Objects::nonNull)
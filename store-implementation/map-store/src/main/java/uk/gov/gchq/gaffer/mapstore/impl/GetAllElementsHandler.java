@@ -27,6 +27,7 @@ import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
 /**
@@ -42,26 +43,35 @@ public class GetAllElementsHandler implements OutputOperationHandler<GetAllEleme
     }
 
     private CloseableIterable<Element> doOperation(final GetAllElements operation, final MapStore mapStore) {
-        return new AllElementsIterable(mapStore.getMapImpl(), operation, mapStore.getSchema());
+        return new AllElementsIterable(mapStore.getMapImpl(), operation, mapStore.getSchema(), mapStore.getScanPool());
     }
 
     private static class AllElementsIterable extends WrappedCloseableIterable<Element> {
         private final MapImpl mapImpl;
         private final GetAllElements getAllElements;
         private final Schema schema;
+        private final ForkJoinPool scanPool;
 
-        AllElementsIterable(final MapImpl mapImpl, final GetAllElements getAllElements, final Schema schema) {
+        AllElementsIterable(final MapImpl mapImpl, final GetAllElements getAllElements, final Schema schema, final ForkJoinPool scanPool) {
             this.mapImpl = mapImpl;
             this.getAllElements = getAllElements;
             this.schema = schema;
+            this.scanPool = scanPool;
         }
 
         @Override
         public CloseableIterator<Element> iterator() {
-            Stream<Element> elements = mapImpl.getAllElements(getAllElements.getView().getGroups());
+            if (null != scanPool) {
+                return PartitionedElementScan.scan(mapImpl, schema,
+                        getAllElements.getView(), getAllElements.getDirectedType(), scanPool);
+            }
+
+            Stream<Element> elements = mapImpl.getAllElements(getAllElements.getView());
             elements = GetElementsUtil.applyDirectedTypeFilter(elements, getAllElements.getView().hasEdges(), getAllElements.getDirectedType());
-            elements = GetElementsUtil.applyView(elements, schema, getAllElements.getView());
-            elements = elements.map(element -> mapImpl.cloneElement(element, schema));
+            elements = GetElementsUtil.applyView(elements, schema, getAllElements.getView(), mapImpl::toMutableElement);
+            if (!mapImpl.isReadOnlyElements()) {
+                elements = elements.map(element -> mapImpl.cloneElement(element, schema));
+            }
             return new WrappedCloseableIterator<>(elements.iterator());
         }
     }
@@ -74,8 +74,10 @@ public class GetElementsHandler
             Stream<Element> elements = Streams.toStream(getElements.getInput())
                     .flatMap(elementId -> GetElementsUtil.getRelevantElements(mapImpl, elementId, getElements.getView(), getElements.getDirectedType(), getElements.getIncludeIncomingOutGoing(), getElements.getSeedMatching()).stream());
             elements = elements.flatMap(e -> Streams.toStream(mapImpl.getElements(e)));
-            elements = GetElementsUtil.applyView(elements, schema, getElements.getView());
-            elements = elements.map(element -> mapImpl.cloneElement(element, schema));
+            elements = GetElementsUtil.applyView(elements, schema, getElements.getView(), mapImpl::toMutableElement);
+            if (!mapImpl.isReadOnlyElements()) {
+                elements = elements.map(element -> mapImpl.cloneElement(element, schema));
+            }
             return new WrappedCloseableIterator<>(elements.iterator());
         }
     }
@@ -35,6 +35,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
@@ -130,6 +131,22 @@ public final class GetElementsUtil {
     public static Stream<Element> applyView(final Stream<Element> elementStream,
                                             final Schema schema,
                                             final View view) {
+        return applyView(elementStream, schema, view, Function.identity());
+    }
+
+    /**
+     * Applies the filters and transformers in the {@link View} to the elements.
+     *
+     * @param elementStream the elements
+     * @param schema        the schema
+     * @param view          the view to apply
+     * @param toMutable     converts an element into one that can be modified by a transformer
+     * @return the filtered and transformed elements
+     */
+    public static Stream<Element> applyView(final Stream<Element> elementStream,
+                                            final Schema schema,
+                                            final View view,
+                                            final Function<Element, Element> toMutable) {
         final Set<String> viewGroups = view.getGroups();
         Stream<Element> stream = elementStream;
         // Check group is valid
@@ -155,7 +172,9 @@ public final class GetElementsUtil {
             final ViewElementDefinition ved = view.getElement(e.getGroup());
             final ElementTransformer transformer = ved.getTransformer();
             if (transformer != null) {
-                transformer.apply(e);
+                final Element mutable = toMutable.apply(e);
+                transformer.apply(mutable);
+                return mutable;
             }
             return e;
         });
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.store.ElementValidator;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Adds elements to a {@link MapImpl} using a pipeline of threads.
+ * <p>
+ * The calling thread partitions the elements by the hash of their group and
+ * identifiers and passes them in batches to a number of worker threads. Each
+ * worker validates its elements, aggregates each batch if an ingest buffer size
+ * is set, and splits the elements into their group-by elements and
+ * properties. The workers use their own copy of the {@link Schema} because the
+ * validators and aggregators hold state whilst they are applied. The results
+ * are passed to a single insertion thread which adds them to the maps and
+ * updates the index. All the stages are connected by bounded queues.
+ * </p>
+ * <p>
+ * A pipeline is created once for each {@link MapImpl}, so the schema copies and
+ * threads are reused by each add. Adds are run one at a time, and the threads
+ * are released when the pipeline has been idle for a while.
+ * </p>
+ */
+final class IngestPipeline {
+    static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int QUEUE_BATCHES_PER_WORKER = 2;
+    private static final long POLL_TIMEOUT_MS = 100L;
+    private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+    private static final List<Element> END_OF_ELEMENTS = new ArrayList<>(0);
+    private static final List<Pair<Element, GroupedProperties>> END_OF_INSERTS = new ArrayList<>(0);
+
+    private final MapImpl mapImpl;
+    private final int numWorkers;
+    private final int bufferSize;
+    private final List<Schema> workerSchemas;
+    private final ThreadPoolExecutor executor;
+
+    IngestPipeline(final MapImpl mapImpl,
+                   final Schema schema,
+                   final int numWorkers,
+                   final int bufferSize) {
+        this.mapImpl = mapImpl;
+        this.numWorkers = numWorkers;
+        this.bufferSize = bufferSize;
+        workerSchemas = new ArrayList<>(numWorkers);
+        for (int i = 0; i < numWorkers; i++) {
+            workerSchemas.add(schema.clone());
+        }
+        executor = new ThreadPoolExecutor(numWorkers + 1, numWorkers + 1,
+                THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "map-store-ingest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    synchronized void addElements(final Iterable<? extends Element> elements, final boolean validate, final boolean skipInvalid) {
+        final int batchSize = bufferSize < 1 ? DEFAULT_BATCH_SIZE : bufferSize;
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<BlockingQueue<List<Element>>> workerQueues = new ArrayList<>(numWorkers);
+        final BlockingQueue<List<Pair<Element, GroupedProperties>>> insertQueue = new ArrayBlockingQueue<>(numWorkers * QUEUE_BATCHES_PER_WORKER);
+        final List<Future<?>> futures = new ArrayList<>(numWorkers + 1);
+        try {
+            for (int i = 0; i < numWorkers; i++) {
+                final BlockingQueue<List<Element>> workerQueue = new ArrayBlockingQueue<>(QUEUE_BATCHES_PER_WORKER);
+                final Schema workerSchema = workerSchemas.get(i);
+                workerQueues.add(workerQueue);
+                futures.add(executor.submit(() -> runStage(() -> prepareElements(workerSchema, validate, skipInvalid, workerQueue, insertQueue, failure), failure)));
+            }
+            futures.add(executor.submit(() -> runStage(() -> insertElements(insertQueue, failure), failure)));
+
+            final List<List<Element>> batches = new ArrayList<>(numWorkers);
+            for (int i = 0; i < numWorkers; i++) {
+                batches.add(new ArrayList<>(batchSize));
+            }
+            boolean running = true;
+            for (final Element element : elements) {
+                if (null != element) {
+                    final int worker = Math.floorMod(hashIdentifiers(element), numWorkers);
+                    final List<Element> batch = batches.get(worker);
+                    batch.add(element);
+                    if (batch.size() >= batchSize) {
+                        running = offer(workerQueues.get(worker), batch, failure);
+                        if (!running) {
+                            break;
+                        }
+                        batches.set(worker, new ArrayList<>(batchSize));
+                    }
+                }
+            }
+            for (int i = 0; running && i < numWorkers; i++) {
+                if (!batches.get(i).isEmpty()) {
+                    running = offer(workerQueues.get(i), batches.get(i), failure);
+                }
+                running = running && offer(workerQueues.get(i), END_OF_ELEMENTS, failure);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (final RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            awaitStages(futures, failure);
+        }
+
+        final Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        if (null != error) {
+            throw new RuntimeException("Failed to add elements", error);
+        }
+    }
+
+    /**
+     * Stops the pipeline threads once any add in progress has finished.
+     */
+    void close() {
+        executor.shutdown();
+    }
+
+    // Waits for every stage to finish, so the worker schemas are never used by
+    // two adds at once. After a failure the stages stop at their next queue
+    // operation, so this does not block for long.
+    private void awaitStages(final List<Future<?>> futures, final AtomicReference<Throwable> failure) {
+        boolean interrupted = false;
+        for (final Future<?> future : futures) {
+            boolean done = false;
+            while (!done) {
+                try {
+                    future.get();
+                    done = true;
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                    failure.compareAndSet(null, e);
+                } catch (final ExecutionException e) {
+                    failure.compareAndSet(null, e.getCause());
+                    done = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void prepareElements(final Schema workerSchema,
+                                 final boolean validate,
+                                 final boolean skipInvalid,
+                                 final BlockingQueue<List<Element>> workerQueue,
+                                 final BlockingQueue<List<Pair<Element, GroupedProperties>>> insertQueue,
+                                 final AtomicReference<Throwable> failure) throws InterruptedException {
+        final ElementValidator validator = validate ? new ElementValidator(workerSchema) : null;
+        List<Element> batch = take(workerQueue, failure);
+        while (null != batch && END_OF_ELEMENTS != batch) {
+            final List<Element> validElements = new ArrayList<>(batch.size());
+            for (final Element element : batch) {
+                if (null == validator || validator.validate(element)) {
+                    validElements.add(element);
+                } else if (!skipInvalid) {
+                    throw new IllegalArgumentException("Element of type " + element + " is not valid.");
+                }
+            }
+
+            final Iterable<? extends Element> aggregatedElements = bufferSize < 1
+                    ? validElements
+                    : AggregatorUtil.ingestAggregate(validElements, workerSchema);
+            final List<Pair<Element, GroupedProperties>> inserts = new ArrayList<>(validElements.size());
+            for (final Element element : aggregatedElements) {
+                if (mapImpl.isAggregationEnabled(element)) {
+                    inserts.add(new Pair<>(AddElementsHandler.getElementWithGroupByProperties(element, mapImpl),
+                            AddElementsHandler.getNonGroupByProperties(element, mapImpl)));
+                } else {
+                    inserts.add(new Pair<>(AddElementsHandler.getElementWithSchemaProperties(element, workerSchema)));
+                }
+            }
+            if (!offer(insertQueue, inserts, failure)) {
+                return;
+            }
+            batch = take(workerQueue, failure);
+        }
+        if (null != batch) {
+            offer(insertQueue, END_OF_INSERTS, failure);
+        }
+    }
+
+    private void insertElements(final BlockingQueue<List<Pair<Element, GroupedProperties>>> insertQueue,
+                                final AtomicReference<Throwable> failure) throws InterruptedException {
+        int remainingWorkers = numWorkers;
+        while (remainingWorkers > 0) {
+            final List<Pair<Element, GroupedProperties>> inserts = take(insertQueue, failure);
+            if (null == inserts) {
+                return;
+            }
+            if (END_OF_INSERTS == inserts) {
+                remainingWorkers--;
+                continue;
+            }
+
+            for (final Pair<Element, GroupedProperties> insert : inserts) {
+                if (null == insert.getSecond()) {
+                    mapImpl.addNonAggElement(insert.getFirst());
+                } else {
+                    mapImpl.addAggElement(insert.getFirst(), insert.getSecond());
+                }
+                if (mapImpl.isMaintainIndex()) {
+                    AddElementsHandler.updateElementIndex(insert.getFirst(), mapImpl);
+                }
+            }
+        }
+    }
+
+    private void runStage(final Stage stage, final AtomicReference<Throwable> failure) {
+        try {
+            stage.run();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (final RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    // Waits for space in the queue until the item is accepted or a stage fails,
+    // so a failed stage cannot block the rest of the pipeline.
+    private <T> boolean offer(final BlockingQueue<T> queue, final T item, final AtomicReference<Throwable> failure) throws InterruptedException {
+        while (!queue.offer(item, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            if (null != failure.get()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Waits for an item until one is available or a stage fails, returning null on failure.
+    private <T> T take(final BlockingQueue<T> queue, final AtomicReference<Throwable> failure) throws InterruptedException {
+        T item = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        while (null == item) {
+            if (null != failure.get()) {
+                return null;
+            }
+            item = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+        return item;
+    }
+
+    private static int hashIdentifiers(final Element element) {
+        if (element instanceof Entity) {
+            return Objects.hash(element.getGroup(), ((Entity) element).getVertex());
+        }
+        final Edge edge = (Edge) element;
+        return Objects.hash(element.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected());
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws InterruptedException;
+    }
+}
@@ -17,24 +17,37 @@ package uk.gov.gchq.gaffer.mapstore.impl;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.RepeatItemIterable;
 import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
 import uk.gov.gchq.gaffer.mapstore.factory.MapFactory;
 import uk.gov.gchq.gaffer.mapstore.factory.SimpleMapFactory;
 import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.mapstore.utils.ElementCloner;
+import uk.gov.gchq.gaffer.mapstore.utils.ReadOnlyProperties;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
+import uk.gov.gchq.koryphe.tuple.predicate.TupleAdaptedPredicate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.BinaryOperator;
 import java.util.stream.Stream;
 
 /**
@@ -48,6 +61,14 @@ public class MapImpl {
     public static final String ENTITY_ID_TO_ELEMENTS = "entityIdToElements";
     public static final String EDGE_ID_TO_ELEMENTS = "edgeIdToElements";
 
+    /**
+     * Each thread's copies of the schemas of the concurrent maps it has added
+     * elements to. The copies are weakly keyed on their map, so they can be
+     * collected once the map is no longer used, and are removed from every
+     * thread when the map is closed.
+     */
+    private static final ThreadLocal<IngestSchemas> INGEST_SCHEMAS = ThreadLocal.withInitial(IngestSchemas::new);
+
     /**
      * aggElements maps from an Element group to a map of Elements containing the group-by properties
      * to a Properties object without the group-by properties
@@ -70,6 +91,11 @@ public class MapImpl {
      */
     private final MultiMap<EdgeId, Element> edgeIdToElements;
 
+    /**
+     * vertexIndex is used in place of entityIdToElements and edgeIdToElements if a compact index is required
+     */
+    private final CompactVertexIndex vertexIndex;
+
     private final MapFactory mapFactory;
     private final Map<String, Set<String>> groupToGroupByProperties = new HashMap<>();
     private final Map<String, Set<String>> groupToNonGroupByProperties = new HashMap<>();
@@ -77,23 +103,34 @@ public class MapImpl {
     private final List<String> aggregatedGroups;
     private final Schema schema;
     private final boolean maintainIndex;
-    private final AggregatorUtil.IngestPropertiesBinaryOperator propertyAggregator;
+    private final boolean readOnlyElements;
+    private final Map<String, List<PropertyIndex>> propertyIndexes;
+    private final BinaryOperator<GroupedProperties> propertyAggregator;
+    private final Set<IngestSchemas> ingestSchemas = Collections.newSetFromMap(new WeakHashMap<>());
+    private final IngestPipeline ingestPipeline;
 
     public MapImpl(final Schema schema, final MapStoreProperties mapStoreProperties) {
         this.schema = schema;
-        propertyAggregator = new AggregatorUtil.IngestPropertiesBinaryOperator(schema);
         mapFactory = createMapFactory(schema, mapStoreProperties);
+        propertyAggregator = createPropertyAggregator(schema, mapFactory);
         maintainIndex = mapStoreProperties.getCreateIndex();
+        readOnlyElements = mapStoreProperties.isReadOnlyElements();
 
         for (final String group : schema.getGroups()) {
             aggElements.put(group, mapFactory.getMap(group + "|" + AGG_ELEMENTS, Element.class, GroupedProperties.class));
             nonAggElements.put(group, mapFactory.getMap(group + "|" + NON_AGG_ELEMENTS, Element.class, Long.class));
         }
 
-        if (maintainIndex) {
+        if (maintainIndex && mapStoreProperties.isCompactIndex()) {
+            vertexIndex = new CompactVertexIndex();
+            entityIdToElements = null;
+            edgeIdToElements = null;
+        } else if (maintainIndex) {
+            vertexIndex = null;
             entityIdToElements = mapFactory.getMultiMap(ENTITY_ID_TO_ELEMENTS, EntityId.class, Element.class);
             edgeIdToElements = mapFactory.getMultiMap(EDGE_ID_TO_ELEMENTS, EdgeId.class, Element.class);
         } else {
+            vertexIndex = null;
             entityIdToElements = null;
             edgeIdToElements = null;
         }
@@ -101,27 +138,105 @@ public class MapImpl {
         this.aggregatedGroups = schema.getAggregatedGroups();
         schema.getEntityGroups().forEach(this::addToGroupByMap);
         schema.getEdgeGroups().forEach(this::addToGroupByMap);
+        propertyIndexes = createPropertyIndexes(mapStoreProperties.getPropertyIndexes());
+        rebuildHeapIndexes();
+        ingestPipeline = mapStoreProperties.getIngestThreads() > 1
+                ? new IngestPipeline(this, schema, mapStoreProperties.getIngestThreads(), mapStoreProperties.getIngestBufferSize())
+                : null;
+    }
+
+    /**
+     * @return true if the store does not contain any elements
+     */
+    public boolean isEmpty() {
+        return aggElements.values().stream().allMatch(Map::isEmpty)
+                && nonAggElements.values().stream().allMatch(Map::isEmpty);
+    }
+
+    /**
+     * Gets the schema to use for validating and aggregating elements on the
+     * calling thread. The validators and aggregators in a schema hold state
+     * whilst they are applied, so if the maps can be updated concurrently each
+     * thread is given its own copy of the schema. The copies are removed when
+     * this map is closed.
+     *
+     * @return the schema for the calling thread
+     */
+    public Schema getIngestSchema() {
+        if (!mapFactory.isConcurrent()) {
+            return schema;
+        }
+
+        final IngestSchemas threadSchemas = INGEST_SCHEMAS.get();
+        Schema ingestSchema = threadSchemas.get(this);
+        if (null == ingestSchema) {
+            ingestSchema = schema.clone();
+            threadSchemas.put(this, ingestSchema);
+            synchronized (ingestSchemas) {
+                ingestSchemas.add(threadSchemas);
+            }
+        }
+        return ingestSchema;
+    }
+
+    /**
+     * Removes the copies of the schema that have been given to the threads
+     * adding elements to this map and stops the ingest pipeline threads.
+     */
+    public void close() {
+        final List<IngestSchemas> threadSchemas;
+        synchronized (ingestSchemas) {
+            threadSchemas = new ArrayList<>(ingestSchemas);
+            ingestSchemas.clear();
+        }
+        for (final IngestSchemas threadSchema : threadSchemas) {
+            threadSchema.remove(this);
+        }
+        if (null != ingestPipeline) {
+            ingestPipeline.close();
+        }
     }
 
     public void clear() {
         aggElements.clear();
         nonAggElements.clear();
-        if (maintainIndex) {
+        propertyIndexes.values().forEach(indexes -> indexes.forEach(PropertyIndex::clear));
+        if (null != vertexIndex) {
+            vertexIndex.clear();
+        } else if (maintainIndex) {
             entityIdToElements.clear();
             edgeIdToElements.clear();
         }
     }
 
+    /**
+     * @return the pipeline used to add elements, or null if elements are added
+     * on the calling thread
+     */
+    IngestPipeline getIngestPipeline() {
+        return ingestPipeline;
+    }
+
     void addNonAggElement(final Element element) {
-        nonAggElements.get(element.getGroup()).merge(element, 1L, (a, b) -> a + b);
+        addNonAggElement(element, 1L);
+    }
+
+    void addNonAggElement(final Element element, final long count) {
+        nonAggElements.get(element.getGroup()).merge(element, count, (a, b) -> a + b);
+        updatePropertyIndexes(element);
     }
 
     void addAggElement(final Element elementWithGroupByProperties, final GroupedProperties properties) {
         aggElements.get(elementWithGroupByProperties.getGroup())
                 .merge(elementWithGroupByProperties, properties, propertyAggregator);
+        updatePropertyIndexes(elementWithGroupByProperties);
     }
 
     Collection<Element> lookup(final EntityId entitId) {
+        if (null != vertexIndex) {
+            return vertexIndex.lookup(entitId.getVertex());
+        }
+
         Collection<Element> results = entityIdToElements.get(entitId);
         if (null == results) {
             results = Collections.emptySet();
@@ -131,6 +246,10 @@ public class MapImpl {
     }
 
     Collection<Element> lookup(final EdgeId edgeId) {
+        if (null != vertexIndex) {
+            return vertexIndex.lookup(edgeId);
+        }
+
         Collection<Element> results = edgeIdToElements.get(edgeId);
         if (null == results) {
             results = Collections.emptySet();
@@ -144,10 +263,16 @@ public class MapImpl {
         if (null == count || count < 1) {
             return Collections.emptyList();
         }
+        if (readOnlyElements) {
+            return new RepeatItemIterable<>(createReadOnlyElement(element, null), count);
+        }
         return new RepeatItemIterable<>(element, count);
     }
 
     Element getAggElement(final Element element) {
+        if (readOnlyElements) {
+            return createReadOnlyElement(element, aggElements.get(element.getGroup()).get(element));
+        }
         final Element clone = element.emptyClone();
         clone.copyProperties(element.getProperties());
         clone.copyProperties(aggElements.get(element.getGroup()).get(element));
@@ -162,30 +287,55 @@ public class MapImpl {
         }
     }
 
-    Stream<Element> getAllAggElements(final Set<String> groups) {
-        return aggElements.entrySet().stream()
-                .filter(entry -> groups.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .flatMap(map -> map.entrySet().stream())
-                .map(x -> {
-                    final Element element = x.getKey().emptyClone();
-                    element.copyProperties(x.getKey().getProperties());
-                    element.copyProperties(x.getValue());
-                    return cloneElement(element, schema);
-                });
+    Stream<Element> getAllAggElements(final View view) {
+        return view.getGroups().stream()
+                .flatMap(group -> getAggEntries(group, view).stream())
+                .map(this::toAggElement);
+    }
+
+    Stream<Element> getAllNonAggElements(final View view) {
+        return view.getGroups().stream()
+                .flatMap(group -> getNonAggEntries(group, view).stream())
+                .flatMap(this::toNonAggElements);
+    }
+
+    /**
+     * Returns the aggregated elements in a group that may match the view. If the
+     * group has property indexes that can be used for the pre-aggregation filter
+     * then only the candidates from the indexes are returned, otherwise all the
+     * elements in the group are returned.
+     *
+     * @param group the group
+     * @param view  the view
+     * @return the entries of elements with group-by properties to their properties
+     */
+    Collection<Map.Entry<Element, GroupedProperties>> getAggEntries(final String group, final View view) {
+        return getEntries(aggElements.get(group), group, view);
+    }
+
+    Collection<Map.Entry<Element, Long>> getNonAggEntries(final String group, final View view) {
+        return getEntries(nonAggElements.get(group), group, view);
+    }
+
+    Element toAggElement(final Map.Entry<Element, GroupedProperties> entry) {
+        if (readOnlyElements) {
+            return createReadOnlyElement(entry.getKey(), entry.getValue());
+        }
+        final Element element = entry.getKey().emptyClone();
+        element.copyProperties(entry.getKey().getProperties());
+        element.copyProperties(entry.getValue());
+        return cloneElement(element, schema);
     }
 
-    Stream<Element> getAllNonAggElements(final Set<String> groups) {
-        return nonAggElements.entrySet().stream()
-                .filter(entry -> groups.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .flatMap(map -> map.entrySet().stream())
-                .map(x -> new RepeatItemIterable<>(cloneElement(x.getKey(), schema), x.getValue()))
-                .flatMap(Streams::toStream);
+    Stream<Element> toNonAggElements(final Map.Entry<Element, Long> entry) {
+        if (readOnlyElements) {
+            return Streams.toStream(new RepeatItemIterable<>(createReadOnlyElement(entry.getKey(), null), entry.getValue()));
+        }
+        return Streams.toStream(new RepeatItemIterable<>(cloneElement(entry.getKey(), schema), entry.getValue()));
     }
 
-    Stream<Element> getAllElements(final Set<String> groups) {
-        return Stream.concat(getAllAggElements(groups), getAllNonAggElements(groups));
+    Stream<Element> getAllElements(final View view) {
+        return Stream.concat(getAllAggElements(view), getAllNonAggElements(view));
     }
 
     void addIndex(final EntityId entityId, final Element element) {
@@ -196,6 +346,30 @@ public class MapImpl {
         edgeIdToElements.put(edgeId, element);
     }
 
+    void addIndex(final Element element) {
+        vertexIndex.add(element);
+    }
+
+    Map<Element, GroupedProperties> getAggElementsMap(final String group) {
+        return aggElements.get(group);
+    }
+
+    Map<Element, Long> getNonAggElementsMap(final String group) {
+        return nonAggElements.get(group);
+    }
+
+    MultiMap<EntityId, Element> getEntityIdToElements() {
+        return entityIdToElements;
+    }
+
+    MultiMap<EdgeId, Element> getEdgeIdToElements() {
+        return edgeIdToElements;
+    }
+
+    boolean isCompactIndex() {
+        return null != vertexIndex;
+    }
+
     boolean isMaintainIndex() {
         return maintainIndex;
     }
@@ -204,6 +378,25 @@ public class MapImpl {
         return mapFactory.cloneElement(element, schema);
     }
 
+    /**
+     * Returns an element that can be modified, for example by a transformer.
+     * Read only elements are cloned, any other elements have already been
+     * copied when they were read from the maps.
+     *
+     * @param element the element
+     * @return the element or a modifiable clone of it
+     */
+    Element toMutableElement(final Element element) {
+        if (element.getProperties() instanceof ReadOnlyProperties) {
+            return cloneElement(element, schema);
+        }
+        return element;
+    }
+
+    boolean isReadOnlyElements() {
+        return readOnlyElements;
+    }
+
     Set<String> getGroupByProperties(final String group) {
         return groupToGroupByProperties.get(group);
     }
@@ -238,6 +431,135 @@ public class MapImpl {
         return totalCount;
     }
 
+    private <V> Collection<Map.Entry<Element, V>> getEntries(final Map<Element, V> map, final String group, final View view) {
+        if (null == map) {
+            return Collections.emptyList();
+        }
+
+        final Set<Element> candidates = getIndexedCandidates(group, view.getElement(group));
+        if (null == candidates) {
+            return map.entrySet();
+        }
+
+        final List<Map.Entry<Element, V>> entries = new ArrayList<>(candidates.size());
+        for (final Element key : candidates) {
+            final V value = map.get(key);
+            if (null != value) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(key, value));
+            }
+        }
+        return entries;
+    }
+
+    private Set<Element> getIndexedCandidates(final String group, final ViewElementDefinition viewElementDef) {
+        final List<PropertyIndex> indexes = propertyIndexes.get(group);
+        if (null == indexes || null == viewElementDef || null == viewElementDef.getPreAggregationFilter()) {
+            return null;
+        }
+
+        // All the filter components must pass, so the candidates are the intersection of the index results
+        Set<Element> candidates = null;
+        for (final TupleAdaptedPredicate<String, ?> component : viewElementDef.getPreAggregationFilter().getComponents()) {
+            final String[] selection = component.getSelection();
+            if (null == selection || 1 != selection.length) {
+                continue;
+            }
+            for (final PropertyIndex index : indexes) {
+                if (index.getProperty().equals(selection[0])) {
+                    final Set<Element> matches = index.lookup(component.getPredicate());
+                    if (null != matches) {
+                        if (null == candidates) {
+                            candidates = matches;
+                        } else if (matches.size() < candidates.size()) {
+                            matches.retainAll(candidates);
+                            candidates = matches;
+                        } else {
+                            candidates.retainAll(matches);
+                        }
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    // The compact vertex index and property indexes are only held on the heap,
+    // so if the map factory has reopened existing maps they need rebuilding
+    // from the element keys.
+    private void rebuildHeapIndexes() {
+        if ((null == vertexIndex && propertyIndexes.isEmpty()) || isEmpty()) {
+            return;
+        }
+
+        for (final String group : schema.getGroups()) {
+            for (final Element key : aggElements.get(group).keySet()) {
+                rebuildHeapIndexes(key);
+            }
+            for (final Element key : nonAggElements.get(group).keySet()) {
+                rebuildHeapIndexes(key);
+            }
+        }
+    }
+
+    private void rebuildHeapIndexes(final Element key) {
+        updatePropertyIndexes(key);
+        if (null != vertexIndex) {
+            AddElementsHandler.updateElementIndex(key, this);
+        }
+    }
+
+    private void updatePropertyIndexes(final Element key) {
+        final List<PropertyIndex> indexes = propertyIndexes.get(key.getGroup());
+        if (null != indexes) {
+            for (final PropertyIndex index : indexes) {
+                index.add(key);
+            }
+        }
+    }
+
+    private Map<String, List<PropertyIndex>> createPropertyIndexes(final String indexDefinitions) {
+        final Map<String, List<PropertyIndex>> indexes = new HashMap<>();
+        if (null == indexDefinitions || indexDefinitions.trim().isEmpty()) {
+            return indexes;
+        }
+
+        for (final String indexDefinition : indexDefinitions.split(",")) {
+            final String[] parts = indexDefinition.trim().split(":");
+            if (3 != parts.length) {
+                throw new IllegalArgumentException("Property index must be in the format group:property:sorted|hash but was: " + indexDefinition);
+            }
+            final String group = parts[0];
+            final String property = parts[1];
+            final PropertyIndex.Type type;
+            try {
+                type = PropertyIndex.Type.valueOf(parts[2].toUpperCase(Locale.ENGLISH));
+            } catch (final IllegalArgumentException e) {
+                throw new IllegalArgumentException("Property index type must be sorted or hash but was: " + parts[2], e);
+            }
+
+            final SchemaElementDefinition sed = schema.getElement(group);
+            if (null == sed || !sed.getProperties().contains(property)) {
+                throw new IllegalArgumentException("Property index on unknown group or property: " + indexDefinition);
+            }
+            // The stored properties of aggregated elements change, so only the group-by properties held in the keys can be indexed
+            if (!groupsWithNoAggregation.contains(group) && !groupToGroupByProperties.get(group).contains(property)) {
+                throw new IllegalArgumentException("Property index on aggregated group " + group
+                        + " must be on a group-by property: " + property);
+            }
+            indexes.computeIfAbsent(group, g -> new ArrayList<>()).add(new PropertyIndex(group, property, type));
+        }
+        return indexes;
+    }
+
+    private Element createReadOnlyElement(final Element key, final Properties valueProperties) {
+        final ReadOnlyProperties properties = new ReadOnlyProperties(key.getProperties(), valueProperties);
+        if (key instanceof Edge) {
+            final Edge edge = (Edge) key;
+            return new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), edge.getMatchedVertex(), properties);
+        }
+        return new Entity(key.getGroup(), ((Entity) key).getVertex(), properties);
+    }
+
     private MapFactory createMapFactory(final Schema schema, final MapStoreProperties mapStoreProperties) {
         final MapFactory mapFactory;
         final String factoryClass = mapStoreProperties.getMapFactory();
@@ -255,6 +577,19 @@ public class MapImpl {
         return mapFactory;
     }
 
+    private BinaryOperator<GroupedProperties> createPropertyAggregator(final Schema schema, final MapFactory mapFactory) {
+        if (!mapFactory.isConcurrent()) {
+            return new AggregatorUtil.IngestPropertiesBinaryOperator(schema);
+        }
+
+        // The aggregator updates the existing properties in place, so aggregate into a
+        // copy to ensure concurrent readers never see partially aggregated properties.
+        // Each thread aggregates with its own copy of the schema as the aggregators hold state.
+        final ElementCloner cloner = new ElementCloner();
+        return (existing, properties) -> new AggregatorUtil.IngestPropertiesBinaryOperator(getIngestSchema())
+                .apply(cloner.cloneProperties(existing, schema), properties);
+    }
+
     private void addToGroupByMap(final String group) {
         final SchemaElementDefinition sed = schema.getElement(group);
         groupToGroupByProperties.put(group, sed.getGroupBy());
@@ -265,4 +600,22 @@ public class MapImpl {
         nonGroupByProperties.removeAll(sed.getGroupBy());
         groupToNonGroupByProperties.put(group, nonGroupByProperties);
     }
+
+    // The schema copies of one thread. Other threads only access them to remove
+    // the copies of a closed map, so access is synchronised.
+    private static final class IngestSchemas {
+        private final Map<MapImpl, Schema> schemas = new WeakHashMap<>();
+
+        private synchronized Schema get(final MapImpl mapImpl) {
+            return schemas.get(mapImpl);
+        }
+
+        private synchronized void put(final MapImpl mapImpl, final Schema schema) {
+            schemas.put(mapImpl, schema);
+        }
+
+        private synchronized void remove(final MapImpl mapImpl) {
+            schemas.remove(mapImpl);
+        }
+    }
 }
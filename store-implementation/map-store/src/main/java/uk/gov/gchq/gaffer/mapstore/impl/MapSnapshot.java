@@ -0,0 +1,411 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.mapstore.serialiser.ElementKeySerialiser;
+import uk.gov.gchq.gaffer.mapstore.serialiser.MatchedVertexElementSerialiser;
+import uk.gov.gchq.gaffer.mapstore.serialiser.NonGroupByPropertiesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.serialiser.lengthvalue.EdgeIdSerialiser;
+import uk.gov.gchq.gaffer.store.serialiser.lengthvalue.EntityIdSerialiser;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Writes the contents of a {@link MapImpl} to a compact binary snapshot file
+ * and loads it back again.
+ * <p>
+ * Elements and properties are serialised using the serialisers in the schema.
+ * The snapshot is split into chunks of entries for a single group, so when it
+ * is loaded the chunks can be deserialised in parallel whilst the file is read.
+ * If the snapshot does not include the index, or the compact index is used,
+ * the index is rebuilt from the element keys as they are loaded.
+ * </p>
+ * <p>
+ * The entries are streamed from the maps and index into the file, so writing a
+ * snapshot only needs memory for one chunk at a time rather than a copy of the
+ * maps. The snapshot is written to a temporary file which is then moved into
+ * place, so an existing snapshot is only replaced once the new one is complete.
+ * Elements should not be added whilst a snapshot is being written.
+ * </p>
+ */
+public final class MapSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MapSnapshot.class);
+
+    private static final int MAGIC = 0x4753_4e50;
+    private static final int VERSION = 1;
+    private static final int CHUNK_SIZE = 10000;
+
+    private static final byte END = 0;
+    private static final byte AGG_ELEMENTS = 1;
+    private static final byte NON_AGG_ELEMENTS = 2;
+    private static final byte ENTITY_ID_TO_ELEMENTS = 3;
+    private static final byte EDGE_ID_TO_ELEMENTS = 4;
+
+    private MapSnapshot() {
+        // Private constructor to prevent instantiation.
+    }
+
+    /**
+     * Writes a snapshot of the elements in the {@link MapImpl} to a file.
+     *
+     * @param mapImpl      the map to write
+     * @param schema       the schema, used to serialise the elements
+     * @param file         the snapshot file
+     * @param includeIndex true if the index should be included in the snapshot
+     * @throws IOException if the snapshot could not be written
+     */
+    public static void write(final MapImpl mapImpl, final Schema schema, final Path file, final boolean includeIndex) throws IOException {
+        final ToBytesSerialiser<Element> elementSerialiser = new ElementKeySerialiser(schema);
+        final ToBytesSerialiser<GroupedProperties> propertiesSerialiser = new NonGroupByPropertiesSerialiser(schema);
+        final boolean writeIndex = includeIndex && mapImpl.isMaintainIndex() && !mapImpl.isCompactIndex();
+
+        final Path parent = file.toAbsolutePath().getParent();
+        if (null != parent) {
+            Files.createDirectories(parent);
+        }
+        final Path tmpFile = Files.createTempFile(null == parent ? file.toAbsolutePath() : parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeBoolean(writeIndex);
+
+                for (final String group : schema.getGroups()) {
+                    final ChunkWriter aggWriter = new ChunkWriter(out, AGG_ELEMENTS, group);
+                    forEach(mapImpl.getAggElementsMap(group), (element, properties) -> {
+                        aggWriter.startEntry();
+                        writeBytes(aggWriter.chunk, elementSerialiser.serialise(element));
+                        writeBytes(aggWriter.chunk, propertiesSerialiser.serialise(properties));
+                    });
+                    aggWriter.flush();
+
+                    final ChunkWriter nonAggWriter = new ChunkWriter(out, NON_AGG_ELEMENTS, group);
+                    forEach(mapImpl.getNonAggElementsMap(group), (element, count) -> {
+                        nonAggWriter.startEntry();
+                        writeBytes(nonAggWriter.chunk, elementSerialiser.serialise(element));
+                        nonAggWriter.chunk.writeLong(count);
+                    });
+                    nonAggWriter.flush();
+                }
+
+                if (writeIndex) {
+                    final ToBytesSerialiser<Element> indexSerialiser = new MatchedVertexElementSerialiser(schema);
+                    writeIndex(out, ENTITY_ID_TO_ELEMENTS, mapImpl.getEntityIdToElements(), new EntityIdSerialiser(schema), indexSerialiser);
+                    writeIndex(out, EDGE_ID_TO_ELEMENTS, mapImpl.getEdgeIdToElements(), new EdgeIdSerialiser(schema), indexSerialiser);
+                }
+
+                out.writeByte(END);
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+        LOGGER.info("Written MapStore snapshot to {}", file);
+    }
+
+    /**
+     * Loads a snapshot into the {@link MapImpl}. The file is read on the
+     * calling thread and the chunks are deserialised and added to the maps
+     * using the provided number of threads.
+     *
+     * @param mapImpl    the map to load the elements into
+     * @param schema     the schema, used to deserialise the elements
+     * @param file       the snapshot file
+     * @param numThreads the number of threads to use
+     * @throws IOException if the snapshot could not be read
+     */
+    public static void read(final MapImpl mapImpl, final Schema schema, final Path file, final int numThreads) throws IOException {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("Number of threads must be greater than 0: " + numThreads);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        final Semaphore chunksInProgress = new Semaphore(numThreads * 2);
+        final List<Future<?>> futures = new ArrayList<>();
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (MAGIC != in.readInt()) {
+                throw new IOException("File is not a MapStore snapshot: " + file);
+            }
+            final int version = in.readInt();
+            if (VERSION != version) {
+                throw new IOException("Unsupported MapStore snapshot version: " + version);
+            }
+
+            final boolean loadIndex = in.readBoolean() && mapImpl.isMaintainIndex() && !mapImpl.isCompactIndex();
+            final ChunkLoader loader = new ChunkLoader(mapImpl, schema, !loadIndex && mapImpl.isMaintainIndex());
+
+            byte type = in.readByte();
+            while (END != type) {
+                final String group = in.readUTF();
+                final int numEntries = in.readInt();
+                final byte[] chunk = new byte[in.readInt()];
+                in.readFully(chunk);
+
+                if (loadIndex || (ENTITY_ID_TO_ELEMENTS != type && EDGE_ID_TO_ELEMENTS != type)) {
+                    final byte chunkType = type;
+                    chunksInProgress.acquire();
+                    futures.add(executor.submit(() -> {
+                        try {
+                            loader.load(chunkType, group, numEntries, chunk);
+                        } finally {
+                            chunksInProgress.release();
+                        }
+                        return null;
+                    }));
+                }
+                type = in.readByte();
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted whilst loading MapStore snapshot", e);
+        } catch (final ExecutionException e) {
+            throw new IOException("Unable to load MapStore snapshot: " + file, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        LOGGER.info("Loaded MapStore snapshot from {}", file);
+    }
+
+    private static <K> void writeIndex(final DataOutputStream out, final byte type, final MultiMap<K, Element> index,
+                                       final ToBytesSerialiser<K> idSerialiser, final ToBytesSerialiser<Element> elementSerialiser) throws IOException {
+        final ChunkWriter writer = new ChunkWriter(out, type, "");
+        try {
+            index.forEach((id, element) -> writeUnchecked(() -> {
+                writer.startEntry();
+                writeBytes(writer.chunk, idSerialiser.serialise(id));
+                writeBytes(writer.chunk, elementSerialiser.serialise(element));
+            }));
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    // Streams the entries of the map to the writer, rather than copying them,
+    // so writing a snapshot does not need much more memory than the store.
+    private static <K, V> void forEach(final Map<K, V> map, final EntryWriter<K, V> entryWriter) throws IOException {
+        try {
+            map.forEach((key, value) -> writeUnchecked(() -> entryWriter.write(key, value)));
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void writeUnchecked(final Write write) {
+        try {
+            write.run();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private interface EntryWriter<K, V> {
+        void write(final K key, final V value) throws IOException;
+    }
+
+    private interface Write {
+        void run() throws IOException;
+    }
+
+    /**
+     * Buffers entries for a single group and writes them out in chunks.
+     */
+    private static final class ChunkWriter {
+        private final DataOutputStream out;
+        private final byte type;
+        private final String group;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream chunk = new DataOutputStream(bytes);
+        private int numEntries;
+
+        private ChunkWriter(final DataOutputStream out, final byte type, final String group) {
+            this.out = out;
+            this.type = type;
+            this.group = group;
+        }
+
+        private void startEntry() throws IOException {
+            if (CHUNK_SIZE == numEntries) {
+                flush();
+            }
+            numEntries++;
+        }
+
+        private void flush() throws IOException {
+            if (numEntries > 0) {
+                chunk.flush();
+                out.writeByte(type);
+                out.writeUTF(group);
+                out.writeInt(numEntries);
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+                bytes.reset();
+                numEntries = 0;
+            }
+        }
+    }
+
+    /**
+     * Deserialises chunks and adds the entries to the maps. Updates to each
+     * group's maps and to the index are synchronised, as the maps may not be
+     * thread safe.
+     */
+    private static final class ChunkLoader {
+        private final MapImpl mapImpl;
+        private final Schema schema;
+        private final boolean rebuildIndex;
+        private final ToBytesSerialiser<Element> elementSerialiser;
+        private final ToBytesSerialiser<GroupedProperties> propertiesSerialiser;
+        private final ToBytesSerialiser<Element> indexSerialiser;
+        private final ToBytesSerialiser<EntityId> entityIdSerialiser;
+        private final ToBytesSerialiser<EdgeId> edgeIdSerialiser;
+        private final Object indexLock = new Object();
+
+        private ChunkLoader(final MapImpl mapImpl, final Schema schema, final boolean rebuildIndex) {
+            this.mapImpl = mapImpl;
+            this.schema = schema;
+            this.rebuildIndex = rebuildIndex;
+            this.elementSerialiser = new ElementKeySerialiser(schema);
+            this.propertiesSerialiser = new NonGroupByPropertiesSerialiser(schema);
+            this.indexSerialiser = new MatchedVertexElementSerialiser(schema);
+            this.entityIdSerialiser = new EntityIdSerialiser(schema);
+            this.edgeIdSerialiser = new EdgeIdSerialiser(schema);
+        }
+
+        private void load(final byte type, final String group, final int numEntries, final byte[] chunk) throws IOException {
+            if ((AGG_ELEMENTS == type || NON_AGG_ELEMENTS == type) && null == schema.getElement(group)) {
+                throw new IOException("Snapshot contains group " + group + " which is not in the schema");
+            }
+
+            final DataInputStream in = new DataInputStream(new ByteArrayInputStream(chunk));
+            switch (type) {
+                case AGG_ELEMENTS:
+                    loadAggElements(in, group, numEntries);
+                    break;
+                case NON_AGG_ELEMENTS:
+                    loadNonAggElements(in, group, numEntries);
+                    break;
+                case ENTITY_ID_TO_ELEMENTS:
+                    loadIndex(in, numEntries, entityIdSerialiser, mapImpl.getEntityIdToElements());
+                    break;
+                case EDGE_ID_TO_ELEMENTS:
+                    loadIndex(in, numEntries, edgeIdSerialiser, mapImpl.getEdgeIdToElements());
+                    break;
+                default:
+                    throw new IOException("Unknown snapshot chunk type: " + type);
+            }
+        }
+
+        private void loadAggElements(final DataInputStream in, final String group, final int numEntries) throws IOException {
+            final List<Element> elements = new ArrayList<>(numEntries);
+            final List<GroupedProperties> properties = new ArrayList<>(numEntries);
+            for (int i = 0; i < numEntries; i++) {
+                elements.add(elementSerialiser.deserialise(readBytes(in)));
+                properties.add(propertiesSerialiser.deserialise(readBytes(in)));
+            }
+
+            synchronized (mapImpl.getAggElementsMap(group)) {
+                for (int i = 0; i < numEntries; i++) {
+                    mapImpl.addAggElement(elements.get(i), properties.get(i));
+                }
+            }
+            updateIndex(elements);
+        }
+
+        private void loadNonAggElements(final DataInputStream in, final String group, final int numEntries) throws IOException {
+            final List<Element> elements = new ArrayList<>(numEntries);
+            final long[] counts = new long[numEntries];
+            for (int i = 0; i < numEntries; i++) {
+                elements.add(elementSerialiser.deserialise(readBytes(in)));
+                counts[i] = in.readLong();
+            }
+
+            synchronized (mapImpl.getNonAggElementsMap(group)) {
+                for (int i = 0; i < numEntries; i++) {
+                    mapImpl.addNonAggElement(elements.get(i), counts[i]);
+                }
+            }
+            updateIndex(elements);
+        }
+
+        private <K> void loadIndex(final DataInputStream in, final int numEntries,
+                                   final ToBytesSerialiser<K> idSerialiser, final MultiMap<K, Element> index) throws IOException {
+            final List<K> ids = new ArrayList<>(numEntries);
+            final List<Element> elements = new ArrayList<>(numEntries);
+            for (int i = 0; i < numEntries; i++) {
+                ids.add(idSerialiser.deserialise(readBytes(in)));
+                elements.add(indexSerialiser.deserialise(readBytes(in)));
+            }
+
+            synchronized (indexLock) {
+                for (int i = 0; i < numEntries; i++) {
+                    index.put(ids.get(i), elements.get(i));
+                }
+            }
+        }
+
+        private void updateIndex(final List<Element> elements) {
+            if (rebuildIndex) {
+                synchronized (indexLock) {
+                    for (final Element element : elements) {
+                        AddElementsHandler.updateElementIndex(element, mapImpl);
+                    }
+                }
+            }
+        }
+    }
+}
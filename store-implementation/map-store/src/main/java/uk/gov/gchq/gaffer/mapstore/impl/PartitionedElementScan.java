@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Scans all the elements in the requested groups of a {@link MapImpl} in parallel.
+ * <p>
+ * The elements in each group, or the candidates from the property indexes for
+ * the group, are split into partitions using their {@link Spliterator}s
+ * and each partition is processed as a task on a {@link ForkJoinPool}.
+ * The directed type filter, the view filters and transformations and any cloning of
+ * elements are all applied within the partition.
+ * </p>
+ * <p>
+ * The results are merged lazily in partition order as they are iterated. Only a
+ * few partitions for each thread in the pool are processed ahead of the
+ * iterator, and partitions are limited to {@link #MAX_PARTITION_SIZE} entries,
+ * so a full scan streams through the store rather than holding all the
+ * results in memory.
+ * </p>
+ * <p>
+ * Element filters and transformers hold state whilst they are applied, so each
+ * partition uses its own copy of the {@link View}.
+ * </p>
+ */
+final class PartitionedElementScan {
+    static final int MAX_PARTITION_SIZE = 10000;
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int PARTITIONS_AHEAD_PER_THREAD = 2;
+
+    private PartitionedElementScan() {
+    }
+
+    static CloseableIterator<Element> scan(final MapImpl mapImpl,
+                                           final Schema schema,
+                                           final View view,
+                                           final DirectedType directedType,
+                                           final ForkJoinPool pool) {
+        final List<Collection<Map.Entry<Element, GroupedProperties>>> aggEntries = new ArrayList<>();
+        final List<Collection<Map.Entry<Element, Long>>> nonAggEntries = new ArrayList<>();
+        long size = 0;
+        for (final String group : view.getGroups()) {
+            final Collection<Map.Entry<Element, GroupedProperties>> groupAggEntries = mapImpl.getAggEntries(group, view);
+            if (!groupAggEntries.isEmpty()) {
+                aggEntries.add(groupAggEntries);
+                size += groupAggEntries.size();
+            }
+            final Collection<Map.Entry<Element, Long>> groupNonAggEntries = mapImpl.getNonAggEntries(group, view);
+            if (!groupNonAggEntries.isEmpty()) {
+                nonAggEntries.add(groupNonAggEntries);
+                size += groupNonAggEntries.size();
+            }
+        }
+
+        final long partitionSize = Math.max(1, Math.min(MAX_PARTITION_SIZE, size / (pool.getParallelism() * PARTITIONS_PER_THREAD)));
+        final List<Partition<?>> partitions = new ArrayList<>();
+        for (final Collection<Map.Entry<Element, GroupedProperties>> entries : aggEntries) {
+            addPartitions(partitions, entries.spliterator(), partitionSize,
+                    split -> new Partition<>(split, entry -> Stream.of(mapImpl.toAggElement(entry)), mapImpl, schema, view, directedType));
+        }
+        for (final Collection<Map.Entry<Element, Long>> entries : nonAggEntries) {
+            addPartitions(partitions, entries.spliterator(), partitionSize,
+                    split -> new Partition<>(split, mapImpl::toNonAggElements, mapImpl, schema, view, directedType));
+        }
+
+        return new MergedPartitions(partitions, pool, pool.getParallelism() * PARTITIONS_AHEAD_PER_THREAD);
+    }
+
+    // Each split takes the prefix of the remaining entries, so adding the
+    // splits before the remainder keeps the partitions in encounter order.
+    private static <V> void addPartitions(final List<Partition<?>> partitions,
+                                          final Spliterator<Map.Entry<Element, V>> spliterator,
+                                          final long partitionSize,
+                                          final Function<Spliterator<Map.Entry<Element, V>>, Partition<V>> toPartition) {
+        Spliterator<Map.Entry<Element, V>> split;
+        while (spliterator.estimateSize() > partitionSize && null != (split = spliterator.trySplit())) {
+            addPartitions(partitions, split, partitionSize, toPartition);
+        }
+        partitions.add(toPartition.apply(spliterator));
+    }
+
+    /**
+     * Iterates over the results of the partitions in order, keeping a bounded
+     * number of partitions running on the pool ahead of the iterator.
+     */
+    private static final class MergedPartitions implements CloseableIterator<Element> {
+        private final Iterator<Partition<?>> partitions;
+        private final ForkJoinPool pool;
+        private final int maxRunning;
+        private final Deque<ForkJoinTask<List<Element>>> running = new ArrayDeque<>();
+        private Iterator<Element> current = Collections.emptyIterator();
+
+        private MergedPartitions(final List<Partition<?>> partitions, final ForkJoinPool pool, final int maxRunning) {
+            this.partitions = partitions.iterator();
+            this.pool = pool;
+            this.maxRunning = Math.max(1, maxRunning);
+            submitPartitions();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && !running.isEmpty()) {
+                current = running.poll().join().iterator();
+                submitPartitions();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() {
+            for (final ForkJoinTask<List<Element>> task : running) {
+                task.cancel(false);
+            }
+            running.clear();
+            current = Collections.emptyIterator();
+            while (partitions.hasNext()) {
+                partitions.next();
+            }
+        }
+
+        private void submitPartitions() {
+            while (running.size() < maxRunning && partitions.hasNext()) {
+                running.add(pool.submit(partitions.next()::scan));
+            }
+        }
+    }
+
+    private static final class Partition<V> {
+        private final Spliterator<Map.Entry<Element, V>> spliterator;
+        private final Function<Map.Entry<Element, V>, Stream<Element>> toElements;
+        private final MapImpl mapImpl;
+        private final Schema schema;
+        private final View view;
+        private final DirectedType directedType;
+
+        private Partition(final Spliterator<Map.Entry<Element, V>> spliterator,
+                          final Function<Map.Entry<Element, V>, Stream<Element>> toElements,
+                          final MapImpl mapImpl,
+                          final Schema schema,
+                          final View view,
+                          final DirectedType directedType) {
+            this.spliterator = spliterator;
+            this.toElements = toElements;
+            this.mapImpl = mapImpl;
+            this.schema = schema;
+            this.view = view;
+            this.directedType = directedType;
+        }
+
+        private List<Element> scan() {
+            final View partitionView = view.clone();
+            Stream<Element> elements = StreamSupport.stream(spliterator, false).flatMap(toElements);
+            elements = GetElementsUtil.applyDirectedTypeFilter(elements, partitionView.hasEdges(), directedType);
+            elements = GetElementsUtil.applyView(elements, schema, partitionView, mapImpl::toMutableElement);
+            if (!mapImpl.isReadOnlyElements()) {
+                elements = elements.map(element -> mapImpl.cloneElement(element, schema));
+            }
+            return elements.collect(Collectors.toList());
+        }
+    }
+}
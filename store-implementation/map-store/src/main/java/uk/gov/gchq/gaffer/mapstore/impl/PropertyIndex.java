@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsIn;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * A secondary index from the values of a single property to the keys of the
+ * stored elements in a group with that value.
+ * <p>
+ * A {@link Type#SORTED} index can be used to look up the candidates for
+ * {@link IsMoreThan}, {@link IsLessThan}, {@link IsEqual} and {@link IsIn}
+ * predicates, and requires the property values to be {@link Comparable}. A
+ * {@link Type#HASH} index can only be used for {@link IsEqual} and {@link IsIn}.
+ * The candidates must still be tested against the predicate. Elements with a
+ * null property value are not indexed, as none of these predicates accept null.
+ * </p>
+ */
+final class PropertyIndex {
+    enum Type {
+        SORTED, HASH
+    }
+
+    private final String group;
+    private final String property;
+    private final Type type;
+    private final Map<Object, Set<Element>> index;
+
+    PropertyIndex(final String group, final String property, final Type type) {
+        this.group = group;
+        this.property = property;
+        this.type = type;
+        if (Type.SORTED == type) {
+            index = new ConcurrentSkipListMap<>();
+        } else {
+            index = new ConcurrentHashMap<>();
+        }
+    }
+
+    void add(final Element key) {
+        final Object value = key.getProperty(property);
+        if (null == value) {
+            return;
+        }
+        if (Type.SORTED == type && !(value instanceof Comparable)) {
+            throw new IllegalArgumentException("Sorted index on property " + property + " in group " + group
+                    + " requires comparable values but found: " + value.getClass().getName());
+        }
+        index.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(key);
+    }
+
+    void clear() {
+        index.clear();
+    }
+
+    String getProperty() {
+        return property;
+    }
+
+    /**
+     * Looks up the keys of the elements that may match the predicate.
+     *
+     * @param predicate the predicate applied to the property
+     * @return the candidate element keys, or null if the index cannot be used
+     * for the predicate
+     */
+    Set<Element> lookup(final Predicate<?> predicate) {
+        if (predicate instanceof IsEqual) {
+            final Object value = ((IsEqual) predicate).getControlValue();
+            if (!isSupportedValue(value)) {
+                return null;
+            }
+            return copy(index.get(value));
+        }
+
+        if (predicate instanceof IsIn) {
+            final Collection<Object> values = ((IsIn) predicate).getAllowedValues();
+            if (null == values) {
+                return null;
+            }
+            final Set<Element> candidates = new HashSet<>();
+            for (final Object value : values) {
+                if (!isSupportedValue(value)) {
+                    return null;
+                }
+                addAll(candidates, index.get(value));
+            }
+            return candidates;
+        }
+
+        if (Type.SORTED == type && predicate instanceof IsMoreThan) {
+            final IsMoreThan isMoreThan = (IsMoreThan) predicate;
+            if (!isSupportedValue(isMoreThan.getControlValue())) {
+                return null;
+            }
+            return copy(getSortedIndex().tailMap(isMoreThan.getControlValue(), isMoreThan.getOrEqualTo()).values());
+        }
+
+        if (Type.SORTED == type && predicate instanceof IsLessThan) {
+            final IsLessThan isLessThan = (IsLessThan) predicate;
+            if (!isSupportedValue(isLessThan.getControlValue())) {
+                return null;
+            }
+            return copy(getSortedIndex().headMap(isLessThan.getControlValue(), isLessThan.getOrEqualTo()).values());
+        }
+
+        return null;
+    }
+
+    private boolean isSupportedValue(final Object value) {
+        if (null == value) {
+            return false;
+        }
+        if (Type.HASH == type) {
+            return true;
+        }
+
+        // Values of a different class cannot be compared with the sorted keys
+        final ConcurrentNavigableMap<Object, Set<Element>> sortedIndex = getSortedIndex();
+        return sortedIndex.isEmpty() || sortedIndex.firstKey().getClass().equals(value.getClass());
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConcurrentNavigableMap<Object, Set<Element>> getSortedIndex() {
+        return (ConcurrentNavigableMap<Object, Set<Element>>) index;
+    }
+
+    private static Set<Element> copy(final Set<Element> keys) {
+        final Set<Element> candidates = new HashSet<>();
+        addAll(candidates, keys);
+        return candidates;
+    }
+
+    private static Set<Element> copy(final Collection<Set<Element>> keySets) {
+        final Set<Element> candidates = new HashSet<>();
+        for (final Set<Element> keys : keySets) {
+            candidates.addAll(keys);
+        }
+        return candidates;
+    }
+
+    private static void addAll(final Set<Element> candidates, final Set<Element> keys) {
+        if (null != keys) {
+            candidates.addAll(keys);
+        }
+    }
+}
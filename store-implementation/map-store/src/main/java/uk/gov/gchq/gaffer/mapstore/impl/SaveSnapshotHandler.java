@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.mapstore.MapStore;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.operation.SaveSnapshot;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.operation.handler.OperationHandler;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * An {@link OperationHandler} for the {@link SaveSnapshot} operation on the {@link MapStore}.
+ * <p>
+ * Snapshots are only written to the directory containing the snapshot file set
+ * in the store properties. A file path on the operation must be within that
+ * directory, so an operation cannot be used to overwrite arbitrary files.
+ * </p>
+ */
+public class SaveSnapshotHandler implements OperationHandler<SaveSnapshot> {
+    @Override
+    public Void doOperation(final SaveSnapshot operation, final Context context, final Store store) throws OperationException {
+        doOperation(operation, (MapStore) store);
+        return null;
+    }
+
+    private void doOperation(final SaveSnapshot operation, final MapStore mapStore) throws OperationException {
+        final MapStoreProperties properties = mapStore.getProperties();
+        final String snapshotFile = properties.getSnapshotFile();
+        if (null == snapshotFile) {
+            throw new OperationException("Snapshots can only be saved if the "
+                    + MapStoreProperties.SNAPSHOT_FILE + " store property is set");
+        }
+        final Path filePath = getFilePath(operation, Paths.get(snapshotFile));
+        final boolean includeIndex = null != operation.getIncludeIndex() ? operation.getIncludeIndex() : properties.isSnapshotIncludeIndex();
+
+        try {
+            MapSnapshot.write(mapStore.getMapImpl(), mapStore.getSchema(), filePath, includeIndex);
+        } catch (final IOException e) {
+            throw new OperationException("Unable to write snapshot to " + filePath, e);
+        }
+    }
+
+    // Resolves the real directories, so neither relative paths nor symbolic
+    // links can be used to write outside of the snapshot directory.
+    private Path getFilePath(final SaveSnapshot operation, final Path snapshotFile) throws OperationException {
+        final Path snapshotDirectory = getRealDirectory(snapshotFile);
+        if (null == operation.getFilePath()) {
+            return snapshotDirectory.resolve(snapshotFile.getFileName());
+        }
+
+        final Path requestedFile = Paths.get(operation.getFilePath());
+        final Path requestedDirectory = getRealDirectory(requestedFile);
+        if (!requestedDirectory.startsWith(snapshotDirectory)) {
+            throw new OperationException("The snapshot file path " + operation.getFilePath()
+                    + " must be within the snapshot directory " + snapshotDirectory);
+        }
+        return requestedDirectory.resolve(requestedFile.getFileName());
+    }
+
+    private Path getRealDirectory(final Path file) throws OperationException {
+        final Path directory = file.toAbsolutePath().normalize().getParent();
+        try {
+            return directory.toRealPath();
+        } catch (final IOException e) {
+            throw new OperationException("The snapshot directory " + directory + " does not exist", e);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 public class MapOfSets<K, V> implements MultiMap<K, V> {
     private final Map<K, Set<V>> multiMap;
@@ -79,6 +80,11 @@ public class MapOfSets<K, V> implements MultiMap<K, V> {
         multiMap.clear();
     }
 
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        multiMap.forEach((key, values) -> values.forEach(value -> action.accept(key, value)));
+    }
+
     protected Set<V> createSet() {
         final Set<V> values;
         if (null == setClass) {
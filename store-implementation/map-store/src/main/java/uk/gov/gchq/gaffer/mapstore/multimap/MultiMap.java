@@ -19,6 +19,7 @@ package uk.gov.gchq.gaffer.mapstore.multimap;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 
 public interface MultiMap<K, V> {
     boolean put(K key, V value);
@@ -31,6 +32,20 @@ public interface MultiMap<K, V> {
 
     void clear();
 
+    /**
+     * Passes each key and value in the multimap to the action. Implementations
+     * should override this to read the pairs without copying the keys.
+     *
+     * @param action the action to apply to each key and value
+     */
+    default void forEach(final BiConsumer<? super K, ? super V> action) {
+        for (final K key : keySet()) {
+            for (final V value : get(key)) {
+                action.accept(key, value);
+            }
+        }
+    }
+
     default void putAll(final MultiMap<K, V> map) {
         if (map instanceof MapOfSets) {
             for (final Map.Entry<K, Set<V>> entry : ((MapOfSets<K, V>) map).entrySet()) {
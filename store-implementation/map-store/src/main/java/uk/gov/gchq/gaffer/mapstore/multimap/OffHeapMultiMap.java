@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.multimap;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.mapstore.utils.AddressTable;
+import uk.gov.gchq.gaffer.mapstore.utils.OffHeapByteStore;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * A {@link MultiMap} that holds its keys and values serialised in an {@link OffHeapByteStore}.
+ * <p>
+ * Each key/value pair is held in a single record, which also contains the
+ * address of the previous record for the same key. The values for a key can
+ * therefore be read by following the chain from the latest record. Duplicate
+ * key/value pairs are ignored, so the values for each key behave like a set.
+ * </p>
+ * <p>
+ * Every access to the multimap is guarded by a read write lock, so concurrent
+ * readers are safe alongside a writer and writers are applied one at a time.
+ * </p>
+ */
+public class OffHeapMultiMap<K, V> implements MultiMap<K, V> {
+    private static final int PREVIOUS = 0;
+    private static final int KEY_LENGTH = 8;
+    private static final int VALUE_LENGTH = 12;
+    private static final int KEY_BYTES = 16;
+
+    private final OffHeapByteStore store;
+    private final ToBytesSerialiser<K> keySerialiser;
+    private final ToBytesSerialiser<V> valueSerialiser;
+    private final AddressTable heads = new AddressTable();
+    private final AddressTable pairs = new AddressTable();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public OffHeapMultiMap(final OffHeapByteStore store,
+                           final ToBytesSerialiser<K> keySerialiser,
+                           final ToBytesSerialiser<V> valueSerialiser) {
+        this.store = store;
+        this.keySerialiser = keySerialiser;
+        this.valueSerialiser = valueSerialiser;
+        store.scan(this::reindex);
+    }
+
+    @Override
+    public boolean put(final K key, final V value) {
+        final byte[] keyBytes = serialise(keySerialiser, key);
+        final byte[] valueBytes = serialise(valueSerialiser, value);
+        final int keyHash = Arrays.hashCode(keyBytes);
+        final int pairHash = pairHash(keyHash, valueBytes);
+        final LongPredicate pairMatches = pairMatches(keyBytes, valueBytes);
+        final LongPredicate keyMatches = keyMatches(keyBytes);
+        lock.writeLock().lock();
+        try {
+            if (AddressTable.NO_ADDRESS != pairs.get(pairHash, pairMatches)) {
+                return false;
+            }
+
+            final long address = store.allocate(KEY_BYTES + keyBytes.length + valueBytes.length);
+            store.putLong(address, PREVIOUS, heads.get(keyHash, keyMatches));
+            store.putInt(address, KEY_LENGTH, keyBytes.length);
+            store.putInt(address, VALUE_LENGTH, valueBytes.length);
+            store.putBytes(address, KEY_BYTES, keyBytes);
+            store.putBytes(address, KEY_BYTES + keyBytes.length, valueBytes);
+            heads.put(keyHash, address, keyMatches);
+            pairs.put(pairHash, address, pairMatches);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(final K key, final Collection<V> values) {
+        for (final V value : values) {
+            put(key, value);
+        }
+    }
+
+    @Override
+    public Collection<V> get(final K key) {
+        final byte[] keyBytes;
+        try {
+            keyBytes = keySerialiser.serialise(key);
+        } catch (final ClassCastException | SerialisationException e) {
+            return null;
+        }
+
+        final List<byte[]> valueBytes = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long address = heads.get(Arrays.hashCode(keyBytes), keyMatches(keyBytes));
+            if (AddressTable.NO_ADDRESS == address) {
+                return null;
+            }
+
+            while (AddressTable.NO_ADDRESS != address) {
+                valueBytes.add(store.getBytes(address, KEY_BYTES + keyBytes.length, store.getInt(address, VALUE_LENGTH)));
+                address = store.getLong(address, PREVIOUS);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        final List<V> values = new ArrayList<>(valueBytes.size());
+        for (final byte[] bytes : valueBytes) {
+            values.add(deserialise(valueSerialiser, bytes));
+        }
+        return values;
+    }
+
+    /**
+     * @return a copy of the keys in the multimap
+     */
+    @Override
+    public Set<K> keySet() {
+        lock.readLock().lock();
+        try {
+            final Set<K> keys = new HashSet<>(heads.size());
+            heads.forEach(address -> keys.add(deserialise(keySerialiser, readKeyBytes(address))));
+            return keys;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            heads.clear();
+            pairs.clear();
+            store.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Passes each key and value to the action by scanning the records in the
+     * store, so the keys are not copied onto the heap first.
+     *
+     * @param action the action to apply to each key and value
+     */
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        lock.readLock().lock();
+        try {
+            store.scan(address -> {
+                final byte[] keyBytes = readKeyBytes(address);
+                final byte[] valueBytes = store.getBytes(address, KEY_BYTES + keyBytes.length, store.getInt(address, VALUE_LENGTH));
+                action.accept(deserialise(keySerialiser, keyBytes), deserialise(valueSerialiser, valueBytes));
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reindex(final long address) {
+        final byte[] keyBytes = readKeyBytes(address);
+        final byte[] valueBytes = store.getBytes(address, KEY_BYTES + keyBytes.length, store.getInt(address, VALUE_LENGTH));
+        final int keyHash = Arrays.hashCode(keyBytes);
+        heads.put(keyHash, address, keyMatches(keyBytes));
+        pairs.put(pairHash(keyHash, valueBytes), address, pairMatches(keyBytes, valueBytes));
+    }
+
+    private LongPredicate keyMatches(final byte[] keyBytes) {
+        return address -> keyBytes.length == store.getInt(address, KEY_LENGTH)
+                && store.bytesEqual(address, KEY_BYTES, keyBytes);
+    }
+
+    private LongPredicate pairMatches(final byte[] keyBytes, final byte[] valueBytes) {
+        return address -> valueBytes.length == store.getInt(address, VALUE_LENGTH)
+                && keyBytes.length == store.getInt(address, KEY_LENGTH)
+                && store.bytesEqual(address, KEY_BYTES, keyBytes)
+                && store.bytesEqual(address, KEY_BYTES + keyBytes.length, valueBytes);
+    }
+
+    private byte[] readKeyBytes(final long address) {
+        return store.getBytes(address, KEY_BYTES, store.getInt(address, KEY_LENGTH));
+    }
+
+    private static int pairHash(final int keyHash, final byte[] valueBytes) {
+        return 31 * keyHash + Arrays.hashCode(valueBytes);
+    }
+
+    private static <T> byte[] serialise(final ToBytesSerialiser<T> serialiser, final T object) {
+        try {
+            return serialiser.serialise(object);
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("Unable to serialise " + object, e);
+        }
+    }
+
+    private static <T> T deserialise(final ToBytesSerialiser<T> serialiser, final byte[] bytes) {
+        try {
+            return serialiser.deserialise(bytes);
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("Unable to deserialise bytes", e);
+        }
+    }
+}
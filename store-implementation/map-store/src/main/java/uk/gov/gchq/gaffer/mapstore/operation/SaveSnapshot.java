@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.operation;
+
+import uk.gov.gchq.gaffer.operation.Operation;
+
+/**
+ * The <code>SaveSnapshot</code> operation writes a snapshot of all the elements
+ * held in a {@link uk.gov.gchq.gaffer.mapstore.MapStore} to a local file, so
+ * the store can be quickly restored when it is next initialised.
+ * <p>
+ * If the file path or whether to include the index are not set, the values of
+ * the "gaffer.store.mapstore.snapshot.file" and
+ * "gaffer.store.mapstore.snapshot.includeIndex" store properties are used.
+ * The snapshot file store property must always be set, and a file path set on
+ * the operation must be within the same directory as that file.
+ * </p>
+ *
+ * @see SaveSnapshot.Builder
+ */
+public class SaveSnapshot implements Operation {
+    private String filePath;
+    private Boolean includeIndex;
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(final String filePath) {
+        this.filePath = filePath;
+    }
+
+    public Boolean getIncludeIndex() {
+        return includeIndex;
+    }
+
+    public void setIncludeIndex(final Boolean includeIndex) {
+        this.includeIndex = includeIndex;
+    }
+
+    public static class Builder extends Operation.BaseBuilder<SaveSnapshot, Builder> {
+        public Builder() {
+            super(new SaveSnapshot());
+        }
+
+        public Builder filePath(final String filePath) {
+            _getOp().setFilePath(filePath);
+            return _self();
+        }
+
+        public Builder includeIndex(final Boolean includeIndex) {
+            _getOp().setIncludeIndex(includeIndex);
+            return _self();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.serialiser;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.serialiser.lengthvalue.ElementSerialiser;
+
+/**
+ * An {@link ElementSerialiser} for the element keys held by the
+ * {@link uk.gov.gchq.gaffer.mapstore.impl.MapImpl}.
+ * <p>
+ * The length value serialisers write every property in the schema, so
+ * properties that were not set are deserialised as empty values. This
+ * removes the properties that are not held by the element keys of
+ * aggregated groups, which are just the group by properties.
+ * </p>
+ */
+public class ElementKeySerialiser extends ElementSerialiser {
+    private static final long serialVersionUID = 3393446519578591276L;
+
+    public ElementKeySerialiser(final Schema schema) {
+        super(schema);
+    }
+
+    @Override
+    public Element deserialise(final byte[] bytes) throws SerialisationException {
+        final Element element = super.deserialise(bytes);
+        final SchemaElementDefinition elementDef = schema.getElement(element.getGroup());
+        if (elementDef.isAggregate()) {
+            element.getProperties().keySet().retainAll(elementDef.getGroupBy());
+        }
+        return element;
+    }
+}
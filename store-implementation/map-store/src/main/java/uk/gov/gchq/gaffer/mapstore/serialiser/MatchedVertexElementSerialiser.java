@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.serialiser;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import java.util.Arrays;
+
+/**
+ * An {@link ElementKeySerialiser} that also serialises the matched vertex of
+ * edges, which is required for the edges held in the indices.
+ */
+public class MatchedVertexElementSerialiser extends ElementKeySerialiser {
+    private static final long serialVersionUID = -2916476392402185426L;
+    private static final byte NO_MATCHED_VERTEX = 0;
+    private static final byte MATCHED_SOURCE = 1;
+    private static final byte MATCHED_DESTINATION = 2;
+
+    public MatchedVertexElementSerialiser(final Schema schema) {
+        super(schema);
+    }
+
+    @Override
+    public byte[] serialise(final Element element) throws SerialisationException {
+        final byte[] elementBytes = super.serialise(element);
+        final byte[] bytes = Arrays.copyOf(elementBytes, elementBytes.length + 1);
+        byte matchedVertex = NO_MATCHED_VERTEX;
+        if (element instanceof Edge && null != ((Edge) element).getMatchedVertex()) {
+            matchedVertex = EdgeId.MatchedVertex.DESTINATION == ((Edge) element).getMatchedVertex()
+                    ? MATCHED_DESTINATION : MATCHED_SOURCE;
+        }
+        bytes[elementBytes.length] = matchedVertex;
+        return bytes;
+    }
+
+    @Override
+    public Element deserialise(final byte[] bytes) throws SerialisationException {
+        final Element element = super.deserialise(Arrays.copyOf(bytes, bytes.length - 1));
+        final byte matchedVertex = bytes[bytes.length - 1];
+        if (element instanceof Edge && NO_MATCHED_VERTEX != matchedVertex) {
+            final Edge edge = (Edge) element;
+            edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(),
+                    MATCHED_DESTINATION == matchedVertex ? EdgeId.MatchedVertex.DESTINATION : EdgeId.MatchedVertex.SOURCE);
+        }
+        return element;
+    }
+}
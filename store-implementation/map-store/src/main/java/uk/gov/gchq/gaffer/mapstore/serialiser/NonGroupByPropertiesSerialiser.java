@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.serialiser;
+
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.serialiser.lengthvalue.GroupedPropertiesSerialiser;
+
+/**
+ * A {@link GroupedPropertiesSerialiser} for the aggregated properties held by
+ * the {@link uk.gov.gchq.gaffer.mapstore.impl.MapImpl}. The group by properties
+ * are removed when deserialising, as these are held in the element keys.
+ */
+public class NonGroupByPropertiesSerialiser extends GroupedPropertiesSerialiser {
+    private static final long serialVersionUID = -6236906178787838436L;
+
+    public NonGroupByPropertiesSerialiser(final Schema schema) {
+        super(schema);
+    }
+
+    @Override
+    public GroupedProperties deserialise(final byte[] bytes) throws SerialisationException {
+        final GroupedProperties properties = super.deserialise(bytes);
+        properties.keySet().removeAll(schema.getElement(properties.getGroup()).getGroupBy());
+        return properties;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * An open addressing hash table of record addresses in an {@link OffHeapByteStore}.
+ * The table only holds primitive arrays, so it adds very little work for the
+ * garbage collector regardless of the number of records. Equality of records
+ * is decided by a predicate provided by the caller, which normally compares
+ * the serialised bytes held in the store.
+ */
+public class AddressTable {
+    public static final long NO_ADDRESS = -1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] addresses;
+    private int[] hashes;
+    private int size;
+
+    public AddressTable() {
+        init(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param hash    the hash of the record
+     * @param matches tests whether the record at an address is the one required
+     * @return the address of the matching record or {@link #NO_ADDRESS}
+     */
+    public long get(final int hash, final LongPredicate matches) {
+        return addresses[findSlot(hash, matches)];
+    }
+
+    /**
+     * Adds an address to the table, replacing the address of any matching record.
+     *
+     * @param hash    the hash of the record
+     * @param address the address of the record
+     * @param matches tests whether the record at an address is equal to the new record
+     * @return the previous address or {@link #NO_ADDRESS}
+     */
+    public long put(final int hash, final long address, final LongPredicate matches) {
+        final int slot = findSlot(hash, matches);
+        final long previous = addresses[slot];
+        addresses[slot] = address;
+        hashes[slot] = hash;
+        if (NO_ADDRESS == previous) {
+            size++;
+            if (size > addresses.length * LOAD_FACTOR) {
+                resize();
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * @param hash    the hash of the record
+     * @param matches tests whether the record at an address is the one to remove
+     * @return the removed address or {@link #NO_ADDRESS}
+     */
+    public long remove(final int hash, final LongPredicate matches) {
+        int slot = findSlot(hash, matches);
+        final long removed = addresses[slot];
+        if (NO_ADDRESS == removed) {
+            return NO_ADDRESS;
+        }
+
+        // Shift back any following entries so linear probing still finds them
+        final int mask = addresses.length - 1;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (NO_ADDRESS == addresses[next]) {
+                break;
+            }
+            final int ideal = spread(hashes[next]) & mask;
+            if ((next > slot && (ideal <= slot || ideal > next))
+                    || (next < slot && ideal <= slot && ideal > next)) {
+                addresses[slot] = addresses[next];
+                hashes[slot] = hashes[next];
+                slot = next;
+            }
+        }
+        addresses[slot] = NO_ADDRESS;
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(final LongConsumer consumer) {
+        for (final long address : addresses) {
+            if (NO_ADDRESS != address) {
+                consumer.accept(address);
+            }
+        }
+    }
+
+    /**
+     * Gets a copy of all the addresses in the table. This allows the addresses
+     * to be iterated over lazily.
+     *
+     * @return the addresses in the table
+     */
+    public long[] getAddresses() {
+        final long[] result = new long[size];
+        final int[] index = {0};
+        forEach(address -> result[index[0]++] = address);
+        return result;
+    }
+
+    public void clear() {
+        init(INITIAL_CAPACITY);
+    }
+
+    private int findSlot(final int hash, final LongPredicate matches) {
+        final int mask = addresses.length - 1;
+        int slot = spread(hash) & mask;
+        while (NO_ADDRESS != addresses[slot]
+                && (hashes[slot] != hash || !matches.test(addresses[slot]))) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        final long[] oldAddresses = addresses;
+        final int[] oldHashes = hashes;
+        init(oldAddresses.length * 2);
+        final int mask = addresses.length - 1;
+        for (int i = 0; i < oldAddresses.length; i++) {
+            if (NO_ADDRESS != oldAddresses[i]) {
+                int slot = spread(oldHashes[i]) & mask;
+                while (NO_ADDRESS != addresses[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                addresses[slot] = oldAddresses[i];
+                hashes[slot] = oldHashes[i];
+                size++;
+            }
+        }
+    }
+
+    private void init(final int capacity) {
+        addresses = new long[capacity];
+        Arrays.fill(addresses, NO_ADDRESS);
+        hashes = new int[capacity];
+        size = 0;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -18,32 +18,48 @@ package uk.gov.gchq.gaffer.mapstore.utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.serialisation.Serialiser;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import java.util.Map;
 
 public class ElementCloner {
     private static final Logger LOGGER = LoggerFactory.getLogger(ElementCloner.class);
 
     public Element cloneElement(final Element element, final Schema schema) {
+        final Element clone = element.emptyClone();
+        final SchemaElementDefinition sed = schema.getElement(clone.getGroup());
+        for (final String propertyName : element.getProperties().keySet()) {
+            clone.putProperty(propertyName, cloneProperty(propertyName, element.getProperty(propertyName), sed));
+        }
+        return clone;
+    }
+
+    public GroupedProperties cloneProperties(final GroupedProperties properties, final Schema schema) {
+        final GroupedProperties clone = new GroupedProperties(properties.getGroup());
+        final SchemaElementDefinition sed = schema.getElement(properties.getGroup());
+        for (final Map.Entry<String, Object> entry : properties.entrySet()) {
+            clone.put(entry.getKey(), cloneProperty(entry.getKey(), entry.getValue(), sed));
+        }
+        return clone;
+    }
+
+    private Object cloneProperty(final String propertyName, final Object property, final SchemaElementDefinition sed) {
+        if (null == sed.getPropertyTypeDef(propertyName) || null == sed.getPropertyTypeDef(propertyName).getSerialiser()) {
+            // This can happen if transient properties are derived - they will not have serialisers.
+            LOGGER.warn("Can't find Serialisation for {}, returning uncloned property", propertyName);
+            return property;
+        }
+
+        if (null == property) {
+            return null;
+        }
+
         try {
-            final Element clone = element.emptyClone();
-            final SchemaElementDefinition sed = schema.getElement(clone.getGroup());
-            for (final String propertyName : element.getProperties().keySet()) {
-                final Object property = element.getProperty(propertyName);
-                if (null == sed.getPropertyTypeDef(propertyName) || null == sed.getPropertyTypeDef(propertyName).getSerialiser()) {
-                    // This can happen if transient properties are derived - they will not have serialisers.
-                    LOGGER.warn("Can't find Serialisation for {}, returning uncloned property", propertyName);
-                    clone.putProperty(propertyName, property);
-                } else if (null != property) {
-                    final Serialiser serialiser = sed.getPropertyTypeDef(propertyName).getSerialiser();
-                    clone.putProperty(propertyName, serialiser.deserialise(serialiser.serialise(property)));
-                } else {
-                    clone.putProperty(propertyName, null);
-                }
-            }
-            return clone;
+            final Serialiser serialiser = sed.getPropertyTypeDef(propertyName).getSerialiser();
+            return serialiser.deserialise(serialiser.serialise(property));
         } catch (final SerialisationException e) {
             throw new RuntimeException("SerialisationException converting elements", e);
         }
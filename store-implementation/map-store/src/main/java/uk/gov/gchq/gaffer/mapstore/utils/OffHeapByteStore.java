@@ -0,0 +1,337 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+
+/**
+ * An append only store of byte records held outside of the Java heap, either
+ * in direct {@link ByteBuffer}s or in memory mapped files.
+ * <p>
+ * Records are allocated in segments. The first segment is small and each new
+ * segment doubles in size up to the maximum segment size. Each record is
+ * prefixed with its size so the records can be scanned, which allows a store
+ * backed by files to be reopened. A record is identified by its address, which
+ * encodes the segment index in the upper 32 bits and the offset of the record
+ * within the segment in the lower 32 bits.
+ * </p>
+ * <p>
+ * Records are never freed individually. Instead the store can be compacted,
+ * which copies the records that are still live into new segments and releases
+ * the old segments.
+ * </p>
+ * <p>
+ * Records can be read concurrently, but allocating and writing records must
+ * be done from a single thread.
+ * </p>
+ */
+public class OffHeapByteStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapByteStore.class);
+    private static final int INITIAL_SEGMENT_SIZE = 64 * 1024;
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final String SEGMENT_FILE_EXTENSION = ".seg";
+    private static final String COMPACTION_SUFFIX = ".compact";
+
+    private final Path directory;
+    private final String name;
+    private final int maxSegmentSize;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private int position;
+
+    /**
+     * Creates a store backed by direct {@link ByteBuffer}s.
+     *
+     * @param maxSegmentSize the maximum size of each segment in bytes
+     */
+    public OffHeapByteStore(final int maxSegmentSize) {
+        this(null, null, maxSegmentSize, false);
+    }
+
+    /**
+     * Creates a store backed by memory mapped files in the provided directory.
+     * If the directory is null then direct {@link ByteBuffer}s are used instead.
+     *
+     * @param directory      the directory to hold the segment files
+     * @param name           the name of the store, used as a prefix for the segment files
+     * @param maxSegmentSize the maximum size of each segment in bytes
+     * @param reopen         if true any existing segment files are reopened, otherwise they are deleted
+     */
+    public OffHeapByteStore(final Path directory, final String name, final int maxSegmentSize, final boolean reopen) {
+        if (maxSegmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Max segment size must be greater than " + HEADER_SIZE + ": " + maxSegmentSize);
+        }
+        this.directory = directory;
+        this.name = name;
+        this.maxSegmentSize = maxSegmentSize;
+
+        if (null != directory) {
+            if (reopen) {
+                reopenSegments();
+            } else {
+                deleteSegmentFiles();
+            }
+        }
+    }
+
+    /**
+     * Allocates a new record. The contents of the record are initially zero.
+     *
+     * @param size the number of bytes required
+     * @return the address of the new record
+     */
+    public long allocate(final int size) {
+        final int recordSize = HEADER_SIZE + size;
+        if (recordSize > maxSegmentSize || recordSize < HEADER_SIZE) {
+            throw new IllegalArgumentException("Record of size " + size + " bytes is larger than the max segment size of " + maxSegmentSize + " bytes");
+        }
+
+        if (segments.isEmpty() || position + recordSize > segments.get(segments.size() - 1).capacity()) {
+            addSegment(recordSize);
+        }
+
+        final int segmentIndex = segments.size() - 1;
+        segments.get(segmentIndex).putInt(position, recordSize);
+        final long address = toAddress(segmentIndex, position + HEADER_SIZE);
+        position += recordSize;
+        return address;
+    }
+
+    /**
+     * @param address the address of the record
+     * @return the number of bytes allocated for the record
+     */
+    public int getSize(final long address) {
+        return getSegment(address).getInt(getOffset(address) - HEADER_SIZE) - HEADER_SIZE;
+    }
+
+    public int getInt(final long address, final int offset) {
+        return getSegment(address).getInt(getOffset(address) + offset);
+    }
+
+    public void putInt(final long address, final int offset, final int value) {
+        getSegment(address).putInt(getOffset(address) + offset, value);
+    }
+
+    public long getLong(final long address, final int offset) {
+        return getSegment(address).getLong(getOffset(address) + offset);
+    }
+
+    public void putLong(final long address, final int offset, final long value) {
+        getSegment(address).putLong(getOffset(address) + offset, value);
+    }
+
+    public byte[] getBytes(final long address, final int offset, final int length) {
+        final ByteBuffer buffer = getSegment(address).duplicate();
+        buffer.position(getOffset(address) + offset);
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    public void putBytes(final long address, final int offset, final byte[] bytes) {
+        final ByteBuffer buffer = getSegment(address).duplicate();
+        buffer.position(getOffset(address) + offset);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Compares the bytes at the given position with the provided bytes,
+     * without copying them on to the heap.
+     *
+     * @param address the address of the record
+     * @param offset  the offset of the bytes within the record
+     * @param bytes   the bytes to compare
+     * @return true if the bytes are equal
+     */
+    public boolean bytesEqual(final long address, final int offset, final byte[] bytes) {
+        final ByteBuffer segment = getSegment(address);
+        final int start = getOffset(address) + offset;
+        for (int i = 0; i < bytes.length; i++) {
+            if (segment.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calls the consumer with the address of every record in the store, in
+     * the order the records were allocated.
+     *
+     * @param consumer the consumer of the record addresses
+     */
+    public void scan(final LongConsumer consumer) {
+        for (int segmentIndex = 0; segmentIndex < segments.size(); segmentIndex++) {
+            final ByteBuffer segment = segments.get(segmentIndex);
+            int offset = 0;
+            while (offset + HEADER_SIZE <= segment.capacity()) {
+                final int recordSize = segment.getInt(offset);
+                if (recordSize < HEADER_SIZE) {
+                    break;
+                }
+                consumer.accept(toAddress(segmentIndex, offset + HEADER_SIZE));
+                offset += recordSize;
+            }
+        }
+    }
+
+    /**
+     * Copies the live records into new segments, in the order they were
+     * allocated, and then releases the old segments. The addresses of the
+     * records change, so any addresses held by the caller must be rebuilt, for
+     * example by scanning the store again.
+     * <p>
+     * For a store backed by files the new segments are written to temporary
+     * files which then replace the existing segment files.
+     * </p>
+     *
+     * @param isLive the predicate used to decide whether a record should be kept
+     */
+    public void compact(final LongPredicate isLive) {
+        final OffHeapByteStore compacted = new OffHeapByteStore(directory, null == name ? null : name + COMPACTION_SUFFIX, maxSegmentSize, false);
+        scan(address -> {
+            if (isLive.test(address)) {
+                final int size = getSize(address);
+                compacted.putBytes(compacted.allocate(size), 0, getBytes(address, 0, size));
+            }
+        });
+
+        final int previousSegments = segments.size();
+        segments.clear();
+        segments.addAll(compacted.segments);
+        position = compacted.position;
+        if (null != directory) {
+            replaceSegmentFiles(compacted, previousSegments);
+        }
+        LOGGER.debug("Compacted {} from {} segments to {} segments", name, previousSegments, segments.size());
+    }
+
+    /**
+     * Releases all the segments and deletes any segment files.
+     */
+    public void clear() {
+        segments.clear();
+        position = 0;
+        if (null != directory) {
+            deleteSegmentFiles();
+        }
+    }
+
+    private void addSegment(final int minSize) {
+        final int previousSize = segments.isEmpty() ? INITIAL_SEGMENT_SIZE / 2 : segments.get(segments.size() - 1).capacity();
+        final int size = Math.max(minSize, (int) Math.min((long) previousSize * 2, maxSegmentSize));
+        if (null == directory) {
+            segments.add(ByteBuffer.allocateDirect(size));
+        } else {
+            segments.add(mapSegmentFile(getSegmentFile(segments.size()), size));
+        }
+        position = 0;
+    }
+
+    private void reopenSegments() {
+        Path file = getSegmentFile(0);
+        while (Files.exists(file)) {
+            try {
+                segments.add(mapSegmentFile(file, (int) Files.size(file)));
+            } catch (final IOException e) {
+                throw new IllegalArgumentException("Unable to reopen segment file " + file, e);
+            }
+            file = getSegmentFile(segments.size());
+        }
+
+        if (!segments.isEmpty()) {
+            final ByteBuffer lastSegment = segments.get(segments.size() - 1);
+            position = 0;
+            while (position + HEADER_SIZE <= lastSegment.capacity()) {
+                final int recordSize = lastSegment.getInt(position);
+                if (recordSize < HEADER_SIZE) {
+                    break;
+                }
+                position += recordSize;
+            }
+            LOGGER.debug("Reopened {} segments for {}", segments.size(), name);
+        }
+    }
+
+    // The mapped buffers remain valid when their files are moved, so the
+    // compacted files can simply be moved over the existing segment files.
+    private void replaceSegmentFiles(final OffHeapByteStore compacted, final int previousSegments) {
+        for (int segmentIndex = 0; segmentIndex < segments.size(); segmentIndex++) {
+            try {
+                Files.move(compacted.getSegmentFile(segmentIndex), getSegmentFile(segmentIndex), StandardCopyOption.REPLACE_EXISTING);
+            } catch (final IOException e) {
+                throw new IllegalArgumentException("Unable to replace segment file " + getSegmentFile(segmentIndex), e);
+            }
+        }
+        for (int segmentIndex = segments.size(); segmentIndex < previousSegments; segmentIndex++) {
+            try {
+                Files.deleteIfExists(getSegmentFile(segmentIndex));
+            } catch (final IOException e) {
+                LOGGER.warn("Unable to delete segment file {}", getSegmentFile(segmentIndex), e);
+            }
+        }
+    }
+
+    private ByteBuffer mapSegmentFile(final Path file, final int size) {
+        try (final RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (final IOException e) {
+            throw new IllegalArgumentException("Unable to map segment file " + file, e);
+        }
+    }
+
+    private void deleteSegmentFiles() {
+        int segmentIndex = 0;
+        Path file = getSegmentFile(segmentIndex);
+        while (Files.exists(file)) {
+            try {
+                Files.delete(file);
+            } catch (final IOException e) {
+                LOGGER.warn("Unable to delete segment file {}", file, e);
+            }
+            file = getSegmentFile(++segmentIndex);
+        }
+    }
+
+    private Path getSegmentFile(final int segmentIndex) {
+        return directory.resolve(name + "-" + segmentIndex + SEGMENT_FILE_EXTENSION);
+    }
+
+    private ByteBuffer getSegment(final long address) {
+        return segments.get((int) (address >>> 32));
+    }
+
+    private static int getOffset(final long address) {
+        return (int) address;
+    }
+
+    private static long toAddress(final int segmentIndex, final int offset) {
+        return ((long) segmentIndex << 32) | offset;
+    }
+}
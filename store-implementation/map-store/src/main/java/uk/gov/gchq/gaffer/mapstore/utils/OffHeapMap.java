@@ -0,0 +1,475 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.LongPredicate;
+
+/**
+ * A {@link java.util.Map} that holds its keys and values serialised in an {@link OffHeapByteStore}.
+ * <p>
+ * Keys are compared using their serialised form, so the key serialiser must
+ * always produce the same bytes for equal keys. Values are deserialised each
+ * time they are read, so the returned values are copies and changes to them
+ * are not reflected in the map until they are put back. Keys and values of
+ * the entries returned by {@link #entrySet()} are only deserialised when they
+ * are requested.
+ * </p>
+ * <p>
+ * Each record in the store holds the key length, the capacity for the value,
+ * the value length, the key bytes and then the value bytes. If an updated value
+ * fits in the existing capacity it is written in place, otherwise a new record
+ * is appended. As the latest record for a key is always the live one, the map
+ * can be rebuilt by scanning the store.
+ * </p>
+ * <p>
+ * The space used by records that have been replaced or removed is reclaimed by
+ * compacting the store once the dead records take up more space than the live
+ * records.
+ * </p>
+ * <p>
+ * Every access to the map is guarded by a read write lock, so concurrent
+ * readers are safe alongside a writer and writers are applied one at a time.
+ * The entries returned by {@link #entrySet()} are read from the store when
+ * they are requested, so they reflect updates made since the iteration began.
+ * Compaction moves the records, so if the map is compacted or cleared whilst
+ * its entries are being iterated the iterator fails with a
+ * {@link ConcurrentModificationException}, as the iterators of a
+ * {@link java.util.HashMap} do.
+ * </p>
+ */
+public class OffHeapMap<K, V> extends AbstractMap<K, V> {
+    private static final int KEY_LENGTH = 0;
+    private static final int VALUE_CAPACITY = 4;
+    private static final int VALUE_LENGTH = 8;
+    private static final int KEY_BYTES = 12;
+    private static final int REMOVED = -1;
+    private static final long MIN_COMPACTION_BYTES = 1024 * 1024;
+
+    private final OffHeapByteStore store;
+    private final ToBytesSerialiser<K> keySerialiser;
+    private final ToBytesSerialiser<V> valueSerialiser;
+    private final AddressTable table = new AddressTable();
+    private final long minCompactionBytes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long liveBytes;
+    private long deadBytes;
+    private int moves;
+
+    public OffHeapMap(final OffHeapByteStore store,
+                      final ToBytesSerialiser<K> keySerialiser,
+                      final ToBytesSerialiser<V> valueSerialiser) {
+        this(store, keySerialiser, valueSerialiser, MIN_COMPACTION_BYTES);
+    }
+
+    /**
+     * @param store              the store to hold the records
+     * @param keySerialiser      the serialiser for the keys
+     * @param valueSerialiser    the serialiser for the values
+     * @param minCompactionBytes the minimum number of bytes of dead records before the store is compacted
+     */
+    public OffHeapMap(final OffHeapByteStore store,
+                      final ToBytesSerialiser<K> keySerialiser,
+                      final ToBytesSerialiser<V> valueSerialiser,
+                      final long minCompactionBytes) {
+        this.store = store;
+        this.keySerialiser = keySerialiser;
+        this.valueSerialiser = valueSerialiser;
+        this.minCompactionBytes = minCompactionBytes;
+        store.scan(this::reindex);
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return table.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        final byte[] keyBytes = serialiseKeyOrNull(key);
+        if (null == keyBytes) {
+            return false;
+        }
+
+        lock.readLock().lock();
+        try {
+            return AddressTable.NO_ADDRESS != table.get(hash(keyBytes), matches(keyBytes));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public V get(final Object key) {
+        final byte[] keyBytes = serialiseKeyOrNull(key);
+        if (null == keyBytes) {
+            return null;
+        }
+
+        final byte[] valueBytes;
+        lock.readLock().lock();
+        try {
+            final long address = table.get(hash(keyBytes), matches(keyBytes));
+            valueBytes = AddressTable.NO_ADDRESS == address ? null : readValueBytes(address);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return null == valueBytes ? null : deserialise(valueSerialiser, valueBytes);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        final byte[] keyBytes = serialise(keySerialiser, key);
+        final byte[] newValueBytes = serialise(valueSerialiser, value);
+        final int hash = hash(keyBytes);
+        final byte[] valueBytes;
+        lock.writeLock().lock();
+        try {
+            final long address = table.get(hash, matches(keyBytes));
+            valueBytes = AddressTable.NO_ADDRESS == address ? null : readValueBytes(address);
+            write(keyBytes, hash, address, newValueBytes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return null == valueBytes ? null : deserialise(valueSerialiser, valueBytes);
+    }
+
+    /**
+     * Merges the value with any existing value, serialising the key only once.
+     *
+     * @param key               the key
+     * @param value             the value to merge
+     * @param remappingFunction the function to merge an existing value with the new value
+     * @return the new value
+     */
+    @Override
+    public V merge(final K key, final V value, final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        final byte[] keyBytes = serialise(keySerialiser, key);
+        final int hash = hash(keyBytes);
+        lock.writeLock().lock();
+        try {
+            final long address = table.get(hash, matches(keyBytes));
+            final V newValue = AddressTable.NO_ADDRESS == address ? value : remappingFunction.apply(readValue(address), value);
+            if (null == newValue) {
+                remove(key);
+            } else {
+                write(keyBytes, hash, address, serialise(valueSerialiser, newValue));
+            }
+            return newValue;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final byte[] keyBytes = serialiseKeyOrNull(key);
+        if (null == keyBytes) {
+            return null;
+        }
+
+        final byte[] valueBytes;
+        lock.writeLock().lock();
+        try {
+            final long address = table.remove(hash(keyBytes), matches(keyBytes));
+            if (AddressTable.NO_ADDRESS == address) {
+                return null;
+            }
+
+            valueBytes = readValueBytes(address);
+            markRemoved(address);
+            compactIfRequired();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return deserialise(valueSerialiser, valueBytes);
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            table.clear();
+            store.clear();
+            liveBytes = 0;
+            deadBytes = 0;
+            moves++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Compacts the store, reclaiming the space used by records that have
+     * been replaced or removed.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            store.compact(address -> REMOVED != store.getInt(address, VALUE_LENGTH));
+            table.clear();
+            liveBytes = 0;
+            deadBytes = 0;
+            moves++;
+            store.scan(this::reindex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of bytes used by records that have been replaced or removed
+     */
+    public long getDeadBytes() {
+        lock.readLock().lock();
+        try {
+            return deadBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Passes each key and value to the action by scanning the live records in
+     * the store, without taking a copy of the record addresses. The map cannot
+     * be updated until the scan has finished.
+     *
+     * @param action the action to apply to each key and value
+     */
+    @Override
+    public void forEach(final BiConsumer<? super K, ? super V> action) {
+        lock.readLock().lock();
+        try {
+            store.scan(address -> {
+                if (REMOVED != store.getInt(address, VALUE_LENGTH)) {
+                    action.accept(deserialise(keySerialiser, readKeyBytes(address)), readValue(address));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final long[] addresses;
+                final int expectedMoves;
+                lock.readLock().lock();
+                try {
+                    addresses = table.getAddresses();
+                    expectedMoves = moves;
+                } finally {
+                    lock.readLock().unlock();
+                }
+                return new Iterator<Entry<K, V>>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < addresses.length;
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return new LazyEntry(addresses[index++], expectedMoves);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return OffHeapMap.this.size();
+            }
+        };
+    }
+
+    private void write(final byte[] keyBytes, final int hash, final long address, final byte[] valueBytes) {
+        if (AddressTable.NO_ADDRESS != address && valueBytes.length <= store.getInt(address, VALUE_CAPACITY)) {
+            store.putBytes(address, KEY_BYTES + keyBytes.length, valueBytes);
+            store.putInt(address, VALUE_LENGTH, valueBytes.length);
+        } else {
+            final long newAddress = store.allocate(KEY_BYTES + keyBytes.length + valueBytes.length);
+            store.putInt(newAddress, KEY_LENGTH, keyBytes.length);
+            store.putInt(newAddress, VALUE_CAPACITY, valueBytes.length);
+            store.putInt(newAddress, VALUE_LENGTH, valueBytes.length);
+            store.putBytes(newAddress, KEY_BYTES, keyBytes);
+            store.putBytes(newAddress, KEY_BYTES + keyBytes.length, valueBytes);
+            table.put(hash, newAddress, matches(keyBytes));
+            liveBytes += store.getSize(newAddress);
+            if (AddressTable.NO_ADDRESS != address) {
+                markRemoved(address);
+                compactIfRequired();
+            }
+        }
+    }
+
+    private void markRemoved(final long address) {
+        store.putInt(address, VALUE_LENGTH, REMOVED);
+        final int size = store.getSize(address);
+        liveBytes -= size;
+        deadBytes += size;
+    }
+
+    private void compactIfRequired() {
+        if (deadBytes >= minCompactionBytes && deadBytes > liveBytes) {
+            compact();
+        }
+    }
+
+    private void reindex(final long address) {
+        final byte[] keyBytes = readKeyBytes(address);
+        if (REMOVED == store.getInt(address, VALUE_LENGTH)) {
+            table.remove(hash(keyBytes), matches(keyBytes));
+            deadBytes += store.getSize(address);
+        } else {
+            table.put(hash(keyBytes), address, matches(keyBytes));
+            liveBytes += store.getSize(address);
+        }
+    }
+
+    private LongPredicate matches(final byte[] keyBytes) {
+        return address -> keyBytes.length == store.getInt(address, KEY_LENGTH)
+                && store.bytesEqual(address, KEY_BYTES, keyBytes);
+    }
+
+    private byte[] readKeyBytes(final long address) {
+        return store.getBytes(address, KEY_BYTES, store.getInt(address, KEY_LENGTH));
+    }
+
+    private V readValue(final long address) {
+        return deserialise(valueSerialiser, readValueBytes(address));
+    }
+
+    private byte[] readValueBytes(final long address) {
+        final int keyLength = store.getInt(address, KEY_LENGTH);
+        return store.getBytes(address, KEY_BYTES + keyLength, store.getInt(address, VALUE_LENGTH));
+    }
+
+    // Reads bytes from a record found by an iterator, checking the record has
+    // not been moved by a compaction since the iteration began.
+    private byte[] readEntryBytes(final long address, final int expectedMoves, final boolean key) {
+        lock.readLock().lock();
+        try {
+            if (expectedMoves != moves) {
+                throw new ConcurrentModificationException("The map was compacted or cleared whilst its entries were being iterated");
+            }
+            return key ? readKeyBytes(address) : readValueBytes(address);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] serialiseKeyOrNull(final Object key) {
+        try {
+            return null == key ? null : keySerialiser.serialise((K) key);
+        } catch (final ClassCastException | SerialisationException e) {
+            return null;
+        }
+    }
+
+    private static <T> byte[] serialise(final ToBytesSerialiser<T> serialiser, final T object) {
+        try {
+            return serialiser.serialise(object);
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("Unable to serialise " + object, e);
+        }
+    }
+
+    private static <T> T deserialise(final ToBytesSerialiser<T> serialiser, final byte[] bytes) {
+        try {
+            return serialiser.deserialise(bytes);
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("Unable to deserialise bytes", e);
+        }
+    }
+
+    private static int hash(final byte[] bytes) {
+        return Arrays.hashCode(bytes);
+    }
+
+    private final class LazyEntry implements Entry<K, V> {
+        private final long address;
+        private final int expectedMoves;
+        private K key;
+        private V value;
+
+        private LazyEntry(final long address, final int expectedMoves) {
+            this.address = address;
+            this.expectedMoves = expectedMoves;
+        }
+
+        @Override
+        public K getKey() {
+            if (null == key) {
+                key = deserialise(keySerialiser, readEntryBytes(address, expectedMoves, true));
+            }
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            if (null == value) {
+                value = deserialise(valueSerialiser, readEntryBytes(address, expectedMoves, false));
+            }
+            return value;
+        }
+
+        @Override
+        public V setValue(final V newValue) {
+            final V previous = put(getKey(), newValue);
+            value = newValue;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            final Entry<?, ?> entry = (Entry<?, ?>) obj;
+            return getKey().equals(entry.getKey()) && getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+    }
+}
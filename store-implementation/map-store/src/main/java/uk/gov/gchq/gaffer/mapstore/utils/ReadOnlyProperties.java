@@ -0,0 +1,285 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import com.google.common.collect.Iterators;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.data.element.Properties;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * <code>ReadOnlyProperties</code> holds unmodifiable shallow copies of the
+ * properties held in the key of a stored element and the properties held
+ * against that key, so query results can be returned without cloning the
+ * property values.
+ * <p>
+ * The maps are copied when the properties are created, so later updates to the
+ * stored element, such as ingest aggregation, are not reflected. The property
+ * values themselves are shared with the store, so they must not be modified.
+ * </p>
+ * <p>
+ * The two sets of properties are expected to have distinct names. Any attempt
+ * to modify the properties throws an {@link UnsupportedOperationException};
+ * {@link #clone()} returns a modifiable copy.
+ * </p>
+ */
+public class ReadOnlyProperties extends Properties {
+    private static final long serialVersionUID = -6270366342427637812L;
+    private final Map<String, Object> keyProperties;
+    private final Map<String, Object> valueProperties;
+
+    /**
+     * Constructs a {@link ReadOnlyProperties} from shallow copies of the provided properties.
+     *
+     * @param keyProperties   the properties held in the element key
+     * @param valueProperties the properties held against the element key, may be null
+     */
+    public ReadOnlyProperties(final Properties keyProperties, final Properties valueProperties) {
+        this.keyProperties = Collections.unmodifiableMap(new HashMap<>(keyProperties));
+        if (null == valueProperties) {
+            this.valueProperties = Collections.emptyMap();
+        } else {
+            this.valueProperties = Collections.unmodifiableMap(new HashMap<>(valueProperties));
+        }
+    }
+
+    @Override
+    public Object get(final Object name) {
+        final Object value = valueProperties.get(name);
+        if (null != value || valueProperties.containsKey(name)) {
+            return value;
+        }
+        return keyProperties.get(name);
+    }
+
+    @Override
+    public Object getOrDefault(final Object name, final Object defaultValue) {
+        return containsKey(name) ? get(name) : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(final Object name) {
+        return valueProperties.containsKey(name) || keyProperties.containsKey(name);
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return valueProperties.containsValue(value) || keyProperties.containsValue(value);
+    }
+
+    @Override
+    public int size() {
+        return keyProperties.size() + valueProperties.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keyProperties.isEmpty() && valueProperties.isEmpty();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return Iterators.concat(keyProperties.keySet().iterator(), valueProperties.keySet().iterator());
+            }
+
+            @Override
+            public boolean contains(final Object name) {
+                return containsKey(name);
+            }
+
+            @Override
+            public int size() {
+                return ReadOnlyProperties.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                return Iterators.concat(keyProperties.values().iterator(), valueProperties.values().iterator());
+            }
+
+            @Override
+            public int size() {
+                return ReadOnlyProperties.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return Iterators.concat(keyProperties.entrySet().iterator(), valueProperties.entrySet().iterator());
+            }
+
+            @Override
+            public int size() {
+                return ReadOnlyProperties.this.size();
+            }
+        };
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super Object> action) {
+        keyProperties.forEach(action);
+        valueProperties.forEach(action);
+    }
+
+    @Override
+    public Object put(final String name, final Object value) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public void putAll(final Map<? extends String, ?> properties) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public Object putIfAbsent(final String name, final Object value) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public Object remove(final Object name) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public boolean remove(final Object name, final Object value) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public void remove(final Collection<String> propertiesToRemove) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public void keepOnly(final Collection<String> propertiesToKeep) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public Object replace(final String name, final Object value) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public boolean replace(final String name, final Object oldValue, final Object newValue) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public void replaceAll(final BiFunction<? super String, ? super Object, ?> function) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public Object computeIfAbsent(final String name, final Function<? super String, ?> mappingFunction) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public Object computeIfPresent(final String name, final BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public Object compute(final String name, final BiFunction<? super String, ? super Object, ?> remappingFunction) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @Override
+    public Object merge(final String name, final Object value, final BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+        throw new UnsupportedOperationException("Properties are read only");
+    }
+
+    @SuppressWarnings("CloneDoesntCallSuperClone")
+    @SuppressFBWarnings(value = "CN_IDIOM_NO_SUPER_CALL", justification = "Doesn't use any properties in super class")
+    @Override
+    public Properties clone() {
+        final Properties clone = new Properties(keyProperties);
+        clone.putAll(valueProperties);
+        return clone;
+    }
+
+    @SuppressWarnings(value = "EqualsWhichDoesntCheckParameterClass")
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Map)) {
+            return false;
+        }
+        final Map<?, ?> other = (Map<?, ?>) o;
+        if (other.size() != size()) {
+            return false;
+        }
+        for (final Map.Entry<String, Object> entry : entrySet()) {
+            final Object value = entry.getValue();
+            if (null == value) {
+                if (null != other.get(entry.getKey()) || !other.containsKey(entry.getKey())) {
+                    return false;
+                }
+            } else if (!value.equals(other.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (final Map.Entry<String, Object> entry : entrySet()) {
+            hashCode += entry.hashCode();
+        }
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("properties", clone())
+                .build();
+    }
+}
@@ -22,8 +22,11 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class MapStoreTest {
 
@@ -39,4 +42,37 @@ public class MapStoreTest {
                 StoreTrait.POST_TRANSFORMATION_FILTERING));
         assertEquals(expectedTraits, mapStore.getTraits());
     }
+
+    @Test
+    public void shouldUseCommonPoolForParallelScanByDefault() throws StoreException {
+        // Given
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setParallelScan(true);
+        final MapStore mapStore = new MapStore();
+
+        // When
+        mapStore.initialise("graphId", new Schema(), properties);
+
+        // Then
+        assertSame(ForkJoinPool.commonPool(), mapStore.getScanPool());
+    }
+
+    @Test
+    public void shouldShareParallelScanPoolBetweenStores() throws StoreException {
+        // Given
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setParallelScan(true);
+        properties.setParallelScanThreads(ForkJoinPool.getCommonPoolParallelism() + 1);
+        final MapStore mapStore1 = new MapStore();
+        final MapStore mapStore2 = new MapStore();
+
+        // When
+        mapStore1.initialise("graphId1", new Schema(), properties);
+        mapStore2.initialise("graphId2", new Schema(), properties);
+
+        // Then
+        assertSame(mapStore1.getScanPool(), mapStore2.getScanPool());
+        assertNotSame(ForkJoinPool.commonPool(), mapStore1.getScanPool());
+        assertEquals(ForkJoinPool.getCommonPoolParallelism() + 1, mapStore1.getScanPool().getParallelism());
+    }
 }
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import org.junit.Test;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest;
+import uk.gov.gchq.gaffer.mapstore.impl.MapImpl;
+import uk.gov.gchq.gaffer.mapstore.multimap.ConcurrentMapOfSets;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class ConcurrentMapFactoryTest {
+    private static final int NUM_THREADS = 8;
+    private static final int NUM_ADDS_PER_THREAD = 200;
+
+    @Test
+    public void shouldThrowExceptionIfConcurrencyLevelIsInvalid() throws StoreException {
+        // Given
+        final Schema schema = mock(Schema.class);
+        final MapStoreProperties properties = mock(MapStoreProperties.class);
+        final ConcurrentMapFactory factory = new ConcurrentMapFactory();
+
+        given(properties.get(ConcurrentMapFactory.CONCURRENCY_LEVEL, ConcurrentMapFactory.CONCURRENCY_LEVEL_DEFAULT)).willReturn("0");
+
+        // When / Then
+        try {
+            factory.initialise(schema, properties);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldExtractConcurrencyLevelFromPropertiesWhenInitialised() throws StoreException {
+        // Given
+        final Schema schema = mock(Schema.class);
+        final MapStoreProperties properties = mock(MapStoreProperties.class);
+        final ConcurrentMapFactory factory = new ConcurrentMapFactory();
+
+        given(properties.get(ConcurrentMapFactory.CONCURRENCY_LEVEL, ConcurrentMapFactory.CONCURRENCY_LEVEL_DEFAULT)).willReturn("4");
+
+        // When
+        factory.initialise(schema, properties);
+
+        // Then
+        assertEquals(4, factory.getConcurrencyLevel());
+        assertTrue(factory.isConcurrent());
+    }
+
+    @Test
+    public void shouldCreateNewConcurrentMaps() throws StoreException {
+        // Given
+        final ConcurrentMapFactory factory = new ConcurrentMapFactory();
+        factory.initialise(mock(Schema.class), new MapStoreProperties());
+
+        // When
+        final Map<Object, Object> map1 = factory.getMap("mapName1", Object.class, Object.class);
+        final Map<Object, Object> map2 = factory.getMap("mapName2", Object.class, Object.class);
+
+        // Then
+        assertTrue(map1 instanceof ConcurrentHashMap);
+        assertTrue(map2 instanceof ConcurrentHashMap);
+        assertNotSame(map1, map2);
+        assertSame(map1, factory.getMap("mapName1", Object.class, Object.class));
+    }
+
+    @Test
+    public void shouldCreateNewConcurrentMultiMap() throws StoreException {
+        // Given
+        final ConcurrentMapFactory factory = new ConcurrentMapFactory();
+        factory.initialise(mock(Schema.class), new MapStoreProperties());
+
+        // When
+        final ConcurrentMapOfSets<Object, Object> map1 = (ConcurrentMapOfSets) factory.getMultiMap("mapName1", Object.class, Object.class);
+        final ConcurrentMapOfSets<Object, Object> map2 = (ConcurrentMapOfSets) factory.getMultiMap("mapName2", Object.class, Object.class);
+
+        // Then
+        assertTrue(map1.getWrappedMap() instanceof ConcurrentHashMap);
+        assertTrue(map1.getWrappedMap().isEmpty());
+        assertNotSame(map1, map2);
+        assertSame(map1, factory.getMultiMap("mapName1", Object.class, Object.class));
+    }
+
+    @Test
+    public void shouldAggregateElementsAddedConcurrently() throws Exception {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setMapFactory(ConcurrentMapFactory.class);
+        final Graph graph = new Graph.Builder()
+                .graphId("concurrentGraph")
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(storeProperties)
+                .build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < NUM_THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < NUM_ADDS_PER_THREAD; j++) {
+                        graph.execute(new AddElements.Builder()
+                                .input(new Entity.Builder()
+                                        .group("BasicEntity")
+                                        .vertex("vertex" + (j % 2))
+                                        .property("property1", "p")
+                                        .property("count", 1)
+                                        .build())
+                                .build(), new User());
+                        graph.execute(new GetAllElements(), new User()).forEach(e -> {
+                        });
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), new User());
+        int total = 0;
+        int numElements = 0;
+        for (final Element element : results) {
+            total += (Integer) element.getProperty("count");
+            numElements++;
+        }
+        assertEquals(2, numElements);
+        assertEquals(NUM_THREADS * NUM_ADDS_PER_THREAD, total);
+    }
+
+    @Test
+    public void shouldGiveEachThreadItsOwnIngestSchema() throws Exception {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setMapFactory(ConcurrentMapFactory.class);
+        final MapImpl mapImpl = new MapImpl(GetAllElementsHandlerTest.getSchema(), storeProperties);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // When
+        final Schema schema = mapImpl.getIngestSchema();
+        final Schema otherThreadSchema;
+        try {
+            otherThreadSchema = executor.submit(mapImpl::getIngestSchema).get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertSame(schema, mapImpl.getIngestSchema());
+        assertNotSame(schema, otherThreadSchema);
+    }
+
+    @Test
+    public void shouldRemoveIngestSchemasWhenClosed() throws Exception {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setMapFactory(ConcurrentMapFactory.class);
+        final MapImpl mapImpl = new MapImpl(GetAllElementsHandlerTest.getSchema(), storeProperties);
+        final Schema schema = mapImpl.getIngestSchema();
+
+        // When
+        mapImpl.close();
+
+        // Then
+        assertNotSame(schema, mapImpl.getIngestSchema());
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import com.google.common.collect.Sets;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.ElementId;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest;
+import uk.gov.gchq.gaffer.mapstore.operation.SaveSnapshot;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class OffHeapMapFactoryTest {
+    @Rule
+    public final TemporaryFolder testFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldThrowExceptionIfMaxSegmentSizeIsInvalid() {
+        // Given
+        final Schema schema = mock(Schema.class);
+        final MapStoreProperties properties = mock(MapStoreProperties.class);
+        final OffHeapMapFactory factory = new OffHeapMapFactory();
+
+        given(properties.get(OffHeapMapFactory.MAX_SEGMENT_SIZE, OffHeapMapFactory.MAX_SEGMENT_SIZE_DEFAULT)).willReturn("invalid");
+
+        // When / Then
+        try {
+            factory.initialise(schema, properties);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldReturnSameResultsAsSimpleMapFactoryUsingDirectBuffers() throws OperationException {
+        shouldReturnSameResultsAsSimpleMapFactory(null);
+    }
+
+    @Test
+    public void shouldReturnSameResultsAsSimpleMapFactoryUsingMemoryMappedFiles() throws Exception {
+        shouldReturnSameResultsAsSimpleMapFactory(testFolder.newFolder().getAbsolutePath());
+    }
+
+    @Test
+    public void shouldReopenElementsFromMemoryMappedFiles() throws Exception {
+        // Given
+        final String directory = testFolder.newFolder().getAbsolutePath();
+        final Graph graph = getGraph(getOffHeapProperties(directory, false));
+        addElements(graph);
+        final Set<Object> expected = execute(graph, new GetAllElements());
+
+        // When
+        final Graph reopenedGraph = getGraph(getOffHeapProperties(directory, true));
+        final Set<Object> reopened = execute(reopenedGraph, new GetAllElements());
+
+        // Then
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, reopened);
+        assertEquals(execute(graph, new GetElements.Builder().input(new EntitySeed("A")).build()),
+                execute(reopenedGraph, new GetElements.Builder().input(new EntitySeed("A")).build()));
+    }
+
+    @Test
+    public void shouldRebuildCompactIndexWhenReopening() throws Exception {
+        // Given
+        final String directory = testFolder.newFolder().getAbsolutePath();
+        final MapStoreProperties properties = getOffHeapProperties(directory, false);
+        properties.setCompactIndex(true);
+        final Graph graph = getGraph(properties);
+        addElements(graph);
+        final GetElements getElements = new GetElements.Builder()
+                .input(new EntitySeed("A"), new EdgeSeed("A", "B2", true))
+                .build();
+        final Set<Object> expected = execute(graph, getElements);
+
+        // When
+        final MapStoreProperties reopenProperties = getOffHeapProperties(directory, true);
+        reopenProperties.setCompactIndex(true);
+        final Set<Object> reopened = execute(getGraph(reopenProperties), getElements);
+
+        // Then
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, reopened);
+    }
+
+    @Test
+    public void shouldNotLoadSnapshotIntoReopenedMaps() throws Exception {
+        // Given
+        final String directory = testFolder.newFolder().getAbsolutePath();
+        final String snapshotFile = testFolder.getRoot().toPath().resolve("snapshot.bin").toString();
+        final MapStoreProperties properties = getOffHeapProperties(directory, false);
+        properties.setSnapshotFile(snapshotFile);
+        final Graph graph = getGraph(properties);
+        addElements(graph);
+        graph.execute(new SaveSnapshot(), new User());
+        final Set<Object> expected = execute(graph, new GetAllElements());
+
+        // When
+        final MapStoreProperties reopenProperties = getOffHeapProperties(directory, true);
+        reopenProperties.setSnapshotFile(snapshotFile);
+        final Set<Object> reopened = execute(getGraph(reopenProperties), new GetAllElements());
+
+        // Then
+        assertEquals(expected, reopened);
+    }
+
+    @Test
+    public void shouldDeleteExistingFilesWhenNotReopening() throws Exception {
+        // Given
+        final String directory = testFolder.newFolder().getAbsolutePath();
+        addElements(getGraph(getOffHeapProperties(directory, false)));
+
+        // When
+        final Graph graph = getGraph(getOffHeapProperties(directory, false));
+
+        // Then
+        assertEquals(0, execute(graph, new GetAllElements()).size());
+    }
+
+    private void shouldReturnSameResultsAsSimpleMapFactory(final String directory) throws OperationException {
+        // Given
+        final Graph simpleGraph = getGraph(new MapStoreProperties());
+        final Graph offHeapGraph = getGraph(getOffHeapProperties(directory, false));
+        addElements(simpleGraph);
+        addElements(offHeapGraph);
+        addElements(offHeapGraph);
+        addElements(simpleGraph);
+        final List<ElementId> seeds = Arrays.asList(
+                new EntitySeed("A"), new EntitySeed("B3"), new EntitySeed("X"), new EntitySeed("Y1"), new EntitySeed("0"),
+                new EdgeSeed("A", "B2", true), new EdgeSeed("Y4", "X", false), new EdgeSeed("A", "B2", DirectedType.EITHER));
+
+        // When / Then
+        assertEquals(execute(simpleGraph, new GetAllElements()), execute(offHeapGraph, new GetAllElements()));
+        for (final IncludeIncomingOutgoingType inOutType : IncludeIncomingOutgoingType.values()) {
+            final GetElements getElements = new GetElements.Builder()
+                    .input(seeds)
+                    .inOutType(inOutType)
+                    .build();
+            assertEquals(execute(simpleGraph, getElements), execute(offHeapGraph, getElements));
+
+            final GetAdjacentIds getAdjacentIds = new GetAdjacentIds.Builder()
+                    .input(new EntitySeed("A"), new EntitySeed("Y2"))
+                    .inOutType(inOutType)
+                    .build();
+            assertEquals(execute(simpleGraph, getAdjacentIds), execute(offHeapGraph, getAdjacentIds));
+        }
+    }
+
+    private MapStoreProperties getOffHeapProperties(final String directory, final boolean reopen) {
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setMapFactory(OffHeapMapFactory.class);
+        properties.set(OffHeapMapFactory.MAX_SEGMENT_SIZE, String.valueOf(128 * 1024));
+        properties.set(OffHeapMapFactory.REOPEN, String.valueOf(reopen));
+        if (null != directory) {
+            properties.set(OffHeapMapFactory.DIRECTORY, directory);
+        }
+        return properties;
+    }
+
+    private Graph getGraph(final MapStoreProperties properties) {
+        return new Graph.Builder()
+                .graphId("graph")
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(properties)
+                .build();
+    }
+
+    private void addElements(final Graph graph) throws OperationException {
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+    }
+
+    private Set<Object> execute(final Graph graph, final Output<? extends Iterable<?>> operation) throws OperationException {
+        return Sets.newHashSet(graph.execute(operation, new User()));
+    }
+
+    @Test
+    public void shouldDeepCopyPropertiesWhenCloningElements() {
+        // Given
+        final Schema schema = new Schema.Builder()
+                .entity("BasicEntity", new SchemaEntityDefinition.Builder()
+                        .vertex("string")
+                        .property("property1", "string")
+                        .build())
+                .type("string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .build();
+        final OffHeapMapFactory factory = new OffHeapMapFactory();
+        factory.initialise(schema, new MapStoreProperties());
+        final String property = "p";
+        final Entity entity = new Entity.Builder()
+                .group("BasicEntity")
+                .vertex("A")
+                .property("property1", property)
+                .build();
+
+        // When
+        final Element clone = factory.cloneElement(entity, schema);
+
+        // Then
+        assertEquals(entity, clone);
+        assertNotSame(property, clone.getProperty("property1"));
+    }
+}
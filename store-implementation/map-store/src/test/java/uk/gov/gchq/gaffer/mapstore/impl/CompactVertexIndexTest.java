@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.ElementId;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactVertexIndexTest {
+
+    @Test
+    public void shouldLookupEntitiesAndEdgesByVertex() {
+        // Given
+        final CompactVertexIndex index = new CompactVertexIndex();
+        final Entity entity = new Entity("group", "A");
+        final Edge edge = new Edge("group", "A", "B", true);
+        index.add(entity);
+        index.add(edge);
+
+        // When
+        final Collection<Element> resultsA = index.lookup("A");
+        final Collection<Element> resultsB = index.lookup("B");
+
+        // Then
+        assertEquals(Sets.newHashSet(entity, edge), new HashSet<>(resultsA));
+        assertEquals(1, resultsB.size());
+        final Edge destMatchedEdge = (Edge) resultsB.iterator().next();
+        assertEquals(edge, destMatchedEdge);
+        assertEquals(EdgeId.MatchedVertex.DESTINATION, destMatchedEdge.getMatchedVertex());
+    }
+
+    @Test
+    public void shouldReturnEmptyResultsForUnknownVertex() {
+        // Given
+        final CompactVertexIndex index = new CompactVertexIndex();
+        index.add(new Entity("group", "A"));
+
+        // When / Then
+        assertTrue(index.lookup("unknown").isEmpty());
+        assertTrue(index.lookup(new EdgeSeed("unknown", "A", true)).isEmpty());
+    }
+
+    @Test
+    public void shouldLookupEdgesByEdgeId() {
+        // Given
+        final CompactVertexIndex index = new CompactVertexIndex();
+        final Edge directedEdge = new Edge("group", "A", "B", true);
+        final Edge undirectedEdge = new Edge("group", "B", "A", false);
+        index.add(directedEdge);
+        index.add(undirectedEdge);
+
+        // When / Then
+        assertEquals(Collections.singletonList(directedEdge), index.lookup(new EdgeSeed("A", "B", true)));
+        assertEquals(Collections.singletonList(undirectedEdge), index.lookup(new EdgeSeed("B", "A", false)));
+        assertTrue(index.lookup(new EdgeSeed("B", "A", true)).isEmpty());
+    }
+
+    @Test
+    public void shouldIgnoreDuplicateElementsAndSelfLoops() {
+        // Given
+        final CompactVertexIndex index = new CompactVertexIndex();
+        final Edge selfLoop = new Edge("group", "A", "A", true);
+
+        // When
+        index.add(selfLoop);
+        index.add(new Edge("group", "A", "A", true));
+
+        // Then
+        assertEquals(Collections.singletonList(selfLoop), index.lookup("A"));
+    }
+
+    @Test
+    public void shouldGrowWhenManyVerticesAndEdgesAreAdded() {
+        // Given
+        final CompactVertexIndex index = new CompactVertexIndex();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            index.add(new Edge("group", "hub", "v" + i, true));
+        }
+
+        // Then
+        assertEquals(1000, index.lookup("hub").size());
+        assertEquals(1, index.lookup("v999").size());
+    }
+
+    @Test
+    public void shouldReturnSameResultsAsDefaultIndex() throws OperationException {
+        // Given
+        final Graph defaultGraph = getGraph(false);
+        final Graph compactGraph = getGraph(true);
+        final List<ElementId> seeds = Arrays.asList(
+                new EntitySeed("A"), new EntitySeed("B3"), new EntitySeed("X"), new EntitySeed("Y1"), new EntitySeed("0"),
+                new EdgeSeed("A", "B2", true), new EdgeSeed("Y4", "X", false), new EdgeSeed("A", "B2", DirectedType.EITHER));
+
+        // When / Then
+        for (final IncludeIncomingOutgoingType inOutType : IncludeIncomingOutgoingType.values()) {
+            for (final DirectedType directedType : DirectedType.values()) {
+                final GetElements getElements = new GetElements.Builder()
+                        .input(seeds)
+                        .inOutType(inOutType)
+                        .directedType(directedType)
+                        .build();
+                assertEquals(execute(defaultGraph, getElements), execute(compactGraph, getElements));
+
+                final GetAdjacentIds getAdjacentIds = new GetAdjacentIds.Builder()
+                        .input(new EntitySeed("A"), new EntitySeed("Y2"))
+                        .inOutType(inOutType)
+                        .directedType(directedType)
+                        .build();
+                assertEquals(
+                        Streams.toStream(defaultGraph.execute(getAdjacentIds, new User())).collect(Collectors.toSet()),
+                        Streams.toStream(compactGraph.execute(getAdjacentIds, new User())).collect(Collectors.toSet()));
+            }
+        }
+    }
+
+    private Set<Element> execute(final Graph graph, final GetElements getElements) throws OperationException {
+        return Streams.toStream(graph.execute(getElements, new User())).collect(Collectors.toSet());
+    }
+
+    private Graph getGraph(final boolean compactIndex) throws OperationException {
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setCompactIndex(compactIndex);
+        final Graph graph = new Graph.Builder()
+                .graphId("graph" + compactIndex)
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(storeProperties)
+                .build();
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+        return graph;
+    }
+}
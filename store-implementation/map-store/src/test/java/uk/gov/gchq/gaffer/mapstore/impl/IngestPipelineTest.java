@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE2;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_ENTITY;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.COUNT;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY2;
+
+public class IngestPipelineTest {
+    private static final int NUM_VERTICES = 500;
+
+    @Test
+    public void shouldAddSameElementsAsSingleThreadedIngestWithAggregation() throws OperationException {
+        shouldAddSameElementsAsSingleThreadedIngest(GetAllElementsHandlerTest.getSchema(), 0);
+    }
+
+    @Test
+    public void shouldAddSameElementsAsSingleThreadedIngestWithAggregationAndBuffer() throws OperationException {
+        shouldAddSameElementsAsSingleThreadedIngest(GetAllElementsHandlerTest.getSchema(), 100);
+    }
+
+    @Test
+    public void shouldAddSameElementsAsSingleThreadedIngestWithoutAggregation() throws OperationException {
+        shouldAddSameElementsAsSingleThreadedIngest(GetAllElementsHandlerTest.getSchemaNoAggregation(), 100);
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidElement() throws OperationException {
+        // Given
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchema(), 4, 10);
+        final List<Element> elements = getElements();
+        elements.add(new Entity("UnknownGroup", "vertex"));
+
+        // When / Then
+        try {
+            addElements(graph, elements, false);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("UnknownGroup"));
+        }
+    }
+
+    @Test
+    public void shouldSkipInvalidElements() throws OperationException {
+        // Given
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchema(), 1, 10);
+        final Graph pipelineGraph = getGraph(GetAllElementsHandlerTest.getSchema(), 4, 10);
+        final List<Element> elements = getElements();
+        elements.add(new Entity("UnknownGroup", "vertex"));
+
+        // When
+        addElements(graph, getElements(), true);
+        addElements(pipelineGraph, elements, true);
+
+        // Then
+        assertEquals(execute(graph, new GetAllElements()), execute(pipelineGraph, new GetAllElements()));
+    }
+
+    @Test
+    public void shouldReuseThreadsForEachAdd() throws OperationException {
+        // Given
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchema(), 4, 10);
+        final Set<Thread> existingThreads = getIngestThreads();
+        addElements(graph, getElements(), false);
+        final Set<Thread> threads = getIngestThreads();
+        threads.removeAll(existingThreads);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            addElements(graph, getElements(), false);
+        }
+
+        // Then
+        final Set<Thread> threadsAfterAdds = getIngestThreads();
+        threadsAfterAdds.removeAll(existingThreads);
+        assertEquals(5, threads.size());
+        assertEquals(threads, threadsAfterAdds);
+    }
+
+    private Set<Thread> getIngestThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> "map-store-ingest".equals(thread.getName()))
+                .collect(Collectors.toSet());
+    }
+
+    private void shouldAddSameElementsAsSingleThreadedIngest(final Schema schema, final int bufferSize) throws OperationException {
+        // Given
+        final Graph graph = getGraph(schema, 1, bufferSize);
+        final Graph pipelineGraph = getGraph(schema, 4, bufferSize);
+
+        // When
+        addElements(graph, getElements(), false);
+        addElements(graph, getElements(), false);
+        addElements(pipelineGraph, getElements(), false);
+        addElements(pipelineGraph, getElements(), false);
+
+        // Then
+        final Multiset<Object> expected = execute(graph, new GetAllElements());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, execute(pipelineGraph, new GetAllElements()));
+        final GetElements getElements = new GetElements.Builder()
+                .input(new EntitySeed("1"), new EntitySeed("2"), new EntitySeed("X"))
+                .build();
+        assertEquals(execute(graph, getElements), execute(pipelineGraph, getElements));
+    }
+
+    private Graph getGraph(final Schema schema, final int ingestThreads, final int bufferSize) {
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setIngestThreads(ingestThreads);
+        properties.setIngestBufferSize(bufferSize);
+        return new Graph.Builder()
+                .graphId("graph")
+                .addSchema(schema)
+                .storeProperties(properties)
+                .build();
+    }
+
+    private void addElements(final Graph graph, final List<Element> elements, final boolean skipInvalid) throws OperationException {
+        graph.execute(new AddElements.Builder()
+                .input(elements)
+                .skipInvalidElements(skipInvalid)
+                .build(), new User());
+    }
+
+    private Multiset<Object> execute(final Graph graph, final Output<? extends Iterable<?>> operation) throws OperationException {
+        return HashMultiset.create(graph.execute(operation, new User()));
+    }
+
+    private List<Element> getElements() {
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < NUM_VERTICES; i++) {
+            elements.add(new Entity.Builder()
+                    .group(BASIC_ENTITY)
+                    .vertex("" + (i % 50))
+                    .property(PROPERTY1, "p")
+                    .property(COUNT, 1)
+                    .build());
+            elements.add(new Edge.Builder()
+                    .group(BASIC_EDGE1)
+                    .source("" + (i % 20))
+                    .dest("" + (i % 7))
+                    .directed(true)
+                    .property(PROPERTY1, "q")
+                    .property(COUNT, i)
+                    .build());
+            elements.add(new Edge.Builder()
+                    .group(BASIC_EDGE2)
+                    .source("X")
+                    .dest("" + (i % 10))
+                    .directed(false)
+                    .property(PROPERTY1, "r")
+                    .property(PROPERTY2, "s" + (i % 3))
+                    .property(COUNT, 3)
+                    .build());
+        }
+        return elements;
+    }
+}
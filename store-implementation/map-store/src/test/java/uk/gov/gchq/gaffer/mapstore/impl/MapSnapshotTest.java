@@ -0,0 +1,240 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.gov.gchq.gaffer.data.element.id.ElementId;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.factory.OffHeapMapFactory;
+import uk.gov.gchq.gaffer.mapstore.operation.SaveSnapshot;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MapSnapshotTest {
+    @Rule
+    public final TemporaryFolder testFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreAggregatedElementsAndRebuildIndex() throws Exception {
+        shouldRestoreElementsFromSnapshot(GetAllElementsHandlerTest.getSchema(), MapStoreProperties::new, false);
+    }
+
+    @Test
+    public void shouldRestoreAggregatedElementsAndIndex() throws Exception {
+        shouldRestoreElementsFromSnapshot(GetAllElementsHandlerTest.getSchema(), MapStoreProperties::new, true);
+    }
+
+    @Test
+    public void shouldRestoreNonAggregatedElements() throws Exception {
+        shouldRestoreElementsFromSnapshot(GetAllElementsHandlerTest.getSchemaNoAggregation(), MapStoreProperties::new, false);
+    }
+
+    @Test
+    public void shouldRestoreElementsWithCompactIndex() throws Exception {
+        shouldRestoreElementsFromSnapshot(GetAllElementsHandlerTest.getSchema(), () -> {
+            final MapStoreProperties properties = new MapStoreProperties();
+            properties.setCompactIndex(true);
+            return properties;
+        }, true);
+    }
+
+    @Test
+    public void shouldRestoreElementsUsingOffHeapMaps() throws Exception {
+        shouldRestoreElementsFromSnapshot(GetAllElementsHandlerTest.getSchema(), () -> {
+            final MapStoreProperties properties = new MapStoreProperties();
+            properties.setMapFactory(OffHeapMapFactory.class);
+            return properties;
+        }, false);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenSavingWithoutFilePath() throws Exception {
+        // Given
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchema(), new MapStoreProperties());
+
+        // When / Then
+        try {
+            graph.execute(new SaveSnapshot(), new User());
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage().contains(MapStoreProperties.SNAPSHOT_FILE));
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenSavingToFilePathWithoutSnapshotFileProperty() throws Exception {
+        // Given
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchema(), new MapStoreProperties());
+        final File file = new File(testFolder.getRoot(), "graph.snapshot");
+
+        // When / Then
+        try {
+            graph.execute(new SaveSnapshot.Builder()
+                    .filePath(file.getAbsolutePath())
+                    .build(), new User());
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage().contains(MapStoreProperties.SNAPSHOT_FILE));
+        }
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenSavingOutsideSnapshotDirectory() throws Exception {
+        // Given
+        final File snapshotDirectory = testFolder.newFolder("snapshots");
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setSnapshotFile(new File(snapshotDirectory, "graph.snapshot").getAbsolutePath());
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchema(), properties);
+        final File outsideFile = testFolder.newFile("outside.txt");
+
+        // When / Then
+        for (final String filePath : Arrays.asList(outsideFile.getAbsolutePath(), snapshotDirectory.getAbsolutePath() + "/../outside.txt")) {
+            try {
+                graph.execute(new SaveSnapshot.Builder()
+                        .filePath(filePath)
+                        .build(), new User());
+                fail("Exception expected");
+            } catch (final OperationException e) {
+                assertTrue(e.getMessage().contains(filePath));
+            }
+        }
+        assertEquals(0, outsideFile.length());
+    }
+
+    @Test
+    public void shouldSaveToFilePathWithinSnapshotDirectory() throws Exception {
+        // Given
+        final File snapshotDirectory = testFolder.newFolder("snapshots");
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setSnapshotFile(new File(snapshotDirectory, "graph.snapshot").getAbsolutePath());
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchema(), properties);
+        addElements(graph);
+        final File file = new File(snapshotDirectory, "other.snapshot");
+
+        // When
+        graph.execute(new SaveSnapshot.Builder()
+                .filePath(file.getAbsolutePath())
+                .build(), new User());
+
+        // Then
+        assertTrue(file.exists());
+    }
+
+    @Test
+    public void shouldFailToInitialiseWhenSnapshotFileIsInvalid() throws Exception {
+        // Given
+        final File file = testFolder.newFile("invalid.snapshot");
+        Files.write(file.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setSnapshotFile(file.getAbsolutePath());
+
+        // When / Then
+        try {
+            getGraph(GetAllElementsHandlerTest.getSchema(), properties);
+            fail("Exception expected");
+        } catch (final Exception e) {
+            assertFalse(e.getMessage().isEmpty());
+        }
+    }
+
+    private void shouldRestoreElementsFromSnapshot(final Schema schema, final Supplier<MapStoreProperties> properties, final boolean includeIndex) throws Exception {
+        // Given
+        final String snapshotFile = new File(testFolder.getRoot(), "graph.snapshot").getAbsolutePath();
+        final MapStoreProperties saveProperties = properties.get();
+        saveProperties.setSnapshotFile(new File(testFolder.getRoot(), "default.snapshot").getAbsolutePath());
+        final Graph graph = getGraph(schema, saveProperties);
+        addElements(graph);
+        addElements(graph);
+
+        // When
+        graph.execute(new SaveSnapshot.Builder()
+                .filePath(snapshotFile)
+                .includeIndex(includeIndex)
+                .build(), new User());
+        final MapStoreProperties restoreProperties = properties.get();
+        restoreProperties.setSnapshotFile(snapshotFile);
+        restoreProperties.setSnapshotLoadThreads(3);
+        final Graph restoredGraph = getGraph(schema, restoreProperties);
+
+        // Then
+        assertEquals(executeList(graph, new GetAllElements()).size(), executeList(restoredGraph, new GetAllElements()).size());
+        assertEquals(execute(graph, new GetAllElements()), execute(restoredGraph, new GetAllElements()));
+        final List<ElementId> seeds = Arrays.asList(
+                new EntitySeed("A"), new EntitySeed("B3"), new EntitySeed("X"), new EntitySeed("Y1"), new EntitySeed("0"),
+                new EdgeSeed("A", "B2", true), new EdgeSeed("Y4", "X", false));
+        for (final IncludeIncomingOutgoingType inOutType : IncludeIncomingOutgoingType.values()) {
+            final GetElements getElements = new GetElements.Builder()
+                    .input(seeds)
+                    .inOutType(inOutType)
+                    .build();
+            assertEquals(execute(graph, getElements), execute(restoredGraph, getElements));
+
+            final GetAdjacentIds getAdjacentIds = new GetAdjacentIds.Builder()
+                    .input(new EntitySeed("A"), new EntitySeed("Y2"))
+                    .inOutType(inOutType)
+                    .build();
+            assertEquals(execute(graph, getAdjacentIds), execute(restoredGraph, getAdjacentIds));
+        }
+    }
+
+    private Graph getGraph(final Schema schema, final MapStoreProperties properties) {
+        return new Graph.Builder()
+                .graphId("graph")
+                .addSchema(schema)
+                .storeProperties(properties)
+                .build();
+    }
+
+    private void addElements(final Graph graph) throws OperationException {
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+    }
+
+    private Set<Object> execute(final Graph graph, final Output<? extends Iterable<?>> operation) throws OperationException {
+        return new HashSet<>(executeList(graph, operation));
+    }
+
+    private List<Object> executeList(final Graph graph, final Output<? extends Iterable<?>> operation) throws OperationException {
+        return Lists.newArrayList(graph.execute(operation, new User()));
+    }
+}
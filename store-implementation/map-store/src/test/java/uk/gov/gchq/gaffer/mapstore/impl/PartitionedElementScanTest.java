@@ -0,0 +1,225 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.mapstore.MapStore;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.impl.function.Concat;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE2;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_ENTITY;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.COUNT;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY2;
+
+public class PartitionedElementScanTest {
+    private static final int NUM_VERTICES = 1000;
+
+    @Test
+    public void shouldReturnSameElementsAsSequentialScanWithAggregation() throws OperationException {
+        shouldReturnSameElementsAsSequentialScan(GetAllElementsHandlerTest.getSchema());
+    }
+
+    @Test
+    public void shouldReturnSameElementsAsSequentialScanWithoutAggregation() throws OperationException {
+        shouldReturnSameElementsAsSequentialScan(GetAllElementsHandlerTest.getSchemaNoAggregation());
+    }
+
+    private void shouldReturnSameElementsAsSequentialScan(final Schema schema) throws OperationException {
+        // Given
+        final Graph sequentialGraph = getGraph(schema, false);
+        final Graph parallelGraph = getGraph(schema, true);
+        addElements(sequentialGraph);
+        addElements(sequentialGraph);
+        addElements(parallelGraph);
+        addElements(parallelGraph);
+
+        final List<GetAllElements> operations = new ArrayList<>();
+        operations.add(new GetAllElements());
+        for (final DirectedType directedType : DirectedType.values()) {
+            operations.add(new GetAllElements.Builder()
+                    .directedType(directedType)
+                    .build());
+        }
+        operations.add(new GetAllElements.Builder()
+                .view(new View.Builder()
+                        .entity(BASIC_ENTITY)
+                        .edge(BASIC_EDGE1, new ViewElementDefinition.Builder()
+                                .preAggregationFilter(new ElementFilter.Builder()
+                                        .select(COUNT)
+                                        .execute(new IsMoreThan(500))
+                                        .build())
+                                .build())
+                        .edge(BASIC_EDGE2, new ViewElementDefinition.Builder()
+                                .transformer(new ElementTransformer.Builder()
+                                        .select(PROPERTY1, PROPERTY2)
+                                        .execute(new Concat())
+                                        .project(PROPERTY1)
+                                        .build())
+                                .postTransformFilter(new ElementFilter.Builder()
+                                        .select(COUNT)
+                                        .execute(new IsMoreThan(10))
+                                        .build())
+                                .build())
+                        .build())
+                .build());
+
+        for (final GetAllElements operation : operations) {
+            // When
+            final Multiset<Element> expected = execute(sequentialGraph, operation);
+            final Multiset<Element> results = execute(parallelGraph, operation);
+
+            // Then
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, results);
+        }
+    }
+
+    @Test
+    public void shouldStopReturningElementsWhenClosed() throws OperationException, StoreException {
+        // Given
+        final MapStore store = new MapStore();
+        store.initialise("graph", GetAllElementsHandlerTest.getSchema(), new MapStoreProperties());
+        store.execute(new OperationChain<>(new AddElements.Builder()
+                .input(getElements())
+                .build()), new User());
+        final ForkJoinPool pool = new ForkJoinPool(1);
+
+        try {
+            final CloseableIterator<Element> elements = PartitionedElementScan.scan(store.getMapImpl(),
+                    store.getSchema(), new View.Builder().entity(BASIC_ENTITY).edge(BASIC_EDGE1).edge(BASIC_EDGE2).build(),
+                    DirectedType.EITHER, pool);
+            assertTrue(elements.hasNext());
+            elements.next();
+
+            // When
+            elements.close();
+
+            // Then
+            assertFalse(elements.hasNext());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldReturnAllElementsFromMorePartitionsThanRunAtOnce() throws OperationException, StoreException {
+        // Given
+        final MapStore store = new MapStore();
+        store.initialise("graph", GetAllElementsHandlerTest.getSchema(), new MapStoreProperties());
+        store.execute(new OperationChain<>(new AddElements.Builder()
+                .input(getElements())
+                .build()), new User());
+        final ForkJoinPool pool = new ForkJoinPool(1);
+
+        try {
+            // When
+            int count = 0;
+            try (final CloseableIterator<Element> elements = PartitionedElementScan.scan(store.getMapImpl(),
+                    store.getSchema(), new View.Builder().entity(BASIC_ENTITY).edge(BASIC_EDGE1).edge(BASIC_EDGE2).build(),
+                    DirectedType.EITHER, pool)) {
+                while (elements.hasNext()) {
+                    elements.next();
+                    count++;
+                }
+            }
+
+            // Then
+            assertEquals(3 * NUM_VERTICES, count);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Graph getGraph(final Schema schema, final boolean parallelScan) {
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setParallelScan(parallelScan);
+        properties.setParallelScanThreads(4);
+        return new Graph.Builder()
+                .graphId("graph")
+                .addSchema(schema)
+                .storeProperties(properties)
+                .build();
+    }
+
+    private void addElements(final Graph graph) throws OperationException {
+        graph.execute(new AddElements.Builder()
+                .input(getElements())
+                .build(), new User());
+    }
+
+    private List<Element> getElements() {
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < NUM_VERTICES; i++) {
+            elements.add(new Entity.Builder()
+                    .group(BASIC_ENTITY)
+                    .vertex("" + i)
+                    .property(PROPERTY1, "p")
+                    .property(COUNT, i)
+                    .build());
+            elements.add(new Edge.Builder()
+                    .group(BASIC_EDGE1)
+                    .source("" + i)
+                    .dest("" + (i + 1))
+                    .directed(true)
+                    .property(PROPERTY1, "q")
+                    .property(COUNT, i)
+                    .build());
+            elements.add(new Edge.Builder()
+                    .group(BASIC_EDGE2)
+                    .source("" + i)
+                    .dest("" + (i % 10))
+                    .directed(false)
+                    .property(PROPERTY1, "r")
+                    .property(PROPERTY2, "s" + (i % 3))
+                    .property(COUNT, i % 20)
+                    .build());
+        }
+        return elements;
+    }
+
+    private Multiset<Element> execute(final Graph graph, final GetAllElements operation) throws OperationException {
+        return HashMultiset.create(graph.execute(operation, new User()));
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsIn;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE2;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_ENTITY;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.COUNT;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY2;
+
+public class PropertyIndexTest {
+    private static final int NUM_LOOPS = 100;
+
+    @Test
+    public void shouldLookUpCandidatesInSortedIndex() {
+        // Given
+        final PropertyIndex index = new PropertyIndex(BASIC_ENTITY, COUNT, PropertyIndex.Type.SORTED);
+        final List<Element> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final Element key = new Entity.Builder()
+                    .group(BASIC_ENTITY)
+                    .vertex("" + i)
+                    .property(COUNT, i)
+                    .build();
+            keys.add(key);
+            index.add(key);
+        }
+
+        // When / Then
+        assertEquals(Sets.newHashSet(keys.subList(7, 10)), index.lookup(new IsMoreThan(6)));
+        assertEquals(Sets.newHashSet(keys.subList(6, 10)), index.lookup(new IsMoreThan(6, true)));
+        assertEquals(Sets.newHashSet(keys.subList(0, 2)), index.lookup(new IsLessThan(2)));
+        assertEquals(Sets.newHashSet(keys.get(3)), index.lookup(new IsEqual(3)));
+        assertEquals(Sets.newHashSet(keys.get(3), keys.get(5)), index.lookup(new IsIn(3, 5, 20)));
+        assertTrue(index.lookup(new IsEqual(20)).isEmpty());
+        assertNull(index.lookup(new IsMoreThan(6L)));
+        assertNull(index.lookup(new IsEqual(null)));
+    }
+
+    @Test
+    public void shouldNotUseHashIndexForRangePredicates() {
+        // Given
+        final PropertyIndex index = new PropertyIndex(BASIC_ENTITY, COUNT, PropertyIndex.Type.HASH);
+        final Element key = new Entity.Builder()
+                .group(BASIC_ENTITY)
+                .vertex("vertex")
+                .property(COUNT, 1)
+                .build();
+        index.add(key);
+
+        // When / Then
+        assertEquals(Sets.newHashSet(key), index.lookup(new IsEqual(1)));
+        assertNull(index.lookup(new IsMoreThan(0)));
+        assertNull(index.lookup(new IsLessThan(2)));
+    }
+
+    @Test
+    public void shouldReturnSameResultsUsingIndexesWithAggregation() throws OperationException {
+        shouldReturnSameResultsUsingIndexes(GetAllElementsHandlerTest.getSchema(),
+                "BasicEdge:property1:sorted,BasicEdge2:property2:hash");
+    }
+
+    @Test
+    public void shouldReturnSameResultsUsingIndexesWithoutAggregation() throws OperationException {
+        shouldReturnSameResultsUsingIndexes(GetAllElementsHandlerTest.getSchemaNoAggregation(),
+                "BasicEdge:property1:sorted,BasicEdge:count:sorted,BasicEdge2:property2:hash");
+    }
+
+    @Test
+    public void shouldOnlyReturnIndexedCandidates() {
+        // Given
+        final View view = new View.Builder()
+                .edge(BASIC_EDGE1, new ViewElementDefinition.Builder()
+                        .preAggregationFilter(new ElementFilter.Builder()
+                                .select(PROPERTY1)
+                                .execute(new IsEqual("p3"))
+                                .build())
+                        .build())
+                .build();
+        final MapImpl mapImpl = new MapImpl(GetAllElementsHandlerTest.getSchema(), getProperties("BasicEdge:property1:sorted", false));
+        for (final Element element : getElements()) {
+            mapImpl.addAggElement(AddElementsHandler.getElementWithGroupByProperties(element, mapImpl),
+                    AddElementsHandler.getNonGroupByProperties(element, mapImpl));
+        }
+
+        // When
+        final int candidates = mapImpl.getAggEntries(BASIC_EDGE1, view).size();
+
+        // Then
+        assertEquals(NUM_LOOPS / 10, candidates);
+        assertEquals(NUM_LOOPS, mapImpl.getAggEntries(BASIC_EDGE1, new View.Builder().edge(BASIC_EDGE1).build()).size());
+    }
+
+    @Test
+    public void shouldThrowExceptionForIndexOnAggregatedProperty() {
+        // When / Then
+        try {
+            getGraph(GetAllElementsHandlerTest.getSchema(), "BasicEdge:count:sorted", false);
+            fail("Exception expected");
+        } catch (final Exception e) {
+            assertTrue(getMessages(e).contains("group-by"));
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidIndexDefinition() {
+        // When / Then
+        try {
+            getGraph(GetAllElementsHandlerTest.getSchema(), "BasicEdge:property1:tree", false);
+            fail("Exception expected");
+        } catch (final Exception e) {
+            assertTrue(getMessages(e).contains("tree"));
+        }
+    }
+
+    private void shouldReturnSameResultsUsingIndexes(final Schema schema, final String indexes) throws OperationException {
+        // Given
+        final Graph graph = getGraph(schema, null, false);
+        final Graph indexedGraph = getGraph(schema, indexes, false);
+        final Graph parallelIndexedGraph = getGraph(schema, indexes, true);
+        addElements(graph);
+        addElements(indexedGraph);
+        addElements(parallelIndexedGraph);
+
+        final List<ElementFilter> filters = Arrays.asList(
+                new ElementFilter.Builder()
+                        .select(PROPERTY1)
+                        .execute(new IsMoreThan("p5"))
+                        .build(),
+                new ElementFilter.Builder()
+                        .select(PROPERTY1)
+                        .execute(new IsLessThan("p3", true))
+                        .build(),
+                new ElementFilter.Builder()
+                        .select(PROPERTY1)
+                        .execute(new IsIn("p1", "p8", "unknown"))
+                        .build(),
+                new ElementFilter.Builder()
+                        .select(PROPERTY1)
+                        .execute(new IsMoreThan("p2"))
+                        .select(PROPERTY1)
+                        .execute(new IsLessThan("p7"))
+                        .select(COUNT)
+                        .execute(new IsMoreThan(20))
+                        .build(),
+                new ElementFilter.Builder()
+                        .select(PROPERTY2)
+                        .execute(new IsEqual("s1"))
+                        .build(),
+                new ElementFilter.Builder()
+                        .select(PROPERTY2)
+                        .execute(new IsMoreThan("s0"))
+                        .build()
+        );
+
+        for (final ElementFilter filter : filters) {
+            final String[] properties = filter.getComponents().get(0).getSelection();
+            final String group = PROPERTY2.equals(properties[0]) ? BASIC_EDGE2 : BASIC_EDGE1;
+            final GetAllElements getAllElements = new GetAllElements.Builder()
+                    .view(new View.Builder()
+                            .entity(BASIC_ENTITY)
+                            .edge(group, new ViewElementDefinition.Builder()
+                                    .preAggregationFilter(filter)
+                                    .build())
+                            .build())
+                    .build();
+
+            // When
+            final Multiset<Element> expected = execute(graph, getAllElements);
+            final Multiset<Element> results = execute(indexedGraph, getAllElements);
+            final Multiset<Element> parallelResults = execute(parallelIndexedGraph, getAllElements);
+
+            // Then
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, results);
+            assertEquals(expected, parallelResults);
+        }
+    }
+
+    private Graph getGraph(final Schema schema, final String indexes, final boolean parallelScan) {
+        return new Graph.Builder()
+                .graphId("graph")
+                .addSchema(schema)
+                .storeProperties(getProperties(indexes, parallelScan))
+                .build();
+    }
+
+    private MapStoreProperties getProperties(final String indexes, final boolean parallelScan) {
+        final MapStoreProperties properties = new MapStoreProperties();
+        if (null != indexes) {
+            properties.setPropertyIndexes(indexes);
+        }
+        properties.setParallelScan(parallelScan);
+        return properties;
+    }
+
+    private void addElements(final Graph graph) throws OperationException {
+        graph.execute(new AddElements.Builder()
+                .input(getElements())
+                .build(), new User());
+    }
+
+    private Multiset<Element> execute(final Graph graph, final GetAllElements operation) throws OperationException {
+        return HashMultiset.create(graph.execute(operation, new User()));
+    }
+
+    private String getMessages(final Throwable e) {
+        final StringBuilder messages = new StringBuilder();
+        for (Throwable cause = e; null != cause; cause = cause.getCause()) {
+            messages.append(cause.getMessage());
+        }
+        return messages.toString();
+    }
+
+    private List<Element> getElements() {
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < NUM_LOOPS; i++) {
+            elements.add(new Entity.Builder()
+                    .group(BASIC_ENTITY)
+                    .vertex("" + i)
+                    .property(PROPERTY1, "p" + (i % 10))
+                    .property(COUNT, i)
+                    .build());
+            elements.add(new Edge.Builder()
+                    .group(BASIC_EDGE1)
+                    .source("" + i)
+                    .dest("" + (i + 1))
+                    .directed(true)
+                    .property(PROPERTY1, "p" + (i % 10))
+                    .property(COUNT, i)
+                    .build());
+            elements.add(new Edge.Builder()
+                    .group(BASIC_EDGE2)
+                    .source("X")
+                    .dest("" + i)
+                    .directed(false)
+                    .property(PROPERTY1, "r")
+                    .property(PROPERTY2, "s" + (i % 3))
+                    .property(COUNT, i)
+                    .build());
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.utils.ReadOnlyProperties;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.impl.function.Concat;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_EDGE2;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.BASIC_ENTITY;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.COUNT;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY1;
+import static uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest.PROPERTY2;
+
+public class ReadOnlyElementsTest {
+    private static final View FILTER_VIEW = new View.Builder()
+            .entity(BASIC_ENTITY)
+            .edge(BASIC_EDGE1, new ViewElementDefinition.Builder()
+                    .preAggregationFilter(new ElementFilter.Builder()
+                            .select(COUNT)
+                            .execute(new IsMoreThan(5))
+                            .build())
+                    .build())
+            .edge(BASIC_EDGE2)
+            .build();
+
+    private static final View TRANSFORM_VIEW = new View.Builder()
+            .entity(BASIC_ENTITY)
+            .edge(BASIC_EDGE1)
+            .edge(BASIC_EDGE2, new ViewElementDefinition.Builder()
+                    .transformer(new ElementTransformer.Builder()
+                            .select(PROPERTY1, PROPERTY2)
+                            .execute(new Concat())
+                            .project(PROPERTY1)
+                            .build())
+                    .build())
+            .build();
+
+    @Test
+    public void shouldReturnSameResultsWithAggregation() throws OperationException {
+        shouldReturnSameResults(GetAllElementsHandlerTest.getSchema(), false);
+    }
+
+    @Test
+    public void shouldReturnSameResultsWithoutAggregation() throws OperationException {
+        shouldReturnSameResults(GetAllElementsHandlerTest.getSchemaNoAggregation(), false);
+    }
+
+    @Test
+    public void shouldReturnSameResultsUsingParallelScan() throws OperationException {
+        shouldReturnSameResults(GetAllElementsHandlerTest.getSchema(), true);
+    }
+
+    @Test
+    public void shouldReturnReadOnlyElementsWhenNoTransformIsRequired() throws OperationException {
+        // Given
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchema(), true, false);
+        addElements(graph);
+
+        // When
+        final List<Element> results = execute(graph, new GetAllElements.Builder()
+                .view(FILTER_VIEW)
+                .build());
+
+        // Then
+        assertFalse(results.isEmpty());
+        for (final Element element : results) {
+            assertTrue(element.getProperties() instanceof ReadOnlyProperties);
+        }
+    }
+
+    @Test
+    public void shouldNotModifyStoredElementsWhenTransforming() throws OperationException {
+        // Given
+        final Graph graph = getGraph(GetAllElementsHandlerTest.getSchemaNoAggregation(), true, false);
+        addElements(graph);
+        final Multiset<Element> expected = HashMultiset.create(execute(graph, new GetAllElements()));
+
+        // When
+        final List<Element> transformed = execute(graph, new GetAllElements.Builder()
+                .view(TRANSFORM_VIEW)
+                .build());
+
+        // Then
+        for (final Element element : transformed) {
+            if (BASIC_EDGE2.equals(element.getGroup())) {
+                assertFalse(element.getProperties() instanceof ReadOnlyProperties);
+                assertEquals("r,s", element.getProperty(PROPERTY1));
+            }
+        }
+        assertEquals(expected, HashMultiset.create(execute(graph, new GetAllElements())));
+    }
+
+    private void shouldReturnSameResults(final Schema schema, final boolean parallelScan) throws OperationException {
+        // Given
+        final Graph graph = getGraph(schema, false, parallelScan);
+        final Graph readOnlyGraph = getGraph(schema, true, parallelScan);
+        addElements(graph);
+        addElements(readOnlyGraph);
+
+        final List<Output<? extends Iterable<?>>> operations = Arrays.asList(
+                new GetAllElements(),
+                new GetAllElements.Builder()
+                        .view(FILTER_VIEW)
+                        .build(),
+                new GetAllElements.Builder()
+                        .view(TRANSFORM_VIEW)
+                        .build(),
+                new GetElements.Builder()
+                        .input(new EntitySeed("A"), new EntitySeed("0"), new EdgeSeed("X", "Y1", false))
+                        .view(FILTER_VIEW)
+                        .build(),
+                new GetAdjacentIds.Builder()
+                        .input(new EntitySeed("A"), new EntitySeed("X"))
+                        .view(FILTER_VIEW)
+                        .build(),
+                new GetElements.Builder()
+                        .input(new EntitySeed("X"), new EntitySeed("1"))
+                        .view(TRANSFORM_VIEW)
+                        .build()
+        );
+
+        for (final Output<? extends Iterable<?>> operation : operations) {
+            // When
+            final Multiset<Object> expected = HashMultiset.create(graph.execute(operation, new User()));
+            final Multiset<Object> results = HashMultiset.create(readOnlyGraph.execute(operation, new User()));
+
+            // Then
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, results);
+        }
+    }
+
+    private Graph getGraph(final Schema schema, final boolean readOnlyElements, final boolean parallelScan) {
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setReadOnlyElements(readOnlyElements);
+        properties.setParallelScan(parallelScan);
+        return new Graph.Builder()
+                .graphId("graph")
+                .addSchema(schema)
+                .storeProperties(properties)
+                .build();
+    }
+
+    private void addElements(final Graph graph) throws OperationException {
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+    }
+
+    private List<Element> execute(final Graph graph, final GetAllElements operation) throws OperationException {
+        final List<Element> results = new ArrayList<>();
+        graph.execute(operation, new User()).forEach(results::add);
+        return results;
+    }
+}
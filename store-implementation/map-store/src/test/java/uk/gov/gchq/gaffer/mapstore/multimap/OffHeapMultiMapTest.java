@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.multimap;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.mapstore.utils.OffHeapByteStore;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapMultiMapTest {
+    @Test
+    public void shouldPutValuesAndIgnoreDuplicates() {
+        // Given
+        final OffHeapMultiMap<String, String> multiMap = createMultiMap();
+
+        // When
+        final boolean firstPut = multiMap.put("key1", "value1");
+        final boolean duplicatePut = multiMap.put("key1", "value1");
+        multiMap.put("key1", Arrays.asList("value2", "value3"));
+        multiMap.put("key2", "value1");
+
+        // Then
+        assertTrue(firstPut);
+        assertFalse(duplicatePut);
+        assertEquals(Sets.newHashSet("value1", "value2", "value3"), new HashSet<>(multiMap.get("key1")));
+        assertEquals(3, multiMap.get("key1").size());
+        assertEquals(Sets.newHashSet("value1"), new HashSet<>(multiMap.get("key2")));
+        assertEquals(Sets.newHashSet("key1", "key2"), multiMap.keySet());
+        assertNull(multiMap.get("unknown"));
+    }
+
+    @Test
+    public void shouldClearMultiMap() {
+        // Given
+        final OffHeapMultiMap<String, String> multiMap = createMultiMap();
+        multiMap.put("key1", "value1");
+
+        // When
+        multiMap.clear();
+        multiMap.put("key2", "value2");
+
+        // Then
+        assertNull(multiMap.get("key1"));
+        assertEquals(Sets.newHashSet("key2"), multiMap.keySet());
+    }
+
+    @Test
+    public void shouldPassEveryPairToForEach() {
+        // Given
+        final OffHeapMultiMap<String, String> multiMap = createMultiMap();
+        multiMap.put("key1", Arrays.asList("value1", "value2"));
+        multiMap.put("key2", "value1");
+
+        // When
+        final Set<String> pairs = new HashSet<>();
+        multiMap.forEach((key, value) -> pairs.add(key + "=" + value));
+
+        // Then
+        assertEquals(Sets.newHashSet("key1=value1", "key1=value2", "key2=value1"), pairs);
+    }
+
+    private OffHeapMultiMap<String, String> createMultiMap() {
+        return new OffHeapMultiMap<>(new OffHeapByteStore(1024), new StringSerialiser(), new StringSerialiser());
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OffHeapMapTest {
+    @Rule
+    public final TemporaryFolder testFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldPutGetAndRemoveValues() {
+        // Given
+        final Map<String, Long> map = createMap(new OffHeapByteStore(1024));
+
+        // When
+        map.put("a", 1L);
+        map.put("b", 2L);
+        map.put("a", Long.MAX_VALUE);
+        final Long removed = map.remove("b");
+
+        // Then
+        assertEquals(1, map.size());
+        assertEquals(Long.MAX_VALUE, (long) map.get("a"));
+        assertEquals(2L, (long) removed);
+        assertNull(map.get("b"));
+        assertFalse(map.containsKey("b"));
+        assertNull(map.get(1));
+    }
+
+    @Test
+    public void shouldMergeValues() {
+        // Given
+        final Map<String, Long> map = createMap(new OffHeapByteStore(1024));
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            map.merge("key" + (i % 10), 1L, (a, b) -> a + b);
+        }
+
+        // Then
+        final Map<String, Long> expected = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            expected.put("key" + i, 10L);
+        }
+        assertEquals(expected, new HashMap<>(map));
+    }
+
+    @Test
+    public void shouldAllocateNewSegmentsWhenFull() {
+        // Given
+        final Map<String, Long> map = createMap(new OffHeapByteStore(64));
+
+        // When
+        for (long i = 0; i < 1000; i++) {
+            map.put("key" + i, i);
+        }
+
+        // Then
+        assertEquals(1000, map.size());
+        for (long i = 0; i < 1000; i++) {
+            assertEquals(i, (long) map.get("key" + i));
+        }
+    }
+
+    @Test
+    public void shouldRebuildMapWhenFilesAreReopened() throws Exception {
+        // Given
+        final Path directory = testFolder.newFolder().toPath();
+        final Map<String, Long> map = createMap(new OffHeapByteStore(directory, "map", 1024, false));
+        map.put("a", 1L);
+        map.put("b", 2L);
+        map.put("c", 3L);
+        map.put("a", Long.MAX_VALUE);
+        map.remove("b");
+
+        // When
+        final Map<String, Long> reopened = createMap(new OffHeapByteStore(directory, "map", 1024, true));
+        reopened.put("d", 4L);
+
+        // Then
+        final Map<String, Long> expected = new HashMap<>();
+        expected.put("a", Long.MAX_VALUE);
+        expected.put("c", 3L);
+        expected.put("d", 4L);
+        assertEquals(expected, new HashMap<>(reopened));
+    }
+
+    @Test
+    public void shouldCompactStoreWhenDeadRecordsExceedLiveRecords() {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new OffHeapByteStore(1024), new StringSerialiser(), new CompactRawLongSerialiser(), 1024);
+
+        // When
+        for (long i = 0; i < 10000; i++) {
+            map.put("key" + i, i);
+            map.remove("key" + i);
+            map.put("live" + (i % 10), i);
+        }
+
+        // Then
+        assertTrue(map.getDeadBytes() < 2048);
+        assertEquals(10, map.size());
+        for (long i = 0; i < 10; i++) {
+            assertEquals(9990 + i, (long) map.get("live" + i));
+        }
+        assertNull(map.get("key0"));
+    }
+
+    @Test
+    public void shouldPassOnlyLiveEntriesToForEach() {
+        // Given
+        final Map<String, Long> map = createMap(new OffHeapByteStore(1024));
+        map.put("a", 1L);
+        map.put("b", 2L);
+        map.put("a", Long.MAX_VALUE);
+        map.remove("b");
+        map.put("c", 3L);
+
+        // When
+        final Map<String, Long> entries = new HashMap<>();
+        map.forEach(entries::put);
+
+        // Then
+        final Map<String, Long> expected = new HashMap<>();
+        expected.put("a", Long.MAX_VALUE);
+        expected.put("c", 3L);
+        assertEquals(expected, entries);
+    }
+
+    @Test
+    public void shouldFailIterationWhenMapIsCompacted() {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new OffHeapByteStore(1024), new StringSerialiser(), new CompactRawLongSerialiser());
+        map.put("a", 1L);
+        map.put("b", 2L);
+        final Iterator<Map.Entry<String, Long>> iterator = map.entrySet().iterator();
+        final Map.Entry<String, Long> entry = iterator.next();
+
+        // When
+        map.compact();
+
+        // Then
+        try {
+            entry.getKey();
+            fail("Exception expected");
+        } catch (final ConcurrentModificationException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldReadValuesWhilstTheyAreBeingWritten() throws Exception {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new OffHeapByteStore(1024), new StringSerialiser(), new CompactRawLongSerialiser(), 1024);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // When
+        final Future<?> writer;
+        try {
+            writer = executor.submit(() -> {
+                for (long i = 0; i < 10000; i++) {
+                    map.merge("key" + (i % 10), 1L, (a, b) -> a + b);
+                    map.put("temp", i);
+                    map.remove("temp");
+                }
+            });
+            while (!writer.isDone()) {
+                for (int i = 0; i < 10; i++) {
+                    final Long value = map.get("key" + i);
+                    assertTrue(null == value || (value > 0 && value <= 1000));
+                }
+            }
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        for (int i = 0; i < 10; i++) {
+            assertEquals(1000L, (long) map.get("key" + i));
+        }
+    }
+
+    @Test
+    public void shouldReopenCompactedFiles() throws Exception {
+        // Given
+        final Path directory = testFolder.newFolder().toPath();
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new OffHeapByteStore(directory, "map", 64, false), new StringSerialiser(), new CompactRawLongSerialiser());
+        for (long i = 0; i < 100; i++) {
+            map.put("key" + i, i);
+        }
+        for (long i = 0; i < 90; i++) {
+            map.remove("key" + i);
+        }
+        map.put("key99", Long.MAX_VALUE);
+
+        // When
+        map.compact();
+        map.put("a", 1L);
+        final Map<String, Long> reopened = createMap(new OffHeapByteStore(directory, "map", 64, true));
+
+        // Then
+        assertEquals(0, map.getDeadBytes());
+        final Map<String, Long> expected = new HashMap<>();
+        for (long i = 90; i < 99; i++) {
+            expected.put("key" + i, i);
+        }
+        expected.put("key99", Long.MAX_VALUE);
+        expected.put("a", 1L);
+        assertEquals(expected, new HashMap<>(map));
+        assertEquals(expected, new HashMap<>(reopened));
+    }
+
+    @Test
+    public void shouldClearMap() {
+        // Given
+        final Map<String, Long> map = createMap(new OffHeapByteStore(1024));
+        map.put("a", 1L);
+
+        // When
+        map.clear();
+        map.put("b", 2L);
+
+        // Then
+        assertTrue(map.containsKey("b"));
+        assertFalse(map.containsKey("a"));
+        assertEquals(1, map.size());
+    }
+
+    private Map<String, Long> createMap(final OffHeapByteStore store) {
+        return new OffHeapMap<>(store, new StringSerialiser(), new CompactRawLongSerialiser());
+    }
+}
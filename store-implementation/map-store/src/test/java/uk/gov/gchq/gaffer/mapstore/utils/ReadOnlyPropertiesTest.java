@@ -0,0 +1,131 @@
+/*
+ * Copyright 2017 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadOnlyPropertiesTest {
+    @Test
+    public void shouldReadKeyAndValueProperties() {
+        // Given
+        final Properties expected = new Properties();
+        expected.put("key", 1);
+        expected.put("value", "a");
+
+        // When
+        final ReadOnlyProperties properties = createProperties();
+
+        // Then
+        assertEquals(1, properties.get("key"));
+        assertEquals("a", properties.get("value"));
+        assertNull(properties.get("unknown"));
+        assertTrue(properties.containsKey("key"));
+        assertFalse(properties.containsKey("unknown"));
+        assertEquals(2, properties.size());
+        assertEquals(Sets.newHashSet("key", "value"), properties.keySet());
+        assertEquals(expected, properties);
+        assertEquals(properties, expected);
+        assertEquals(expected.hashCode(), properties.hashCode());
+    }
+
+    @Test
+    public void shouldNotAllowPropertiesToBeModified() {
+        // Given
+        final ReadOnlyProperties properties = createProperties();
+
+        // When / Then
+        try {
+            properties.put("key", 2);
+            fail("Exception expected");
+        } catch (final UnsupportedOperationException e) {
+            assertEquals(1, properties.get("key"));
+        }
+        try {
+            properties.remove("value");
+            fail("Exception expected");
+        } catch (final UnsupportedOperationException e) {
+            assertEquals("a", properties.get("value"));
+        }
+    }
+
+    @Test
+    public void shouldNotReflectLaterChangesToStoredProperties() {
+        // Given
+        final Properties keyProperties = new Properties("key", 1);
+        final GroupedProperties valueProperties = new GroupedProperties("group");
+        valueProperties.put("value", "a");
+        final ReadOnlyProperties properties = new ReadOnlyProperties(keyProperties, valueProperties);
+
+        // When
+        keyProperties.put("key", 2);
+        valueProperties.put("value", "b");
+        valueProperties.put("other", "c");
+
+        // Then
+        assertEquals(1, properties.get("key"));
+        assertEquals("a", properties.get("value"));
+        assertFalse(properties.containsKey("other"));
+        assertEquals(2, properties.size());
+    }
+
+    @Test
+    public void shouldCloneToModifiableProperties() {
+        // Given
+        final ReadOnlyProperties properties = createProperties();
+
+        // When
+        final Properties clone = properties.clone();
+        clone.put("key", 2);
+
+        // Then
+        assertEquals(Properties.class, clone.getClass());
+        assertEquals(2, clone.get("key"));
+        assertEquals(1, properties.get("key"));
+    }
+
+    @Test
+    public void shouldSerialiseElementToJson() throws Exception {
+        // Given
+        final JSONSerialiser serialiser = new JSONSerialiser();
+        final Entity expected = new Entity("group", "vertex", createProperties().clone());
+        final Entity entity = new Entity("group", "vertex", createProperties());
+
+        // When
+        final byte[] json = serialiser.serialise(entity);
+
+        // Then
+        assertFalse(new String(json, "UTF-8").contains(ReadOnlyProperties.class.getSimpleName()));
+        assertEquals(expected, serialiser.deserialise(json, Entity.class));
+    }
+
+    private ReadOnlyProperties createProperties() {
+        final Properties keyProperties = new Properties("key", 1);
+        final GroupedProperties valueProperties = new GroupedProperties("group");
+        valueProperties.put("value", "a");
+        return new ReadOnlyProperties(keyProperties, valueProperties);
+    }
+}